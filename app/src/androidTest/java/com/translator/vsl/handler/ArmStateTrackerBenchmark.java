@@ -0,0 +1,99 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+/**
+ * Throughput and allocations of {@link ArmStateTracker}, frame by frame and batched,
+ * on a synthetic sequence of arms sweeping up and down.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArmStateTrackerBenchmark {
+    private static final String TAG = "ArmStateTrackerBenchmark";
+    private static final int N = PoseFrame.NUM_LANDMARKS;
+    private static final int FRAMES = 100_000;
+    private static final int WARM_UP = 3;
+    private static final int RUNS = 10;
+
+    private final float[] x = new float[FRAMES * N];
+    private final float[] y = new float[FRAMES * N];
+    private final float[] visibility = new float[FRAMES * N];
+
+    private void buildSequence() {
+        for (int f = 0; f < FRAMES; f++) {
+            int offset = f * N;
+            float leftAngle = 100f + 70f * (float) Math.sin(f / 20.0);
+            float rightAngle = 100f + 70f * (float) Math.cos(f / 13.0);
+            placeArm(offset, 11, 13, 15, 0.4f, leftAngle);
+            placeArm(offset, 12, 14, 16, 0.6f, rightAngle);
+        }
+    }
+
+    private void placeArm(int offset, int shoulder, int elbow, int wrist, float armX, float angle) {
+        double radians = Math.toRadians(angle);
+        x[offset + shoulder] = armX;
+        y[offset + shoulder] = 0.3f;
+        x[offset + elbow] = armX;
+        y[offset + elbow] = 0.5f;
+        x[offset + wrist] = armX + 0.2f * (float) Math.sin(radians);
+        y[offset + wrist] = 0.5f - 0.2f * (float) Math.cos(radians);
+        visibility[offset + wrist] = 0.9f;
+    }
+
+    @Test
+    public void frameByFrameVsBatch() {
+        buildSequence();
+        int[] single = new int[FRAMES];
+        int[] batched = new int[FRAMES];
+        ArmStateTracker tracker = new ArmStateTracker();
+
+        for (int i = 0; i < WARM_UP; i++) {
+            runSingle(tracker, single);
+            tracker.reset();
+            tracker.process(x, y, visibility, N, FRAMES, batched);
+            tracker.reset();
+        }
+
+        Debug.startAllocCounting();
+        int allocationsBefore = Debug.getThreadAllocCount();
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < RUNS; i++) {
+            tracker.reset();
+            runSingle(tracker, single);
+        }
+        long singleNs = (SystemClock.elapsedRealtimeNanos() - start) / RUNS;
+        int singleAllocations = Debug.getThreadAllocCount() - allocationsBefore;
+
+        allocationsBefore = Debug.getThreadAllocCount();
+        start = SystemClock.elapsedRealtimeNanos();
+        int changes = 0;
+        for (int i = 0; i < RUNS; i++) {
+            tracker.reset();
+            changes = tracker.process(x, y, visibility, N, FRAMES, batched);
+        }
+        long batchNs = (SystemClock.elapsedRealtimeNanos() - start) / RUNS;
+        int batchAllocations = Debug.getThreadAllocCount() - allocationsBefore;
+        Debug.stopAllocCounting();
+
+        assertArrayEquals(single, batched);
+        Log.i(TAG, String.format(Locale.US,
+                "%d frames, %d state changes: frame by frame %.1f ns/frame (%d allocations), batched %.1f ns/frame (%d allocations)",
+                FRAMES, changes, (double) singleNs / FRAMES, singleAllocations, (double) batchNs / FRAMES, batchAllocations));
+    }
+
+    private void runSingle(ArmStateTracker tracker, int[] states) {
+        for (int f = 0; f < FRAMES; f++) {
+            states[f] = tracker.update(x, y, visibility, f * N);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch throughput in clips per minute for pool sizes 1 up to the recommended size.
+ * Push the clips first:
+ * adb push clips/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class BatchThroughputBenchmark {
+    private static final String TAG = "BatchThroughput";
+
+    @Test
+    public void throughputByPoolSize() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] clips = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No sample clips in " + dir, clips != null && clips.length > 0);
+
+        List<Uri> uris = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (File clip : clips) {
+            uris.add(Uri.fromFile(clip));
+            names.add(clip.getName());
+        }
+        String modelPath = ModelVariants.selectedModelPath(context);
+        int maxSize = InterpreterPool.recommendedSize(context, modelPath);
+        Log.i(TAG, "Recommended pool size " + maxSize + " on " + Runtime.getRuntime().availableProcessors() + " cores");
+
+        for (int size = 1; size <= maxSize; size++) {
+            try (InterpreterPool pool = new InterpreterPool(context, modelPath, ModelVariants.labelPath(), size)) {
+                BatchTranslationJob job = new BatchTranslationJob(context, pool, uris, names);
+                CountDownLatch done = new CountDownLatch(1);
+                long[] elapsed = new long[1];
+                int[] finished = new int[1];
+                job.start(new BatchTranslationJob.Listener() {
+                    @Override
+                    public void onItemStarted(int index) {
+                    }
+
+                    @Override
+                    public void onItemFinished(BatchItemResult result, int completed, int total) {
+                    }
+
+                    @Override
+                    public void onFinished(List<BatchItemResult> results, boolean cancelled, long elapsedMs) {
+                        finished[0] = results.size();
+                        elapsed[0] = elapsedMs;
+                        done.countDown();
+                    }
+                });
+                done.await(30, TimeUnit.MINUTES);
+                assertEquals(clips.length, finished[0]);
+                Log.i(TAG, String.format(Locale.US, "pool %d: %d clips in %d ms, %.1f clips/min",
+                        size, clips.length, elapsed[0], clips.length * 60000f / Math.max(elapsed[0], 1)));
+            }
+        }
+    }
+}
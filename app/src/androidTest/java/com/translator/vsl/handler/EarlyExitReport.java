@@ -0,0 +1,75 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Accuracy/latency report of the default early-exit policy against running every sampled frame.
+ * Fails if top-1 changes on more clips than the tolerance allows (default 2%, override with
+ * -e earlyExitTolerance 0.05). Push the clips first:
+ * adb push clips/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class EarlyExitReport {
+    private static final String TAG = "EarlyExitReport";
+
+    @Test
+    public void earlyExitKeepsTop1() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        float tolerance = Float.parseFloat(arguments.getString("earlyExitTolerance", "0.02"));
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] clips = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No sample clips in " + dir, clips != null && clips.length > 0);
+
+        VideoTranslationHandler handler = new VideoTranslationHandler(context,
+                ModelVariants.selectedModelPath(context), ModelVariants.labelPath());
+        try {
+            Log.i(TAG, "policy " + EarlyExitSettings.DEFAULT_POLICY);
+            Log.i(TAG, "clip, full label, full ms, early label, early ms, frames, saved");
+            int changed = 0;
+            long fullTotalMs = 0;
+            long earlyTotalMs = 0;
+            int plannedTotal = 0;
+            int savedTotal = 0;
+            for (File clip : clips) {
+                Uri uri = Uri.fromFile(clip);
+                handler.setEarlyExitPolicy(EarlyExitPolicy.NEVER);
+                ClipTranslation full = handler.translateClipAsync(context, uri).get();
+                handler.setEarlyExitPolicy(EarlyExitSettings.DEFAULT_POLICY);
+                ClipTranslation early = handler.translateClipAsync(context, uri).get();
+
+                changed += full.labels[0].equals(early.labels[0]) ? 0 : 1;
+                fullTotalMs += full.runTimeMs;
+                earlyTotalMs += early.runTimeMs;
+                plannedTotal += early.plannedFrames;
+                savedTotal += early.framesSaved();
+                Log.i(TAG, String.format(Locale.US, "%s, %s, %d, %s, %d, %d, %d", clip.getName(),
+                        full.labels[0], full.runTimeMs, early.labels[0], early.runTimeMs, early.frames, early.framesSaved()));
+            }
+            float changedRate = (float) changed / clips.length;
+            Log.i(TAG, String.format(Locale.US,
+                    "%d clips: top-1 changed on %d (%.1f%%), mean %d ms -> %d ms, %.1f%% of frames saved",
+                    clips.length, changed, 100 * changedRate, fullTotalMs / clips.length,
+                    earlyTotalMs / clips.length, 100f * savedTotal / Math.max(plannedTotal, 1)));
+            assertTrue(String.format(Locale.US, "Top-1 changed on %.1f%% of clips, tolerance %.1f%%",
+                    100 * changedRate, 100 * tolerance), changedRate <= tolerance);
+        } finally {
+            handler.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the MediaCodec decoder against the MediaMetadataRetriever path on sample clips.
+ * Push the clips first:
+ * adb push clips/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameDecoderBenchmark {
+    private static final String TAG = "FrameDecoderBenchmark";
+    private static final int NUM_FRAMES = 20;
+    private static final int SIZE = 224;
+    private static final int RUNS = 3;
+
+    private interface Extractor {
+        List<Bitmap> extract(Context context, Uri uri) throws Exception;
+    }
+
+    /**
+     * Polls Java and native heap usage while a run is in progress.
+     */
+    private static final class PeakMemorySampler extends Thread {
+        private final long baseline = usedBytes();
+        private volatile boolean running = true;
+        private volatile long peak = baseline;
+
+        private static long usedBytes() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peak = Math.max(peak, usedBytes());
+                SystemClock.sleep(2);
+            }
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            join();
+            return Math.max(peak - baseline, 0);
+        }
+    }
+
+    @Test
+    public void compareDecoderAndRetriever() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] clips = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No sample clips in " + dir, clips != null && clips.length > 0);
+
+        Log.i(TAG, "clip, path, wall ms, peak MB");
+        for (File clip : clips) {
+            Uri uri = Uri.fromFile(clip);
+            measure(context, uri, clip.getName(), "retriever",
+                    (c, u) -> VideoTranslationHandler.extractFramesWithRetriever(c, u, NUM_FRAMES));
+            measure(context, uri, clip.getName(), "decoder",
+                    (c, u) -> VideoTranslationHandler.extractFramesWithDecoder(c, u, NUM_FRAMES, SIZE, SIZE));
+        }
+    }
+
+    private void measure(Context context, Uri uri, String clip, String path, Extractor extractor) throws Exception {
+        long totalMs = 0;
+        long peakBytes = 0;
+        for (int run = 0; run < RUNS; run++) {
+            System.gc();
+            PeakMemorySampler sampler = new PeakMemorySampler();
+            sampler.start();
+            long start = SystemClock.elapsedRealtime();
+            List<Bitmap> frames = extractor.extract(context, uri);
+            totalMs += SystemClock.elapsedRealtime() - start;
+            peakBytes = Math.max(peakBytes, sampler.stop());
+
+            assertEquals(NUM_FRAMES, frames.size());
+            for (Bitmap frame : frames) {
+                frame.recycle();
+            }
+        }
+        Log.i(TAG, String.format(Locale.US, "%s, %s, %d, %.1f",
+                clip, path, totalMs / RUNS, peakBytes / (1024f * 1024f)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.support.common.ops.NormalizeOp;
+import org.tensorflow.lite.support.image.ImageProcessor;
+import org.tensorflow.lite.support.image.TensorImage;
+import org.tensorflow.lite.support.image.ops.ResizeOp;
+import org.tensorflow.lite.support.image.ops.ResizeWithCropOrPadOp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Checks {@link FrameTensorWriter} against the ImageProcessor chain it replaced.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameTensorWriterInstrumentedTest {
+    private static final int SIZE = 224;
+    // Nearest-neighbour rounding may pick the adjacent source pixel, the gradient keeps that within 2 levels
+    private static final float TOLERANCE = 2f / 255f;
+
+    private static Bitmap gradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = x * 255 / (width - 1);
+                int g = y * 255 / (height - 1);
+                int b = (x + y) * 255 / (width + height - 2);
+                pixels[y * width + x] = 0xff000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private static ByteBuffer imageProcessorOutput(Bitmap bitmap) {
+        ImageProcessor imageProcessor = new ImageProcessor.Builder()
+                .add(new ResizeOp(SIZE, SIZE, ResizeOp.ResizeMethod.NEAREST_NEIGHBOR))
+                .add(new ResizeWithCropOrPadOp(SIZE, SIZE))
+                .add(new NormalizeOp(0f, 255f))
+                .build();
+        TensorImage tensorImage = new TensorImage(DataType.FLOAT32);
+        tensorImage.load(bitmap);
+        return imageProcessor.process(tensorImage).getBuffer();
+    }
+
+    private static ByteBuffer writerOutput(FrameTensorWriter writer, Bitmap bitmap, ByteBuffer dst) {
+        int[] pixels = new int[bitmap.getWidth() * bitmap.getHeight()];
+        bitmap.getPixels(pixels, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
+        dst.clear();
+        writer.writeArgb(pixels, bitmap.getWidth(), bitmap.getHeight(), bitmap.getWidth(), dst);
+        dst.rewind();
+        return dst;
+    }
+
+    @Test
+    public void matchesImageProcessor() {
+        FrameTensorWriter writer = new FrameTensorWriter(SIZE, SIZE, 0f, 255f);
+        ByteBuffer dst = ByteBuffer.allocateDirect(writer.frameBytes()).order(ByteOrder.nativeOrder());
+
+        for (int[] size : new int[][]{{224, 224}, {640, 480}, {1280, 720}, {720, 1280}}) {
+            Bitmap bitmap = gradient(size[0], size[1]);
+            ByteBuffer expected = imageProcessorOutput(bitmap);
+            ByteBuffer actual = writerOutput(writer, bitmap, dst);
+
+            expected.rewind();
+            assertEquals(expected.remaining(), actual.remaining());
+            float maxDiff = 0f;
+            while (expected.hasRemaining()) {
+                maxDiff = Math.max(maxDiff, Math.abs(expected.getFloat() - actual.getFloat()));
+            }
+            assertTrue(size[0] + "x" + size[1] + " max diff " + maxDiff, maxDiff <= TOLERANCE);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Accuracy of keyframe detection plus tracking against detecting every frame, for several
+ * keyframe intervals, with and without optical flow. The pose landmarker runs on every frame of
+ * each clip to record the reference landmarks, then {@link KeyframeEvaluation} replays them.
+ * Push the clips first:
+ * adb push clips/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeyframeTrackingReport {
+    private static final String TAG = "KeyframeTrackingReport";
+    private static final int MAX_FRAMES = 150;
+    private static final int TRACKING_MAX_SIDE = 192;
+    private static final int[] INTERVALS = {1, 2, 3, 5, 8};
+    private static final float MIN_VISIBILITY = 0.5f;
+
+    @Test
+    public void accuracyByInterval() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] clips = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No sample clips in " + dir, clips != null && clips.length > 0);
+
+        PoseLandmarkerHelper helper = new PoseLandmarkerHelper(
+                PoseLandmarkerHelper.DEFAULT_POSE_DETECTION_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_TRACKING_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_PRESENCE_CONFIDENCE,
+                PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_FULL,
+                PoseLandmarkerHelper.DELEGATE_CPU,
+                RunningMode.IMAGE,
+                context,
+                null);
+        try {
+            float[][] errorSums = new float[2][INTERVALS.length];
+            int totalFrames = 0;
+            for (File clip : clips) {
+                List<PoseFrame> recorded = new ArrayList<>();
+                List<LumaImage> lumas = new ArrayList<>();
+                long detectMs = record(helper, clip, recorded, lumas);
+                if (recorded.isEmpty()) {
+                    Log.i(TAG, clip.getName() + ": no pose found, skipped");
+                    continue;
+                }
+                Log.i(TAG, String.format(Locale.US, "%s: %d frames, %d ms per detection",
+                        clip.getName(), recorded.size(), detectMs / recorded.size()));
+                for (int i = 0; i < INTERVALS.length; i++) {
+                    KeyframePolicy policy = INTERVALS[i] == 1 ? KeyframePolicy.EVERY_FRAME : new KeyframePolicy(INTERVALS[i], 0f);
+                    KeyframeEvaluation.Result extrapolated = KeyframeEvaluation.evaluate(recorded, null, policy, MIN_VISIBILITY);
+                    KeyframeEvaluation.Result withFlow = KeyframeEvaluation.evaluate(recorded, lumas, policy, MIN_VISIBILITY);
+                    Log.i(TAG, "  extrapolation " + extrapolated);
+                    Log.i(TAG, "  optical flow  " + withFlow);
+                    errorSums[0][i] += extrapolated.meanError * recorded.size();
+                    errorSums[1][i] += withFlow.meanError * recorded.size();
+                }
+                totalFrames += recorded.size();
+            }
+            assumeTrue("No clip had a detectable pose", totalFrames > 0);
+
+            Log.i(TAG, "interval, detections, mean error extrapolated, mean error with flow");
+            for (int i = 0; i < INTERVALS.length; i++) {
+                Log.i(TAG, String.format(Locale.US, "%d, %.0f%%, %.4f, %.4f", INTERVALS[i], 100f / INTERVALS[i],
+                        errorSums[0][i] / totalFrames, errorSums[1][i] / totalFrames));
+            }
+        } finally {
+            helper.clearPoseLandmarker();
+        }
+    }
+
+    /**
+     * Detect the pose on the first frames of a clip, keeping frames where one was found.
+     *
+     * @return total detection time in ms
+     */
+    private static long record(PoseLandmarkerHelper helper, File clip, List<PoseFrame> recorded, List<LumaImage> lumas)
+            throws Exception {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(clip.getAbsolutePath());
+            int frameCount = Integer.parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_FRAME_COUNT));
+            long durationMs = Long.parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            int frames = Math.min(frameCount, MAX_FRAMES);
+            long detectMs = 0;
+            int[] pixels = null;
+            for (int f = 0; f < frames; f++) {
+                Bitmap bitmap = retriever.getFrameAtIndex(f);
+                if (bitmap == null) {
+                    break;
+                }
+                PoseLandmarkerHelper.ResultBundle bundle = helper.detectImage(bitmap);
+                PoseFrame frame = new PoseFrame();
+                if (bundle != null && PoseLandmarkerHelper.toPoseFrame(bundle.results.get(0), frame)) {
+                    detectMs += bundle.inferenceTime;
+                    frame.timestampMs = f * durationMs / Math.max(frameCount, 1);
+                    int width = bitmap.getWidth();
+                    int height = bitmap.getHeight();
+                    if (pixels == null || pixels.length != width * height) {
+                        pixels = new int[width * height];
+                    }
+                    bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+                    LumaImage luma = new LumaImage();
+                    int step = Math.max(1, (Math.max(width, height) + TRACKING_MAX_SIDE - 1) / TRACKING_MAX_SIDE);
+                    luma.fromArgb(pixels, width, height, step, 0);
+                    recorded.add(frame);
+                    lumas.add(luma);
+                }
+                bitmap.recycle();
+            }
+            return detectMs;
+        } finally {
+            retriever.release();
+        }
+    }
+}
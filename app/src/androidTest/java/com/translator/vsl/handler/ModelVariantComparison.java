@@ -0,0 +1,69 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Runs the float and quantized model variants on the same clips and reports latency and top-1 agreement.
+ * Push the clips first:
+ * adb push clips/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class ModelVariantComparison {
+    private static final String TAG = "ModelVariantComparison";
+
+    @Test
+    public void compareFloatAndInt8() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        assumeTrue("Quantized model is not bundled", ModelVariants.isAvailable(context, ModelVariants.INT8));
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] clips = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No sample clips in " + dir, clips != null && clips.length > 0);
+
+        VideoTranslationHandler floatModel = new VideoTranslationHandler(context,
+                ModelVariants.modelPath(ModelVariants.FLOAT), ModelVariants.labelPath());
+        VideoTranslationHandler int8Model = new VideoTranslationHandler(context,
+                ModelVariants.modelPath(ModelVariants.INT8), ModelVariants.labelPath());
+        try {
+            Log.i(TAG, String.format(Locale.US, "model load ms: float %d, int8 %d",
+                    floatModel.getLoadTimeMs(), int8Model.getLoadTimeMs()));
+            Log.i(TAG, "clip, float label, float ms, int8 label, int8 ms, agree");
+            int agreed = 0;
+            long floatTotalMs = 0;
+            long int8TotalMs = 0;
+            for (File clip : clips) {
+                Uri uri = Uri.fromFile(clip);
+                String floatLabel = floatModel.translateVideoAsync(context, uri).get();
+                long floatMs = floatModel.getLastRunTimeMs();
+                String int8Label = int8Model.translateVideoAsync(context, uri).get();
+                long int8Ms = int8Model.getLastRunTimeMs();
+
+                boolean agree = floatLabel.equals(int8Label);
+                agreed += agree ? 1 : 0;
+                floatTotalMs += floatMs;
+                int8TotalMs += int8Ms;
+                Log.i(TAG, String.format(Locale.US, "%s, %s, %d, %s, %d, %b",
+                        clip.getName(), floatLabel, floatMs, int8Label, int8Ms, agree));
+            }
+            Log.i(TAG, String.format(Locale.US,
+                    "%d clips: top-1 agreement %.1f%%, mean float %d ms, mean int8 %d ms",
+                    clips.length, 100f * agreed / clips.length,
+                    floatTotalMs / clips.length, int8TotalMs / clips.length));
+        } finally {
+            floatModel.close();
+            int8Model.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Requests and bytes saved by client-side sign spotting on recorded realtime sessions. Each
+ * session is cut into the same 1 s clips the realtime path uploads, poses are detected at the
+ * live spotting rate, and {@link SignSpotter} replays them for several pre-/post-roll settings.
+ * Clip sizes are estimated from the session's average bitrate.
+ * Push the sessions first:
+ * adb push sessions/*.mp4 /sdcard/Android/data/com.translator.vsl/files/benchmark/
+ */
+@RunWith(AndroidJUnit4.class)
+public class SignSpottingReport {
+    private static final String TAG = "SignSpottingReport";
+    private static final long CLIP_MS = 1000;
+    private static final long MAX_POSE_GAP_MS = 1500;
+    // {pre-roll, post-roll} in ms
+    private static final long[][] ROLLS = {
+            {0, 0},
+            {250, 500},
+            {SignSpottingSettings.DEFAULT_PRE_ROLL_MS, SignSpottingSettings.DEFAULT_POST_ROLL_MS},
+            {1000, 2000}
+    };
+
+    @Test
+    public void savingsByRoll() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = context.getExternalFilesDir("benchmark");
+        File[] sessions = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".mp4"));
+        assumeTrue("No recorded sessions in " + dir, sessions != null && sessions.length > 0);
+
+        PoseLandmarkerHelper helper = new PoseLandmarkerHelper(
+                PoseLandmarkerHelper.DEFAULT_POSE_DETECTION_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_TRACKING_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_PRESENCE_CONFIDENCE,
+                PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_LITE,
+                PoseLandmarkerHelper.DELEGATE_CPU,
+                RunningMode.IMAGE,
+                context,
+                null);
+        try {
+            int[] uploadedTotals = new int[ROLLS.length];
+            long[] bytesUploadedTotals = new long[ROLLS.length];
+            int clipTotal = 0;
+            long bytesTotal = 0;
+            for (File session : sessions) {
+                long durationMs = durationMs(session);
+                int clips = (int) ((durationMs + CLIP_MS - 1) / CLIP_MS);
+                if (clips == 0) {
+                    continue;
+                }
+                long[] poseTimes = new long[(int) (durationMs * SignSpottingSession.TARGET_FPS / 1000) + 1];
+                int[] armStates = new int[poseTimes.length];
+                int poses = recordArmStates(helper, session, durationMs, poseTimes, armStates);
+                long clipBytes = session.length() / clips;
+                clipTotal += clips;
+                bytesTotal += clipBytes * clips;
+
+                for (int r = 0; r < ROLLS.length; r++) {
+                    SignSpotter<Integer> spotter = replay(poseTimes, armStates, poses, clips, clipBytes, ROLLS[r]);
+                    uploadedTotals[r] += spotter.clipsUploaded();
+                    bytesUploadedTotals[r] += spotter.bytesUploaded();
+                    Log.i(TAG, String.format(Locale.US, "%s, rolls %d/%d ms: %s",
+                            session.getName(), ROLLS[r][0], ROLLS[r][1], spotter));
+                }
+            }
+            assumeTrue("No session could be read", clipTotal > 0);
+
+            Log.i(TAG, "pre-roll ms, post-roll ms, clips uploaded, requests saved, bytes saved");
+            for (int r = 0; r < ROLLS.length; r++) {
+                Log.i(TAG, String.format(Locale.US, "%d, %d, %d/%d, %.0f%%, %.0f%%", ROLLS[r][0], ROLLS[r][1],
+                        uploadedTotals[r], clipTotal, 100f * (clipTotal - uploadedTotals[r]) / clipTotal,
+                        100f * (bytesTotal - bytesUploadedTotals[r]) / bytesTotal));
+            }
+        } finally {
+            helper.clearPoseLandmarker();
+        }
+    }
+
+    /**
+     * Feed the poses and clips in the order the live path sees them: each clip is offered once
+     * the poses up to its end have been detected.
+     */
+    private static SignSpotter<Integer> replay(long[] poseTimes, int[] armStates, int poses, int clips,
+                                               long clipBytes, long[] rolls) {
+        SignSpotter<Integer> spotter = new SignSpotter<>(rolls[0], rolls[1], MAX_POSE_GAP_MS,
+                new SignSpotter.Listener<Integer>() {
+                    @Override
+                    public void onUpload(Integer clip) {
+                    }
+
+                    @Override
+                    public void onSkip(Integer clip) {
+                    }
+                });
+        int p = 0;
+        for (int clip = 0; clip < clips; clip++) {
+            long endMs = (clip + 1) * CLIP_MS;
+            for (; p < poses && poseTimes[p] < endMs; p++) {
+                spotter.onArmState(poseTimes[p], armStates[p]);
+            }
+            spotter.offerClip(clip, clip * CLIP_MS, endMs, clipBytes);
+        }
+        spotter.flush();
+        return spotter;
+    }
+
+    /**
+     * Detect the pose at the live spotting rate and record the arm state after each frame.
+     *
+     * @return the number of frames recorded
+     */
+    private static int recordArmStates(PoseLandmarkerHelper helper, File session, long durationMs,
+                                       long[] poseTimes, int[] armStates) {
+        ArmStateTracker arms = SignSpottingSession.newArmStateTracker();
+        PoseFrame frame = new PoseFrame();
+        long intervalUs = (long) (1_000_000 / SignSpottingSession.TARGET_FPS);
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(session.getAbsolutePath());
+            int poses = 0;
+            for (long timeUs = 0; timeUs < durationMs * 1000 && poses < poseTimes.length; timeUs += intervalUs) {
+                Bitmap bitmap = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST);
+                if (bitmap == null) {
+                    break;
+                }
+                PoseLandmarkerHelper.ResultBundle bundle = helper.detectImage(bitmap);
+                bitmap.recycle();
+                boolean found = bundle != null && PoseLandmarkerHelper.toPoseFrame(bundle.results.get(0), frame);
+                poseTimes[poses] = timeUs / 1000;
+                armStates[poses] = found ? arms.update(frame) : arms.updateMissing();
+                poses++;
+            }
+            return poses;
+        } finally {
+            retriever.release();
+        }
+    }
+
+    private static long durationMs(File session) throws Exception {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(session.getAbsolutePath());
+            return Long.parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+        } finally {
+            retriever.release();
+        }
+    }
+}
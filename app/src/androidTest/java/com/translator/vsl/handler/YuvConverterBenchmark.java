@@ -0,0 +1,151 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.support.common.ops.NormalizeOp;
+import org.tensorflow.lite.support.image.ImageProcessor;
+import org.tensorflow.lite.support.image.TensorImage;
+import org.tensorflow.lite.support.image.ops.ResizeOp;
+import org.tensorflow.lite.support.image.ops.ResizeWithCropOrPadOp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Throughput of {@link YuvConverter} against the YuvImage JPEG round trip it replaced,
+ * on a synthetic 1280x720 NV21 frame, and of {@link FrameTensorWriter} against the
+ * ImageProcessor chain it replaced on the converted frame.
+ */
+@RunWith(AndroidJUnit4.class)
+public class YuvConverterBenchmark {
+    private static final String TAG = "YuvConverterBenchmark";
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 30;
+
+    private static final int TENSOR_SIZE = 224;
+
+    private interface Conversion {
+        Object run();
+    }
+
+    private static byte[] nv21Frame() {
+        byte[] nv21 = new byte[WIDTH * HEIGHT * 3 / 2];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                nv21[y * WIDTH + x] = (byte) (16 + (x + y) % 220);
+            }
+        }
+        for (int i = WIDTH * HEIGHT; i < nv21.length; i += 2) {
+            nv21[i] = (byte) (96 + i % 64);
+            nv21[i + 1] = (byte) (160 - i % 64);
+        }
+        return nv21;
+    }
+
+    private static long averageNs(Conversion conversion) {
+        for (int i = 0; i < WARM_UP; i++) {
+            conversion.run();
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < RUNS; i++) {
+            conversion.run();
+        }
+        return (SystemClock.elapsedRealtimeNanos() - start) / RUNS;
+    }
+
+    @Test
+    public void converterVsJpegRoundTrip() {
+        byte[] nv21 = nv21Frame();
+        ByteBuffer y = ByteBuffer.wrap(nv21, 0, WIDTH * HEIGHT).slice();
+        ByteBuffer v = ByteBuffer.wrap(nv21, WIDTH * HEIGHT, WIDTH * HEIGHT / 2).slice();
+        ByteBuffer u = ByteBuffer.wrap(nv21, WIDTH * HEIGHT + 1, WIDTH * HEIGHT / 2 - 1).slice();
+
+        long jpegNs = averageNs(() -> {
+            YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, WIDTH, HEIGHT, null);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            yuvImage.compressToJpeg(new Rect(0, 0, WIDTH, HEIGHT), 100, out);
+            byte[] bytes = out.toByteArray();
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        });
+
+        int[] pixels = new int[WIDTH * HEIGHT];
+        Bitmap target = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        long converterNs = averageNs(() -> {
+            YuvConverter.toArgb(y, WIDTH, 1, u, v, WIDTH, 2, WIDTH, HEIGHT, 1, pixels);
+            target.setPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+            return target;
+        });
+
+        int step = 4;
+        int smallWidth = YuvConverter.outputSize(WIDTH, step);
+        int smallHeight = YuvConverter.outputSize(HEIGHT, step);
+        ByteBuffer rgba = ByteBuffer.allocateDirect(smallWidth * smallHeight * 4);
+        Bitmap small = Bitmap.createBitmap(smallWidth, smallHeight, Bitmap.Config.ARGB_8888);
+        long downsampledNs = averageNs(() -> {
+            rgba.clear();
+            YuvConverter.toRgba(y, WIDTH, 1, u, v, WIDTH, 2, WIDTH, HEIGHT, step, rgba);
+            rgba.rewind();
+            small.copyPixelsFromBuffer(rgba);
+            return small;
+        });
+
+        Log.i(TAG, String.format(Locale.US,
+                "JPEG round trip %.2f ms, converter %.2f ms, converter step %d %.2f ms per frame",
+                jpegNs / 1e6, converterNs / 1e6, step, downsampledNs / 1e6));
+        assertEquals(WIDTH, target.getWidth());
+        assertTrue(converterNs < jpegNs);
+    }
+
+    @Test
+    public void tensorWriterVsImageProcessor() {
+        byte[] nv21 = nv21Frame();
+        ByteBuffer y = ByteBuffer.wrap(nv21, 0, WIDTH * HEIGHT).slice();
+        ByteBuffer v = ByteBuffer.wrap(nv21, WIDTH * HEIGHT, WIDTH * HEIGHT / 2).slice();
+        ByteBuffer u = ByteBuffer.wrap(nv21, WIDTH * HEIGHT + 1, WIDTH * HEIGHT / 2 - 1).slice();
+        int[] pixels = new int[WIDTH * HEIGHT];
+        YuvConverter.toArgb(y, WIDTH, 1, u, v, WIDTH, 2, WIDTH, HEIGHT, 1, pixels);
+        Bitmap frame = Bitmap.createBitmap(pixels, WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+
+        ImageProcessor imageProcessor = new ImageProcessor.Builder()
+                .add(new ResizeOp(TENSOR_SIZE, TENSOR_SIZE, ResizeOp.ResizeMethod.NEAREST_NEIGHBOR))
+                .add(new ResizeWithCropOrPadOp(TENSOR_SIZE, TENSOR_SIZE))
+                .add(new NormalizeOp(0f, 255f))
+                .build();
+        long imageProcessorNs = averageNs(() -> {
+            TensorImage tensorImage = new TensorImage(DataType.FLOAT32);
+            tensorImage.load(frame);
+            return imageProcessor.process(tensorImage).getBuffer();
+        });
+
+        FrameTensorWriter writer = new FrameTensorWriter(TENSOR_SIZE, TENSOR_SIZE, 0f, 255f);
+        ByteBuffer dst = ByteBuffer.allocateDirect(writer.frameBytes()).order(ByteOrder.nativeOrder());
+        long writerNs = averageNs(() -> {
+            frame.getPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+            dst.clear();
+            writer.writeArgb(pixels, WIDTH, HEIGHT, WIDTH, dst);
+            return dst;
+        });
+
+        // Reported only, the ratio depends on the device and what else it is running
+        Log.i(TAG, String.format(Locale.US, "ImageProcessor %.2f ms, FrameTensorWriter %.2f ms per frame",
+                imageProcessorNs / 1e6, writerNs / 1e6));
+    }
+}
@@ -0,0 +1,35 @@
+package com.translator.vsl.handler;
+
+/**
+ * Motion over time from a cheap pre-pass over a clip: one luma motion value per probed frame,
+ * a stand-in for how much the signer's arms move at that moment.
+ */
+public final class ActivityProfile {
+    final long[] timestampsUs;
+    final float[] motion;
+    final int count;
+
+    /**
+     * @param timestampsUs ascending probe times; the arrays are used as is, not copied
+     */
+    public ActivityProfile(long[] timestampsUs, float[] motion, int count) {
+        if (count > timestampsUs.length || count > motion.length) {
+            throw new IllegalArgumentException("Count " + count + " exceeds the probe arrays");
+        }
+        this.timestampsUs = timestampsUs;
+        this.motion = motion;
+        this.count = count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long timestampUs(int i) {
+        return timestampsUs[i];
+    }
+
+    public float motion(int i) {
+        return motion[i];
+    }
+}
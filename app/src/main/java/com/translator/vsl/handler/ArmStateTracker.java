@@ -0,0 +1,151 @@
+package com.translator.vsl.handler;
+
+/**
+ * Up/down state of both arms over a session of pose frames. An arm counts as raised when the
+ * shoulder-elbow-wrist angle falls below raiseAngle with the wrist visible, and as lowered again
+ * only once the angle rises above lowerAngle or the wrist is lost. The gap between the two
+ * angles and a debounce of debounceFrames consecutive frames keep the state from flickering.
+ * Works on primitive landmark arrays and allocates nothing per frame. Not thread-safe.
+ */
+public class ArmStateTracker {
+    public static final int LEFT_UP = 1;
+    public static final int RIGHT_UP = 2;
+
+    private static final int LEFT_SHOULDER = 11;
+    private static final int RIGHT_SHOULDER = 12;
+    private static final int LEFT_ELBOW = 13;
+    private static final int RIGHT_ELBOW = 14;
+    private static final int LEFT_WRIST = 15;
+    private static final int RIGHT_WRIST = 16;
+
+    private static final float DEFAULT_RAISE_ANGLE = 90f;
+    private static final float DEFAULT_LOWER_ANGLE = 110f;
+    private static final float DEFAULT_MIN_VISIBILITY = 0.6f;
+    private static final int DEFAULT_DEBOUNCE_FRAMES = 3;
+
+    private final float raiseAngle;
+    private final float lowerAngle;
+    private final float minVisibility;
+    private final int debounceFrames;
+
+    private int state;
+    // Consecutive frames that disagree with the current state, per arm
+    private int leftPending;
+    private int rightPending;
+
+    public ArmStateTracker() {
+        this(DEFAULT_RAISE_ANGLE, DEFAULT_LOWER_ANGLE, DEFAULT_MIN_VISIBILITY, DEFAULT_DEBOUNCE_FRAMES);
+    }
+
+    /**
+     * @param raiseAngle elbow angle in degrees below which a lowered arm starts to count as raised
+     * @param lowerAngle elbow angle in degrees above which a raised arm starts to count as lowered
+     * @param debounceFrames consecutive frames a change must hold before the state follows, 1 for none
+     */
+    public ArmStateTracker(float raiseAngle, float lowerAngle, float minVisibility, int debounceFrames) {
+        if (raiseAngle > lowerAngle || debounceFrames < 1) {
+            throw new IllegalArgumentException("Invalid arm thresholds: raise " + raiseAngle + ", lower " + lowerAngle
+                    + ", debounce " + debounceFrames);
+        }
+        this.raiseAngle = raiseAngle;
+        this.lowerAngle = lowerAngle;
+        this.minVisibility = minVisibility;
+        this.debounceFrames = debounceFrames;
+    }
+
+    public int update(PoseFrame frame) {
+        return update(frame.x, frame.y, frame.visibility, 0);
+    }
+
+    /**
+     * Feed one frame whose landmarks start at offset in the arrays.
+     *
+     * @return the state after this frame, a mask of {@link #LEFT_UP} and {@link #RIGHT_UP}
+     */
+    public int update(float[] x, float[] y, float[] visibility, int offset) {
+        boolean leftRaised = raised(x, y, visibility, offset, LEFT_SHOULDER, LEFT_ELBOW, LEFT_WRIST, (state & LEFT_UP) != 0);
+        boolean rightRaised = raised(x, y, visibility, offset, RIGHT_SHOULDER, RIGHT_ELBOW, RIGHT_WRIST, (state & RIGHT_UP) != 0);
+        leftPending = leftRaised == ((state & LEFT_UP) != 0) ? 0 : leftPending + 1;
+        if (leftPending >= debounceFrames) {
+            state ^= LEFT_UP;
+            leftPending = 0;
+        }
+        rightPending = rightRaised == ((state & RIGHT_UP) != 0) ? 0 : rightPending + 1;
+        if (rightPending >= debounceFrames) {
+            state ^= RIGHT_UP;
+            rightPending = 0;
+        }
+        return state;
+    }
+
+    /**
+     * A frame without a detected pose: both arms count as lowered.
+     */
+    public int updateMissing() {
+        leftPending = (state & LEFT_UP) != 0 ? leftPending + 1 : 0;
+        rightPending = (state & RIGHT_UP) != 0 ? rightPending + 1 : 0;
+        if (leftPending >= debounceFrames) {
+            state &= ~LEFT_UP;
+            leftPending = 0;
+        }
+        if (rightPending >= debounceFrames) {
+            state &= ~RIGHT_UP;
+            rightPending = 0;
+        }
+        return state;
+    }
+
+    /**
+     * Run a whole recorded sequence in one call, continuing from the current state.
+     * Frame f has its landmarks at [f * stride, f * stride + 33) of each array.
+     *
+     * @param states receives the state after each frame
+     * @return the number of state changes over the sequence
+     */
+    public int process(float[] x, float[] y, float[] visibility, int stride, int frames, int[] states) {
+        int changes = 0;
+        for (int f = 0; f < frames; f++) {
+            int before = state;
+            states[f] = update(x, y, visibility, f * stride);
+            changes += Integer.bitCount(before ^ states[f]);
+        }
+        return changes;
+    }
+
+    public int state() {
+        return state;
+    }
+
+    public boolean isLeftUp() {
+        return (state & LEFT_UP) != 0;
+    }
+
+    public boolean isRightUp() {
+        return (state & RIGHT_UP) != 0;
+    }
+
+    public void reset() {
+        state = 0;
+        leftPending = 0;
+        rightPending = 0;
+    }
+
+    private boolean raised(float[] x, float[] y, float[] visibility, int offset,
+                           int shoulder, int elbow, int wrist, boolean currentlyUp) {
+        if (visibility[offset + wrist] <= minVisibility) {
+            return false;
+        }
+        float angle = angle(x[offset + shoulder], y[offset + shoulder], x[offset + elbow], y[offset + elbow],
+                x[offset + wrist], y[offset + wrist]);
+        return currentlyUp ? angle <= lowerAngle : angle < raiseAngle;
+    }
+
+    /**
+     * Angle at b between the rays to a and c, in degrees within [0, 180].
+     */
+    public static float angle(float ax, float ay, float bx, float by, float cx, float cy) {
+        double radians = Math.atan2(cy - by, cx - bx) - Math.atan2(ay - by, ax - bx);
+        double angle = Math.abs(Math.toDegrees(radians));
+        return (float) (angle > 180.0 ? 360.0 - angle : angle);
+    }
+}
@@ -0,0 +1,42 @@
+package com.translator.vsl.handler;
+
+/**
+ * Outcome of one clip in a batch: its glosses and timing, or the error that stopped it.
+ */
+public final class BatchItemResult {
+    public final int index;
+    public final String name;
+    public final String uri;
+    /** Top-K glosses, most likely first, empty if the clip failed. */
+    public final String[] labels;
+    public final float[] scores;
+    public final int frames;
+    /** Wall time from taking the clip off the queue to its result, including waiting for a decoder. */
+    public final long durationMs;
+    /** Null on success. */
+    public final String error;
+
+    public BatchItemResult(int index, String name, String uri, String[] labels, float[] scores,
+                           int frames, long durationMs, String error) {
+        this.index = index;
+        this.name = name;
+        this.uri = uri;
+        this.labels = labels;
+        this.scores = scores;
+        this.frames = frames;
+        this.durationMs = durationMs;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(int index, String name, String uri, ClipTranslation clip, long durationMs) {
+        return new BatchItemResult(index, name, uri, clip.labels, clip.scores, clip.frames, durationMs, null);
+    }
+
+    public static BatchItemResult failure(int index, String name, String uri, String error, long durationMs) {
+        return new BatchItemResult(index, name, uri, new String[0], new float[0], 0, durationMs, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.translator.vsl.handler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes batch results as CSV or JSON for the annotators' spreadsheets and scripts.
+ * Both formats carry the file, the top-K glosses with their scores, the frame count, the time and any error.
+ */
+public final class BatchResultExporter {
+    private static final String CSV_HEADER = "file,uri,rank,gloss,score,frames,duration_ms,error";
+
+    private BatchResultExporter() {
+    }
+
+    /**
+     * One row per gloss, ranked; a failed clip gets a single row with its error.
+     */
+    public static void writeCsv(List<BatchItemResult> results, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+        for (BatchItemResult result : results) {
+            if (result.labels.length == 0) {
+                writeCsvRow(out, result, "", "", "");
+                continue;
+            }
+            for (int rank = 0; rank < result.labels.length; rank++) {
+                writeCsvRow(out, result, String.valueOf(rank + 1), result.labels[rank], formatScore(result.scores[rank]));
+            }
+        }
+        out.flush();
+    }
+
+    public static void writeJson(List<BatchItemResult> results, Writer out) throws IOException {
+        out.write("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResult result = results.get(i);
+            out.write("  {\"file\": ");
+            out.write(jsonString(result.name));
+            out.write(", \"uri\": ");
+            out.write(jsonString(result.uri));
+            out.write(", \"glosses\": [");
+            for (int rank = 0; rank < result.labels.length; rank++) {
+                if (rank > 0) {
+                    out.write(", ");
+                }
+                out.write("{\"gloss\": " + jsonString(result.labels[rank]) + ", \"score\": " + formatScore(result.scores[rank]) + "}");
+            }
+            out.write("], \"frames\": " + result.frames);
+            out.write(", \"duration_ms\": " + result.durationMs);
+            out.write(", \"error\": " + (result.error == null ? "null" : jsonString(result.error)));
+            out.write(i + 1 < results.size() ? "},\n" : "}\n");
+        }
+        out.write("]\n");
+        out.flush();
+    }
+
+    private static void writeCsvRow(Writer out, BatchItemResult result, String rank, String gloss, String score) throws IOException {
+        out.write(csvField(result.name) + "," + csvField(result.uri) + "," + rank + "," + csvField(gloss) + "," + score
+                + "," + result.frames + "," + result.durationMs + "," + csvField(result.error == null ? "" : result.error));
+        out.write('\n');
+    }
+
+    private static String formatScore(float score) {
+        return String.format(Locale.US, "%.6f", score);
+    }
+
+    /**
+     * RFC 4180 quoting: fields with a comma, quote or line break are quoted, quotes doubled.
+     */
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
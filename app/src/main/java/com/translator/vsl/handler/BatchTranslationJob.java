@@ -0,0 +1,162 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Translates a list of clips on an {@link InterpreterPool}.
+ * One worker per pooled handler pulls the next clip from a shared queue, so throughput grows with
+ * the pool until decoding or the CPU saturates. Listener callbacks arrive on worker threads.
+ */
+public class BatchTranslationJob {
+    private static final String TAG = "BatchTranslationJob";
+
+    public interface Listener {
+        void onItemStarted(int index);
+
+        void onItemFinished(BatchItemResult result, int completed, int total);
+
+        /**
+         * @param results finished clips in input order; clips not reached before a cancel are left out
+         */
+        void onFinished(List<BatchItemResult> results, boolean cancelled, long elapsedMs);
+    }
+
+    private final Context context;
+    private final InterpreterPool pool;
+    private final List<Uri> uris;
+    private final List<String> names;
+    private final BatchItemResult[] results;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private volatile boolean cancelled;
+    private ExecutorService workers;
+    private long startTime;
+
+    /**
+     * @param names display name of each clip, same order as uris
+     */
+    public BatchTranslationJob(Context context, InterpreterPool pool, List<Uri> uris, List<String> names) {
+        if (uris.size() != names.size()) {
+            throw new IllegalArgumentException("Expected one name per clip");
+        }
+        this.context = context.getApplicationContext();
+        this.pool = pool;
+        this.uris = new ArrayList<>(uris);
+        this.names = new ArrayList<>(names);
+        this.results = new BatchItemResult[uris.size()];
+    }
+
+    public synchronized void start(Listener listener) {
+        if (workers != null) {
+            throw new IllegalStateException("Batch already started");
+        }
+        int workerCount = Math.min(pool.size(), Math.max(uris.size(), 1));
+        workers = Executors.newFixedThreadPool(workerCount);
+        startTime = SystemClock.elapsedRealtime();
+        runningWorkers.set(workerCount);
+        Log.i(TAG, "Translating " + uris.size() + " clips with " + workerCount + " interpreters");
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(() -> runWorker(listener));
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Stop taking new clips and abort the ones in progress at their next frame.
+     */
+    public void cancel() {
+        cancelled = true;
+        pool.cancelAll();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int size() {
+        return uris.size();
+    }
+
+    /**
+     * Completed clips per minute since the start.
+     */
+    public float clipsPerMinute() {
+        long elapsed = SystemClock.elapsedRealtime() - startTime;
+        return elapsed > 0 ? completed.get() * 60000f / elapsed : 0f;
+    }
+
+    private void runWorker(Listener listener) {
+        VideoTranslationHandler handler = null;
+        try {
+            handler = pool.borrow();
+            int index;
+            while (!cancelled && (index = nextIndex.getAndIncrement()) < uris.size()) {
+                listener.onItemStarted(index);
+                BatchItemResult result = translate(handler, index);
+                if (result == null) {
+                    break;
+                }
+                results[index] = result;
+                listener.onItemFinished(result, completed.incrementAndGet(), uris.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (handler != null) {
+                pool.giveBack(handler);
+            }
+            if (runningWorkers.decrementAndGet() == 0) {
+                finish(listener);
+            }
+        }
+    }
+
+    /**
+     * Result for one clip, or null if it was cancelled before finishing.
+     */
+    private BatchItemResult translate(VideoTranslationHandler handler, int index) throws InterruptedException {
+        String name = names.get(index);
+        Uri uri = uris.get(index);
+        long itemStart = SystemClock.elapsedRealtime();
+        try {
+            ClipTranslation clip = handler.translateClipAsync(context, uri).get();
+            return BatchItemResult.success(index, name, uri.toString(), clip, SystemClock.elapsedRealtime() - itemStart);
+        } catch (CancellationException e) {
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CancellationException || cancelled) {
+                return null;
+            }
+            Log.w(TAG, "Clip " + name + " failed: " + cause.getMessage());
+            return BatchItemResult.failure(index, name, uri.toString(), String.valueOf(cause.getMessage()),
+                    SystemClock.elapsedRealtime() - itemStart);
+        }
+    }
+
+    private void finish(Listener listener) {
+        List<BatchItemResult> finished = new ArrayList<>();
+        for (BatchItemResult result : results) {
+            if (result != null) {
+                finished.add(result);
+            }
+        }
+        long elapsed = SystemClock.elapsedRealtime() - startTime;
+        Log.i(TAG, String.format(Locale.US, "%d/%d clips in %d ms, %.1f clips/min%s",
+                finished.size(), uris.size(), elapsed, clipsPerMinute(), cancelled ? " (cancelled)" : ""));
+        listener.onFinished(finished, cancelled, elapsed);
+    }
+}
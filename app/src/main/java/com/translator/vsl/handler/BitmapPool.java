@@ -0,0 +1,42 @@
+package com.translator.vsl.handler;
+
+import android.graphics.Bitmap;
+
+/**
+ * Ring of reusable ARGB_8888 bitmaps for frames that have to go through a Bitmap.
+ * Bitmaps are recycled round-robin; one is reallocated only when the frame size changes.
+ * Not thread-safe, the analyzer thread owns it.
+ */
+public class BitmapPool {
+    private final Bitmap[] slots;
+    private int next;
+
+    public BitmapPool(int slotCount) {
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("Need at least one slot: " + slotCount);
+        }
+        this.slots = new Bitmap[slotCount];
+    }
+
+    public Bitmap acquire(int width, int height) {
+        Bitmap bitmap = slots[next];
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            slots[next] = bitmap;
+        }
+        next = (next + 1) % slots.length;
+        return bitmap;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                slots[i].recycle();
+                slots[i] = null;
+            }
+        }
+    }
+}
@@ -2,10 +2,6 @@ package com.translator.vsl.handler;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.ImageFormat;
-import android.graphics.Rect;
-import android.graphics.YuvImage;
 import android.media.Image;
 import android.media.MediaCodec;
 import android.media.MediaCodecInfo;
@@ -13,18 +9,15 @@ import android.media.MediaFormat;
 import android.media.MediaMuxer;
 import android.net.Uri;
 import android.os.Environment;
-import android.util.Log;
 
 import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
 import com.google.mediapipe.tasks.vision.poselandmarker.PoseLandmarkerResult;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class CalculateUtils {
@@ -33,17 +26,29 @@ public class CalculateUtils {
      * Softmax function
      */
     public static float[] softmax(float[] floatArray) {
-        float total = 0f;
         float[] result = new float[floatArray.length];
+        softmax(floatArray, result);
+        return result;
+    }
+
+    /**
+     * Softmax into a caller-supplied array, which may be the input itself.
+     * The largest logit is subtracted first so large values cannot overflow to Infinity/NaN
+     */
+    public static void softmax(float[] floatArray, float[] result) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (float value : floatArray) {
+            max = Math.max(max, value);
+        }
+        float total = 0f;
         for (int i = 0; i < floatArray.length; i++) {
-            result[i] = (float) Math.exp(floatArray[i]);
+            result[i] = (float) Math.exp(floatArray[i] - max);
             total += result[i];
         }
 
-        for (int i = 0; i < result.length; i++) {
+        for (int i = 0; i < floatArray.length; i++) {
             result[i] /= total;
         }
-        return result;
     }
 
     /**
@@ -51,26 +56,53 @@ public class CalculateUtils {
      * Input format YUV420
      */
     public static Bitmap yuvToRgb(Image image) {
-        ByteBuffer yBuffer = image.getPlanes()[0].getBuffer(); // Y
-        ByteBuffer uBuffer = image.getPlanes()[1].getBuffer(); // U
-        ByteBuffer vBuffer = image.getPlanes()[2].getBuffer(); // V
-
-        int ySize = yBuffer.remaining();
-        int uSize = uBuffer.remaining();
-        int vSize = vBuffer.remaining();
+        return yuvToRgb(image, 1);
+    }
 
-        byte[] nv21 = new byte[ySize + uSize + vSize];
+    /**
+     * Convert ImageProxy to Bitmap, keeping every step-th pixel in both directions
+     */
+    public static Bitmap yuvToRgb(Image image, int step) {
+        int width = YuvConverter.outputSize(image.getWidth(), step);
+        int height = YuvConverter.outputSize(image.getHeight(), step);
+        return yuvToRgb(image, step, new int[width * height],
+                Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+    }
 
-        yBuffer.get(nv21, 0, ySize);
-        vBuffer.get(nv21, ySize, vSize);
-        uBuffer.get(nv21, ySize + vSize, uSize);
+    /**
+     * Convert into reusable targets, nothing is allocated per call.
+     * pixels and target must be sized for the downsampled frame, see YuvConverter.outputSize
+     */
+    public static Bitmap yuvToRgb(Image image, int step, int[] pixels, Bitmap target) {
+        int width = YuvConverter.outputSize(image.getWidth(), step);
+        int height = YuvConverter.outputSize(image.getHeight(), step);
+        if (target.getWidth() != width || target.getHeight() != height) {
+            throw new IllegalArgumentException("Target is " + target.getWidth() + "x" + target.getHeight()
+                    + ", needs " + width + "x" + height);
+        }
+        yuvToArgb(image, step, pixels);
+        target.setPixels(pixels, 0, width, 0, 0, width, height);
+        return target;
+    }
 
-        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        yuvImage.compressToJpeg(new Rect(0, 0, yuvImage.getWidth(), yuvImage.getHeight()), 100, out);
-        byte[] imageBytes = out.toByteArray();
+    /**
+     * Convert into packed ARGB pixels
+     */
+    public static void yuvToArgb(Image image, int step, int[] out) {
+        Image.Plane[] planes = image.getPlanes();
+        YuvConverter.toArgb(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                image.getWidth(), image.getHeight(), step, out);
+    }
 
-        return BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+    /**
+     * Convert into RGBA bytes at the buffer's position, ready for Bitmap.copyPixelsFromBuffer
+     */
+    public static void yuvToRgba(Image image, int step, ByteBuffer out) {
+        Image.Plane[] planes = image.getPlanes();
+        YuvConverter.toRgba(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                image.getWidth(), image.getHeight(), step, out);
     }
 
 
@@ -119,136 +151,41 @@ public class CalculateUtils {
     private static final int LEFT_WRIST = 15;
     private static final int RIGHT_WRIST = 16;
 
-    private static final String TAG = "CalculateUtils";
-
-
+    /**
+     * Stateless check of both arms on one result.
+     *
+     * @deprecated has no hysteresis, so the state flickers around the threshold;
+     * use a per-session {@link ArmStateTracker}
+     */
+    @Deprecated
     public static boolean[] checkHandStatus(
             PoseLandmarkerResult result,
             float threshold) {
 
-        String leftStatus = "down";
-        String rightStatus = "down";
-
         boolean[] handStatus = {false, false}; // {leftHand, rightHand}
-
-
-        float[] leftShoulder;
-        float[] rightShoulder;
-
-        float[] leftElbow;
-        float[] rightElbow;
-
-        float[] leftWrist;
-        float[] rightWrist;
-
-        float visibilityThreshold = 0.6f;
-
-        if(!result.landmarks().isEmpty()){
+        if (!result.landmarks().isEmpty()) {
             List<NormalizedLandmark> data = result.landmarks().get(0);
-
-            leftShoulder = new float[]{
-                    data.get(LEFT_SHOULDER).x(),
-                    data.get(LEFT_SHOULDER).y(),
-                    data.get(LEFT_SHOULDER).visibility().orElse(0.0f)
-            };
-            leftElbow = new float[]{
-                    data.get(LEFT_ELBOW).x(),
-                    data.get(LEFT_ELBOW).y(),
-                    data.get(LEFT_ELBOW).visibility().orElse(0.0f)
-            };
-            leftWrist = new float[]{
-                    data.get(LEFT_WRIST).x(),
-                    data.get(LEFT_WRIST).y(),
-                    data.get(LEFT_WRIST).visibility().orElse(0.0f)
-            };
-
-
-            rightShoulder = new float[]{
-                    data.get(RIGHT_SHOULDER).x(),
-                    data.get(RIGHT_SHOULDER).y(),
-                    data.get(RIGHT_SHOULDER).visibility().orElse(0.0f)
-            };
-
-            rightElbow = new float[]{
-                    data.get(RIGHT_ELBOW).x(),
-                    data.get(RIGHT_ELBOW).y(),
-                    data.get(RIGHT_ELBOW).visibility().orElse(0.0f)
-            };
-            rightWrist = new float[]{
-                    data.get(RIGHT_WRIST).x(),
-                    data.get(RIGHT_WRIST).y(),
-                    data.get(RIGHT_WRIST).visibility().orElse(0.0f)
-        };
-
-            // Calculate angles
-            float leftAngle = calculateAngle(leftShoulder, leftElbow, leftWrist);
-            float rightAngle = calculateAngle(rightShoulder, rightElbow, rightWrist);
-
-            // Check if left hand up or down
-            if (leftAngle < threshold
-                    && leftWrist[2] > visibilityThreshold
-                    && leftStatus.equals("down")
-            ) {
-                leftStatus = "up";
-                handStatus[0] = true;
-                Log.d(TAG, "Left hand is up");
-            }else {
-                leftStatus = "down";
-                handStatus[0] = false;
-                Log.d(TAG, "Left hand is down");
-            }
-
-            // Check if right hand up or down
-            if (rightAngle < threshold
-                    && rightWrist[2] > visibilityThreshold
-                    && rightStatus.equals("down")
-            ) {
-                rightStatus = "up";
-                handStatus[1] = true;
-                Log.d(TAG, "Right hand is up");
-            }else {
-                rightStatus = "down";
-                handStatus[1] = false;
-                Log.d(TAG, "Right hand is down");
-            }
-
-        }else {
-            Log.d(TAG, "No hand detected");
-            handStatus[0] = false;
-            handStatus[1] = false;
-        };
-
+            handStatus[0] = isArmUp(data, LEFT_SHOULDER, LEFT_ELBOW, LEFT_WRIST, threshold);
+            handStatus[1] = isArmUp(data, RIGHT_SHOULDER, RIGHT_ELBOW, RIGHT_WRIST, threshold);
+        }
         return handStatus;
     }
 
+    private static boolean isArmUp(List<NormalizedLandmark> data, int shoulder, int elbow, int wrist, float threshold) {
+        float visibilityThreshold = 0.6f;
+        NormalizedLandmark s = data.get(shoulder);
+        NormalizedLandmark e = data.get(elbow);
+        NormalizedLandmark w = data.get(wrist);
+        return w.visibility().orElse(0.0f) > visibilityThreshold
+                && ArmStateTracker.angle(s.x(), s.y(), e.x(), e.y(), w.x(), w.y()) < threshold;
+    }
+
     /**
-     *
-     * @param a
-     * @param b
-     * @param c
-     * @return
+     * Angle at b between the rays to a and c, in degrees within [0, 180].
+     * Points are {x, y, ...} arrays.
      */
-
-
     public static float calculateAngle(float[] a, float[] b, float[] c) {
-        // Convert the points to arrays
-        float[] vectorA = Arrays.copyOf(a, a.length);
-        float[] vectorB = Arrays.copyOf(b, b.length);
-        float[] vectorC = Arrays.copyOf(c, c.length);
-
-        // Calculate the angle in radians
-        double radians = Math.atan2(vectorC[1] - vectorB[1], vectorC[0] - vectorB[0])
-                - Math.atan2(vectorA[1] - vectorB[1], vectorA[0] - vectorB[0]);
-
-        // Convert to degrees and take the absolute value
-        double angle = Math.abs(Math.toDegrees(radians));
-
-        // Normalize the angle
-        if (angle > 180.0) {
-            angle = 360.0 - angle;
-        }
-
-        return (float) angle;
+        return ArmStateTracker.angle(a[0], a[1], b[0], b[1], c[0], c[1]);
     }
 
     }
@@ -0,0 +1,192 @@
+package com.translator.vsl.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Network timings per endpoint, fed from OkHttp call events. A call on a pooled connection has
+ * no connect phase, so the connect time saved shows up directly in the reused count and the mean.
+ * Event times are System.nanoTime().
+ */
+public class CallTimings {
+
+    /**
+     * Phases of one call. Unreached phases stay at -1 and count as zero.
+     */
+    public static class Timing {
+        private long callStartNs = -1;
+        private long connectStartNs = -1;
+        private long connectEndNs = -1;
+        private long requestStartNs = -1;
+        private long requestEndNs = -1;
+        private long responseStartNs = -1;
+        private long responseEndNs = -1;
+        private long callEndNs = -1;
+        private boolean failed;
+
+        public void callStart(long ns) {
+            callStartNs = ns;
+        }
+
+        public void connectStart(long ns) {
+            connectStartNs = ns;
+        }
+
+        public void connectEnd(long ns) {
+            connectEndNs = ns;
+        }
+
+        public void requestStart(long ns) {
+            if (requestStartNs < 0) {
+                requestStartNs = ns;
+            }
+        }
+
+        /**
+         * End of the request headers or body, whichever comes last.
+         */
+        public void requestEnd(long ns) {
+            requestEndNs = ns;
+        }
+
+        public void responseStart(long ns) {
+            responseStartNs = ns;
+        }
+
+        public void responseEnd(long ns) {
+            responseEndNs = ns;
+        }
+
+        public void callEnd(long ns, boolean failed) {
+            callEndNs = ns;
+            this.failed = failed;
+        }
+
+        public boolean reusedConnection() {
+            return connectStartNs < 0;
+        }
+
+        public boolean failed() {
+            return failed;
+        }
+
+        public long connectMs() {
+            return spanMs(connectStartNs, connectEndNs);
+        }
+
+        /**
+         * From the request being sent to the first response byte: server time plus one round trip.
+         */
+        public long ttfbMs() {
+            return spanMs(requestEndNs, responseStartNs);
+        }
+
+        /**
+         * Sending the request plus reading the response body.
+         */
+        public long transferMs() {
+            return spanMs(requestStartNs, requestEndNs) + spanMs(responseStartNs, responseEndNs);
+        }
+
+        public long totalMs() {
+            return spanMs(callStartNs, callEndNs);
+        }
+
+        private static long spanMs(long startNs, long endNs) {
+            return startNs >= 0 && endNs >= startNs ? (endNs - startNs) / 1_000_000 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s connect %d ms, ttfb %d ms, transfer %d ms, total %d ms%s",
+                    reusedConnection() ? "reused," : "new,", connectMs(), ttfbMs(), transferMs(), totalMs(),
+                    failed ? ", failed" : "");
+        }
+    }
+
+    private static class Totals {
+        int calls;
+        int reused;
+        int failed;
+        long connectMs;
+        long ttfbMs;
+        long transferMs;
+        long totalMs;
+    }
+
+    private final Map<String, Totals> totals = new LinkedHashMap<>();
+
+    public synchronized void record(String endpoint, Timing timing) {
+        Totals t = totals.get(endpoint);
+        if (t == null) {
+            t = new Totals();
+            totals.put(endpoint, t);
+        }
+        t.calls++;
+        if (timing.reusedConnection()) {
+            t.reused++;
+        }
+        if (timing.failed()) {
+            t.failed++;
+        }
+        t.connectMs += timing.connectMs();
+        t.ttfbMs += timing.ttfbMs();
+        t.transferMs += timing.transferMs();
+        t.totalMs += timing.totalMs();
+    }
+
+    public synchronized int calls(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.calls : 0;
+    }
+
+    public synchronized int reusedCalls(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.reused : 0;
+    }
+
+    public synchronized int failedCalls(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.failed : 0;
+    }
+
+    public synchronized long meanConnectMs(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.connectMs / t.calls : 0;
+    }
+
+    public synchronized long meanTtfbMs(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.ttfbMs / t.calls : 0;
+    }
+
+    public synchronized long meanTransferMs(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.transferMs / t.calls : 0;
+    }
+
+    public synchronized long meanTotalMs(String endpoint) {
+        Totals t = totals.get(endpoint);
+        return t != null ? t.totalMs / t.calls : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (totals.isEmpty()) {
+            return "no calls";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Totals> e : totals.entrySet()) {
+            Totals t = e.getValue();
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(String.format(Locale.US,
+                    "%s: %d calls (%d reused, %d failed), mean connect %d ms, ttfb %d ms, transfer %d ms, total %d ms",
+                    e.getKey(), t.calls, t.reused, t.failed, t.connectMs / t.calls, t.ttfbMs / t.calls,
+                    t.transferMs / t.calls, t.totalMs / t.calls));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.translator.vsl.handler;
+
+/**
+ * Result of translating one clip: top-K glosses, most likely first, with their scores and timings.
+ */
+public final class ClipTranslation {
+    public final String[] labels;
+    public final float[] scores;
+    /** Model inputs actually run. */
+    public final int frames;
+    /** Model inputs the sampler planned; more than frames if the clip exited early. */
+    public final int plannedFrames;
+    public final long runTimeMs;
+    public final String pipelineStats;
+
+    public ClipTranslation(String[] labels, float[] scores, int frames, long runTimeMs, String pipelineStats) {
+        this(labels, scores, frames, frames, runTimeMs, pipelineStats);
+    }
+
+    public ClipTranslation(String[] labels, float[] scores, int frames, int plannedFrames, long runTimeMs,
+                           String pipelineStats) {
+        this.labels = labels;
+        this.scores = scores;
+        this.frames = frames;
+        this.plannedFrames = plannedFrames;
+        this.runTimeMs = runTimeMs;
+        this.pipelineStats = pipelineStats;
+    }
+
+    public int framesSaved() {
+        return Math.max(plannedFrames - frames, 0);
+    }
+}
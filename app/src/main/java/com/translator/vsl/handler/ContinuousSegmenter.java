@@ -0,0 +1,361 @@
+package com.translator.vsl.handler;
+
+import android.media.Image;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageProxy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Realtime recording without the stop/start loop: one hardware H.264 encoder runs for the whole
+ * session on ImageAnalysis frames, and its output is cut on keyframes into one MP4 per segment in
+ * a cache directory. Segments decode on their own and follow each other without a gap, and
+ * neither the encoder nor the camera restarts between them. Video only; the encoder is set up
+ * from the first frame's size and rotation. Segments are handed out on the encoder thread.
+ */
+public class ContinuousSegmenter {
+    private static final String TAG = "ContinuousSegmenter";
+    private static final String MIME = MediaFormat.MIMETYPE_VIDEO_AVC;
+    private static final int FRAME_RATE = 30;
+    // Bitrate as bits per pixel per frame, plenty for the analysis resolution
+    private static final float BITS_PER_PIXEL = 0.15f;
+
+    public interface Listener {
+        /**
+         * A finished segment covering [startMs, endMs) of SystemClock.uptimeMillis().
+         */
+        void onSegment(File file, long startMs, long endMs);
+
+        /**
+         * The encoder failed, no more segments will come.
+         */
+        void onError(Exception error);
+    }
+
+    private final File dir;
+    private final long segmentMs;
+    private final Listener listener;
+    private final SegmentCutter cutter;
+    private final HandlerThread thread = new HandlerThread(TAG);
+    private final Handler handler;
+    // Input buffers the encoder has handed out, filled from the analyzer thread
+    private final ConcurrentLinkedQueue<Integer> freeInputs = new ConcurrentLinkedQueue<>();
+    // Keeps end of stream from overtaking a frame being queued
+    private final Object inputLock = new Object();
+
+    private volatile MediaCodec codec;
+    private volatile boolean stopping;
+    private volatile boolean failed;
+    private volatile long uptimeOffsetUs;
+    private volatile int rotation;
+    private volatile int encodedFrames;
+    private volatile int droppedFrames;
+    // Analyzer thread only
+    private long lastInputPtsUs = -1;
+    // Encoder thread only
+    private boolean endOfStreamPending;
+    private MediaFormat outputFormat;
+    private MediaMuxer muxer;
+    private int track;
+    private File segmentFile;
+    private long segmentStartPtsUs;
+    private long lastOutputPtsUs = -1;
+    private long frameDurationUs = 1_000_000 / FRAME_RATE;
+    private int segmentIndex;
+
+    public ContinuousSegmenter(File dir, long segmentMs, Listener listener) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create segment directory " + dir);
+        }
+        this.dir = dir;
+        this.segmentMs = segmentMs;
+        this.listener = listener;
+        this.cutter = new SegmentCutter(segmentMs);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * Feed one camera frame. The frame is copied into the encoder, the caller still owns and closes it.
+     * Frames arriving while the encoder has no free input buffer are dropped.
+     */
+    public void encode(@NonNull ImageProxy image) {
+        synchronized (inputLock) {
+            if (stopping || failed) {
+                return;
+            }
+            long ptsUs = image.getImageInfo().getTimestamp() / 1000;
+            try {
+                if (codec == null) {
+                    start(image);
+                }
+                Integer index = freeInputs.poll();
+                if (index == null || ptsUs <= lastInputPtsUs) {
+                    droppedFrames++;
+                    return;
+                }
+                MediaCodec codec = this.codec;
+                Image input = codec.getInputImage(index);
+                if (input == null) {
+                    throw new IllegalStateException("Encoder gave no input image");
+                }
+                copy(image, input);
+                boolean requestKeyframe;
+                synchronized (cutter) {
+                    requestKeyframe = cutter.shouldRequestKeyframe(ptsUs);
+                }
+                if (requestKeyframe) {
+                    Bundle params = new Bundle();
+                    params.putInt(MediaCodec.PARAMETER_KEY_REQUEST_SYNC_FRAME, 0);
+                    codec.setParameters(params);
+                }
+                codec.queueInputBuffer(index, 0, input.getWidth() * input.getHeight() * 3 / 2, ptsUs, 0);
+                lastInputPtsUs = ptsUs;
+                encodedFrames++;
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Finish the segment in progress and release the encoder; the last, shorter segment still
+     * reaches the listener.
+     */
+    public void stop() {
+        synchronized (inputLock) {
+            stopping = true;
+        }
+        handler.post(() -> {
+            if (codec == null) {
+                release();
+            } else {
+                endOfStreamPending = true;
+                queueEndOfStream();
+            }
+        });
+    }
+
+    public int getSegmentCount() {
+        synchronized (cutter) {
+            return cutter.readySegments();
+        }
+    }
+
+    /**
+     * Time from the end of the last segment's content to its file being complete.
+     */
+    public long getLastSegmentLatencyMs() {
+        synchronized (cutter) {
+            return cutter.lastLatencyMs();
+        }
+    }
+
+    public long getMeanSegmentLatencyMs() {
+        synchronized (cutter) {
+            return cutter.meanLatencyMs();
+        }
+    }
+
+    public long getMaxSegmentLatencyMs() {
+        synchronized (cutter) {
+            return cutter.maxLatencyMs();
+        }
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public String toString() {
+        String segments;
+        synchronized (cutter) {
+            segments = cutter.toString();
+        }
+        return String.format(Locale.US, "%s, %d frames encoded, %d dropped", segments, encodedFrames, droppedFrames);
+    }
+
+    private void start(ImageProxy image) throws IOException {
+        int width = image.getWidth() & ~1;
+        int height = image.getHeight() & ~1;
+        rotation = image.getImageInfo().getRotationDegrees();
+        uptimeOffsetUs = SystemClock.uptimeMillis() * 1000 - image.getImageInfo().getTimestamp() / 1000;
+
+        MediaFormat format = MediaFormat.createVideoFormat(MIME, width, height);
+        format.setInteger(MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Flexible);
+        format.setInteger(MediaFormat.KEY_BIT_RATE, (int) (width * height * FRAME_RATE * BITS_PER_PIXEL));
+        format.setInteger(MediaFormat.KEY_FRAME_RATE, FRAME_RATE);
+        // Keyframes at the segment cadence on their own; requested ones cover an encoder that is late
+        format.setFloat(MediaFormat.KEY_I_FRAME_INTERVAL, segmentMs / 1000f);
+
+        MediaCodec created = MediaCodec.createEncoderByType(MIME);
+        try {
+            created.setCallback(callback, handler);
+            created.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            created.start();
+        } catch (RuntimeException e) {
+            created.release();
+            throw e;
+        }
+        codec = created;
+        Log.i(TAG, "Encoding " + width + "x" + height + " in " + segmentMs + " ms segments");
+    }
+
+    private static void copy(ImageProxy from, Image to) {
+        ImageProxy.PlaneProxy[] src = from.getPlanes();
+        Image.Plane[] dst = to.getPlanes();
+        int width = Math.min(from.getWidth(), to.getWidth());
+        int height = Math.min(from.getHeight(), to.getHeight());
+        for (int p = 0; p < 3; p++) {
+            int planeWidth = p == 0 ? width : width / 2;
+            int planeHeight = p == 0 ? height : height / 2;
+            YuvConverter.copyPlane(src[p].getBuffer(), src[p].getRowStride(), src[p].getPixelStride(),
+                    dst[p].getBuffer(), dst[p].getRowStride(), dst[p].getPixelStride(), planeWidth, planeHeight);
+        }
+    }
+
+    private final MediaCodec.Callback callback = new MediaCodec.Callback() {
+        @Override
+        public void onInputBufferAvailable(@NonNull MediaCodec mc, int index) {
+            freeInputs.add(index);
+            if (endOfStreamPending) {
+                queueEndOfStream();
+            }
+        }
+
+        @Override
+        public void onOutputBufferAvailable(@NonNull MediaCodec mc, int index, @NonNull MediaCodec.BufferInfo info) {
+            try {
+                if ((info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0 && info.size > 0) {
+                    writeSample(mc.getOutputBuffer(index), info);
+                }
+                mc.releaseOutputBuffer(index, false);
+                if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                    finishSegment(lastOutputPtsUs + frameDurationUs);
+                    release();
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(@NonNull MediaCodec mc, @NonNull MediaCodec.CodecException e) {
+            fail(e);
+        }
+
+        @Override
+        public void onOutputFormatChanged(@NonNull MediaCodec mc, @NonNull MediaFormat format) {
+            outputFormat = format;
+        }
+    };
+
+    private void queueEndOfStream() {
+        Integer index;
+        synchronized (inputLock) {
+            index = freeInputs.poll();
+            if (index == null || failed) {
+                return;
+            }
+            codec.queueInputBuffer(index, 0, 0, Math.max(lastInputPtsUs + 1, 0), MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+        }
+        endOfStreamPending = false;
+    }
+
+    private void writeSample(ByteBuffer data, MediaCodec.BufferInfo info) throws IOException {
+        boolean cut;
+        synchronized (cutter) {
+            cut = cutter.onSample(info.presentationTimeUs, (info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) != 0);
+        }
+        if (cut) {
+            finishSegment(info.presentationTimeUs);
+            startSegment(info.presentationTimeUs);
+        }
+        if (muxer == null) {
+            // Before the first keyframe
+            return;
+        }
+        if (lastOutputPtsUs >= 0 && info.presentationTimeUs > lastOutputPtsUs) {
+            frameDurationUs = info.presentationTimeUs - lastOutputPtsUs;
+        }
+        muxer.writeSampleData(track, data, info);
+        lastOutputPtsUs = info.presentationTimeUs;
+    }
+
+    private void startSegment(long ptsUs) throws IOException {
+        if (outputFormat == null) {
+            throw new IllegalStateException("Encoded data before the output format");
+        }
+        segmentFile = new File(dir, String.format(Locale.US, "segment_%05d.mp4", segmentIndex++));
+        muxer = new MediaMuxer(segmentFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        muxer.setOrientationHint(rotation);
+        track = muxer.addTrack(outputFormat);
+        muxer.start();
+        segmentStartPtsUs = ptsUs;
+    }
+
+    private void finishSegment(long endPtsUs) {
+        if (muxer == null) {
+            return;
+        }
+        muxer.stop();
+        muxer.release();
+        muxer = null;
+        long readyMs = SystemClock.uptimeMillis();
+        synchronized (cutter) {
+            cutter.onSegmentReady(endPtsUs + uptimeOffsetUs, readyMs * 1000);
+        }
+        listener.onSegment(segmentFile, (segmentStartPtsUs + uptimeOffsetUs) / 1000, (endPtsUs + uptimeOffsetUs) / 1000);
+    }
+
+    private void fail(Exception e) {
+        if (failed) {
+            return;
+        }
+        failed = true;
+        Log.e(TAG, "Segmenter failed: " + e.getMessage(), e);
+        listener.onError(e);
+        handler.post(this::release);
+    }
+
+    private void release() {
+        MediaCodec codec = this.codec;
+        this.codec = null;
+        if (codec != null) {
+            try {
+                codec.stop();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Encoder stop failed: " + e.getMessage());
+            }
+            codec.release();
+        }
+        if (muxer != null) {
+            // Unfinished segment after a failure
+            try {
+                muxer.release();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Muxer release failed: " + e.getMessage());
+            }
+            muxer = null;
+            segmentFile.delete();
+        }
+        freeInputs.clear();
+        thread.quitSafely();
+        Log.i(TAG, toString());
+    }
+}
@@ -0,0 +1,69 @@
+package com.translator.vsl.handler;
+
+/**
+ * Stops frame-by-frame inference once the running prediction has settled: after at least
+ * minFrames, when the top-1 class has stayed the same for stableFrames consecutive frames and
+ * leads the runner-up by at least minMargin in probability.
+ * The policy is immutable and can be shared; each clip tracks its progress in its own {@link Tracker}.
+ */
+public final class EarlyExitPolicy {
+    /** Runs every sampled frame. */
+    public static final EarlyExitPolicy NEVER = new EarlyExitPolicy(Integer.MAX_VALUE, 1f, Integer.MAX_VALUE);
+
+    public final int minFrames;
+    public final float minMargin;
+    public final int stableFrames;
+
+    public EarlyExitPolicy(int minFrames, float minMargin, int stableFrames) {
+        if (minFrames < 1 || stableFrames < 1 || minMargin < 0f) {
+            throw new IllegalArgumentException("Invalid early exit policy: " + minFrames + ", " + minMargin + ", " + stableFrames);
+        }
+        this.minFrames = minFrames;
+        this.minMargin = minMargin;
+        this.stableFrames = stableFrames;
+    }
+
+    public Tracker start() {
+        return new Tracker();
+    }
+
+    @Override
+    public String toString() {
+        return this == NEVER ? "never" : "after " + minFrames + " frames, margin " + minMargin + ", stable " + stableFrames;
+    }
+
+    public final class Tracker {
+        private int frames;
+        private int top1 = -1;
+        private int stable;
+
+        private Tracker() {
+        }
+
+        /**
+         * Feed the running top-K after a frame.
+         *
+         * @return true once inference can stop
+         */
+        public boolean update(TopKSelector topK) {
+            if (topK.count() == 0) {
+                return update(-1, 0f, 0f);
+            }
+            return update(topK.index(0), topK.score(0), topK.count() > 1 ? topK.score(1) : 0f);
+        }
+
+        /**
+         * @return true once inference can stop
+         */
+        public boolean update(int top1Index, float top1Score, float top2Score) {
+            frames++;
+            stable = top1Index == top1 ? stable + 1 : 1;
+            top1 = top1Index;
+            return frames >= minFrames && stable >= stableFrames && top1Score - top2Score >= minMargin;
+        }
+
+        public int frames() {
+            return frames;
+        }
+    }
+}
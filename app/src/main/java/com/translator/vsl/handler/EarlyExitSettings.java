@@ -0,0 +1,31 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+
+/**
+ * Whether offline translation may stop early once its prediction settles, stored in AppPrefs.
+ */
+public final class EarlyExitSettings {
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_EARLY_EXIT = "early_exit";
+    // Out of the default 20 sampled frames: settle on at least 8, the last 4 agreeing, 40 points ahead
+    public static final EarlyExitPolicy DEFAULT_POLICY = new EarlyExitPolicy(8, 0.4f, 4);
+
+    private EarlyExitSettings() {
+    }
+
+    /**
+     * Off unless switched on: EarlyExitReport has to show the policy stays within 2% of full runs first.
+     */
+    public static boolean isEnabled(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_EARLY_EXIT, false);
+    }
+
+    public static void setEnabled(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_EARLY_EXIT, enabled).apply();
+    }
+
+    public static EarlyExitPolicy selected(Context context) {
+        return isEnabled(context) ? DEFAULT_POLICY : EarlyExitPolicy.NEVER;
+    }
+}
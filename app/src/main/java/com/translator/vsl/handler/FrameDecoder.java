@@ -0,0 +1,286 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.media.Image;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequential MediaExtractor + MediaCodec frame decoder.
+ * The clip is decoded once from the sync frame before the first target; only the frames closest to the requested
+ * timestamps are handed out, the others are released without being copied.
+ * Replaces the per-frame seeks of MediaMetadataRetriever.getFrameAtTime.
+ */
+public class FrameDecoder implements AutoCloseable {
+    private static final String TAG = "FrameDecoder";
+    private static final long DEQUEUE_TIMEOUT_US = 10_000;
+
+    private final MediaExtractor extractor;
+    private final MediaFormat format;
+    private final long durationUs;
+    private final long frameIntervalUs;
+    private final float frameRate;
+    private final int rotationDegrees;
+    private final boolean fullRange;
+
+    /**
+     * Receives the decoded frames that match a requested timestamp.
+     * The image is only valid for the duration of the call.
+     */
+    public interface FrameCallback {
+        void onFrame(Image image, long presentationTimeUs, int targetIndex);
+    }
+
+    public FrameDecoder(Context context, Uri videoUri) throws IOException {
+        extractor = new MediaExtractor();
+        try {
+            extractor.setDataSource(context, videoUri, null);
+            int track = selectVideoTrack(extractor);
+            if (track < 0) {
+                throw new IOException("No video track in " + videoUri);
+            }
+            extractor.selectTrack(track);
+            format = extractor.getTrackFormat(track);
+        } catch (IOException | RuntimeException e) {
+            extractor.release();
+            throw e;
+        }
+        durationUs = format.containsKey(MediaFormat.KEY_DURATION) ? format.getLong(MediaFormat.KEY_DURATION) : 0;
+        int rate = format.containsKey(MediaFormat.KEY_FRAME_RATE) ? format.getInteger(MediaFormat.KEY_FRAME_RATE) : 30;
+        frameRate = Math.max(rate, 1);
+        frameIntervalUs = 1_000_000L / Math.max(rate, 1);
+        rotationDegrees = format.containsKey(MediaFormat.KEY_ROTATION) ? format.getInteger(MediaFormat.KEY_ROTATION) : 0;
+        fullRange = format.containsKey(MediaFormat.KEY_COLOR_RANGE)
+                && format.getInteger(MediaFormat.KEY_COLOR_RANGE) == MediaFormat.COLOR_RANGE_FULL;
+    }
+
+    private static int selectVideoTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("video/")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getDurationUs() {
+        return durationUs;
+    }
+
+    /**
+     * Nominal frame rate from the container, 30 if it does not say.
+     */
+    public float getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Clockwise rotation from the container metadata. Decoded images are not rotated,
+     * unlike MediaMetadataRetriever frames.
+     */
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    /**
+     * Whether the track declares full-range YUV; video without the key is taken as limited range.
+     */
+    public boolean isFullRange() {
+        return fullRange;
+    }
+
+    /**
+     * Evenly spaced timestamps, the same sampling the retriever path uses.
+     */
+    public static long[] uniformTimestamps(long durationUs, int numFrames) {
+        long[] timestamps = new long[numFrames];
+        long interval = durationUs / numFrames;
+        for (int i = 0; i < numFrames; i++) {
+            timestamps[i] = i * interval;
+        }
+        return timestamps;
+    }
+
+    /**
+     * Luma motion at evenly spaced probe times, a decode-only pass for motion-weighted sampling.
+     * Nothing is converted or copied, each probed frame only updates a small motion grid.
+     */
+    public ActivityProfile scanActivity(long probeIntervalUs) throws IOException {
+        int count = (int) Math.max(1, durationUs / probeIntervalUs);
+        long[] probes = new long[count];
+        for (int i = 0; i < count; i++) {
+            probes[i] = i * probeIntervalUs;
+        }
+        float[] motion = new float[count];
+        MotionEstimator estimator = new MotionEstimator();
+        int served = decode(probes, (image, presentationTimeUs, targetIndex) -> {
+            Image.Plane luma = image.getPlanes()[0];
+            Rect crop = image.getCropRect();
+            motion[targetIndex] = estimator.update(luma.getBuffer(), luma.getRowStride(), luma.getPixelStride(),
+                    crop.width(), crop.height());
+        });
+        return new ActivityProfile(probes, motion, served);
+    }
+
+    /**
+     * Decode the clip once and call back for every frame matching the ascending target timestamps.
+     * A frame is taken for a target once it is within half a frame of it, so the result matches
+     * OPTION_CLOSEST up to one frame. Decoding stops as soon as every target has been served.
+     *
+     * @return the number of targets served
+     */
+    public int decode(long[] targetTimestampsUs, FrameCallback callback) throws IOException {
+        if (targetTimestampsUs.length == 0) {
+            return 0;
+        }
+        MediaCodec codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+        format.setInteger(MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Flexible);
+        codec.configure(format, null, null, 0);
+        codec.start();
+        // Windows of a long video start mid-stream, decoding starts from the sync frame before them
+        extractor.seekTo(targetTimestampsUs[0], MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+
+        int nextTarget = 0;
+        boolean inputDone = false;
+        boolean outputDone = false;
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        try {
+            while (!outputDone && nextTarget < targetTimestampsUs.length) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = codec.getInputBuffer(inputIndex);
+                        int size = inputBuffer == null ? -1 : extractor.readSampleData(inputBuffer, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outputIndex = codec.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+                if (outputIndex < 0) {
+                    continue;
+                }
+                if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                    outputDone = true;
+                }
+                long pts = info.presentationTimeUs;
+                if (info.size > 0 && pts + frameIntervalUs / 2 >= targetTimestampsUs[nextTarget]) {
+                    Image image = codec.getOutputImage(outputIndex);
+                    if (image != null) {
+                        // Short clips can map several targets onto the same decoded frame
+                        while (nextTarget < targetTimestampsUs.length
+                                && pts + frameIntervalUs / 2 >= targetTimestampsUs[nextTarget]) {
+                            callback.onFrame(image, pts, nextTarget);
+                            nextTarget++;
+                        }
+                        image.close();
+                    }
+                }
+                codec.releaseOutputBuffer(outputIndex, false);
+            }
+        } finally {
+            try {
+                codec.stop();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Codec stop failed: " + e.getMessage());
+            }
+            codec.release();
+        }
+        return nextTarget;
+    }
+
+    /**
+     * Receives the matching frames already resampled to ARGB bitmaps.
+     */
+    public interface BitmapCallback {
+        void onBitmap(Bitmap bitmap, long presentationTimeUs, int targetIndex);
+    }
+
+    /**
+     * Decode the frames closest to the target timestamps straight into ARGB bitmaps of the given size.
+     */
+    public List<Bitmap> decodeToBitmaps(long[] targetTimestampsUs, int outWidth, int outHeight) throws IOException {
+        List<Bitmap> frames = new ArrayList<>(targetTimestampsUs.length);
+        decodeToBitmaps(targetTimestampsUs, outWidth, outHeight,
+                (bitmap, presentationTimeUs, targetIndex) -> frames.add(bitmap));
+        return frames;
+    }
+
+    /**
+     * Streaming variant of {@link #decodeToBitmaps(long[], int, int)}, each bitmap is handed out as soon as it is decoded.
+     */
+    public int decodeToBitmaps(long[] targetTimestampsUs, int outWidth, int outHeight,
+                               BitmapCallback callback) throws IOException {
+        // Sample in decoder orientation, then rotate the small bitmap to the requested size
+        boolean swap = rotationDegrees == 90 || rotationDegrees == 270;
+        int sampleWidth = swap ? outHeight : outWidth;
+        int sampleHeight = swap ? outWidth : outHeight;
+        int[] pixels = new int[outWidth * outHeight];
+        Matrix rotation = new Matrix();
+        rotation.postRotate(rotationDegrees);
+        return decode(targetTimestampsUs, (image, presentationTimeUs, targetIndex) -> {
+            sampleToArgb(image, pixels, sampleWidth, sampleHeight);
+            Bitmap bitmap = Bitmap.createBitmap(pixels, sampleWidth, sampleHeight, Bitmap.Config.ARGB_8888);
+            if (rotationDegrees != 0) {
+                bitmap = Bitmap.createBitmap(bitmap, 0, 0, sampleWidth, sampleHeight, rotation, false);
+            }
+            callback.onBitmap(bitmap, presentationTimeUs, targetIndex);
+        });
+    }
+
+    /**
+     * Nearest-neighbour resample of a YUV_420_888 image into ARGB pixels, honouring plane strides.
+     */
+    private void sampleToArgb(Image image, int[] out, int outWidth, int outHeight) {
+        Image.Plane[] planes = image.getPlanes();
+        ByteBuffer yBuffer = planes[0].getBuffer();
+        ByteBuffer uBuffer = planes[1].getBuffer();
+        ByteBuffer vBuffer = planes[2].getBuffer();
+        int yRowStride = planes[0].getRowStride();
+        int yPixelStride = planes[0].getPixelStride();
+        int uvRowStride = planes[1].getRowStride();
+        int uvPixelStride = planes[1].getPixelStride();
+        int srcWidth = image.getCropRect().width();
+        int srcHeight = image.getCropRect().height();
+        int left = image.getCropRect().left;
+        int top = image.getCropRect().top;
+
+        for (int y = 0; y < outHeight; y++) {
+            int srcY = top + (int) ((y + 0.5f) * srcHeight / outHeight);
+            int yRow = srcY * yRowStride;
+            int uvRow = (srcY >> 1) * uvRowStride;
+            for (int x = 0; x < outWidth; x++) {
+                int srcX = left + (int) ((x + 0.5f) * srcWidth / outWidth);
+                int uvIndex = uvRow + (srcX >> 1) * uvPixelStride;
+                int yv = yBuffer.get(yRow + srcX * yPixelStride) & 0xff;
+                int uv = uBuffer.get(uvIndex) & 0xff;
+                int vv = vBuffer.get(uvIndex) & 0xff;
+                out[y * outWidth + x] = fullRange ? YuvConverter.yuvToArgb(yv, uv, vv)
+                        : YuvConverter.yuvToArgbLimited(yv, uv, vv);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        extractor.release();
+    }
+}
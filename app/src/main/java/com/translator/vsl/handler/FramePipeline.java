@@ -0,0 +1,316 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded decode → preprocess → infer pipeline for one clip.
+ * A producer task decodes frames and writes them straight into pooled input buffers while
+ * the caller runs inference on the previous frame, so the clip costs roughly
+ * max(decode, infer) instead of their sum.
+ */
+class FramePipeline {
+    private static final String TAG = "FramePipeline";
+    private static final long POLL_INTERVAL_MS = 50;
+    // Motion probes for samplers that weight by activity, about 15 per second
+    private static final long ACTIVITY_PROBE_INTERVAL_US = 66_667;
+    private static final Object END = new Object();
+
+    interface Cancellation {
+        boolean isCancelled();
+    }
+
+    private interface FrameSource {
+        void writeTo(ByteBuffer dst);
+    }
+
+    private final BlockingQueue<Object> queue;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final FrameTensorWriter writer;
+    private final int framesPerInput;
+    private final ExecutorService producerExecutor;
+    private final Cancellation cancellation;
+    private final CountDownLatch producerDone = new CountDownLatch(1);
+    private final long startNs = SystemClock.elapsedRealtimeNanos();
+    private volatile boolean started = false;
+    private volatile boolean finished = false;
+    private volatile Exception producerError;
+
+    // Producer side, written by the producer thread only
+    private volatile long producerWallNs;
+    private volatile long preprocessNs;
+    private volatile long producerBlockedNs;
+    private volatile long activityScanNs;
+    private volatile int producedFrames;
+    private volatile int plannedFrames;
+    private int[] pixels = new int[0];
+    // Input buffer still being filled when the model takes several frames per call
+    private ByteBuffer filling;
+    private int framesInBuffer;
+
+    // Consumer side, written by the inference thread only
+    private long inferNs;
+    private long consumerWaitNs;
+    private int consumedFrames;
+
+    /**
+     * @param inputBuffers   at least depth + 2 buffers: the queued ones, one being written and one being inferred
+     * @param framesPerInput frames written into each input buffer before it is handed to inference
+     */
+    FramePipeline(int depth, ByteBuffer[] inputBuffers, FrameTensorWriter writer, int framesPerInput,
+                  ExecutorService producerExecutor, Cancellation cancellation) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(depth, 1));
+        this.freeBuffers = new ArrayBlockingQueue<>(inputBuffers.length);
+        for (ByteBuffer buffer : inputBuffers) {
+            freeBuffers.offer(buffer);
+        }
+        this.writer = writer;
+        this.framesPerInput = Math.max(framesPerInput, 1);
+        this.producerExecutor = producerExecutor;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Start decoding the frames the sampler picks on the producer executor.
+     * Short clips are padded with black frames, as the retriever path always did; a clip that
+     * gives no frame at all ends the stream with the decoder's error.
+     */
+    void start(Context context, Uri videoUri, FrameSampler sampler) {
+        start(context, videoUri, sampler, null);
+    }
+
+    /**
+     * Start decoding the frames at the given ascending timestamps, one window of a long video.
+     */
+    void start(Context context, Uri videoUri, long[] timestampsUs) {
+        start(context, videoUri, null, timestampsUs);
+    }
+
+    /**
+     * @param timestampsUs frames to decode, or null to ask the sampler
+     */
+    private void start(Context context, Uri videoUri, FrameSampler sampler, long[] timestampsUs) {
+        started = true;
+        producerExecutor.execute(() -> {
+            long producerStart = SystemClock.elapsedRealtimeNanos();
+            try {
+                produceAll(context, videoUri, sampler, timestampsUs);
+            } catch (CancellationException e) {
+                Log.d(TAG, "Decoding cancelled after " + producedFrames + " frames");
+            } catch (Exception e) {
+                Log.e(TAG, "Error extracting frames: " + e.getMessage());
+                producerError = e;
+            } finally {
+                producerWallNs = SystemClock.elapsedRealtimeNanos() - producerStart;
+                try {
+                    enqueue(END);
+                } catch (CancellationException | InterruptedException ignored) {
+                    // The consumer is gone, nobody waits for the end marker
+                }
+                producerDone.countDown();
+            }
+        });
+    }
+
+    private void produceAll(Context context, Uri videoUri, FrameSampler sampler, long[] timestampsUs) throws Exception {
+        long[] timestamps = timestampsUs;
+        // Frame count before the decoder could tell the duration, used by the retriever fallback
+        int numFrames = timestamps != null ? timestamps.length
+                : FrameSampler.roundToMultiple(VideoTranslationHandler.NUM_SAMPLED_FRAMES, Integer.MAX_VALUE, framesPerInput);
+        try (FrameDecoder decoder = new FrameDecoder(context, videoUri)) {
+            if (timestamps == null) {
+                ActivityProfile activity = null;
+                if (sampler.needsActivity()) {
+                    long scanStart = SystemClock.elapsedRealtimeNanos();
+                    activity = decoder.scanActivity(ACTIVITY_PROBE_INTERVAL_US);
+                    activityScanNs = SystemClock.elapsedRealtimeNanos() - scanStart;
+                }
+                timestamps = sampler.sample(decoder.getDurationUs(), decoder.getFrameRate(), activity, framesPerInput);
+                numFrames = timestamps.length;
+            }
+            plannedFrames = numFrames;
+            writer.setTransform(decoder.getRotationDegrees(), false);
+            writer.setFullRange(decoder.isFullRange());
+            decoder.decode(timestamps, (image, presentationTimeUs, targetIndex) ->
+                    produce(dst -> writer.write(image, dst)));
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            if (producedFrames > 0) {
+                throw e;
+            }
+            Log.w(TAG, "Decoder failed, falling back to MediaMetadataRetriever: " + e.getMessage());
+            plannedFrames = numFrames;
+            // Retriever frames are already rotated
+            writer.setTransform(0, false);
+            List<Bitmap> frames = timestamps != null
+                    ? VideoTranslationHandler.extractFramesWithRetriever(context, videoUri, timestamps)
+                    : VideoTranslationHandler.extractFramesWithRetriever(context, videoUri, numFrames);
+            if (frames.isEmpty()) {
+                // Neither could read the file, report the decoder's error instead of a made-up label
+                throw e;
+            }
+            for (Bitmap frame : frames) {
+                int width = frame.getWidth();
+                int height = frame.getHeight();
+                if (pixels.length < width * height) {
+                    pixels = new int[width * height];
+                }
+                frame.getPixels(pixels, 0, width, 0, 0, width, height);
+                produce(dst -> writer.writeArgb(pixels, width, height, width, dst));
+            }
+        }
+
+        // A short clip is padded with black like the retriever path always did; one that gave no
+        // frame at all fails with "No frames decoded" rather than being translated from black
+        if (producedFrames > 0 && producedFrames < numFrames) {
+            int[] black = {0xff000000};
+            writer.setTransform(0, false);
+            while (producedFrames < numFrames) {
+                produce(dst -> writer.writeArgb(black, 1, 1, 1, dst));
+            }
+        }
+    }
+
+    private void produce(FrameSource source) {
+        if (cancellation.isCancelled() || finished) {
+            throw new CancellationException();
+        }
+        try {
+            if (filling == null) {
+                filling = take(freeBuffers);
+                filling.clear();
+            }
+            long preprocessStart = SystemClock.elapsedRealtimeNanos();
+            // The writer advances the position, consecutive frames land one after the other
+            source.writeTo(filling);
+            preprocessNs += SystemClock.elapsedRealtimeNanos() - preprocessStart;
+            if (++framesInBuffer == framesPerInput) {
+                ByteBuffer full = filling;
+                filling = null;
+                framesInBuffer = 0;
+                full.rewind();
+                enqueue(full);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        producedFrames++;
+    }
+
+    /**
+     * Blocking take that gives up once the consumer has left or the run was cancelled.
+     */
+    private <T> T take(BlockingQueue<T> from) throws InterruptedException {
+        long blockedStart = SystemClock.elapsedRealtimeNanos();
+        T item;
+        while ((item = from.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+            if (finished || cancellation.isCancelled()) {
+                throw new CancellationException();
+            }
+        }
+        producerBlockedNs += SystemClock.elapsedRealtimeNanos() - blockedStart;
+        return item;
+    }
+
+    /**
+     * Blocking put that gives up once the consumer has left or the run was cancelled.
+     */
+    private void enqueue(Object item) throws InterruptedException {
+        long blockedStart = SystemClock.elapsedRealtimeNanos();
+        while (!queue.offer(item, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (finished || cancellation.isCancelled()) {
+                throw new CancellationException();
+            }
+        }
+        producerBlockedNs += SystemClock.elapsedRealtimeNanos() - blockedStart;
+    }
+
+    /**
+     * Next preprocessed frame, or null once the clip is exhausted.
+     * Hand the buffer back with {@link #release(ByteBuffer)} once inference is done with it.
+     *
+     * @throws CancellationException if the run was cancelled
+     */
+    ByteBuffer next() throws Exception {
+        long waitStart = SystemClock.elapsedRealtimeNanos();
+        Object item;
+        do {
+            if (cancellation.isCancelled()) {
+                throw new CancellationException();
+            }
+            item = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } while (item == null);
+        consumerWaitNs += SystemClock.elapsedRealtimeNanos() - waitStart;
+
+        if (item == END) {
+            if (producerError != null && consumedFrames == 0) {
+                throw producerError;
+            }
+            return null;
+        }
+        consumedFrames++;
+        return (ByteBuffer) item;
+    }
+
+    void release(ByteBuffer buffer) {
+        freeBuffers.offer(buffer);
+    }
+
+    /**
+     * Model inputs the clip was sampled into, known once decoding started.
+     */
+    int plannedInputs() {
+        return plannedFrames / framesPerInput;
+    }
+
+    void recordInference(long durationNs) {
+        inferNs += durationNs;
+    }
+
+    /**
+     * Stop the producer and wait until it no longer touches the input buffers,
+     * called by the consumer when it stops for any reason. Safe to call more than once.
+     */
+    void finish() {
+        finished = true;
+        queue.clear();
+        if (started) {
+            try {
+                producerDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Timings of the run, complete only after {@link #finish()}.
+     */
+    String stats() {
+        long totalNs = SystemClock.elapsedRealtimeNanos() - startNs;
+        long decodeNs = producerWallNs - activityScanNs - preprocessNs - producerBlockedNs;
+        return String.format(Locale.US,
+                "frames %d, activity scan %d ms, decode %d ms, preprocess %d ms, infer %d ms, infer waiting %d ms, total %d ms",
+                producedFrames, toMs(activityScanNs), toMs(decodeNs), toMs(preprocessNs), toMs(inferNs),
+                toMs(consumerWaitNs), toMs(totalNs));
+    }
+
+    private static long toMs(long ns) {
+        return TimeUnit.NANOSECONDS.toMillis(ns);
+    }
+}
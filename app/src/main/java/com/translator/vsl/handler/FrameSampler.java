@@ -0,0 +1,55 @@
+package com.translator.vsl.handler;
+
+/**
+ * Chooses which frames of a clip are fed to the model.
+ */
+public interface FrameSampler {
+    /**
+     * Ascending timestamps to decode. The count is a multiple of framesPerInput so every
+     * interpreter call gets a full input.
+     *
+     * @param frameRate      source frame rate, frames per second
+     * @param activity       motion pre-pass, only computed if {@link #needsActivity()}
+     * @param framesPerInput frames the model takes per call
+     */
+    long[] sample(long durationUs, float frameRate, ActivityProfile activity, int framesPerInput);
+
+    /**
+     * Whether {@link #sample} needs an {@link ActivityProfile}, which costs an extra decode pass.
+     */
+    default boolean needsActivity() {
+        return false;
+    }
+
+    /**
+     * Frame count for a span at the given density, clamped and rounded to a multiple of framesPerInput.
+     */
+    static int countFor(long spanUs, float framesPerSecond, int minFrames, int maxFrames, int framesPerInput) {
+        int count = (int) Math.round(spanUs / 1e6 * framesPerSecond);
+        return roundToMultiple(Math.max(minFrames, Math.min(maxFrames, count)), maxFrames, framesPerInput);
+    }
+
+    /**
+     * Round up to a multiple, or down if that would exceed the maximum; never below one multiple.
+     */
+    static int roundToMultiple(int count, int maxFrames, int multiple) {
+        int step = Math.max(multiple, 1);
+        int rounded = (count + step - 1) / step * step;
+        if (rounded > maxFrames) {
+            rounded = maxFrames / step * step;
+        }
+        return Math.max(rounded, step);
+    }
+
+    /**
+     * Evenly spaced timestamps over [startUs, endUs), the spacing of the original 20-frame sampling.
+     */
+    static long[] evenlySpaced(long startUs, long endUs, int count) {
+        long[] timestamps = new long[count];
+        long interval = (endUs - startUs) / count;
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = startUs + i * interval;
+        }
+        return timestamps;
+    }
+}
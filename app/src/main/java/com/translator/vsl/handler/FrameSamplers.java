@@ -0,0 +1,46 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+
+/**
+ * The frame sampling strategies offered in settings, stored in AppPrefs.
+ */
+public final class FrameSamplers {
+    public static final String UNIFORM = "uniform";
+    public static final String STRIDE = "stride";
+    public static final String MOTION = "motion";
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_FRAME_SAMPLER = "frame_sampler";
+    // Stride and motion sampling adapt the count to the clip, within these bounds
+    private static final int MIN_FRAMES = 8;
+    private static final int MAX_FRAMES = 32;
+    private static final float MOTION_FRAMES_PER_SECOND = 8f;
+    // Mean luma change below which the signer is considered idle
+    private static final float IDLE_MOTION = 2f;
+
+    private FrameSamplers() {
+    }
+
+    public static FrameSampler create(String strategy) {
+        switch (strategy) {
+            case STRIDE:
+                return new StrideFrameSampler(VideoTranslationHandler.FRAME_STEP, MIN_FRAMES, MAX_FRAMES);
+            case MOTION:
+                return new MotionWeightedFrameSampler(MIN_FRAMES, MAX_FRAMES, MOTION_FRAMES_PER_SECOND, IDLE_MOTION);
+            default:
+                return UniformFrameSampler.fixed(VideoTranslationHandler.NUM_SAMPLED_FRAMES);
+        }
+    }
+
+    public static String getSelected(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_FRAME_SAMPLER, UNIFORM);
+    }
+
+    public static void setSelected(Context context, String strategy) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putString(KEY_FRAME_SAMPLER, strategy).apply();
+    }
+
+    public static FrameSampler selected(Context context) {
+        return create(getSelected(context));
+    }
+}
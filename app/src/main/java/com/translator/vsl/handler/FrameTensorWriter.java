@@ -0,0 +1,235 @@
+package com.translator.vsl.handler;
+
+import android.graphics.Rect;
+import android.media.Image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single-pass frame preprocessing: crop, nearest-neighbour resize, rotation/mirroring and
+ * normalization, writing RGB straight into the interpreter input buffer as float32, or as
+ * quantized 8-bit values for int8/uint8 models.
+ * Replaces TensorImage.load + ResizeOp + ResizeWithCropOrPadOp + NormalizeOp, which allocated
+ * intermediate buffers and a new ImageProcessor for every frame.
+ * Lookup tables are rebuilt only when the source geometry changes, so steady-state calls do not allocate.
+ * Not thread-safe, each producer thread owns its writer.
+ */
+public class FrameTensorWriter {
+    private final int outWidth;
+    private final int outHeight;
+    private final float[] normalized = new float[256];
+    // Quantized value of each normalized level, null for float32 output
+    private final byte[] quantized;
+    private final int channelBytes;
+
+    private int rotationDegrees = 0;
+    private boolean mirror = false;
+    private boolean fullRange = true;
+
+    // Source coordinate of output pixel (x, y) is (colX[x] + rowX[y], colY[x] + rowY[y])
+    private final int[] colX;
+    private final int[] colY;
+    private final int[] rowX;
+    private final int[] rowY;
+    private int tableLeft = -1;
+    private int tableTop = -1;
+    private int tableWidth = -1;
+    private int tableHeight = -1;
+    private int tableRotation = -1;
+    private boolean tableMirror = false;
+
+    public FrameTensorWriter(int outWidth, int outHeight, float mean, float std) {
+        this(outWidth, outHeight, mean, std, TensorFormat.FLOAT32);
+    }
+
+    /**
+     * @param format element type of the model input; quantized types store (level - mean) / std quantized
+     */
+    public FrameTensorWriter(int outWidth, int outHeight, float mean, float std, TensorFormat format) {
+        this.outWidth = outWidth;
+        this.outHeight = outHeight;
+        this.colX = new int[outWidth];
+        this.colY = new int[outWidth];
+        this.rowX = new int[outHeight];
+        this.rowY = new int[outHeight];
+        for (int i = 0; i < 256; i++) {
+            normalized[i] = (i - mean) / std;
+        }
+        this.channelBytes = format.bytesPerElement();
+        if (format.isQuantized()) {
+            quantized = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                quantized[i] = (byte) format.quantize(normalized[i]);
+            }
+        } else {
+            quantized = null;
+        }
+    }
+
+    /**
+     * Rotate the source clockwise by a multiple of 90 degrees, then optionally mirror it horizontally.
+     */
+    public void setTransform(int rotationDegrees, boolean mirror) {
+        if (rotationDegrees % 90 != 0) {
+            throw new IllegalArgumentException("Rotation must be a multiple of 90: " + rotationDegrees);
+        }
+        this.rotationDegrees = ((rotationDegrees % 360) + 360) % 360;
+        this.mirror = mirror;
+    }
+
+    /**
+     * Whether YUV input is full range, as camera frames are, or limited range like most decoded video.
+     */
+    public void setFullRange(boolean fullRange) {
+        this.fullRange = fullRange;
+    }
+
+    /**
+     * Number of bytes written per frame.
+     */
+    public int frameBytes() {
+        return outWidth * outHeight * 3 * channelBytes;
+    }
+
+    /**
+     * Write a YUV_420_888 image, using its crop rectangle as the source region.
+     */
+    public void write(Image image, ByteBuffer dst) {
+        Image.Plane[] planes = image.getPlanes();
+        Rect crop = image.getCropRect();
+        writeYuv(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                crop.left, crop.top, crop.width(), crop.height(), dst);
+    }
+
+    /**
+     * Write a region of YUV 4:2:0 planes with arbitrary row and pixel strides.
+     * Output is written at the destination's position, which is advanced by {@link #frameBytes()}.
+     */
+    public void writeYuv(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                         ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                         int left, int top, int width, int height, ByteBuffer dst) {
+        prepareTables(left, top, width, height);
+        int base = dst.position();
+        int offset = base;
+        for (int y = 0; y < outHeight; y++) {
+            int rx = rowX[y];
+            int ry = rowY[y];
+            for (int x = 0; x < outWidth; x++) {
+                int sx = colX[x] + rx;
+                int sy = colY[x] + ry;
+                int uvIndex = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+                int yv = yPlane.get(sy * yRowStride + sx * yPixelStride) & 0xff;
+                int uv = uPlane.get(uvIndex) & 0xff;
+                int vv = vPlane.get(uvIndex) & 0xff;
+                int pixel = fullRange ? YuvConverter.yuvToArgb(yv, uv, vv) : YuvConverter.yuvToArgbLimited(yv, uv, vv);
+                offset = store(dst, offset, pixel);
+            }
+        }
+        dst.position(base + frameBytes());
+    }
+
+    /**
+     * Write a full ARGB_8888 frame, as returned by Bitmap.getPixels with the given row stride.
+     * Output is written at the destination's position, which is advanced by {@link #frameBytes()}.
+     */
+    public void writeArgb(int[] argb, int width, int height, int stride, ByteBuffer dst) {
+        prepareTables(0, 0, width, height);
+        int base = dst.position();
+        int offset = base;
+        for (int y = 0; y < outHeight; y++) {
+            int rx = rowX[y];
+            int ry = rowY[y];
+            for (int x = 0; x < outWidth; x++) {
+                int pixel = argb[(colY[x] + ry) * stride + colX[x] + rx];
+                offset = store(dst, offset, pixel);
+            }
+        }
+        dst.position(base + frameBytes());
+    }
+
+    /**
+     * Store the RGB channels of an ARGB pixel at offset, returning the offset of the next pixel.
+     */
+    private int store(ByteBuffer dst, int offset, int pixel) {
+        int r = (pixel >> 16) & 0xff;
+        int g = (pixel >> 8) & 0xff;
+        int b = pixel & 0xff;
+        if (quantized == null) {
+            dst.putFloat(offset, normalized[r]);
+            dst.putFloat(offset + 4, normalized[g]);
+            dst.putFloat(offset + 8, normalized[b]);
+            return offset + 12;
+        }
+        dst.put(offset, quantized[r]);
+        dst.put(offset + 1, quantized[g]);
+        dst.put(offset + 2, quantized[b]);
+        return offset + 3;
+    }
+
+    /**
+     * Build the output → source lookup tables for the current crop and transform.
+     * Output pixels sample the centre of their source cell, like Bitmap.createScaledBitmap without filtering.
+     */
+    private void prepareTables(int left, int top, int width, int height) {
+        if (left == tableLeft && top == tableTop && width == tableWidth && height == tableHeight
+                && rotationDegrees == tableRotation && mirror == tableMirror) {
+            return;
+        }
+        boolean swap = rotationDegrees == 90 || rotationDegrees == 270;
+        // Size of the crop once rotated
+        int rotatedWidth = swap ? height : width;
+        int rotatedHeight = swap ? width : height;
+
+        for (int x = 0; x < outWidth; x++) {
+            int rx = (int) ((x + 0.5f) * rotatedWidth / outWidth);
+            if (mirror) {
+                rx = rotatedWidth - 1 - rx;
+            }
+            switch (rotationDegrees) {
+                case 90:
+                    colX[x] = 0;
+                    colY[x] = height - 1 - rx;
+                    break;
+                case 180:
+                    colX[x] = width - 1 - rx;
+                    colY[x] = 0;
+                    break;
+                case 270:
+                    colX[x] = 0;
+                    colY[x] = rx;
+                    break;
+                default:
+                    colX[x] = rx;
+                    colY[x] = 0;
+            }
+        }
+        for (int y = 0; y < outHeight; y++) {
+            int ry = (int) ((y + 0.5f) * rotatedHeight / outHeight);
+            switch (rotationDegrees) {
+                case 90:
+                    rowX[y] = left + ry;
+                    rowY[y] = top;
+                    break;
+                case 180:
+                    rowX[y] = left;
+                    rowY[y] = top + height - 1 - ry;
+                    break;
+                case 270:
+                    rowX[y] = left + width - 1 - ry;
+                    rowY[y] = top;
+                    break;
+                default:
+                    rowX[y] = left;
+                    rowY[y] = top + ry;
+            }
+        }
+
+        tableLeft = left;
+        tableTop = top;
+        tableWidth = width;
+        tableHeight = height;
+        tableRotation = rotationDegrees;
+        tableMirror = mirror;
+    }
+}
@@ -0,0 +1,94 @@
+package com.translator.vsl.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges per-window predictions of a long video into a timestamped gloss timeline.
+ * Each window owns the span halfway to its neighbours' centers; consecutive windows with the same
+ * confident top-1 gloss become one segment, and windows below the score threshold separate glosses.
+ * Windows may finish in any order. Only the in-order prefix is merged, so the timeline grows
+ * monotonically and out-of-order results wait, at most one per window still running.
+ */
+public class GlossTimeline {
+    private final SlidingWindows windows;
+    private final float minScore;
+    private final List<TimelineSegment> segments = new ArrayList<>();
+    private final Map<Integer, Prediction> pending = new HashMap<>();
+    private int nextWindow;
+    // Last segment is still open if the previous window extended it
+    private boolean lastSegmentOpen;
+
+    private static final class Prediction {
+        final String label;
+        final float score;
+
+        Prediction(String label, float score) {
+            this.label = label;
+            this.score = score;
+        }
+    }
+
+    public GlossTimeline(SlidingWindows windows, float minScore) {
+        this.windows = windows;
+        this.minScore = minScore;
+    }
+
+    /**
+     * Record a window's top-1 prediction; label null for a window that produced nothing.
+     *
+     * @return true if the merged timeline advanced
+     */
+    public synchronized boolean add(int window, String label, float score) {
+        if (window < nextWindow || pending.containsKey(window)) {
+            throw new IllegalStateException("Window " + window + " already recorded");
+        }
+        pending.put(window, new Prediction(label, score));
+        boolean advanced = false;
+        Prediction prediction;
+        while ((prediction = pending.remove(nextWindow)) != null) {
+            merge(nextWindow, prediction);
+            nextWindow++;
+            advanced = true;
+        }
+        return advanced;
+    }
+
+    private void merge(int window, Prediction prediction) {
+        if (prediction.label == null || prediction.score < minScore) {
+            lastSegmentOpen = false;
+            return;
+        }
+        long ownStart = window == 0 ? 0 : (windows.centerUs(window - 1) + windows.centerUs(window)) / 2;
+        long ownEnd = window == windows.count() - 1
+                ? windows.durationUs() : (windows.centerUs(window) + windows.centerUs(window + 1)) / 2;
+        int last = segments.size() - 1;
+        if (lastSegmentOpen && segments.get(last).label.equals(prediction.label)) {
+            segments.set(last, segments.get(last).extend(ownEnd, prediction.score));
+        } else {
+            segments.add(new TimelineSegment(prediction.label, ownStart, ownEnd, prediction.score, 1));
+        }
+        lastSegmentOpen = true;
+    }
+
+    /**
+     * Timeline of the windows merged so far, in time order.
+     */
+    public synchronized List<TimelineSegment> segments() {
+        return Collections.unmodifiableList(new ArrayList<>(segments));
+    }
+
+    /**
+     * Windows merged into the timeline; later windows that already finished are not counted yet.
+     */
+    public synchronized int mergedWindows() {
+        return nextWindow;
+    }
+
+    public synchronized boolean isComplete() {
+        return nextWindow == windows.count();
+    }
+}
@@ -0,0 +1,76 @@
+package com.translator.vsl.handler;
+
+import java.util.Locale;
+
+/**
+ * Interpreter runtime settings chosen by {@link InterpreterTuner}: CPU thread count,
+ * XNNPACK on or off, or NNAPI.
+ */
+public final class InterpreterConfig {
+    /**
+     * TFLite defaults, used until the tuner has run.
+     */
+    public static final InterpreterConfig DEFAULT = new InterpreterConfig(-1, true, false);
+
+    public final int numThreads;
+    public final boolean useXnnpack;
+    public final boolean useNnapi;
+
+    /**
+     * @param numThreads CPU threads, -1 lets TFLite decide
+     */
+    public InterpreterConfig(int numThreads, boolean useXnnpack, boolean useNnapi) {
+        this.numThreads = numThreads;
+        this.useXnnpack = useXnnpack;
+        this.useNnapi = useNnapi;
+    }
+
+    /**
+     * Preference form, read back by {@link #decode(String)}.
+     */
+    public String encode() {
+        return numThreads + "," + (useXnnpack ? 1 : 0) + "," + (useNnapi ? 1 : 0);
+    }
+
+    /**
+     * Parse {@link #encode()} output, or null if the value is missing or malformed.
+     */
+    public static InterpreterConfig decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new InterpreterConfig(Integer.parseInt(parts[0]),
+                    "1".equals(parts[1]), "1".equals(parts[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof InterpreterConfig)) {
+            return false;
+        }
+        InterpreterConfig other = (InterpreterConfig) o;
+        return numThreads == other.numThreads && useXnnpack == other.useXnnpack && useNnapi == other.useNnapi;
+    }
+
+    @Override
+    public int hashCode() {
+        return (numThreads * 31 + (useXnnpack ? 1 : 0)) * 31 + (useNnapi ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        if (useNnapi) {
+            return "NNAPI";
+        }
+        String threads = numThreads < 0 ? "auto" : String.valueOf(numThreads);
+        return String.format(Locale.US, "CPU %s threads, XNNPACK %s", threads, useXnnpack ? "on" : "off");
+    }
+}
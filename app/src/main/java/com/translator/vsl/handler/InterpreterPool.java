@@ -0,0 +1,115 @@
+package com.translator.vsl.handler;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed set of independent translation handlers for one model, each with its own interpreter,
+ * recurrent state and decode thread, so several clips can be translated at once.
+ * The registry's shared handler serializes clips behind one lock; batch work borrows from a pool instead.
+ */
+public class InterpreterPool implements AutoCloseable {
+    private static final String TAG = "InterpreterPool";
+    private static final int MAX_POOL_SIZE = 4;
+    // Input, state and decoder buffers on top of the interpreter's copy of the weights
+    private static final long WORKING_SET_BYTES = 48L * 1024 * 1024;
+
+    private final List<VideoTranslationHandler> handlers = new ArrayList<>();
+    private final BlockingQueue<VideoTranslationHandler> idle;
+
+    public InterpreterPool(Context context, String modelPath, String labelPath, int size) throws IOException {
+        this.idle = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                VideoTranslationHandler handler = new VideoTranslationHandler(context, modelPath, labelPath);
+                handlers.add(handler);
+                idle.add(handler);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        Log.i(TAG, "Pool of " + size + " interpreters for " + modelPath);
+    }
+
+    /**
+     * Pool size for this device: bounded by the cores left once each interpreter has its tuned
+     * thread count, and by half of the app's memory class.
+     */
+    public static int recommendedSize(Context context, String modelPath) {
+        InterpreterConfig config = InterpreterTuning.load(context, modelPath);
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        long memoryBudget = activityManager.getMemoryClass() * 1024L * 1024L / 2;
+        long modelBytes;
+        try (AssetFileDescriptor fd = context.getAssets().openFd(modelPath)) {
+            modelBytes = fd.getLength();
+        } catch (IOException e) {
+            modelBytes = 0;
+        }
+        return poolSize(Runtime.getRuntime().availableProcessors(), config.numThreads,
+                memoryBudget, modelBytes + WORKING_SET_BYTES, MAX_POOL_SIZE);
+    }
+
+    /**
+     * @param threadsPerInterpreter tuned thread count, -1 for TFLite's default of one
+     */
+    static int poolSize(int cores, int threadsPerInterpreter, long memoryBudget, long bytesPerInterpreter, int max) {
+        int threads = Math.max(threadsPerInterpreter, 1);
+        int byCores = cores / threads;
+        long byMemory = bytesPerInterpreter > 0 ? memoryBudget / bytesPerInterpreter : max;
+        return (int) Math.max(1, Math.min(max, Math.min(byCores, byMemory)));
+    }
+
+    public int size() {
+        return handlers.size();
+    }
+
+    /**
+     * Take an idle handler, waiting for one to be returned if all are busy.
+     */
+    public VideoTranslationHandler borrow() throws InterruptedException {
+        return idle.take();
+    }
+
+    public void giveBack(VideoTranslationHandler handler) {
+        idle.offer(handler);
+    }
+
+    public void setFrameSampler(FrameSampler sampler) {
+        for (VideoTranslationHandler handler : handlers) {
+            handler.setFrameSampler(sampler);
+        }
+    }
+
+    public void setEarlyExitPolicy(EarlyExitPolicy policy) {
+        for (VideoTranslationHandler handler : handlers) {
+            handler.setEarlyExitPolicy(policy);
+        }
+    }
+
+    /**
+     * Stop every clip in progress.
+     */
+    public void cancelAll() {
+        for (VideoTranslationHandler handler : handlers) {
+            handler.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (VideoTranslationHandler handler : handlers) {
+            handler.close();
+        }
+        handlers.clear();
+        idle.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package com.translator.vsl.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks the fastest interpreter configuration by timing each candidate on the same input.
+ * Timing is delegated to a {@link Benchmark} so the selection logic runs without a device.
+ */
+public class InterpreterTuner {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 6, 8};
+
+    public interface Benchmark {
+        /**
+         * Median latency of one inference with the given configuration, in nanoseconds.
+         *
+         * @throws Exception if the configuration cannot run on this device
+         */
+        long measure(InterpreterConfig config) throws Exception;
+    }
+
+    public static final class Result {
+        public final InterpreterConfig best;
+        public final long bestNs;
+        /** Latency of every candidate that ran, in candidate order. */
+        public final Map<InterpreterConfig, Long> timings;
+
+        Result(InterpreterConfig best, long bestNs, Map<InterpreterConfig, Long> timings) {
+            this.best = best;
+            this.bestNs = bestNs;
+            this.timings = Collections.unmodifiableMap(timings);
+        }
+
+        public String summary() {
+            return String.format(Locale.US, "%s, %.1f ms/frame", best, bestNs / 1e6);
+        }
+    }
+
+    /**
+     * Candidates this device supports: thread counts up to the core count, each with XNNPACK on and off,
+     * plus NNAPI where present.
+     */
+    public static List<InterpreterConfig> candidates(int cpuCores, boolean nnapiAvailable) {
+        List<InterpreterConfig> candidates = new ArrayList<>();
+        for (int threads : THREAD_COUNTS) {
+            if (threads > cpuCores) {
+                break;
+            }
+            candidates.add(new InterpreterConfig(threads, true, false));
+            candidates.add(new InterpreterConfig(threads, false, false));
+        }
+        if (nnapiAvailable) {
+            candidates.add(new InterpreterConfig(-1, false, true));
+        }
+        return candidates;
+    }
+
+    /**
+     * Time every candidate and return the fastest. Candidates that fail are skipped;
+     * ties keep the earlier, cheaper candidate.
+     *
+     * @throws IllegalStateException if no candidate ran
+     */
+    public Result tune(List<InterpreterConfig> candidates, Benchmark benchmark) {
+        Map<InterpreterConfig, Long> timings = new LinkedHashMap<>();
+        InterpreterConfig best = null;
+        long bestNs = Long.MAX_VALUE;
+        for (InterpreterConfig candidate : candidates) {
+            long ns;
+            try {
+                ns = benchmark.measure(candidate);
+            } catch (Exception e) {
+                continue;
+            }
+            timings.put(candidate, ns);
+            if (ns < bestNs) {
+                best = candidate;
+                bestNs = ns;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No interpreter configuration could run");
+        }
+        return new Result(best, bestNs, timings);
+    }
+}
@@ -0,0 +1,181 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Device side of interpreter tuning: times each candidate configuration on a synthetic input,
+ * keeps the fastest per model in AppPrefs and turns it into Interpreter.Options.
+ */
+public final class InterpreterTuning {
+    private static final String TAG = "InterpreterTuning";
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_CONFIG_PREFIX = "interpreter_config_";
+    private static final String KEY_SUMMARY_PREFIX = "interpreter_summary_";
+    private static final String SIGNATURE_KEY = "serving_default";
+    private static final int WARM_UP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    // One tuning run at a time, two would skew each other's timings
+    private static final ExecutorService TUNING_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private InterpreterTuning() {
+    }
+
+    /**
+     * Stored configuration for a model, or the TFLite defaults if it was never tuned.
+     */
+    public static InterpreterConfig load(Context context, String modelPath) {
+        InterpreterConfig config = InterpreterConfig.decode(prefs(context).getString(KEY_CONFIG_PREFIX + modelPath, null));
+        return config != null ? config : InterpreterConfig.DEFAULT;
+    }
+
+    public static boolean isTuned(Context context, String modelPath) {
+        return prefs(context).contains(KEY_CONFIG_PREFIX + modelPath);
+    }
+
+    /**
+     * Human-readable result of the last tuning run, or null if the model was never tuned.
+     */
+    public static String loadSummary(Context context, String modelPath) {
+        return prefs(context).getString(KEY_SUMMARY_PREFIX + modelPath, null);
+    }
+
+    public static Interpreter.Options options(Context context, String modelPath) {
+        return options(load(context, modelPath));
+    }
+
+    public static Interpreter.Options options(InterpreterConfig config) {
+        Interpreter.Options options = new Interpreter.Options();
+        if (config.useNnapi) {
+            options.setUseNNAPI(true);
+        } else {
+            options.setUseXNNPACK(config.useXnnpack);
+        }
+        if (config.numThreads > 0) {
+            options.setNumThreads(config.numThreads);
+        }
+        return options;
+    }
+
+    /**
+     * Benchmark every supported configuration and store the fastest for this model.
+     * Takes a few seconds, call it off the main thread.
+     */
+    public static InterpreterTuner.Result tune(Context context, String modelPath) throws IOException {
+        MappedByteBuffer model = VideoTranslationHandler.loadModelFile(context, modelPath);
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(
+                Runtime.getRuntime().availableProcessors(), isNnapiAvailable());
+
+        InterpreterTuner.Result result = new InterpreterTuner().tune(candidates, config -> measure(model, config));
+        for (Map.Entry<InterpreterConfig, Long> timing : result.timings.entrySet()) {
+            Log.d(TAG, modelPath + ": " + timing.getKey() + " " + timing.getValue() / 1000 + " us");
+        }
+        Log.i(TAG, modelPath + " tuned: " + result.summary());
+
+        prefs(context).edit()
+                .putString(KEY_CONFIG_PREFIX + modelPath, result.best.encode())
+                .putString(KEY_SUMMARY_PREFIX + modelPath, result.summary())
+                .apply();
+        return result;
+    }
+
+    /**
+     * Whether an NNAPI delegate can actually be created here. Every supported Android version
+     * ships the API, but some devices have no usable driver or lack the native delegate library.
+     */
+    static boolean isNnapiAvailable() {
+        try {
+            new NnApiDelegate().close();
+            return true;
+        } catch (RuntimeException | LinkageError e) {
+            Log.i(TAG, "NNAPI unavailable: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Run {@link #tune(Context, String)} on the tuning thread.
+     */
+    public static CompletableFuture<InterpreterTuner.Result> tuneAsync(Context context, String modelPath) {
+        Context appContext = context.getApplicationContext();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return tune(appContext, modelPath);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, TUNING_EXECUTOR);
+    }
+
+    /**
+     * Median latency of the serving signature with fixed synthetic inputs.
+     */
+    private static long measure(ByteBuffer model, InterpreterConfig config) {
+        Interpreter interpreter = new Interpreter(model, options(config));
+        try {
+            Map<String, Object> inputs = new HashMap<>();
+            for (String name : interpreter.getSignatureInputs(SIGNATURE_KEY)) {
+                inputs.put(name, syntheticBuffer(interpreter.getInputTensorFromSignature(name, SIGNATURE_KEY).numBytes()));
+            }
+            Map<String, Object> outputs = new HashMap<>();
+            for (String name : interpreter.getSignatureOutputs(SIGNATURE_KEY)) {
+                outputs.put(name, ByteBuffer.allocateDirect(
+                        interpreter.getOutputTensorFromSignature(name, SIGNATURE_KEY).numBytes()).order(ByteOrder.nativeOrder()));
+            }
+
+            long[] samples = new long[MEASURED_RUNS];
+            for (int i = 0; i < WARM_UP_RUNS + MEASURED_RUNS; i++) {
+                rewindAll(inputs);
+                rewindAll(outputs);
+                long start = SystemClock.elapsedRealtimeNanos();
+                interpreter.runSignature(inputs, outputs, SIGNATURE_KEY);
+                if (i >= WARM_UP_RUNS) {
+                    samples[i - WARM_UP_RUNS] = SystemClock.elapsedRealtimeNanos() - start;
+                }
+            }
+            Arrays.sort(samples);
+            return samples[MEASURED_RUNS / 2];
+        } finally {
+            interpreter.close();
+        }
+    }
+
+    /**
+     * Same bytes on every run and every device, small values that are valid for float and quantized tensors.
+     */
+    private static ByteBuffer syntheticBuffer(int numBytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(numBytes).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < numBytes; i++) {
+            buffer.put(i, (byte) (i % 7));
+        }
+        return buffer;
+    }
+
+    private static void rewindAll(Map<String, Object> buffers) {
+        for (Object buffer : buffers.values()) {
+            ((ByteBuffer) buffer).rewind();
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.translator.vsl.handler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays a recorded landmark sequence, detected on every frame, through keyframe detection and
+ * tracking, and measures how far the tracked upper-body landmarks stray from the recorded ones.
+ * Keyframes take the recorded landmarks as their detection.
+ */
+public final class KeyframeEvaluation {
+
+    public static final class Result {
+        public final KeyframePolicy policy;
+        public final int frames;
+        public final int detections;
+        // Distances in normalized image units
+        public final float meanError;
+        public final float p95Error;
+        public final float maxError;
+
+        Result(KeyframePolicy policy, int frames, int detections, float meanError, float p95Error, float maxError) {
+            this.policy = policy;
+            this.frames = frames;
+            this.detections = detections;
+            this.meanError = meanError;
+            this.p95Error = p95Error;
+            this.maxError = maxError;
+        }
+
+        /**
+         * Fraction of frames that ran a full detection.
+         */
+        public float detectionRate() {
+            return frames > 0 ? (float) detections / frames : 0f;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d/%d frames detected (%.0f%%), error mean %.4f, p95 %.4f, max %.4f",
+                    policy, detections, frames, 100 * detectionRate(), meanError, p95Error, maxError);
+        }
+    }
+
+    private KeyframeEvaluation() {
+    }
+
+    /**
+     * @param lumas frame images matching the sequence, or null to evaluate extrapolation alone
+     * @param minVisibility recorded landmarks below this visibility are left out of the error
+     */
+    public static Result evaluate(List<PoseFrame> recorded, List<LumaImage> lumas, KeyframePolicy policy, float minVisibility) {
+        LandmarkTracker tracker = new LandmarkTracker();
+        PoseFrame tracked = new PoseFrame();
+        float[] errors = new float[recorded.size() * (PoseFrame.UPPER_BODY_TO - PoseFrame.UPPER_BODY_FROM)];
+        int count = 0;
+        int detections = 0;
+        int framesSinceKeyframe = 0;
+        for (int f = 0; f < recorded.size(); f++) {
+            PoseFrame truth = recorded.get(f);
+            LumaImage luma = lumas != null ? lumas.get(f) : null;
+            if (!tracker.hasEstimate() || policy.isKeyframe(framesSinceKeyframe, tracker.confidence())) {
+                tracker.onDetected(truth, luma);
+                tracked.copyFrom(truth);
+                detections++;
+                framesSinceKeyframe = 0;
+            } else {
+                tracker.track(truth.timestampMs, luma, tracked);
+            }
+            framesSinceKeyframe++;
+
+            for (int i = PoseFrame.UPPER_BODY_FROM; i < PoseFrame.UPPER_BODY_TO; i++) {
+                if (truth.visibility[i] >= minVisibility) {
+                    errors[count++] = (float) Math.hypot(tracked.x[i] - truth.x[i], tracked.y[i] - truth.y[i]);
+                }
+            }
+        }
+
+        if (count == 0) {
+            return new Result(policy, recorded.size(), detections, 0f, 0f, 0f);
+        }
+        Arrays.sort(errors, 0, count);
+        float sum = 0f;
+        for (int i = 0; i < count; i++) {
+            sum += errors[i];
+        }
+        return new Result(policy, recorded.size(), detections, sum / count,
+                errors[Math.min(count - 1, (int) (0.95f * count))], errors[count - 1]);
+    }
+}
@@ -0,0 +1,33 @@
+package com.translator.vsl.handler;
+
+/**
+ * When live pose runs a full detection instead of tracking: every interval frames, or sooner
+ * once the tracker's confidence drops below minConfidence.
+ */
+public final class KeyframePolicy {
+    /** Full detection on every frame, no tracking. */
+    public static final KeyframePolicy EVERY_FRAME = new KeyframePolicy(1, 0f);
+
+    public final int interval;
+    public final float minConfidence;
+
+    public KeyframePolicy(int interval, float minConfidence) {
+        if (interval < 1 || minConfidence < 0f || minConfidence > 1f) {
+            throw new IllegalArgumentException("Invalid keyframe policy: " + interval + ", " + minConfidence);
+        }
+        this.interval = interval;
+        this.minConfidence = minConfidence;
+    }
+
+    /**
+     * @param framesSinceKeyframe frames since the last detection, 1 for the frame right after it
+     */
+    public boolean isKeyframe(int framesSinceKeyframe, float trackingConfidence) {
+        return framesSinceKeyframe >= interval || trackingConfidence < minConfidence;
+    }
+
+    @Override
+    public String toString() {
+        return this == EVERY_FRAME ? "every frame" : "every " + interval + " frames, min confidence " + minConfidence;
+    }
+}
@@ -0,0 +1,32 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+
+/**
+ * Whether live pose detection in realtime sessions runs only on keyframes and tracks landmarks
+ * in between, stored in AppPrefs.
+ */
+public final class KeyframeSettings {
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_KEYFRAME_TRACKING = "keyframe_tracking";
+    // Detect every third frame, sooner once tracking confidence falls under one half
+    public static final KeyframePolicy DEFAULT_POLICY = new KeyframePolicy(3, 0.5f);
+
+    private KeyframeSettings() {
+    }
+
+    /**
+     * Off unless switched on, KeyframeTrackingReport measures the accuracy it costs.
+     */
+    public static boolean isEnabled(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_KEYFRAME_TRACKING, false);
+    }
+
+    public static void setEnabled(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_KEYFRAME_TRACKING, enabled).apply();
+    }
+
+    public static KeyframePolicy selected(Context context) {
+        return isEnabled(context) ? DEFAULT_POLICY : KeyframePolicy.EVERY_FRAME;
+    }
+}
@@ -0,0 +1,335 @@
+package com.translator.vsl.handler;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of pose landmark streams for the realtime landmark endpoint, a few kilobytes
+ * per second instead of a video segment. Coordinates are quantized to 1/4096 of the image and
+ * visibility to 1/255; within a packet every pose after the first is sent as its difference from
+ * the previous one, which for a signer at 15 fps is mostly a single byte per value.
+ * <p>
+ * Packet layout, integers are LEB128 varints, signed ones zigzag-encoded:
+ * <pre>
+ *   'V' 'L' version landmarkCount          4 bytes
+ *   sequence frameCount firstTimestampMs
+ *   per frame: timestamp delta ms, flags, and if FLAG_POSE is set landmarkCount (x, y, visibility)
+ *              triples, absolute if FLAG_ABSOLUTE is set, otherwise relative to the previous pose
+ * </pre>
+ * On a byte stream each packet is preceded by its length as a varint, see {@link #writeFramed}.
+ */
+public final class LandmarkCodec {
+    public static final int VERSION = 1;
+    public static final String CONTENT_TYPE = "application/x-vsl-landmarks";
+    public static final int XY_SCALE = 4096;
+    public static final int VISIBILITY_SCALE = 255;
+    // Face, arms, hands and hips; the legs carry nothing for signing
+    public static final int UPPER_BODY_LANDMARKS = 25;
+
+    static final int FLAG_POSE = 1;
+    static final int FLAG_ABSOLUTE = 2;
+    // Full detection rather than tracked landmarks
+    static final int FLAG_KEYFRAME = 4;
+
+    private static final byte MAGIC_0 = 'V';
+    private static final byte MAGIC_1 = 'L';
+    // Guards the decoder against a corrupt length prefix
+    private static final int MAX_PACKET_BYTES = 1 << 20;
+
+    private LandmarkCodec() {
+    }
+
+    /**
+     * Collects frames into one packet at a time. Reuses its buffers, so encoding a frame
+     * allocates nothing once the buffer has grown to the batch size. Not thread-safe.
+     */
+    public static final class Encoder {
+        private final int landmarkCount;
+        private final int[] previous;
+        private byte[] body = new byte[1024];
+        private int bodyLength;
+        private int frameCount;
+        private long firstTimestampMs;
+        private long lastTimestampMs;
+        private boolean hasPrevious;
+
+        public Encoder(int landmarkCount) {
+            if (landmarkCount < 1 || landmarkCount > PoseFrame.NUM_LANDMARKS) {
+                throw new IllegalArgumentException("Landmark count must be in [1, " + PoseFrame.NUM_LANDMARKS + "]: " + landmarkCount);
+            }
+            this.landmarkCount = landmarkCount;
+            this.previous = new int[landmarkCount * 3];
+        }
+
+        /**
+         * Append a detected or tracked pose; timestamps must not go backwards.
+         */
+        public void add(PoseFrame frame) {
+            beginFrame(frame.timestampMs);
+            int flags = FLAG_POSE | (hasPrevious ? 0 : FLAG_ABSOLUTE) | (frame.keyframe ? FLAG_KEYFRAME : 0);
+            writeByte(flags);
+            for (int i = 0; i < landmarkCount; i++) {
+                writeValue(i * 3, quantizeXy(frame.x[i]));
+                writeValue(i * 3 + 1, quantizeXy(frame.y[i]));
+                writeValue(i * 3 + 2, quantizeVisibility(frame.visibility[i]));
+            }
+            hasPrevious = true;
+        }
+
+        /**
+         * Append a frame in which no pose was found.
+         */
+        public void addMissing(long timestampMs) {
+            beginFrame(timestampMs);
+            writeByte(0);
+            hasPrevious = false;
+        }
+
+        public int frameCount() {
+            return frameCount;
+        }
+
+        /**
+         * Timestamp of the first frame in the packet being built.
+         */
+        public long firstTimestampMs() {
+            return firstTimestampMs;
+        }
+
+        /**
+         * Close the packet under construction and start a new one.
+         */
+        public byte[] finish(int sequence) {
+            byte[] header = new byte[4 + 3 * 10];
+            header[0] = MAGIC_0;
+            header[1] = MAGIC_1;
+            header[2] = VERSION;
+            header[3] = (byte) landmarkCount;
+            int headerLength = putVarint(header, 4, sequence & 0xFFFFFFFFL);
+            headerLength = putVarint(header, headerLength, frameCount);
+            headerLength = putVarint(header, headerLength, zigzag(firstTimestampMs));
+
+            byte[] packet = Arrays.copyOf(header, headerLength + bodyLength);
+            System.arraycopy(body, 0, packet, headerLength, bodyLength);
+            bodyLength = 0;
+            frameCount = 0;
+            hasPrevious = false;
+            return packet;
+        }
+
+        private void beginFrame(long timestampMs) {
+            if (frameCount == 0) {
+                firstTimestampMs = timestampMs;
+                lastTimestampMs = timestampMs;
+            } else if (timestampMs < lastTimestampMs) {
+                throw new IllegalArgumentException("Timestamp went backwards: " + timestampMs + " < " + lastTimestampMs);
+            }
+            ensureCapacity(10 + 1 + landmarkCount * 3 * 5);
+            bodyLength = putVarint(body, bodyLength, timestampMs - lastTimestampMs);
+            lastTimestampMs = timestampMs;
+            frameCount++;
+        }
+
+        private void writeValue(int slot, int value) {
+            int encoded = hasPrevious ? value - previous[slot] : value;
+            previous[slot] = value;
+            bodyLength = putVarint(body, bodyLength, zigzag(encoded));
+        }
+
+        private void writeByte(int value) {
+            body[bodyLength++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (bodyLength + extra > body.length) {
+                body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + extra));
+            }
+        }
+    }
+
+    /**
+     * A decoded packet. poses[i] is null where frame i had no pose.
+     */
+    public static final class Packet {
+        public final int sequence;
+        public final int landmarkCount;
+        public final long[] timestampsMs;
+        public final PoseFrame[] poses;
+
+        Packet(int sequence, int landmarkCount, long[] timestampsMs, PoseFrame[] poses) {
+            this.sequence = sequence;
+            this.landmarkCount = landmarkCount;
+            this.timestampsMs = timestampsMs;
+            this.poses = poses;
+        }
+    }
+
+    public static Packet decode(byte[] data) throws IOException {
+        return decode(data, 0, data.length);
+    }
+
+    public static Packet decode(byte[] data, int offset, int length) throws IOException {
+        Reader in = new Reader(data, offset, length);
+        if (in.readByte() != MAGIC_0 || in.readByte() != MAGIC_1) {
+            throw new IOException("Not a landmark packet");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported landmark packet version " + version);
+        }
+        int landmarkCount = in.readByte();
+        if (landmarkCount < 1 || landmarkCount > PoseFrame.NUM_LANDMARKS) {
+            throw new IOException("Invalid landmark count " + landmarkCount);
+        }
+        int sequence = (int) in.readVarint();
+        long frameCount = in.readVarint();
+        // Every frame takes at least two bytes
+        if (frameCount > length / 2) {
+            throw new IOException("Invalid frame count " + frameCount);
+        }
+        long timestampMs = unzigzag(in.readVarint());
+
+        long[] timestampsMs = new long[(int) frameCount];
+        PoseFrame[] poses = new PoseFrame[(int) frameCount];
+        int[] previous = new int[landmarkCount * 3];
+        boolean hasPrevious = false;
+        for (int f = 0; f < frameCount; f++) {
+            timestampMs += in.readVarint();
+            timestampsMs[f] = timestampMs;
+            int flags = in.readByte();
+            if ((flags & FLAG_POSE) == 0) {
+                hasPrevious = false;
+                continue;
+            }
+            boolean absolute = (flags & FLAG_ABSOLUTE) != 0;
+            if (!absolute && !hasPrevious) {
+                throw new IOException("Relative pose without a previous pose in frame " + f);
+            }
+            PoseFrame pose = new PoseFrame();
+            for (int slot = 0; slot < previous.length; slot++) {
+                int value = (int) unzigzag(in.readVarint());
+                previous[slot] = absolute ? value : previous[slot] + value;
+            }
+            for (int i = 0; i < landmarkCount; i++) {
+                pose.set(i, (float) previous[i * 3] / XY_SCALE, (float) previous[i * 3 + 1] / XY_SCALE,
+                        (float) previous[i * 3 + 2] / VISIBILITY_SCALE);
+            }
+            pose.timestampMs = timestampMs;
+            pose.keyframe = (flags & FLAG_KEYFRAME) != 0;
+            poses[f] = pose;
+            hasPrevious = true;
+        }
+        if (in.remaining() != 0) {
+            throw new IOException(in.remaining() + " trailing bytes after landmark packet");
+        }
+        return new Packet(sequence, landmarkCount, timestampsMs, poses);
+    }
+
+    /**
+     * Write a packet preceded by its length, for streams carrying several packets.
+     */
+    public static void writeFramed(OutputStream out, byte[] packet) throws IOException {
+        byte[] length = new byte[5];
+        out.write(length, 0, putVarint(length, 0, packet.length));
+        out.write(packet);
+    }
+
+    /**
+     * Read one length-prefixed packet, or null at a clean end of stream.
+     */
+    public static Packet readFramed(InputStream in) throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return null;
+                }
+                throw new EOFException("Truncated landmark packet length");
+            }
+            if (shift > 28) {
+                throw new IOException("Landmark packet length too long");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length > MAX_PACKET_BYTES) {
+            throw new IOException("Landmark packet of " + length + " bytes exceeds " + MAX_PACKET_BYTES);
+        }
+        byte[] packet = new byte[(int) length];
+        int read = 0;
+        while (read < packet.length) {
+            int n = in.read(packet, read, packet.length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated landmark packet: " + read + " of " + length + " bytes");
+            }
+            read += n;
+        }
+        return decode(packet);
+    }
+
+    static int quantizeXy(float value) {
+        return Math.round(value * XY_SCALE);
+    }
+
+    static int quantizeVisibility(float value) {
+        return Math.round(Math.max(0f, Math.min(1f, value)) * VISIBILITY_SCALE);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int putVarint(byte[] out, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        Reader(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        int readByte() throws IOException {
+            if (position >= end) {
+                throw new EOFException("Truncated landmark packet");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in landmark packet");
+        }
+
+        int remaining() {
+            return end - position;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.translator.vsl.handler;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Streams pose landmarks to the realtime landmark endpoint. Frames are batched into
+ * {@link LandmarkCodec} packets of about batchMs and posted one at a time, in order, each with
+ * its sequence number so the server can tell a lost packet from a late one. Packets that fail are
+ * dropped rather than retried: by the time the network recovers their frames are stale.
+ * Reports through the listener and counters only, so it runs on a plain JVM. Feed it from a single thread.
+ */
+public class LandmarkStreamClient {
+    private static final MediaType CONTENT_TYPE = MediaType.parse(LandmarkCodec.CONTENT_TYPE);
+    public static final String HEADER_CLIENT_ID = "X-Client-Id";
+    public static final String HEADER_SEQUENCE = "X-Sequence";
+    // New packets are dropped while this many are still waiting to be sent
+    private static final int MAX_QUEUED_PACKETS = 8;
+
+    public interface Listener {
+        /**
+         * Server reply to a packet, on the sender thread.
+         */
+        void onResponse(int sequence, String body);
+
+        void onError(int sequence, IOException error);
+    }
+
+    private final OkHttpClient http;
+    private final String url;
+    private final String clientId;
+    private final long batchMs;
+    private final Listener listener;
+    private final LandmarkCodec.Encoder encoder;
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+    private int nextSequence;
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile int framesSent;
+    private volatile int packetsSent;
+    private final AtomicInteger packetsDropped = new AtomicInteger();
+    private volatile long bytesSent;
+    private volatile long firstFrameMs = -1;
+    private volatile long lastFrameMs;
+
+    public LandmarkStreamClient(OkHttpClient http, String url, String clientId, int landmarkCount, long batchMs,
+                                Listener listener) {
+        if (batchMs <= 0) {
+            throw new IllegalArgumentException("Batch must be positive: " + batchMs + " ms");
+        }
+        this.http = http;
+        this.url = url;
+        this.clientId = clientId;
+        this.batchMs = batchMs;
+        this.listener = listener;
+        this.encoder = new LandmarkCodec.Encoder(landmarkCount);
+    }
+
+    public void onPose(PoseFrame frame) {
+        encoder.add(frame);
+        onFrameAdded(frame.timestampMs);
+    }
+
+    public void onMissingPose(long timestampMs) {
+        encoder.addMissing(timestampMs);
+        onFrameAdded(timestampMs);
+    }
+
+    /**
+     * Send whatever is batched now.
+     */
+    public void flush() {
+        int frames = encoder.frameCount();
+        if (frames == 0) {
+            return;
+        }
+        int sequence = nextSequence++;
+        byte[] packet = encoder.finish(sequence);
+        if (queued.get() >= MAX_QUEUED_PACKETS) {
+            packetsDropped.incrementAndGet();
+            listener.onError(sequence, new IOException("Sender is behind, packet dropped"));
+            return;
+        }
+        queued.incrementAndGet();
+        sender.execute(() -> {
+            try {
+                send(sequence, packet, frames);
+            } finally {
+                queued.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Send the last batch and stop; queued packets still go out in the background.
+     * No frames may be fed afterwards.
+     */
+    public void close() {
+        flush();
+        sender.shutdown();
+    }
+
+    /**
+     * Wait for queued packets after {@link #close()}, true if all were sent or failed in time.
+     */
+    public boolean awaitClosed(long timeoutMs) throws InterruptedException {
+        return sender.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public int framesSent() {
+        return framesSent;
+    }
+
+    public int packetsSent() {
+        return packetsSent;
+    }
+
+    public int packetsDropped() {
+        return packetsDropped.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Uplink payload per second of stream time, 0 before the first frame.
+     */
+    public float bytesPerSecond() {
+        long spanMs = lastFrameMs - firstFrameMs;
+        return firstFrameMs < 0 || spanMs <= 0 ? 0f : bytesSent * 1000f / spanMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d frames in %d packets (%d dropped), %d bytes, %.1f KB/s",
+                framesSent, packetsSent, packetsDropped.get(), bytesSent, bytesPerSecond() / 1024);
+    }
+
+    private void onFrameAdded(long timestampMs) {
+        if (firstFrameMs < 0) {
+            firstFrameMs = timestampMs;
+        }
+        lastFrameMs = timestampMs;
+        if (timestampMs - encoder.firstTimestampMs() >= batchMs) {
+            flush();
+        }
+    }
+
+    private void send(int sequence, byte[] packet, int frames) {
+        Request request = new Request.Builder()
+                .url(url)
+                .header(HEADER_CLIENT_ID, clientId)
+                .header(HEADER_SEQUENCE, String.valueOf(sequence))
+                .post(RequestBody.create(CONTENT_TYPE, packet))
+                .build();
+        try (Response response = http.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Server " + response.code() + " for packet " + sequence);
+            }
+            packetsSent++;
+            framesSent += frames;
+            bytesSent += packet.length;
+            listener.onResponse(sequence, response.body() != null ? response.body().string() : "");
+        } catch (IOException e) {
+            packetsDropped.incrementAndGet();
+            listener.onError(sequence, e);
+        }
+    }
+}
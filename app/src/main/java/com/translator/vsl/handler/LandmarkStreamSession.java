@@ -0,0 +1,99 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+
+/**
+ * Realtime translation from landmarks instead of video: ImageAnalysis frames go through the pose
+ * landmarker on the device, and only the encoded keypoints are streamed to the server by a
+ * {@link LandmarkStreamClient}. The model follows the frame budget like any live detection.
+ * Set as the analyzer on a single background executor.
+ */
+public class LandmarkStreamSession implements ImageAnalysis.Analyzer, PoseLandmarkerHelper.LandmarkerListener {
+    private static final String TAG = "LandmarkStreamSession";
+
+    private final PoseLandmarkerHelper helper;
+    private final LandmarkStreamClient client;
+    private final boolean isFrontCamera;
+    // Result thread only
+    private long lastTimestampMs = -1;
+
+    // Guards the client against frames arriving while it closes
+    private final Object lock = new Object();
+    private boolean closed = false;
+
+    public LandmarkStreamSession(Context context, boolean isFrontCamera, LandmarkStreamClient client) {
+        this.client = client;
+        this.isFrontCamera = isFrontCamera;
+        this.helper = new PoseLandmarkerHelper(
+                PoseLandmarkerHelper.DEFAULT_POSE_DETECTION_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_TRACKING_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_PRESENCE_CONFIDENCE,
+                PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_FULL,
+                PoseLandmarkerHelper.DELEGATE_CPU,
+                RunningMode.LIVE_STREAM,
+                context,
+                this);
+        helper.setAdaptiveModel(true);
+        helper.setKeyframePolicy(KeyframeSettings.selected(context));
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        synchronized (lock) {
+            if (closed) {
+                image.close();
+                return;
+            }
+        }
+        helper.detectLiveStream(image, isFrontCamera);
+    }
+
+    @Override
+    public void onResults(PoseLandmarkerHelper.ResultBundle resultBundle) {
+        // Already mirrored for the front camera; null when nobody was detected
+        PoseFrame pose = resultBundle.pose;
+        long timestampMs = pose != null ? pose.timestampMs : resultBundle.results.get(0).timestampMs();
+        synchronized (lock) {
+            if (closed || timestampMs < lastTimestampMs) {
+                return;
+            }
+            lastTimestampMs = timestampMs;
+            if (pose != null) {
+                client.onPose(pose);
+            } else {
+                client.onMissingPose(timestampMs);
+            }
+        }
+    }
+
+    @Override
+    public void onError(String error, int errorCode) {
+        Log.e(TAG, "Pose detection failed (" + errorCode + "): " + error);
+    }
+
+    public LandmarkStreamClient getClient() {
+        return client;
+    }
+
+    /**
+     * Stop detecting; the last batch is still sent in the background.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            client.close();
+        }
+        helper.clearPoseLandmarker();
+        Log.i(TAG, "Landmark stream: " + client + ", pose " + helper.getLiveScheduler());
+    }
+}
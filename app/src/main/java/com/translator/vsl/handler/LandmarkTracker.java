@@ -0,0 +1,142 @@
+package com.translator.vsl.handler;
+
+/**
+ * Cheap landmark estimates between full pose detections. Each landmark is extrapolated at
+ * constant velocity from the last estimate, then, when luma frames are available, refined by
+ * Lucas-Kanade optical flow from the previous frame. Visibility decays with every tracked frame
+ * and drops sharply when flow loses a point, so {@link #confidence()} tells when a new
+ * detection is due. Not thread-safe; nothing is allocated per frame.
+ */
+public class LandmarkTracker {
+    private static final float DEFAULT_VISIBILITY_DECAY = 0.97f;
+    private static final float LOST_PENALTY = 0.5f;
+    // Weight of the newest flow measurement in the velocity estimate
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+    private static final int FLOW_HALF_WINDOW = 4;
+    private static final int FLOW_ITERATIONS = 8;
+
+    private final float visibilityDecay;
+    private final LucasKanade flow = new LucasKanade(FLOW_HALF_WINDOW, FLOW_ITERATIONS);
+    private final PoseFrame estimate = new PoseFrame();
+    private final PoseFrame lastDetection = new PoseFrame();
+    // Normalized units per millisecond
+    private final float[] velocityX = new float[PoseFrame.NUM_LANDMARKS];
+    private final float[] velocityY = new float[PoseFrame.NUM_LANDMARKS];
+    private final LumaImage previous = new LumaImage();
+    private final float[] point = new float[2];
+    private boolean hasEstimate;
+    private boolean hasDetection;
+    private long trackedLandmarks;
+    private long refinedLandmarks;
+
+    public LandmarkTracker() {
+        this(DEFAULT_VISIBILITY_DECAY);
+    }
+
+    public LandmarkTracker(float visibilityDecay) {
+        if (!(visibilityDecay > 0f && visibilityDecay <= 1f)) {
+            throw new IllegalArgumentException("Visibility decay must be in (0, 1]: " + visibilityDecay);
+        }
+        this.visibilityDecay = visibilityDecay;
+    }
+
+    /**
+     * Re-anchor on a full detection.
+     *
+     * @param luma the frame the detection ran on, or null to track without optical flow
+     */
+    public void onDetected(PoseFrame detected, LumaImage luma) {
+        long dt = detected.timestampMs - lastDetection.timestampMs;
+        for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+            if (hasDetection && dt > 0) {
+                velocityX[i] = (detected.x[i] - lastDetection.x[i]) / dt;
+                velocityY[i] = (detected.y[i] - lastDetection.y[i]) / dt;
+            } else {
+                velocityX[i] = 0f;
+                velocityY[i] = 0f;
+            }
+        }
+        lastDetection.copyFrom(detected);
+        estimate.copyFrom(detected);
+        estimate.keyframe = true;
+        hasDetection = true;
+        hasEstimate = true;
+        setPrevious(luma);
+    }
+
+    /**
+     * Estimate the pose at timestampMs into out.
+     *
+     * @param luma the current frame, or null for extrapolation only
+     * @return false if there is no detection to track from yet
+     */
+    public boolean track(long timestampMs, LumaImage luma, PoseFrame out) {
+        if (!hasEstimate) {
+            return false;
+        }
+        long dt = timestampMs - estimate.timestampMs;
+        boolean useFlow = luma != null && !previous.isEmpty()
+                && luma.width() == previous.width() && luma.height() == previous.height();
+        for (int i = 0; i < PoseFrame.NUM_LANDMARKS && dt > 0; i++) {
+            float predictedX = estimate.x[i] + velocityX[i] * dt;
+            float predictedY = estimate.y[i] + velocityY[i] * dt;
+            float visibility = estimate.visibility[i] * visibilityDecay;
+            if (useFlow && estimate.visibility[i] > 0f) {
+                trackedLandmarks++;
+                point[0] = predictedX * luma.width();
+                point[1] = predictedY * luma.height();
+                if (flow.track(previous, luma, estimate.x[i] * previous.width(), estimate.y[i] * previous.height(), point)) {
+                    refinedLandmarks++;
+                    predictedX = point[0] / luma.width();
+                    predictedY = point[1] / luma.height();
+                    velocityX[i] += VELOCITY_SMOOTHING * ((predictedX - estimate.x[i]) / dt - velocityX[i]);
+                    velocityY[i] += VELOCITY_SMOOTHING * ((predictedY - estimate.y[i]) / dt - velocityY[i]);
+                } else {
+                    visibility *= LOST_PENALTY;
+                }
+            }
+            estimate.set(i, predictedX, predictedY, visibility);
+        }
+        if (dt > 0) {
+            estimate.timestampMs = timestampMs;
+            estimate.keyframe = false;
+            if (useFlow) {
+                previous.copyFrom(luma);
+            }
+        }
+        out.copyFrom(estimate);
+        return true;
+    }
+
+    /**
+     * Mean visibility of the upper-body landmarks in the current estimate.
+     */
+    public float confidence() {
+        return hasEstimate ? estimate.meanVisibility(PoseFrame.UPPER_BODY_FROM, PoseFrame.UPPER_BODY_TO) : 0f;
+    }
+
+    public boolean hasEstimate() {
+        return hasEstimate;
+    }
+
+    /**
+     * Fraction of tracked landmarks that optical flow refined, the rest were only extrapolated.
+     */
+    public float refinedRate() {
+        return trackedLandmarks > 0 ? (float) refinedLandmarks / trackedLandmarks : 0f;
+    }
+
+    public void reset() {
+        hasEstimate = false;
+        hasDetection = false;
+        previous.prepare(0, 0, 1, 0);
+    }
+
+    private void setPrevious(LumaImage luma) {
+        if (luma != null) {
+            previous.copyFrom(luma);
+        } else {
+            previous.prepare(0, 0, 1, 0);
+        }
+    }
+}
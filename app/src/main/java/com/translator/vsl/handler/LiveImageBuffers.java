@@ -0,0 +1,95 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tightly packed RGBA frames for MediaPipe's ByteBuffer input, without per-frame allocation.
+ * A tightly packed RGBA camera plane is passed through as is; padded RGBA rows and YUV frames are
+ * written into a small ring of reusable direct buffers. MediaPipe copies the pixels into its own
+ * packet inside detectAsync, so a slot only has to survive until the next frames come around.
+ * Not thread-safe, the analyzer thread owns it.
+ */
+public class LiveImageBuffers {
+    private final ByteBuffer[] slots;
+    private int next;
+    private int zeroCopyFrames;
+    private int copiedFrames;
+    private int allocations;
+
+    public LiveImageBuffers(int slotCount) {
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("Need at least one slot: " + slotCount);
+        }
+        this.slots = new ByteBuffer[slotCount];
+    }
+
+    /**
+     * RGBA plane as a tightly packed buffer: the plane itself if it has no row padding, otherwise
+     * a pooled copy. The result is rewound and holds exactly width * height * 4 bytes.
+     */
+    public ByteBuffer fromRgba(ByteBuffer plane, int rowStride, int pixelStride, int width, int height) {
+        int rowBytes = width * 4;
+        if (pixelStride == 4 && rowStride == rowBytes && plane.capacity() == rowBytes * height) {
+            zeroCopyFrames++;
+            plane.rewind();
+            return plane;
+        }
+        ByteBuffer out = nextSlot(rowBytes * height);
+        for (int y = 0; y < height; y++) {
+            int row = y * rowStride;
+            if (pixelStride == 4) {
+                ByteBuffer src = plane.duplicate();
+                src.limit(row + rowBytes).position(row);
+                out.put(src);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    int index = row + x * pixelStride;
+                    out.put(plane.get(index)).put(plane.get(index + 1)).put(plane.get(index + 2)).put(plane.get(index + 3));
+                }
+            }
+        }
+        copiedFrames++;
+        out.rewind();
+        return out;
+    }
+
+    /**
+     * YUV 4:2:0 planes converted into a pooled RGBA buffer, rewound.
+     */
+    public ByteBuffer fromYuv(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height) {
+        ByteBuffer out = nextSlot(width * height * 4);
+        YuvConverter.toRgba(yPlane, yRowStride, yPixelStride, uPlane, vPlane, uvRowStride, uvPixelStride,
+                width, height, 1, out);
+        copiedFrames++;
+        out.rewind();
+        return out;
+    }
+
+    private ByteBuffer nextSlot(int bytes) {
+        ByteBuffer slot = slots[next];
+        if (slot == null || slot.capacity() != bytes) {
+            // Only on the first frames or when the analysis resolution changes
+            slot = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            slots[next] = slot;
+            allocations++;
+        }
+        next = (next + 1) % slots.length;
+        slot.clear();
+        return slot;
+    }
+
+    public int zeroCopyFrames() {
+        return zeroCopyFrames;
+    }
+
+    public int copiedFrames() {
+        return copiedFrames;
+    }
+
+    public int allocations() {
+        return allocations;
+    }
+}
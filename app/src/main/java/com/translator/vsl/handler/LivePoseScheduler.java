@@ -0,0 +1,222 @@
+package com.translator.vsl.handler;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Admission control in front of the live pose landmarker. A frame is admitted only while fewer
+ * than maxInFlight detections are outstanding and the target frame interval has elapsed; every
+ * other frame is dropped at the camera. Pose latency therefore stays around maxInFlight
+ * inference times however slow the device is, instead of growing with MediaPipe's queue.
+ * A detection whose result never arrives is given up after resultTimeoutMs so it cannot hold
+ * its slot forever. Times are in milliseconds on the uptime clock used for frame timestamps.
+ */
+public class LivePoseScheduler {
+    private static final long FREE = -1;
+    private static final long FPS_WINDOW_MS = 1000;
+
+    private final long[] inFlight;
+    private final long resultTimeoutMs;
+    private long intervalMs;
+    private long nextDueMs = Long.MIN_VALUE;
+
+    private long offered;
+    private long admitted;
+    private long dropped;
+    private long completed;
+    private long lost;
+    private long lastLatencyMs;
+    private long maxLatencyMs;
+    private long totalLatencyMs;
+    private long windowStartMs = -1;
+    private int windowResults;
+    private float achievedFps;
+
+    /**
+     * @param targetFps admitted frames per second, 0 for as many as the in-flight cap allows
+     */
+    public LivePoseScheduler(int maxInFlight, float targetFps, long resultTimeoutMs) {
+        if (maxInFlight < 1 || targetFps < 0f || resultTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Invalid scheduler: " + maxInFlight + " in flight, "
+                    + targetFps + " fps, timeout " + resultTimeoutMs + " ms");
+        }
+        this.inFlight = new long[maxInFlight];
+        Arrays.fill(inFlight, FREE);
+        this.resultTimeoutMs = resultTimeoutMs;
+        setTargetFps(targetFps);
+    }
+
+    public synchronized void setTargetFps(float targetFps) {
+        if (targetFps < 0f) {
+            throw new IllegalArgumentException("Negative target fps: " + targetFps);
+        }
+        intervalMs = targetFps > 0f ? Math.round(1000 / targetFps) : 0;
+        nextDueMs = Long.MIN_VALUE;
+    }
+
+    /**
+     * Decide whether the frame captured at frameTimeMs goes to detection. An admitted frame
+     * must later be matched by {@link #onResult} or {@link #onError}.
+     */
+    public synchronized boolean tryAdmit(long frameTimeMs) {
+        offered++;
+        expireStale(frameTimeMs);
+        // A quarter interval of slack so camera jitter does not skip a frame that is on time
+        if (intervalMs > 0 && nextDueMs != Long.MIN_VALUE && frameTimeMs < nextDueMs - intervalMs / 4) {
+            dropped++;
+            return false;
+        }
+        int slot = freeSlot();
+        if (slot < 0) {
+            dropped++;
+            return false;
+        }
+        inFlight[slot] = frameTimeMs;
+        admitted++;
+        if (intervalMs > 0) {
+            // After a stall restart the grid from now rather than catching up with a burst
+            boolean late = nextDueMs == Long.MIN_VALUE || frameTimeMs > nextDueMs + intervalMs / 2;
+            nextDueMs = (late ? frameTimeMs : nextDueMs) + intervalMs;
+        }
+        return true;
+    }
+
+    /**
+     * Release a frame admitted by {@link #tryAdmit} that was not sent to detection after all.
+     */
+    public synchronized void cancel(long frameTimeMs) {
+        int slot = slotOf(frameTimeMs);
+        if (slot >= 0) {
+            inFlight[slot] = FREE;
+            admitted--;
+            dropped++;
+        }
+    }
+
+    /**
+     * Result for the frame with this timestamp arrived at nowMs.
+     */
+    public synchronized void onResult(long frameTimeMs, long nowMs) {
+        int slot = slotOf(frameTimeMs);
+        if (slot >= 0) {
+            inFlight[slot] = FREE;
+        }
+        long latency = nowMs - frameTimeMs;
+        completed++;
+        lastLatencyMs = latency;
+        totalLatencyMs += latency;
+        maxLatencyMs = Math.max(maxLatencyMs, latency);
+
+        if (windowStartMs < 0) {
+            windowStartMs = nowMs;
+        }
+        windowResults++;
+        long elapsed = nowMs - windowStartMs;
+        if (elapsed >= FPS_WINDOW_MS) {
+            achievedFps = windowResults * 1000f / elapsed;
+            windowStartMs = nowMs;
+            windowResults = 0;
+        }
+    }
+
+    /**
+     * A detection failed; errors carry no timestamp, so the oldest outstanding frame is released.
+     */
+    public synchronized void onError() {
+        int oldest = -1;
+        for (int i = 0; i < inFlight.length; i++) {
+            if (inFlight[i] != FREE && (oldest < 0 || inFlight[i] < inFlight[oldest])) {
+                oldest = i;
+            }
+        }
+        if (oldest >= 0) {
+            inFlight[oldest] = FREE;
+            lost++;
+        }
+    }
+
+    private void expireStale(long nowMs) {
+        for (int i = 0; i < inFlight.length; i++) {
+            if (inFlight[i] != FREE && nowMs - inFlight[i] > resultTimeoutMs) {
+                inFlight[i] = FREE;
+                lost++;
+            }
+        }
+    }
+
+    private int freeSlot() {
+        return slotOf(FREE);
+    }
+
+    private int slotOf(long frameTimeMs) {
+        for (int i = 0; i < inFlight.length; i++) {
+            if (inFlight[i] == frameTimeMs) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized int inFlight() {
+        int count = 0;
+        for (long frameTime : inFlight) {
+            if (frameTime != FREE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized long offered() {
+        return offered;
+    }
+
+    public synchronized long admitted() {
+        return admitted;
+    }
+
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    public synchronized long completed() {
+        return completed;
+    }
+
+    /**
+     * Detections given up after a timeout or an error.
+     */
+    public synchronized long lost() {
+        return lost;
+    }
+
+    public synchronized float dropRate() {
+        return offered > 0 ? (float) dropped / offered : 0f;
+    }
+
+    /**
+     * Results per second over the last full one-second window, 0 until the first window closes.
+     */
+    public synchronized float achievedFps() {
+        return achievedFps;
+    }
+
+    public synchronized long lastLatencyMs() {
+        return lastLatencyMs;
+    }
+
+    public synchronized long meanLatencyMs() {
+        return completed > 0 ? totalLatencyMs / completed : 0;
+    }
+
+    public synchronized long maxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "%.1f fps, %.0f%% dropped, latency %d ms (mean %d, max %d), %d in flight, %d lost",
+                achievedFps, dropRate() * 100, lastLatencyMs, meanLatencyMs(), maxLatencyMs, inFlight(), lost);
+    }
+}
@@ -0,0 +1,150 @@
+package com.translator.vsl.handler;
+
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * On-device live captioning from ImageAnalysis frames.
+ * Sampled frames go straight into the stateful model one at a time, so there is no
+ * record → finalize → copy → decode round trip. Each frame emits the rolling top-K, and the
+ * recurrent state is reset when the motion estimate marks the end of a sign.
+ * Set as the analyzer on a single background executor; frames arriving while one is being
+ * inferred are dropped by ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST.
+ */
+public class LiveTranslationSession implements ImageAnalysis.Analyzer {
+    private static final String TAG = "LiveTranslationSession";
+    // About the frame rate of the 20 frames sampled from a recorded clip
+    private static final long FRAME_INTERVAL_MS = 100;
+    private static final float ACTIVE_MOTION = 6f;
+    private static final float STILL_MOTION = 3f;
+    private static final int STILL_FRAMES = 5;
+    private static final int MAX_SIGN_FRAMES = 40;
+    // Shorter bursts of motion are noise, not a sign
+    private static final int MIN_SIGN_FRAMES = 5;
+
+    public interface Listener {
+        /**
+         * Rolling top-K after every inferred frame, most likely first.
+         */
+        void onPartialResult(String[] labels, float[] scores);
+
+        /**
+         * Prediction for a completed sign.
+         */
+        void onSign(String label, float score);
+
+        /**
+         * The handler was closed under the session, e.g. unloaded on memory pressure.
+         * Called once, later frames are ignored.
+         */
+        void onHandlerClosed();
+    }
+
+    private final VideoTranslationHandler handler;
+    private final boolean mirror;
+    private final Listener listener;
+    private final FrameTensorWriter writer;
+    private final ByteBuffer input;
+    private final TopKSelector topK = new TopKSelector();
+    private final MotionEstimator motionEstimator = new MotionEstimator();
+    private final SignBoundaryDetector boundaryDetector =
+            new SignBoundaryDetector(ACTIVE_MOTION, STILL_MOTION, STILL_FRAMES, MAX_SIGN_FRAMES);
+
+    private volatile boolean closed = false;
+    private long lastFrameMs = 0;
+    private int signFrames = 0;
+    private long inferNs = 0;
+
+    /**
+     * @param mirror mirror frames horizontally before inference, to match how clips are recorded
+     */
+    public LiveTranslationSession(VideoTranslationHandler handler, boolean mirror, Listener listener) {
+        this.handler = handler;
+        this.mirror = mirror;
+        this.listener = listener;
+        this.writer = handler.createTensorWriter();
+        this.input = handler.createInputBuffer();
+        handler.reset();
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        try {
+            long now = SystemClock.elapsedRealtime();
+            if (closed || now - lastFrameMs < FRAME_INTERVAL_MS) {
+                return;
+            }
+            lastFrameMs = now;
+
+            ImageProxy.PlaneProxy[] planes = image.getPlanes();
+            float motion = motionEstimator.update(planes[0].getBuffer(), planes[0].getRowStride(),
+                    planes[0].getPixelStride(), image.getWidth(), image.getHeight());
+            SignBoundaryDetector.Event event = boundaryDetector.update(motion);
+
+            if (event == SignBoundaryDetector.Event.SIGN_START) {
+                handler.reset();
+                signFrames = 0;
+                inferNs = 0;
+            }
+            if (event == SignBoundaryDetector.Event.SIGN_START || boundaryDetector.isInSign()) {
+                infer(image, planes);
+            } else if (event == SignBoundaryDetector.Event.SIGN_END) {
+                endSign();
+            }
+        } catch (Exception e) {
+            if (handler.isClosed()) {
+                Log.w(TAG, "Handler closed, stopping live captioning");
+                closed = true;
+                listener.onHandlerClosed();
+            } else {
+                Log.e(TAG, "Error translating frame: " + e.getMessage());
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    private void infer(ImageProxy image, ImageProxy.PlaneProxy[] planes) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        Rect crop = image.getCropRect();
+        writer.setTransform(image.getImageInfo().getRotationDegrees(), mirror);
+        input.clear();
+        writer.writeYuv(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                crop.left, crop.top, crop.width(), crop.height(), input);
+        handler.pushFrame(input, topK);
+        inferNs += SystemClock.elapsedRealtimeNanos() - start;
+        signFrames++;
+
+        String[] labels = new String[topK.count()];
+        float[] scores = new float[topK.count()];
+        for (int rank = 0; rank < labels.length; rank++) {
+            labels[rank] = handler.getLabel(topK.index(rank));
+            scores[rank] = topK.score(rank);
+        }
+        listener.onPartialResult(labels, scores);
+    }
+
+    private void endSign() {
+        if (signFrames >= MIN_SIGN_FRAMES) {
+            Log.d(TAG, "Sign of " + signFrames + " frames, " + inferNs / 1000000 / signFrames + " ms/frame");
+            listener.onSign(handler.getLabel(topK.index(0)), topK.score(0));
+        }
+        handler.reset();
+        signFrames = 0;
+    }
+
+    /**
+     * Stop handling frames. The handler stays open, it is shared through the registry.
+     */
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.translator.vsl.handler;
+
+/**
+ * Single-level iterative Lucas-Kanade tracking of one point between two luma frames.
+ * Meant to refine a motion prediction by a few pixels, not to find large displacements, so it
+ * starts from the caller's guess. Scratch arrays are owned by the instance; use one per thread.
+ */
+public class LucasKanade {
+    private static final float CONVERGED = 0.01f;
+    // Smallest eigenvalue of the gradient matrix per window pixel; below it the patch is too flat
+    private static final float MIN_EIGEN_PER_PIXEL = 2f;
+    // Mean absolute difference after convergence above which the point is considered lost
+    private static final float MAX_RESIDUAL = 24f;
+
+    private final int halfWindow;
+    private final int iterations;
+    private final float[] template;
+    private final float[] gradX;
+    private final float[] gradY;
+
+    public LucasKanade(int halfWindow, int iterations) {
+        if (halfWindow < 1 || iterations < 1) {
+            throw new IllegalArgumentException("Invalid Lucas-Kanade window " + halfWindow + ", iterations " + iterations);
+        }
+        this.halfWindow = halfWindow;
+        this.iterations = iterations;
+        int size = (2 * halfWindow + 1) * (2 * halfWindow + 1);
+        this.template = new float[size];
+        this.gradX = new float[size];
+        this.gradY = new float[size];
+    }
+
+    /**
+     * Find where the patch around (px, py) in prev went in next.
+     *
+     * @param point guess in next on input, the tracked position on success
+     * @return false if the patch is too flat, leaves the image or does not match
+     */
+    public boolean track(LumaImage prev, LumaImage next, float px, float py, float[] point) {
+        if (!inside(prev, px, py) || !inside(next, point[0], point[1])) {
+            return false;
+        }
+        float gxx = 0f;
+        float gxy = 0f;
+        float gyy = 0f;
+        int k = 0;
+        for (int dy = -halfWindow; dy <= halfWindow; dy++) {
+            for (int dx = -halfWindow; dx <= halfWindow; dx++) {
+                float x = px + dx;
+                float y = py + dy;
+                template[k] = prev.sample(x, y);
+                gradX[k] = (prev.sample(x + 1, y) - prev.sample(x - 1, y)) * 0.5f;
+                gradY[k] = (prev.sample(x, y + 1) - prev.sample(x, y - 1)) * 0.5f;
+                gxx += gradX[k] * gradX[k];
+                gxy += gradX[k] * gradY[k];
+                gyy += gradY[k] * gradY[k];
+                k++;
+            }
+        }
+        float det = gxx * gyy - gxy * gxy;
+        float minEigen = (gxx + gyy - (float) Math.sqrt((gxx - gyy) * (gxx - gyy) + 4 * gxy * gxy)) / 2;
+        if (minEigen < MIN_EIGEN_PER_PIXEL * k || det <= 0f) {
+            return false;
+        }
+
+        float qx = point[0];
+        float qy = point[1];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            float bx = 0f;
+            float by = 0f;
+            k = 0;
+            for (int dy = -halfWindow; dy <= halfWindow; dy++) {
+                for (int dx = -halfWindow; dx <= halfWindow; dx++) {
+                    float diff = template[k] - next.sample(qx + dx, qy + dy);
+                    bx += gradX[k] * diff;
+                    by += gradY[k] * diff;
+                    k++;
+                }
+            }
+            float stepX = (gyy * bx - gxy * by) / det;
+            float stepY = (gxx * by - gxy * bx) / det;
+            qx += stepX;
+            qy += stepY;
+            if (!inside(next, qx, qy)) {
+                return false;
+            }
+            if (Math.abs(stepX) < CONVERGED && Math.abs(stepY) < CONVERGED) {
+                break;
+            }
+        }
+
+        float residual = 0f;
+        k = 0;
+        for (int dy = -halfWindow; dy <= halfWindow; dy++) {
+            for (int dx = -halfWindow; dx <= halfWindow; dx++) {
+                residual += Math.abs(template[k++] - next.sample(qx + dx, qy + dy));
+            }
+        }
+        if (residual / k > MAX_RESIDUAL) {
+            return false;
+        }
+        point[0] = qx;
+        point[1] = qy;
+        return true;
+    }
+
+    private boolean inside(LumaImage image, float x, float y) {
+        return x >= halfWindow && y >= halfWindow && x < image.width() - 1 - halfWindow && y < image.height() - 1 - halfWindow;
+    }
+}
@@ -0,0 +1,158 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Downscaled, upright grayscale copy of a camera frame for landmark tracking.
+ * Every step-th pixel is kept and the result is rotated clockwise by the frame's rotation, so
+ * normalized landmark coordinates map straight onto it. The pixel array is reused while the
+ * size stays the same.
+ */
+public final class LumaImage {
+    private byte[] pixels = new byte[0];
+    private int width;
+    private int height;
+    private int rotation;
+    // Size of the downscaled frame before rotation
+    private int sensorWidth;
+    private int sensorHeight;
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public boolean isEmpty() {
+        return width == 0;
+    }
+
+    /**
+     * Fill from an RGBA_8888 plane.
+     */
+    public void fromRgba(ByteBuffer plane, int rowStride, int pixelStride, int srcWidth, int srcHeight, int step, int rotation) {
+        prepare(srcWidth, srcHeight, step, rotation);
+        for (int sy = 0; sy < sensorHeight; sy++) {
+            int row = sy * step * rowStride;
+            for (int sx = 0; sx < sensorWidth; sx++) {
+                int index = row + sx * step * pixelStride;
+                store(sx, sy, luma(plane.get(index) & 0xff, plane.get(index + 1) & 0xff, plane.get(index + 2) & 0xff));
+            }
+        }
+    }
+
+    /**
+     * Fill from the Y plane of a YUV_420_888 frame.
+     */
+    public void fromY(ByteBuffer plane, int rowStride, int pixelStride, int srcWidth, int srcHeight, int step, int rotation) {
+        prepare(srcWidth, srcHeight, step, rotation);
+        for (int sy = 0; sy < sensorHeight; sy++) {
+            int row = sy * step * rowStride;
+            for (int sx = 0; sx < sensorWidth; sx++) {
+                store(sx, sy, plane.get(row + sx * step * pixelStride) & 0xff);
+            }
+        }
+    }
+
+    /**
+     * Fill from packed ARGB pixels, as returned by Bitmap.getPixels.
+     */
+    public void fromArgb(int[] argb, int srcWidth, int srcHeight, int step, int rotation) {
+        prepare(srcWidth, srcHeight, step, rotation);
+        for (int sy = 0; sy < sensorHeight; sy++) {
+            int row = sy * step * srcWidth;
+            for (int sx = 0; sx < sensorWidth; sx++) {
+                int pixel = argb[row + sx * step];
+                store(sx, sy, luma((pixel >> 16) & 0xff, (pixel >> 8) & 0xff, pixel & 0xff));
+            }
+        }
+    }
+
+    public void copyFrom(LumaImage other) {
+        if (pixels.length != other.pixels.length) {
+            pixels = new byte[other.pixels.length];
+        }
+        System.arraycopy(other.pixels, 0, pixels, 0, other.pixels.length);
+        width = other.width;
+        height = other.height;
+        rotation = other.rotation;
+        sensorWidth = other.sensorWidth;
+        sensorHeight = other.sensorHeight;
+    }
+
+    /**
+     * Pixel value with coordinates clamped to the image.
+     */
+    public int get(int x, int y) {
+        x = Math.max(0, Math.min(width - 1, x));
+        y = Math.max(0, Math.min(height - 1, y));
+        return pixels[y * width + x] & 0xff;
+    }
+
+    /**
+     * Bilinear sample at fractional pixel coordinates.
+     */
+    public float sample(float x, float y) {
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        float fx = x - x0;
+        float fy = y - y0;
+        float top = get(x0, y0) * (1 - fx) + get(x0 + 1, y0) * fx;
+        float bottom = get(x0, y0 + 1) * (1 - fx) + get(x0 + 1, y0 + 1) * fx;
+        return top * (1 - fy) + bottom * fy;
+    }
+
+    /**
+     * Set directly, for synthetic frames in tests and benchmarks.
+     */
+    void set(int x, int y, int value) {
+        pixels[y * width + x] = (byte) value;
+    }
+
+    void prepare(int srcWidth, int srcHeight, int step, int rotation) {
+        if (rotation % 90 != 0) {
+            throw new IllegalArgumentException("Rotation must be a multiple of 90: " + rotation);
+        }
+        this.rotation = ((rotation % 360) + 360) % 360;
+        sensorWidth = YuvConverter.outputSize(srcWidth, step);
+        sensorHeight = YuvConverter.outputSize(srcHeight, step);
+        boolean swap = this.rotation % 180 != 0;
+        width = swap ? sensorHeight : sensorWidth;
+        height = swap ? sensorWidth : sensorHeight;
+        if (pixels.length != width * height) {
+            pixels = new byte[width * height];
+        }
+    }
+
+    private void store(int sx, int sy, int value) {
+        int dx;
+        int dy;
+        switch (rotation) {
+            case 90:
+                dx = sensorHeight - 1 - sy;
+                dy = sx;
+                break;
+            case 180:
+                dx = sensorWidth - 1 - sx;
+                dy = sensorHeight - 1 - sy;
+                break;
+            case 270:
+                dx = sy;
+                dy = sensorWidth - 1 - sx;
+                break;
+            default:
+                dx = sx;
+                dy = sy;
+        }
+        pixels[dy * width + dx] = (byte) value;
+    }
+
+    /**
+     * BT.601 luma in fixed point.
+     */
+    private static int luma(int r, int g, int b) {
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+}
@@ -0,0 +1,59 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.IOException;
+
+/**
+ * Float and quantized builds of the offline model. Both share the label file, so they can be
+ * swapped freely; the handler detects each model's tensor types when it loads it.
+ */
+public final class ModelVariants {
+    private static final String TAG = "ModelVariants";
+    public static final String FLOAT = "float";
+    public static final String INT8 = "int8";
+    private static final String INT8_MODEL_PATH = "model-final-new-int8.tflite";
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_MODEL_VARIANT = "model_variant";
+
+    private ModelVariants() {
+    }
+
+    public static String modelPath(String variant) {
+        return INT8.equals(variant) ? INT8_MODEL_PATH : VideoTranslationHandler.DEFAULT_MODEL_PATH;
+    }
+
+    public static String labelPath() {
+        return VideoTranslationHandler.DEFAULT_LABEL_PATH;
+    }
+
+    public static boolean isAvailable(Context context, String variant) {
+        try (AssetFileDescriptor ignored = context.getAssets().openFd(modelPath(variant))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static String getSelected(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_MODEL_VARIANT, FLOAT);
+    }
+
+    public static void setSelected(Context context, String variant) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putString(KEY_MODEL_VARIANT, variant).apply();
+    }
+
+    /**
+     * Asset path of the selected variant, the float model if the selected one is not bundled.
+     */
+    public static String selectedModelPath(Context context) {
+        String variant = getSelected(context);
+        if (!FLOAT.equals(variant) && !isAvailable(context, variant)) {
+            Log.w(TAG, "Model variant " + variant + " is not bundled, using the float model");
+            return modelPath(FLOAT);
+        }
+        return modelPath(variant);
+    }
+}
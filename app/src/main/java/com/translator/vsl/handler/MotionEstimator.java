@@ -0,0 +1,53 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cheap frame-to-frame motion measure on the luma plane.
+ * Samples a fixed grid of Y values and returns the mean absolute difference to the previous
+ * frame's grid, in luma levels (0 to 255). Only the grid is kept between calls, nothing is allocated per frame.
+ */
+public class MotionEstimator {
+    private static final int DEFAULT_GRID = 32;
+
+    private final int grid;
+    private final int[] previous;
+    private boolean hasPrevious = false;
+
+    public MotionEstimator() {
+        this(DEFAULT_GRID);
+    }
+
+    public MotionEstimator(int grid) {
+        this.grid = grid;
+        this.previous = new int[grid * grid];
+    }
+
+    /**
+     * Motion since the previous call, 0 on the first frame.
+     */
+    public float update(ByteBuffer yPlane, int rowStride, int pixelStride, int width, int height) {
+        long total = 0;
+        int index = 0;
+        for (int gy = 0; gy < grid; gy++) {
+            int row = (int) ((gy + 0.5f) * height / grid) * rowStride;
+            for (int gx = 0; gx < grid; gx++) {
+                int luma = yPlane.get(row + (int) ((gx + 0.5f) * width / grid) * pixelStride) & 0xff;
+                total += Math.abs(luma - previous[index]);
+                previous[index++] = luma;
+            }
+        }
+        if (!hasPrevious) {
+            hasPrevious = true;
+            return 0f;
+        }
+        return (float) total / previous.length;
+    }
+
+    /**
+     * Forget the previous frame, e.g. after the camera was switched.
+     */
+    public void reset() {
+        hasPrevious = false;
+    }
+}
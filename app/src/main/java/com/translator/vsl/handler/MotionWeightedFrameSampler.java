@@ -0,0 +1,90 @@
+package com.translator.vsl.handler;
+
+/**
+ * Puts frames where the signer moves. Idle lead-in and tail-out, where motion stays below
+ * idleMotion, are dropped; inside the active span frames are placed by the inverse cumulative
+ * motion, so fast arm movement gets dense sampling and holds get sparse sampling. A floor weight
+ * keeps some coverage of slow handshapes. The count follows the active span's length.
+ */
+public class MotionWeightedFrameSampler implements FrameSampler {
+    // Share of the mean motion every probe gets, so still moments are not skipped entirely
+    private static final float FLOOR_FRACTION = 0.25f;
+
+    private final int minFrames;
+    private final int maxFrames;
+    private final float framesPerSecond;
+    private final float idleMotion;
+
+    public MotionWeightedFrameSampler(int minFrames, int maxFrames, float framesPerSecond, float idleMotion) {
+        if (minFrames <= 0 || maxFrames < minFrames) {
+            throw new IllegalArgumentException("Invalid frame range " + minFrames + ".." + maxFrames);
+        }
+        this.minFrames = minFrames;
+        this.maxFrames = maxFrames;
+        this.framesPerSecond = framesPerSecond;
+        this.idleMotion = idleMotion;
+    }
+
+    @Override
+    public boolean needsActivity() {
+        return true;
+    }
+
+    @Override
+    public long[] sample(long durationUs, float frameRate, ActivityProfile activity, int framesPerInput) {
+        int first = -1;
+        int last = -1;
+        if (activity != null) {
+            for (int i = 0; i < activity.count; i++) {
+                if (activity.motion[i] >= idleMotion) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+            }
+        }
+        if (first < 0 || activity.count < 2) {
+            // No motion information or no movement at all, nothing to weight by
+            int count = FrameSampler.countFor(durationUs, framesPerSecond, minFrames, maxFrames, framesPerInput);
+            return FrameSampler.evenlySpaced(0, durationUs, count);
+        }
+        // Motion at probe i is measured against probe i - 1, so it belongs to the interval between them
+        first = Math.max(first, 1);
+        last = Math.max(last, first);
+        long startUs = activity.timestampsUs[first - 1];
+        long endUs = activity.timestampsUs[last];
+        int count = FrameSampler.countFor(endUs - startUs, framesPerSecond, minFrames, maxFrames, framesPerInput);
+
+        float total = 0f;
+        for (int i = first; i <= last; i++) {
+            total += activity.motion[i];
+        }
+        float floor = FLOOR_FRACTION * total / (last - first + 1);
+        // Cumulative weight at the end of each interval [t(i - 1), t(i))
+        double[] cumulative = new double[last - first + 1];
+        double sum = 0;
+        for (int i = first; i <= last; i++) {
+            sum += Math.max(activity.motion[i], floor);
+            cumulative[i - first] = sum;
+        }
+        if (!(sum > 0)) {
+            return FrameSampler.evenlySpaced(startUs, endUs, count);
+        }
+
+        long[] timestamps = new long[count];
+        int interval = 0;
+        for (int k = 0; k < count; k++) {
+            double target = (k + 0.5) / count * sum;
+            while (interval < cumulative.length - 1 && cumulative[interval] < target) {
+                interval++;
+            }
+            double before = interval == 0 ? 0 : cumulative[interval - 1];
+            double fraction = (target - before) / (cumulative[interval] - before);
+            long intervalStart = activity.timestampsUs[first + interval - 1];
+            long intervalEnd = activity.timestampsUs[first + interval];
+            timestamps[k] = intervalStart + (long) (fraction * (intervalEnd - intervalStart));
+        }
+        return timestamps;
+    }
+}
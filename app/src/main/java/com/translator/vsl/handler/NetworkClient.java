@@ -0,0 +1,217 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Process-wide HTTP layer for every call to the translation server. All endpoints share one
+ * connection pool and dispatcher, so realtime segments reuse a kept-alive connection instead of
+ * paying TCP setup each second, and each endpoint gets timeouts that fit its work. Cleartext
+ * HTTP/2 (prior knowledge) can be switched on for servers that speak it. Every call's timings
+ * are collected in {@link #getTimings()}.
+ */
+public final class NetworkClient {
+    private static final String TAG = "NetworkClient";
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_HTTP2 = "http2_prior_knowledge";
+    // Idle connections outlive the pauses between recordings on the same screen
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    public enum Endpoint {
+        // 1 s clips answered within a couple of seconds; a stuck one only delays the queue
+        REALTIME_SEGMENT(5, 15, 15),
+        LANDMARK_STREAM(5, 10, 10),
+        // Whole recordings take the server a while to process
+        FULL_VIDEO(10, 100, 60),
+        UPLOAD(10, 60, 120),
+        PRECONNECT(5, 5, 5);
+
+        final int connectTimeoutS;
+        final int readTimeoutS;
+        final int writeTimeoutS;
+
+        Endpoint(int connectTimeoutS, int readTimeoutS, int writeTimeoutS) {
+            this.connectTimeoutS = connectTimeoutS;
+            this.readTimeoutS = readTimeoutS;
+            this.writeTimeoutS = writeTimeoutS;
+        }
+    }
+
+    private static volatile NetworkClient instance;
+
+    private final Context appContext;
+    private final ConnectionPool pool = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+    private final Dispatcher dispatcher = new Dispatcher();
+    private final CallTimings timings = new CallTimings();
+    private final Map<Endpoint, OkHttpClient> clients = new EnumMap<>(Endpoint.class);
+    private boolean http2;
+
+    private NetworkClient(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static NetworkClient getInstance(Context context) {
+        if (instance == null) {
+            synchronized (NetworkClient.class) {
+                if (instance == null) {
+                    instance = new NetworkClient(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static boolean isHttp2Enabled(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_HTTP2, false);
+    }
+
+    public static void setHttp2Enabled(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_HTTP2, enabled).apply();
+    }
+
+    /**
+     * Client for one endpoint. Cheap to call per request: clients are cached and all share the pool.
+     */
+    public synchronized OkHttpClient client(Endpoint endpoint) {
+        boolean wantHttp2 = isHttp2Enabled(appContext);
+        if (wantHttp2 != http2) {
+            http2 = wantHttp2;
+            clients.clear();
+        }
+        OkHttpClient client = clients.get(endpoint);
+        if (client == null) {
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .connectionPool(pool)
+                    .dispatcher(dispatcher)
+                    .connectTimeout(endpoint.connectTimeoutS, TimeUnit.SECONDS)
+                    .readTimeout(endpoint.readTimeoutS, TimeUnit.SECONDS)
+                    .writeTimeout(endpoint.writeTimeoutS, TimeUnit.SECONDS)
+                    .eventListenerFactory(call -> new TimingListener(endpoint));
+            if (http2) {
+                builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+            }
+            client = builder.build();
+            clients.put(endpoint, client);
+        }
+        return client;
+    }
+
+    /**
+     * Open a connection to the server ahead of the first real request, unless one is already idle.
+     * The answer itself is thrown away.
+     */
+    public void preconnect(String baseUrl) {
+        if (pool.idleConnectionCount() > 0) {
+            return;
+        }
+        Request request;
+        try {
+            request = new Request.Builder().url(baseUrl).head().build();
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Bad server address " + baseUrl);
+            return;
+        }
+        client(Endpoint.PRECONNECT).newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "Preconnect to " + baseUrl + " failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+            }
+        });
+    }
+
+    public CallTimings getTimings() {
+        return timings;
+    }
+
+    private class TimingListener extends EventListener {
+        private final Endpoint endpoint;
+        private final CallTimings.Timing timing = new CallTimings.Timing();
+
+        TimingListener(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            timing.callStart(System.nanoTime());
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            timing.connectStart(System.nanoTime());
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy,
+                               Protocol protocol) {
+            timing.connectEnd(System.nanoTime());
+        }
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            timing.requestStart(System.nanoTime());
+        }
+
+        @Override
+        public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+            timing.requestEnd(System.nanoTime());
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            timing.requestEnd(System.nanoTime());
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            timing.responseStart(System.nanoTime());
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            timing.responseEnd(System.nanoTime());
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(false);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            timing.callEnd(System.nanoTime(), failed);
+            timings.record(endpoint.name(), timing);
+            Log.d(TAG, endpoint + ": " + timing);
+        }
+    }
+}
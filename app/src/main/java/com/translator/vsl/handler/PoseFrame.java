@@ -0,0 +1,78 @@
+package com.translator.vsl.handler;
+
+/**
+ * Landmark positions of one pose in primitive arrays, reusable across frames.
+ * Coordinates are normalized to the upright (rotated) image like MediaPipe's landmarks.
+ */
+public final class PoseFrame {
+    public static final int NUM_LANDMARKS = 33;
+    // Shoulders through thumbs, the landmarks signing depends on
+    public static final int UPPER_BODY_FROM = 11;
+    public static final int UPPER_BODY_TO = 23;
+    // Landmark on the other side of the body: eyes, ears and mouth corners, then the left/right pairs from 11 on
+    private static final int[] OPPOSITE = {
+            0, 4, 5, 6, 1, 2, 3, 8, 7, 10, 9,
+            12, 11, 14, 13, 16, 15, 18, 17, 20, 19, 22, 21,
+            24, 23, 26, 25, 28, 27, 30, 29, 32, 31};
+
+    public final float[] x = new float[NUM_LANDMARKS];
+    public final float[] y = new float[NUM_LANDMARKS];
+    // Depth is taken from the last detection, the tracker does not estimate it
+    public final float[] z = new float[NUM_LANDMARKS];
+    public final float[] visibility = new float[NUM_LANDMARKS];
+    public long timestampMs;
+    // True if the landmarks come from a full detection, false if tracked
+    public boolean keyframe;
+
+    public void set(int index, float x, float y, float visibility) {
+        this.x[index] = x;
+        this.y[index] = y;
+        this.visibility[index] = visibility;
+    }
+
+    public void copyFrom(PoseFrame other) {
+        System.arraycopy(other.x, 0, x, 0, NUM_LANDMARKS);
+        System.arraycopy(other.y, 0, y, 0, NUM_LANDMARKS);
+        System.arraycopy(other.z, 0, z, 0, NUM_LANDMARKS);
+        System.arraycopy(other.visibility, 0, visibility, 0, NUM_LANDMARKS);
+        timestampMs = other.timestampMs;
+        keyframe = other.keyframe;
+    }
+
+    /**
+     * Turn landmarks of an unflipped front-camera frame into those of the mirrored selfie view the
+     * server was trained on: x becomes 1 - x and left/right landmarks trade places, since the model
+     * sees a mirrored person's right arm as a left arm. Applying it twice restores the frame.
+     */
+    public void mirror() {
+        for (int i = 0; i < NUM_LANDMARKS; i++) {
+            int j = OPPOSITE[i];
+            if (j < i) {
+                continue;
+            }
+            float xi = x[i];
+            float yi = y[i];
+            float zi = z[i];
+            float vi = visibility[i];
+            x[i] = 1f - x[j];
+            y[i] = y[j];
+            z[i] = z[j];
+            visibility[i] = visibility[j];
+            x[j] = 1f - xi;
+            y[j] = yi;
+            z[j] = zi;
+            visibility[j] = vi;
+        }
+    }
+
+    /**
+     * Mean visibility of landmarks [from, to).
+     */
+    public float meanVisibility(int from, int to) {
+        float sum = 0f;
+        for (int i = from; i < to; i++) {
+            sum += visibility[i];
+        }
+        return to > from ? sum / (to - from) : 0f;
+    }
+}
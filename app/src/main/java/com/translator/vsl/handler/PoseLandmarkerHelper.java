@@ -2,7 +2,8 @@ package com.translator.vsl.handler;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Matrix;
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -10,14 +11,21 @@ import androidx.annotation.VisibleForTesting;
 import androidx.camera.core.ImageProxy;
 
 import com.google.mediapipe.framework.image.BitmapImageBuilder;
+import com.google.mediapipe.framework.image.ByteBufferImageBuilder;
 import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
 import com.google.mediapipe.tasks.core.BaseOptions;
 import com.google.mediapipe.tasks.core.Delegate;
+import com.google.mediapipe.tasks.vision.core.ImageProcessingOptions;
 import com.google.mediapipe.tasks.vision.core.RunningMode;
 import com.google.mediapipe.tasks.vision.poselandmarker.PoseLandmarker;
 import com.google.mediapipe.tasks.vision.poselandmarker.PoseLandmarkerResult;
 
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class PoseLandmarkerHelper {
 //    private static final String TAG = "FramesHandler";
@@ -53,18 +61,68 @@ public class PoseLandmarkerHelper {
     public static final int MODEL_POSE_LANDMARKER_HEAVY = 2;
     public static final int OTHER_ERROR = 0;
     public static final int GPU_ERROR = 1;
+    // Two detections in flight keep the CPU busy while bounding latency to about two inference times
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    public static final float DEFAULT_TARGET_FPS = 15f;
+    private static final long RESULT_TIMEOUT_MS = 1000;
+    private static final int TIERING_WINDOW = 15;
+    // Budget used when the live rate is not limited
+    private static final float UNPACED_BUDGET_FPS = 30f;
+    // One model load at a time across helpers, loads compete for the same cores
+    private static final ExecutorService MODEL_SWAP_EXECUTOR = Executors.newSingleThreadExecutor();
+    // Longest side of the luma frame optical flow runs on
+    private static final int TRACKING_MAX_SIDE = 192;
+    // Frames in flight between the analyzer and MediaPipe's copy, plus one being filled
+    private static final int LIVE_BUFFER_SLOTS = 3;
+    private static final ImageProcessingOptions[] ROTATION_OPTIONS = {
+            ImageProcessingOptions.builder().setRotationDegrees(0).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(90).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(180).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(270).build()
+    };
 
     private float minPoseDetectionConfidence = DEFAULT_POSE_DETECTION_CONFIDENCE;
     private float minPoseTrackingConfidence = DEFAULT_POSE_TRACKING_CONFIDENCE;
     private float minPosePresenceConfidence = DEFAULT_POSE_PRESENCE_CONFIDENCE;
-    private int currentModel = MODEL_POSE_LANDMARKER_HEAVY;
+    private volatile int currentModel = MODEL_POSE_LANDMARKER_HEAVY;
     private int currentDelegate = DELEGATE_CPU;
     private RunningMode runningMode = RunningMode.IMAGE;
 
     private final Context context;
     private final LandmarkerListener poseLandmarkerHelperListener;
 
-    private PoseLandmarker poseLandmarker;
+    // Swapped by the adaptive model switch, guarded by landmarkerLock
+    private volatile PoseLandmarker poseLandmarker;
+    private final Object landmarkerLock = new Object();
+    private volatile PoseModelTierController tierController;
+    private final AtomicBoolean swapping = new AtomicBoolean();
+    private final AtomicBoolean tierWindowStale = new AtomicBoolean();
+    private volatile float liveTargetFps = DEFAULT_TARGET_FPS;
+
+    private final LiveImageBuffers liveBuffers = new LiveImageBuffers(LIVE_BUFFER_SLOTS);
+    private final BitmapPool bitmapPool = new BitmapPool(LIVE_BUFFER_SLOTS);
+    private volatile LivePoseScheduler scheduler =
+            new LivePoseScheduler(DEFAULT_MAX_IN_FLIGHT, DEFAULT_TARGET_FPS, RESULT_TIMEOUT_MS);
+    private volatile KeyframePolicy keyframePolicy = KeyframePolicy.EVERY_FRAME;
+    // Keyframe mode, analyzer thread only
+    private final LandmarkTracker tracker = new LandmarkTracker();
+    private final LumaImage currentLuma = new LumaImage();
+    private final LumaImage keyframeLuma = new LumaImage();
+    private int framesSinceKeyframe;
+    private final PoseFrame trackedFrame = new PoseFrame();
+    // Handed from MediaPipe's result thread to the analyzer thread under its own lock
+    private final PoseFrame pendingDetection = new PoseFrame();
+    private boolean detectionReady;
+    private boolean detectionEmpty;
+    // Set once MediaPipe rejects ByteBuffer input, later frames go through pooled bitmaps
+    private boolean useBitmapInput;
+    private volatile int lastRotation;
+    private volatile boolean lastMirrored;
+    // Live results as a mirrored-if-needed pose, result thread only
+    private final PoseFrame liveFrame = new PoseFrame();
+    private volatile long lastPreprocessTimeUs;
+    private volatile long totalPreprocessTimeUs;
+    private volatile int preprocessedFrames;
 
     public PoseLandmarkerHelper(
             float minPoseDetectionConfidence,
@@ -89,10 +147,15 @@ public class PoseLandmarkerHelper {
     }
 
     public void clearPoseLandmarker() {
-        if (poseLandmarker != null) {
-            poseLandmarker.close();
+        PoseLandmarker old;
+        synchronized (landmarkerLock) {
+            old = poseLandmarker;
+            poseLandmarker = null;
+        }
+        if (old != null) {
+            old.close();
         }
-        poseLandmarker = null;
+        bitmapPool.clear();
     }
 
     public boolean isClose() {
@@ -100,6 +163,24 @@ public class PoseLandmarkerHelper {
     }
 
     public void setupPoseLandmarker() {
+        if (runningMode == RunningMode.LIVE_STREAM && poseLandmarkerHelperListener == null) {
+            throw new IllegalStateException("poseLandmarkerHelperListener must be set when runningMode is LIVE_STREAM.");
+        }
+
+        try {
+            PoseLandmarker created = createPoseLandmarker(currentModel);
+            synchronized (landmarkerLock) {
+                poseLandmarker = created;
+            }
+        } catch (RuntimeException e) {
+            if (poseLandmarkerHelperListener != null) {
+                poseLandmarkerHelperListener.onError("Pose Landmarker failed to initialize. See error logs for details", GPU_ERROR);
+            }
+            Log.e(TAG, "Error initializing Pose Landmarker: " + e.getMessage());
+        }
+    }
+
+    private PoseLandmarker createPoseLandmarker(int model) {
         BaseOptions.Builder baseOptionBuilder = BaseOptions.builder();
 
         switch (currentDelegate) {
@@ -112,7 +193,7 @@ public class PoseLandmarkerHelper {
         }
 
         String modelName;
-        switch (currentModel) {
+        switch (model) {
             case MODEL_POSE_LANDMARKER_FULL:
                 modelName = "pose_landmarker_full.task";
                 break;
@@ -128,69 +209,329 @@ public class PoseLandmarkerHelper {
 
         baseOptionBuilder.setModelAssetPath(modelName);
 
-        if (runningMode == RunningMode.LIVE_STREAM && poseLandmarkerHelperListener == null) {
-            throw new IllegalStateException("poseLandmarkerHelperListener must be set when runningMode is LIVE_STREAM.");
+        BaseOptions baseOptions = baseOptionBuilder.build();
+        PoseLandmarker.PoseLandmarkerOptions.Builder optionsBuilder = PoseLandmarker.PoseLandmarkerOptions.builder()
+                .setBaseOptions(baseOptions)
+                .setMinPoseDetectionConfidence(minPoseDetectionConfidence)
+                .setMinTrackingConfidence(minPoseTrackingConfidence)
+                .setMinPosePresenceConfidence(minPosePresenceConfidence)
+                .setRunningMode(runningMode);
+
+        if (runningMode == RunningMode.LIVE_STREAM) {
+            optionsBuilder
+                    .setResultListener(this::returnLivestreamResult)
+                    .setErrorListener(this::returnLivestreamError);
         }
 
-        try {
-            BaseOptions baseOptions = baseOptionBuilder.build();
-            PoseLandmarker.PoseLandmarkerOptions.Builder optionsBuilder = PoseLandmarker.PoseLandmarkerOptions.builder()
-                    .setBaseOptions(baseOptions)
-                    .setMinPoseDetectionConfidence(minPoseDetectionConfidence)
-                    .setMinTrackingConfidence(minPoseTrackingConfidence)
-                    .setMinPosePresenceConfidence(minPosePresenceConfidence)
-                    .setRunningMode(runningMode);
-
-            if (runningMode == RunningMode.LIVE_STREAM) {
-                optionsBuilder
-                        .setResultListener(this::returnLivestreamResult)
-                        .setErrorListener(this::returnLivestreamError);
-            }
+        return PoseLandmarker.createFromOptions(context, optionsBuilder.build());
+    }
 
-            PoseLandmarker.PoseLandmarkerOptions options = optionsBuilder.build();
-            poseLandmarker = PoseLandmarker.createFromOptions(context, options);
+    /**
+     * Let live detection move between the lite, full and heavy models by measured inference time
+     * against the frame budget of the target fps. Off by default; turning it off keeps the current model.
+     */
+    public void setAdaptiveModel(boolean enabled) {
+        tierController = enabled ? new PoseModelTierController(currentModel, frameBudgetMs(), TIERING_WINDOW) : null;
+    }
 
-        } catch (RuntimeException e) {
-            if (poseLandmarkerHelperListener != null) {
-                poseLandmarkerHelperListener.onError("Pose Landmarker failed to initialize. See error logs for details", GPU_ERROR);
-            }
-            Log.e(TAG, "Error initializing Pose Landmarker: " + e.getMessage());
+    public int getCurrentModel() {
+        return currentModel;
+    }
+
+    /**
+     * Time available for one detection: the target frame interval, times the keyframe interval in keyframe mode.
+     */
+    private long frameBudgetMs() {
+        float fps = liveTargetFps > 0f ? liveTargetFps : UNPACED_BUDGET_FPS;
+        return Math.max(1, Math.round(1000 / fps) * keyframePolicy.interval);
+    }
+
+    private void onLiveInferenceTime(long inferenceTime) {
+        PoseModelTierController controller = tierController;
+        if (controller == null || swapping.get()) {
+            return;
+        }
+        if (tierWindowStale.getAndSet(false)) {
+            // Results timed across the swap belong to neither model
+            controller.resetWindow();
+        }
+        controller.setFrameBudgetMs(frameBudgetMs());
+        int model = controller.onInferenceTime(inferenceTime);
+        if (model >= 0) {
+            swapModelAsync(model, controller);
+        }
+    }
+
+    /**
+     * Build the new landmarker off the camera and result threads while the current one keeps
+     * serving frames, then switch under the lock detectAsync takes. The old landmarker is closed
+     * afterwards, which lets its in-flight detections finish.
+     */
+    private void swapModelAsync(int model, PoseModelTierController controller) {
+        if (!swapping.compareAndSet(false, true)) {
+            return;
         }
+        MODEL_SWAP_EXECUTOR.execute(() -> {
+            try {
+                long start = SystemClock.uptimeMillis();
+                PoseLandmarker created = createPoseLandmarker(model);
+                PoseLandmarker old;
+                synchronized (landmarkerLock) {
+                    old = poseLandmarker;
+                    if (old != null) {
+                        poseLandmarker = created;
+                        currentModel = model;
+                    }
+                }
+                if (old == null) {
+                    // Cleared while the new model was loading
+                    created.close();
+                    return;
+                }
+                old.close();
+                Log.i(TAG, "Switched pose model to " + model + " in " + (SystemClock.uptimeMillis() - start) + " ms");
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Pose model switch to " + model + " failed, keeping " + currentModel + ": " + e.getMessage());
+                if (tierController == controller) {
+                    tierController = new PoseModelTierController(currentModel, frameBudgetMs(), TIERING_WINDOW);
+                }
+            } finally {
+                tierWindowStale.set(true);
+                swapping.set(false);
+            }
+        });
     }
 
+    /**
+     * Feed one camera frame without per-frame pixel buffers: the RGBA plane goes to MediaPipe as a
+     * ByteBuffer (zero-copy when it has no row padding), rotation is passed as a processing option
+     * instead of rotating pixels, and front-camera frames are mirrored on the 33 landmarks of the
+     * result instead of on the pixels, so the pose matches the flipped frames the server expects.
+     */
     public void detectLiveStream(ImageProxy imageProxy, boolean isFrontCamera) {
         if (runningMode != RunningMode.LIVE_STREAM) {
             throw new IllegalArgumentException("detectLiveStream can only be called when runningMode is LIVE_STREAM.");
         }
 
         long frameTime = SystemClock.uptimeMillis();
+        KeyframePolicy policy = keyframePolicy;
+        if (policy != KeyframePolicy.EVERY_FRAME) {
+            detectWithTracking(imageProxy, isFrontCamera, frameTime, policy);
+            return;
+        }
+        LivePoseScheduler scheduler = this.scheduler;
+        if (!scheduler.tryAdmit(frameTime)) {
+            // Behind or ahead of the target rate, drop the frame before any conversion
+            imageProxy.close();
+            return;
+        }
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        boolean sent = false;
+        try {
+            long start = SystemClock.elapsedRealtimeNanos();
+            MPImage mpImage = toMPImage(imageProxy);
+            recordPreprocessTime((SystemClock.elapsedRealtimeNanos() - start) / 1000);
+
+            lastRotation = rotation;
+            lastMirrored = isFrontCamera;
+            // MediaPipe copies the pixels into its own packet before detectAsync returns,
+            // so the plane and the pooled buffers can be reused as soon as it does
+            sent = detectAsync(mpImage, ROTATION_OPTIONS[(rotation / 90) & 3], frameTime);
+        } finally {
+            if (!sent) {
+                scheduler.cancel(frameTime);
+            }
+            imageProxy.close();
+        }
+    }
 
-        Bitmap bitmapBuffer = Bitmap.createBitmap(
-                imageProxy.getWidth(),
-                imageProxy.getHeight(),
-                Bitmap.Config.ARGB_8888);
+    /**
+     * Keyframe mode: full detection only when the policy asks for one and no other detection is
+     * outstanding; every frame, keyframe or not, is answered with tracked landmarks right away,
+     * so the landmark stream keeps the camera rate while detection runs about 1/interval as often.
+     * The tracked pose is one reused frame; only the small ResultBundle is new per frame.
+     */
+    private void detectWithTracking(ImageProxy imageProxy, boolean isFrontCamera, long frameTime, KeyframePolicy policy) {
+        LivePoseScheduler scheduler = this.scheduler;
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        try {
+            applyPendingDetection();
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            fillLuma(imageProxy, rotation, currentLuma);
+            framesSinceKeyframe++;
+            boolean wantKeyframe = !tracker.hasEstimate() || policy.isKeyframe(framesSinceKeyframe, tracker.confidence());
+            // One keyframe at a time: its luma is kept until the detection comes back
+            if (wantKeyframe && scheduler.inFlight() == 0 && scheduler.tryAdmit(frameTime)) {
+                boolean sent = false;
+                try {
+                    MPImage mpImage = toMPImage(imageProxy);
+                    keyframeLuma.copyFrom(currentLuma);
+                    lastRotation = rotation;
+                    lastMirrored = isFrontCamera;
+                    sent = detectAsync(mpImage, ROTATION_OPTIONS[(rotation / 90) & 3], frameTime);
+                } finally {
+                    if (sent) {
+                        framesSinceKeyframe = 0;
+                    } else {
+                        scheduler.cancel(frameTime);
+                    }
+                }
+            }
+            recordPreprocessTime((SystemClock.elapsedRealtimeNanos() - start) / 1000);
+
+            PoseFrame tracked = trackedFrame;
+            if (tracker.track(frameTime, currentLuma, tracked) && poseLandmarkerHelperListener != null) {
+                // The tracker follows the unflipped luma, only its output is mirrored
+                if (isFrontCamera) {
+                    tracked.mirror();
+                }
+                boolean swap = rotation % 180 != 0;
+                poseLandmarkerHelperListener.onResults(new ResultBundle(tracked,
+                        SystemClock.uptimeMillis() - frameTime,
+                        swap ? imageProxy.getWidth() : imageProxy.getHeight(),
+                        swap ? imageProxy.getHeight() : imageProxy.getWidth()));
+            }
+        } finally {
+            imageProxy.close();
+        }
+    }
+
+    private void applyPendingDetection() {
+        synchronized (pendingDetection) {
+            if (!detectionReady) {
+                return;
+            }
+            detectionReady = false;
+            if (detectionEmpty) {
+                // Nobody in frame, stop tracking stale landmarks until the next detection finds a pose
+                tracker.reset();
+            } else {
+                tracker.onDetected(pendingDetection, keyframeLuma);
+            }
+        }
+    }
+
+    private void fillLuma(ImageProxy imageProxy, int rotation, LumaImage out) {
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        int step = Math.max(1, (Math.max(width, height) + TRACKING_MAX_SIDE - 1) / TRACKING_MAX_SIDE);
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        if (imageProxy.getFormat() == ImageFormat.YUV_420_888) {
+            out.fromY(plane.getBuffer(), plane.getRowStride(), plane.getPixelStride(), width, height, step, rotation);
+        } else {
+            out.fromRgba(plane.getBuffer(), plane.getRowStride(), plane.getPixelStride(), width, height, step, rotation);
+        }
+    }
 
-        bitmapBuffer.copyPixelsFromBuffer(imageProxy.getPlanes()[0].getBuffer());
+    /**
+     * Run full detection only on keyframes and track landmarks in between,
+     * {@link KeyframePolicy#EVERY_FRAME} to detect on every admitted frame.
+     */
+    public void setKeyframePolicy(KeyframePolicy policy) {
+        keyframePolicy = policy;
+    }
+
+    /**
+     * Fraction of tracked landmarks refined by optical flow in keyframe mode.
+     */
+    public float getTrackingRefinedRate() {
+        return tracker.refinedRate();
+    }
 
-        imageProxy.close();
+    private MPImage toMPImage(ImageProxy imageProxy) {
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+        ByteBuffer rgba;
+        if (imageProxy.getFormat() == ImageFormat.YUV_420_888) {
+            rgba = liveBuffers.fromYuv(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                    planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    width, height);
+        } else if (imageProxy.getFormat() == PixelFormat.RGBA_8888) {
+            rgba = liveBuffers.fromRgba(planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                    width, height);
+        } else {
+            throw new IllegalArgumentException("Unsupported image format: " + imageProxy.getFormat());
+        }
 
-        Matrix matrix = new Matrix();
-        matrix.postRotate(imageProxy.getImageInfo().getRotationDegrees());
-        if (isFrontCamera) {
-            matrix.postScale(-1f, 1f, imageProxy.getWidth(), imageProxy.getHeight());
+        if (!useBitmapInput) {
+            return new ByteBufferImageBuilder(rgba, width, height, MPImage.IMAGE_FORMAT_RGBA).build();
         }
+        Bitmap bitmap = bitmapPool.acquire(width, height);
+        bitmap.copyPixelsFromBuffer(rgba);
+        return new BitmapImageBuilder(bitmap).build();
+    }
+
+    /**
+     * @return true if the frame went to MediaPipe and a result or an error will follow
+     */
+    private boolean detectAsync(MPImage mpImage, ImageProcessingOptions options, long frameTime) {
+        try {
+            synchronized (landmarkerLock) {
+                if (poseLandmarker == null) {
+                    return false;
+                }
+                poseLandmarker.detectAsync(mpImage, options, frameTime);
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (useBitmapInput) {
+                throw e;
+            }
+            // Older graphs only take bitmaps, drop this frame and switch for the rest of the stream
+            Log.w(TAG, "ByteBuffer input rejected, using pooled bitmaps: " + e.getMessage());
+            useBitmapInput = true;
+            return false;
+        }
+    }
 
-        Bitmap rotatedBitmap = Bitmap.createBitmap(
-                bitmapBuffer, 0, 0, bitmapBuffer.getWidth(), bitmapBuffer.getHeight(), matrix, true);
+    private void recordPreprocessTime(long timeUs) {
+        lastPreprocessTimeUs = timeUs;
+        totalPreprocessTimeUs += timeUs;
+        preprocessedFrames++;
+    }
+
+    /**
+     * Limit live detection to maxInFlight outstanding frames at about targetFps, 0 for no rate limit.
+     * Statistics start over.
+     */
+    public void setLiveScheduling(int maxInFlight, float targetFps) {
+        scheduler = new LivePoseScheduler(maxInFlight, targetFps, RESULT_TIMEOUT_MS);
+        liveTargetFps = targetFps;
+    }
 
-        MPImage mpImage = new BitmapImageBuilder(rotatedBitmap).build();
-        detectAsync(mpImage, frameTime);
+    /**
+     * Achieved fps, drop rate and result latency of live detection.
+     */
+    public LivePoseScheduler getLiveScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Time spent turning the last camera frame into an MPImage, in microseconds.
+     */
+    public long getLastPreprocessTimeUs() {
+        return lastPreprocessTimeUs;
+    }
+
+    public long getMeanPreprocessTimeUs() {
+        int frames = preprocessedFrames;
+        return frames > 0 ? totalPreprocessTimeUs / frames : 0;
+    }
+
+    public String getPreprocessStats() {
+        return "preprocess " + lastPreprocessTimeUs + " us (mean " + getMeanPreprocessTimeUs() + " us over "
+                + preprocessedFrames + " frames, " + liveBuffers.zeroCopyFrames() + " zero-copy, "
+                + liveBuffers.copiedFrames() + " copied, " + liveBuffers.allocations() + " buffer allocations)";
     }
 
     @VisibleForTesting
     public void detectAsync(MPImage mpImage, long frameTime) {
-        if (poseLandmarker != null) {
-            poseLandmarker.detectAsync(mpImage, frameTime);
+        synchronized (landmarkerLock) {
+            if (poseLandmarker != null) {
+                poseLandmarker.detectAsync(mpImage, frameTime);
+            }
         }
     }
 
@@ -222,17 +563,57 @@ public class PoseLandmarkerHelper {
     private void returnLivestreamResult(PoseLandmarkerResult result, MPImage input) {
         long finishTimeMs = SystemClock.uptimeMillis();
         long inferenceTime = finishTimeMs - result.timestampMs();
+        scheduler.onResult(result.timestampMs(), finishTimeMs);
+        onLiveInferenceTime(inferenceTime);
+
+        if (keyframePolicy != KeyframePolicy.EVERY_FRAME) {
+            // The analyzer thread re-anchors the tracker and reports from the next frame on
+            synchronized (pendingDetection) {
+                detectionEmpty = !toPoseFrame(result, pendingDetection);
+                detectionReady = true;
+            }
+            return;
+        }
 
         if (poseLandmarkerHelperListener != null) {
+            PoseFrame pose = null;
+            if (toPoseFrame(result, liveFrame)) {
+                pose = liveFrame;
+                if (lastMirrored) {
+                    pose.mirror();
+                }
+            }
+            // Landmarks are normalized to the rotated image, the input is still in sensor orientation
+            boolean swap = lastRotation % 180 != 0;
             poseLandmarkerHelperListener.onResults(new ResultBundle(
                     List.of(result),
+                    pose,
                     inferenceTime,
-                    input.getHeight(),
-                    input.getWidth()));
+                    swap ? input.getWidth() : input.getHeight(),
+                    swap ? input.getHeight() : input.getWidth()));
         }
     }
 
+    /**
+     * Copy the first pose of a result, false if no pose was detected.
+     */
+    static boolean toPoseFrame(PoseLandmarkerResult result, PoseFrame out) {
+        if (result.landmarks().isEmpty()) {
+            return false;
+        }
+        List<NormalizedLandmark> landmarks = result.landmarks().get(0);
+        for (int i = 0; i < PoseFrame.NUM_LANDMARKS && i < landmarks.size(); i++) {
+            NormalizedLandmark landmark = landmarks.get(i);
+            out.set(i, landmark.x(), landmark.y(), landmark.visibility().orElse(0f));
+            out.z[i] = landmark.z();
+        }
+        out.timestampMs = result.timestampMs();
+        out.keyframe = true;
+        return true;
+    }
+
     private void returnLivestreamError(RuntimeException error) {
+        scheduler.onError();
         if (poseLandmarkerHelperListener != null) {
             String errorMessage = error.getMessage() != null ? error.getMessage() : "An unknown error has occurred";
             poseLandmarkerHelperListener.onError(errorMessage, OTHER_ERROR); // Use the appropriate error code
@@ -251,12 +632,29 @@ public class PoseLandmarkerHelper {
         public final long inferenceTime;
         public final int inputImageHeight;
         public final int inputImageWidth;
+        // Live stream: the first pose, already mirrored for the front camera unlike results; null if
+        // nobody was detected. Only valid during the callback.
+        public final PoseFrame pose;
 
         public ResultBundle(List<PoseLandmarkerResult> results, long inferenceTime, int inputImageHeight, int inputImageWidth) {
+            this(results, null, inferenceTime, inputImageHeight, inputImageWidth);
+        }
+
+        public ResultBundle(List<PoseLandmarkerResult> results, PoseFrame pose, long inferenceTime, int inputImageHeight,
+                            int inputImageWidth) {
             this.results = results;
             this.inferenceTime = inferenceTime;
             this.inputImageHeight = inputImageHeight;
             this.inputImageWidth = inputImageWidth;
+            this.pose = pose;
+        }
+
+        /**
+         * Tracked landmarks from keyframe mode, with no detection result behind them.
+         * The frame is reused for the next one, like the live pose.
+         */
+        public ResultBundle(PoseFrame pose, long inferenceTime, int inputImageHeight, int inputImageWidth) {
+            this(List.of(), pose, inferenceTime, inputImageHeight, inputImageWidth);
         }
     }
 
@@ -0,0 +1,121 @@
+package com.translator.vsl.handler;
+
+/**
+ * Picks the pose landmarker model from measured inference times. Times are averaged over a
+ * window of results; the controller steps down a tier when the average exceeds the frame budget
+ * and steps up when the next tier's expected cost would still fit well inside it. Changes are
+ * kept apart by hysteresis: after each switch a full window must pass, and a tier that was
+ * abandoned for being too slow is retried only after a doubling back-off.
+ * Not thread-safe; feed it from the result thread.
+ */
+public class PoseModelTierController {
+    // Cheapest to most accurate
+    private static final int[] TIERS = {
+            PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_LITE,
+            PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_FULL,
+            PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_HEAVY
+    };
+    // Rough inference cost of each tier relative to the one below it
+    private static final float[] STEP_UP_COST = {0f, 1.6f, 3f};
+    // Step up only if the next tier is expected to use at most this share of the budget
+    private static final float UPGRADE_HEADROOM = 0.8f;
+    private static final int INITIAL_BACKOFF_WINDOWS = 2;
+    private static final int MAX_BACKOFF_WINDOWS = 64;
+
+    private final int windowSize;
+    private long frameBudgetMs;
+    private int tier;
+    private long windowSum;
+    private int windowCount;
+    // Windows to wait before trying the tier above again, doubled each time it proves too slow
+    private final int[] backoffWindows = new int[TIERS.length];
+    private final int[] windowsSinceDowngrade = new int[TIERS.length];
+    private int switches;
+
+    /**
+     * @param initialModel one of the PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_* constants
+     */
+    public PoseModelTierController(int initialModel, long frameBudgetMs, int windowSize) {
+        if (frameBudgetMs <= 0 || windowSize < 1) {
+            throw new IllegalArgumentException("Invalid tiering: budget " + frameBudgetMs + " ms, window " + windowSize);
+        }
+        this.tier = tierOf(initialModel);
+        this.frameBudgetMs = frameBudgetMs;
+        this.windowSize = windowSize;
+        for (int i = 0; i < TIERS.length; i++) {
+            backoffWindows[i] = INITIAL_BACKOFF_WINDOWS;
+            windowsSinceDowngrade[i] = Integer.MAX_VALUE / 2;
+        }
+    }
+
+    public void setFrameBudgetMs(long frameBudgetMs) {
+        if (frameBudgetMs <= 0) {
+            throw new IllegalArgumentException("Frame budget must be positive: " + frameBudgetMs);
+        }
+        this.frameBudgetMs = frameBudgetMs;
+    }
+
+    /**
+     * Record one inference time measured with the current model.
+     *
+     * @return the model to switch to, or -1 to keep the current one
+     */
+    public int onInferenceTime(long inferenceMs) {
+        windowSum += inferenceMs;
+        if (++windowCount < windowSize) {
+            return -1;
+        }
+        float mean = (float) windowSum / windowCount;
+        windowSum = 0;
+        windowCount = 0;
+        for (int i = 0; i < TIERS.length; i++) {
+            windowsSinceDowngrade[i]++;
+        }
+
+        if (mean > frameBudgetMs && tier > 0) {
+            // The tier we leave was too slow: wait longer before trying it again
+            if (windowsSinceDowngrade[tier] <= backoffWindows[tier] + 1) {
+                backoffWindows[tier] = Math.min(MAX_BACKOFF_WINDOWS, backoffWindows[tier] * 2);
+            }
+            windowsSinceDowngrade[tier] = 0;
+            return switchTo(tier - 1);
+        }
+        if (tier + 1 < TIERS.length
+                && mean * STEP_UP_COST[tier + 1] <= frameBudgetMs * UPGRADE_HEADROOM
+                && windowsSinceDowngrade[tier + 1] >= backoffWindows[tier + 1]) {
+            return switchTo(tier + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Forget a partial window, e.g. after the model changed for another reason.
+     */
+    public void resetWindow() {
+        windowSum = 0;
+        windowCount = 0;
+    }
+
+    public int currentModel() {
+        return TIERS[tier];
+    }
+
+    public int switches() {
+        return switches;
+    }
+
+    private int switchTo(int newTier) {
+        tier = newTier;
+        switches++;
+        return TIERS[tier];
+    }
+
+    private static int tierOf(int model) {
+        for (int i = 0; i < TIERS.length; i++) {
+            if (TIERS[i] == model) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown pose model: " + model);
+    }
+}
@@ -0,0 +1,64 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+
+/**
+ * What online realtime translation sends to the server, stored in AppPrefs: 1 s video segments
+ * for /spoter_segmented, or pose landmarks extracted on the device for /landmark_stream.
+ */
+public final class RealtimeModes {
+    public static final String VIDEO = "video";
+    public static final String LANDMARKS = "landmarks";
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_REALTIME_MODE = "realtime_mode";
+    // A packet every half second keeps captions timely without a request per frame
+    public static final long LANDMARK_BATCH_MS = 500;
+    private static final String KEY_CONTINUOUS_SEGMENTER = "continuous_segmenter";
+    private static final String KEY_SEGMENT_MS = "segment_ms";
+    public static final long DEFAULT_SEGMENT_MS = 1000;
+    private static final String KEY_UPLOAD_CONCURRENCY = "upload_concurrency";
+    // Enough parallel uploads to keep up with 1 s segments over a round trip of about 3 s
+    public static final int DEFAULT_UPLOAD_CONCURRENCY = 3;
+
+    private RealtimeModes() {
+    }
+
+    public static String getSelected(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_REALTIME_MODE, VIDEO);
+    }
+
+    public static void setSelected(Context context, String mode) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putString(KEY_REALTIME_MODE, mode).apply();
+    }
+
+    /**
+     * Whether video segments come from one continuous encoder instead of stopping and restarting
+     * the recording every segment.
+     */
+    public static boolean isContinuousSegmenter(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_CONTINUOUS_SEGMENTER, true);
+    }
+
+    public static void setContinuousSegmenter(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_CONTINUOUS_SEGMENTER, enabled).apply();
+    }
+
+    public static long getSegmentMs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getLong(KEY_SEGMENT_MS, DEFAULT_SEGMENT_MS);
+    }
+
+    public static void setSegmentMs(Context context, long segmentMs) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putLong(KEY_SEGMENT_MS, segmentMs).apply();
+    }
+
+    /**
+     * How many video segments are uploaded at the same time.
+     */
+    public static int getUploadConcurrency(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getInt(KEY_UPLOAD_CONCURRENCY, DEFAULT_UPLOAD_CONCURRENCY);
+    }
+
+    public static void setUploadConcurrency(Context context, int concurrency) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putInt(KEY_UPLOAD_CONCURRENCY, concurrency).apply();
+    }
+}
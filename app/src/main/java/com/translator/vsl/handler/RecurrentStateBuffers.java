@@ -0,0 +1,142 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Double-buffered recurrent state for the stateful streaming model.
+ * Two sets of state buffers and the logits buffer are allocated once. Every frame reads
+ * the current set, writes the other one, then {@link #flip()} swaps their roles,
+ * so the per-frame loop does not allocate.
+ * The model's state outputs must have the same signature names as the state inputs.
+ */
+public class RecurrentStateBuffers {
+    private final String imageInputName;
+    private final ByteBuffer logits;
+    private final ByteBuffer[][] stateSets;
+    private final byte[] zeroBytes;
+    private final HashMap<String, Object>[] inputMaps;
+    private final HashMap<String, Object>[] outputMaps;
+    private int current = 0;
+
+    public RecurrentStateBuffers(String[] stateNames, int[] stateBytes,
+                                 String imageInputName, String logitsOutputName, int logitsBytes) {
+        this(stateNames, stateBytes, new byte[stateNames.length], imageInputName, logitsOutputName, logitsBytes);
+    }
+
+    /**
+     * @param zeroBytes byte that encodes 0 in each state tensor, the zero point of quantized states
+     */
+    @SuppressWarnings("unchecked")
+    public RecurrentStateBuffers(String[] stateNames, int[] stateBytes, byte[] zeroBytes,
+                                 String imageInputName, String logitsOutputName, int logitsBytes) {
+        if (stateNames.length != stateBytes.length || stateNames.length != zeroBytes.length) {
+            throw new IllegalArgumentException("stateNames, stateBytes and zeroBytes must have the same length");
+        }
+        this.zeroBytes = zeroBytes.clone();
+        this.imageInputName = imageInputName;
+        this.logits = allocate(logitsBytes);
+        this.stateSets = new ByteBuffer[2][stateNames.length];
+        this.inputMaps = new HashMap[2];
+        this.outputMaps = new HashMap[2];
+
+        for (int set = 0; set < 2; set++) {
+            for (int i = 0; i < stateNames.length; i++) {
+                stateSets[set][i] = allocate(stateBytes[i]);
+            }
+        }
+        for (int set = 0; set < 2; set++) {
+            int other = 1 - set;
+            inputMaps[set] = new HashMap<>();
+            outputMaps[set] = new HashMap<>();
+            for (int i = 0; i < stateNames.length; i++) {
+                inputMaps[set].put(stateNames[i], stateSets[set][i]);
+                outputMaps[set].put(stateNames[i], stateSets[other][i]);
+            }
+            // Reserve the image slot so setImage only replaces a value
+            inputMaps[set].put(imageInputName, null);
+            outputMaps[set].put(logitsOutputName, logits);
+        }
+    }
+
+    private static ByteBuffer allocate(int numBytes) {
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(numBytes);
+        byteBuffer.order(ByteOrder.nativeOrder());
+        return byteBuffer;
+    }
+
+    /**
+     * Set the preprocessed frame for the next run.
+     */
+    public void setImage(ByteBuffer image) {
+        inputMaps[current].put(imageInputName, image);
+    }
+
+    /**
+     * Inputs for the next run: the current state plus the image set with {@link #setImage}.
+     */
+    public Map<String, Object> inputs() {
+        return inputMaps[current];
+    }
+
+    /**
+     * Outputs for the next run: the other state set plus the logits buffer, rewound for writing.
+     */
+    public Map<String, Object> outputs() {
+        ByteBuffer[] next = stateSets[1 - current];
+        for (ByteBuffer buffer : next) {
+            buffer.rewind();
+        }
+        logits.rewind();
+        return outputMaps[current];
+    }
+
+    /**
+     * Logits written by the last run, rewound for reading.
+     */
+    public ByteBuffer logits() {
+        logits.rewind();
+        return logits;
+    }
+
+    /**
+     * State tensor written by the last run, before {@link #flip()}, rewound.
+     */
+    public ByteBuffer writtenState(int index) {
+        ByteBuffer buffer = stateSets[1 - current][index];
+        buffer.rewind();
+        return buffer;
+    }
+
+    /**
+     * Make the state written by the last run the input of the next one.
+     */
+    public void flip() {
+        inputMaps[current].put(imageInputName, null);
+        current = 1 - current;
+    }
+
+    /**
+     * Zero both state sets, as at the start of a new clip.
+     */
+    public void reset() {
+        for (ByteBuffer[] set : stateSets) {
+            for (int i = 0; i < set.length; i++) {
+                ByteBuffer buffer = set[i];
+                long fill = (zeroBytes[i] & 0xffL) * 0x0101010101010101L;
+                buffer.clear();
+                while (buffer.remaining() >= 8) {
+                    buffer.putLong(fill);
+                }
+                while (buffer.hasRemaining()) {
+                    buffer.put(zeroBytes[i]);
+                }
+                buffer.rewind();
+            }
+        }
+        inputMaps[current].put(imageInputName, null);
+        current = 0;
+    }
+}
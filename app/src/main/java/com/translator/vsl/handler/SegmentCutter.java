@@ -0,0 +1,110 @@
+package com.translator.vsl.handler;
+
+import java.util.Locale;
+
+/**
+ * Where a continuous encoded stream is cut into segments. Every segment starts on a keyframe so
+ * it decodes on its own, and lasts at least about segmentMs: the cutter asks for a keyframe once
+ * a segment is due and cuts at the first keyframe that arrives after that. It also keeps the
+ * segment-ready latency, from the end of a segment's content to its file being complete.
+ * All times are presentation timestamps in microseconds. Not thread-safe.
+ */
+public class SegmentCutter {
+    // Keyframes the encoder places on its own a little early still end the segment
+    private static final float EARLY_CUT = 0.9f;
+
+    private final long segmentUs;
+    private long segmentStartUs = -1;
+    private boolean keyframeRequested;
+    private int segments;
+
+    private long lastLatencyUs;
+    private long totalLatencyUs;
+    private long maxLatencyUs;
+    private int readySegments;
+
+    public SegmentCutter(long segmentMs) {
+        if (segmentMs <= 0) {
+            throw new IllegalArgumentException("Segment length must be positive: " + segmentMs + " ms");
+        }
+        this.segmentUs = segmentMs * 1000;
+    }
+
+    /**
+     * Called for each frame before it goes into the encoder.
+     *
+     * @return true if the encoder should be asked to make this frame a keyframe
+     */
+    public boolean shouldRequestKeyframe(long ptsUs) {
+        if (segmentStartUs < 0 || keyframeRequested || ptsUs - segmentStartUs < segmentUs) {
+            return false;
+        }
+        keyframeRequested = true;
+        return true;
+    }
+
+    /**
+     * Called for each encoded sample in output order.
+     *
+     * @return true if the sample starts a new segment; the previous one, if any, ends before it
+     */
+    public boolean onSample(long ptsUs, boolean keyframe) {
+        if (!keyframe) {
+            return false;
+        }
+        if (segmentStartUs >= 0 && ptsUs - segmentStartUs < (long) (segmentUs * EARLY_CUT)) {
+            return false;
+        }
+        segmentStartUs = ptsUs;
+        keyframeRequested = false;
+        segments++;
+        return true;
+    }
+
+    /**
+     * True once the first keyframe arrived; samples before it belong to no segment.
+     */
+    public boolean hasSegment() {
+        return segmentStartUs >= 0;
+    }
+
+    public long segmentStartUs() {
+        return segmentStartUs;
+    }
+
+    /**
+     * Record that a segment whose content ends at endPtsUs was completed at readyUs, on the same clock.
+     */
+    public void onSegmentReady(long endPtsUs, long readyUs) {
+        lastLatencyUs = Math.max(0, readyUs - endPtsUs);
+        totalLatencyUs += lastLatencyUs;
+        maxLatencyUs = Math.max(maxLatencyUs, lastLatencyUs);
+        readySegments++;
+    }
+
+    public int segments() {
+        return segments;
+    }
+
+    public int readySegments() {
+        return readySegments;
+    }
+
+    public long lastLatencyMs() {
+        return lastLatencyUs / 1000;
+    }
+
+    public long meanLatencyMs() {
+        return readySegments > 0 ? totalLatencyUs / readySegments / 1000 : 0;
+    }
+
+    public long maxLatencyMs() {
+        return maxLatencyUs / 1000;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d segments of %d ms, ready after %d ms (mean %d, max %d)",
+                readySegments, segmentUs / 1000, lastLatencyMs(), meanLatencyMs(), maxLatencyMs());
+    }
+}
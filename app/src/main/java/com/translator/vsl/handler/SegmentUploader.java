@@ -0,0 +1,307 @@
+package com.translator.vsl.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Uploads realtime video segments to /spoter_segmented several at a time, so throughput is no
+ * longer one segment per round trip, while results still come out strictly in capture order.
+ * Each segment carries a monotonic sequence number and its capture time; a reorder buffer holds
+ * answers that arrive early until every earlier segment has been answered or given up. A failed
+ * upload is retried a few times and then dropped, so it cannot hold back the segments after it.
+ * The uploader owns the files it is given and deletes each one once it is settled.
+ * Reports through the listener and counters only, so it runs on a plain JVM.
+ */
+public class SegmentUploader {
+    private static final MediaType VIDEO_MP4 = MediaType.parse("video/mp4");
+    public static final String FIELD_SEQUENCE = "sequence";
+    public static final String FIELD_CAPTURE_MS = "capture_ms";
+    // Workers idle longer than this exit, so an uploader kept between sessions holds no threads
+    private static final long IDLE_WORKER_MS = 30_000;
+
+    public interface Listener {
+        /**
+         * Server reply for a segment, in capture order.
+         */
+        void onResult(int sequence, long captureMs, String body);
+
+        /**
+         * A segment given up after its last attempt, in capture order with the results.
+         */
+        void onDropped(int sequence, long captureMs, IOException error);
+
+        /**
+         * Every upload attempt as it ends, in completion order, for judging the network.
+         */
+        void onRoundTrip(int sequence, long elapsedMs, boolean ok);
+    }
+
+    private final OkHttpClient http;
+    private final String url;
+    private final String clientId;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final Listener listener;
+    private final ThreadPoolExecutor workers;
+
+    private int nextSequence;
+    // Reorder buffer, guarded by itself
+    private final TreeMap<Integer, Outcome> finished = new TreeMap<>();
+    private int nextToDeliver;
+    private int maxReorderDepth;
+
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicInteger uploaded = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private volatile long firstSubmitNs = -1;
+    private volatile long lastDeliveryNs;
+
+    public SegmentUploader(OkHttpClient http, String url, String clientId, int concurrency, int maxAttempts,
+                           long retryDelayMs, Listener listener) {
+        if (concurrency < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Need at least one worker and one attempt: "
+                    + concurrency + " workers, " + maxAttempts + " attempts");
+        }
+        this.http = http;
+        this.url = url;
+        this.clientId = clientId;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.listener = listener;
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, IDLE_WORKER_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a segment; segments must be submitted in capture order.
+     *
+     * @return its sequence number, or -1 if the uploader is closed and the file was deleted
+     */
+    public synchronized int submit(File file, long captureMs) {
+        if (workers.isShutdown()) {
+            file.delete();
+            return -1;
+        }
+        if (firstSubmitNs < 0) {
+            firstSubmitNs = System.nanoTime();
+        }
+        int sequence = nextSequence++;
+        backlog.incrementAndGet();
+        workers.execute(new Upload(sequence, file, captureMs));
+        return sequence;
+    }
+
+    /**
+     * Drop the segments not being uploaded yet and delete their files. They get no callback;
+     * uploads in flight still finish.
+     *
+     * @return how many were dropped
+     */
+    public int cancelPending() {
+        List<Runnable> pending = new ArrayList<>();
+        workers.getQueue().drainTo(pending);
+        for (Runnable r : pending) {
+            Upload upload = (Upload) r;
+            cancelled.incrementAndGet();
+            settle(upload, new Outcome(upload.sequence, upload.captureMs, null, null, true));
+        }
+        return pending.size();
+    }
+
+    /**
+     * Stop taking segments; those already queued still go out in the background.
+     */
+    public void close() {
+        workers.shutdown();
+    }
+
+    /**
+     * Wait for queued segments after {@link #close()}, true if all were settled in time.
+     */
+    public boolean awaitClosed(long timeoutMs) throws InterruptedException {
+        return workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Segments submitted and not settled yet, in flight or waiting.
+     */
+    public int backlog() {
+        return backlog.get();
+    }
+
+    public int uploaded() {
+        return uploaded.get();
+    }
+
+    public int dropped() {
+        return dropped.get();
+    }
+
+    public int cancelled() {
+        return cancelled.get();
+    }
+
+    public int retries() {
+        return retries.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Most results ever held back waiting for an earlier segment.
+     */
+    public int maxReorderDepth() {
+        synchronized (finished) {
+            return maxReorderDepth;
+        }
+    }
+
+    /**
+     * Results delivered per second since the first segment was submitted.
+     */
+    public float segmentsPerSecond() {
+        long spanNs = lastDeliveryNs - firstSubmitNs;
+        return firstSubmitNs < 0 || spanNs <= 0 ? 0f : uploaded.get() * 1e9f / spanNs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d uploaded (%.2f/s, %d workers), %d dropped, %d cancelled, %d retries, reorder depth %d, %d bytes",
+                uploaded.get(), segmentsPerSecond(), workers.getCorePoolSize(), dropped.get(), cancelled.get(),
+                retries.get(), maxReorderDepth(), bytesSent.get());
+    }
+
+    private String send(Upload upload) throws IOException {
+        RequestBody body = new MultipartBody.Builder().setType(MultipartBody.FORM)
+                .addFormDataPart("video_file", upload.file.getName(), RequestBody.create(VIDEO_MP4, upload.file))
+                .addFormDataPart("clientId", clientId)
+                .addFormDataPart(FIELD_SEQUENCE, String.valueOf(upload.sequence))
+                .addFormDataPart(FIELD_CAPTURE_MS, String.valueOf(upload.captureMs))
+                .addFormDataPart("angle_threshold", "140")
+                .addFormDataPart("top_k", "3")
+                .build();
+        Request request = new Request.Builder().url(url).post(body).build();
+        try (Response response = http.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Server " + response.code() + " for segment " + upload.sequence);
+            }
+            bytesSent.addAndGet(upload.file.length());
+            return response.body() != null ? response.body().string() : "";
+        }
+    }
+
+    private void settle(Upload upload, Outcome outcome) {
+        upload.file.delete();
+        backlog.decrementAndGet();
+        synchronized (finished) {
+            finished.put(outcome.sequence, outcome);
+            Outcome next;
+            while ((next = finished.remove(nextToDeliver)) != null) {
+                nextToDeliver++;
+                deliver(next);
+            }
+            maxReorderDepth = Math.max(maxReorderDepth, finished.size());
+        }
+    }
+
+    private void deliver(Outcome outcome) {
+        if (outcome.cancelled) {
+            return;
+        }
+        if (outcome.body != null) {
+            lastDeliveryNs = System.nanoTime();
+            listener.onResult(outcome.sequence, outcome.captureMs, outcome.body);
+        } else {
+            listener.onDropped(outcome.sequence, outcome.captureMs, outcome.error);
+        }
+    }
+
+    private static final class Outcome {
+        final int sequence;
+        final long captureMs;
+        final String body;
+        final IOException error;
+        final boolean cancelled;
+
+        Outcome(int sequence, long captureMs, String body, IOException error, boolean cancelled) {
+            this.sequence = sequence;
+            this.captureMs = captureMs;
+            this.body = body;
+            this.error = error;
+            this.cancelled = cancelled;
+        }
+    }
+
+    private final class Upload implements Runnable {
+        final int sequence;
+        final File file;
+        final long captureMs;
+
+        Upload(int sequence, File file, long captureMs) {
+            this.sequence = sequence;
+            this.file = file;
+            this.captureMs = captureMs;
+        }
+
+        @Override
+        public void run() {
+            IOException error = null;
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                if (attempt > 1) {
+                    retries.incrementAndGet();
+                    try {
+                        Thread.sleep(retryDelayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                long startNs = System.nanoTime();
+                String body;
+                try {
+                    body = send(this);
+                } catch (IOException e) {
+                    error = e;
+                    listener.onRoundTrip(sequence, (System.nanoTime() - startNs) / 1_000_000, false);
+                    continue;
+                } catch (RuntimeException e) {
+                    // A bad URL or request will not get better on retry, but the segment must still
+                    // settle or every later one waits behind it
+                    error = new IOException("Upload of segment " + sequence + " failed", e);
+                    listener.onRoundTrip(sequence, (System.nanoTime() - startNs) / 1_000_000, false);
+                    break;
+                }
+                listener.onRoundTrip(sequence, (System.nanoTime() - startNs) / 1_000_000, true);
+                uploaded.incrementAndGet();
+                settle(this, new Outcome(sequence, captureMs, body, null, false));
+                return;
+            }
+            dropped.incrementAndGet();
+            settle(this, new Outcome(sequence, captureMs, null,
+                    error != null ? error : new IOException("Upload of segment " + sequence + " interrupted"), false));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.translator.vsl.handler;
+
+/**
+ * Splits a stream of per-frame motion values into signs.
+ * A sign starts once motion exceeds the active threshold and ends after motion stays below the
+ * still threshold for a number of frames, the hands resting between signs. Signs longer than
+ * the frame limit are cut so the recurrent state never runs far past the clip lengths the model saw.
+ */
+public class SignBoundaryDetector {
+    public enum Event {
+        NONE,
+        SIGN_START,
+        SIGN_END
+    }
+
+    private final float activeThreshold;
+    private final float stillThreshold;
+    private final int stillFrames;
+    private final int maxSignFrames;
+
+    private boolean inSign = false;
+    private int stillCount = 0;
+    private int signFrames = 0;
+
+    /**
+     * @param activeThreshold motion that starts a sign
+     * @param stillThreshold  motion below which a frame counts as still, at most activeThreshold
+     * @param stillFrames     consecutive still frames that end a sign
+     * @param maxSignFrames   frames after which a sign is ended regardless of motion
+     */
+    public SignBoundaryDetector(float activeThreshold, float stillThreshold, int stillFrames, int maxSignFrames) {
+        if (stillThreshold > activeThreshold) {
+            throw new IllegalArgumentException("Still threshold above active threshold");
+        }
+        this.activeThreshold = activeThreshold;
+        this.stillThreshold = stillThreshold;
+        this.stillFrames = stillFrames;
+        this.maxSignFrames = maxSignFrames;
+    }
+
+    public Event update(float motion) {
+        if (!inSign) {
+            if (motion >= activeThreshold) {
+                inSign = true;
+                stillCount = 0;
+                signFrames = 1;
+                return Event.SIGN_START;
+            }
+            return Event.NONE;
+        }
+
+        signFrames++;
+        stillCount = motion < stillThreshold ? stillCount + 1 : 0;
+        if (stillCount >= stillFrames || signFrames >= maxSignFrames) {
+            inSign = false;
+            return Event.SIGN_END;
+        }
+        return Event.NONE;
+    }
+
+    public boolean isInSign() {
+        return inSign;
+    }
+
+    public void reset() {
+        inSign = false;
+        stillCount = 0;
+        signFrames = 0;
+    }
+}
@@ -0,0 +1,214 @@
+package com.translator.vsl.handler;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Decides which recorded clips of a realtime session are worth uploading. Arm states from the
+ * pose stream open a signing span when either arm goes up and close it once both are down; a clip
+ * is uploaded if it overlaps a span widened by preRollMs before and postRollMs after, and skipped
+ * otherwise. Clips wait until the pose stream has moved far enough past them to rule out a span
+ * starting within the pre-roll, and are released in the order they were offered. If the pose
+ * stream goes quiet for longer than maxPoseGapMs, waiting clips are uploaded rather than lost.
+ * Timestamps of poses and clips must come from the same clock.
+ * Thread-safe; the listener is called under the spotter's lock, so keep it short.
+ */
+public class SignSpotter<T> {
+    public interface Listener<T> {
+        void onUpload(T clip);
+
+        void onSkip(T clip);
+    }
+
+    private static final class PendingClip<T> {
+        final T clip;
+        final long startMs;
+        final long endMs;
+        final long bytes;
+
+        PendingClip(T clip, long startMs, long endMs, long bytes) {
+            this.clip = clip;
+            this.startMs = startMs;
+            this.endMs = endMs;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long preRollMs;
+    private final long postRollMs;
+    private final long maxPoseGapMs;
+    private final Listener<T> listener;
+
+    private final ArrayDeque<PendingClip<T>> pending = new ArrayDeque<>();
+    // Closed spans as {start, end}, oldest first, dropped once no later clip can overlap them
+    private final ArrayDeque<long[]> spans = new ArrayDeque<>();
+    private long openSpanStartMs = -1;
+    private long lastPoseMs = Long.MIN_VALUE;
+    private long lastClipEndMs = Long.MIN_VALUE;
+
+    private int spanCount;
+    private long activeMs;
+    private int clipsUploaded;
+    private int clipsSkipped;
+    private int clipsUnspotted;
+    private long bytesUploaded;
+    private long bytesSkipped;
+
+    public SignSpotter(long preRollMs, long postRollMs, long maxPoseGapMs, Listener<T> listener) {
+        if (preRollMs < 0 || postRollMs < 0 || maxPoseGapMs <= 0) {
+            throw new IllegalArgumentException("Invalid spotting: pre-roll " + preRollMs + " ms, post-roll "
+                    + postRollMs + " ms, max pose gap " + maxPoseGapMs + " ms");
+        }
+        this.preRollMs = preRollMs;
+        this.postRollMs = postRollMs;
+        this.maxPoseGapMs = maxPoseGapMs;
+        this.listener = listener;
+    }
+
+    /**
+     * Feed the arm state after a pose frame, or after a frame without a pose.
+     *
+     * @param armState mask of {@link ArmStateTracker#LEFT_UP} and {@link ArmStateTracker#RIGHT_UP}
+     */
+    public synchronized void onArmState(long timestampMs, int armState) {
+        if (timestampMs <= lastPoseMs) {
+            return;
+        }
+        lastPoseMs = timestampMs;
+        if (armState != 0 && openSpanStartMs < 0) {
+            openSpanStartMs = timestampMs;
+            spanCount++;
+        } else if (armState == 0 && openSpanStartMs >= 0) {
+            spans.addLast(new long[]{openSpanStartMs, timestampMs});
+            activeMs += timestampMs - openSpanStartMs;
+            openSpanStartMs = -1;
+        }
+        release();
+    }
+
+    /**
+     * Hand over a finished clip covering [startMs, endMs). The listener gets it now or later.
+     */
+    public synchronized void offerClip(T clip, long startMs, long endMs, long bytes) {
+        if (lastPoseMs == Long.MIN_VALUE) {
+            // Count the pose stream's silence from the start of the first clip
+            lastPoseMs = startMs;
+        }
+        pending.addLast(new PendingClip<>(clip, startMs, endMs, bytes));
+        lastClipEndMs = Math.max(lastClipEndMs, endMs);
+        release();
+    }
+
+    /**
+     * End of session: clips still waiting are uploaded if they overlap a span, skipped otherwise.
+     */
+    public synchronized void flush() {
+        if (openSpanStartMs >= 0) {
+            activeMs += Math.max(0, lastPoseMs - openSpanStartMs);
+        }
+        while (!pending.isEmpty()) {
+            PendingClip<T> next = pending.pollFirst();
+            if (overlapsSpan(next)) {
+                upload(next);
+            } else {
+                skip(next);
+            }
+        }
+        openSpanStartMs = -1;
+        spans.clear();
+    }
+
+    public synchronized boolean isSpanOpen() {
+        return openSpanStartMs >= 0;
+    }
+
+    public synchronized int spanCount() {
+        return spanCount;
+    }
+
+    public synchronized int clipsUploaded() {
+        return clipsUploaded;
+    }
+
+    public synchronized int clipsSkipped() {
+        return clipsSkipped;
+    }
+
+    /**
+     * Clips uploaded only because the pose stream went quiet.
+     */
+    public synchronized int clipsUnspotted() {
+        return clipsUnspotted;
+    }
+
+    public synchronized long bytesUploaded() {
+        return bytesUploaded;
+    }
+
+    public synchronized long bytesSkipped() {
+        return bytesSkipped;
+    }
+
+    /**
+     * Share of offered bytes that were not uploaded, 0 when nothing was offered.
+     */
+    public synchronized float bytesSavedRatio() {
+        long total = bytesUploaded + bytesSkipped;
+        return total == 0 ? 0f : (float) bytesSkipped / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        int clips = clipsUploaded + clipsSkipped;
+        return String.format(Locale.US,
+                "%d spans, %.1f s active, %d/%d clips uploaded (%d unspotted), %d requests and %d of %d KB saved (%.0f%%)",
+                spanCount, activeMs / 1000f, clipsUploaded, clips, clipsUnspotted, clipsSkipped,
+                bytesSkipped / 1024, (bytesUploaded + bytesSkipped) / 1024, bytesSavedRatio() * 100);
+    }
+
+    private void release() {
+        while (!pending.isEmpty()) {
+            PendingClip<T> next = pending.peekFirst();
+            if (overlapsSpan(next)) {
+                upload(pending.pollFirst());
+            } else if (next.endMs + preRollMs <= lastPoseMs) {
+                // Any span opening from now on starts too late for this clip's pre-roll
+                skip(pending.pollFirst());
+            } else if (lastClipEndMs - lastPoseMs > maxPoseGapMs) {
+                // Spotting is blind, better to send too much than to drop signs
+                clipsUnspotted++;
+                upload(pending.pollFirst());
+            } else {
+                break;
+            }
+        }
+        long horizon = pending.isEmpty() ? lastClipEndMs : pending.peekFirst().startMs;
+        while (!spans.isEmpty() && spans.peekFirst()[1] + postRollMs <= horizon) {
+            spans.pollFirst();
+        }
+    }
+
+    private boolean overlapsSpan(PendingClip<T> clip) {
+        if (openSpanStartMs >= 0 && clip.endMs > openSpanStartMs - preRollMs) {
+            return true;
+        }
+        for (long[] span : spans) {
+            if (clip.startMs < span[1] + postRollMs && clip.endMs > span[0] - preRollMs) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void upload(PendingClip<T> clip) {
+        clipsUploaded++;
+        bytesUploaded += clip.bytes;
+        listener.onUpload(clip.clip);
+    }
+
+    private void skip(PendingClip<T> clip) {
+        clipsSkipped++;
+        bytesSkipped += clip.bytes;
+        listener.onSkip(clip.clip);
+    }
+}
@@ -0,0 +1,124 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+
+import java.io.File;
+
+/**
+ * On-device sign spotting for realtime recording. ImageAnalysis frames go through the lite pose
+ * landmarker at a low rate, the arm angles decide whether someone is signing with the same 140°
+ * threshold the server uses for segmentation, and recorded clips outside signing spans are
+ * skipped instead of uploaded. Clip and frame times are both SystemClock.uptimeMillis().
+ * Set as the analyzer on a single background executor.
+ */
+public class SignSpottingSession implements ImageAnalysis.Analyzer, PoseLandmarkerHelper.LandmarkerListener {
+    private static final String TAG = "SignSpottingSession";
+    // Same elbow angle as the angle_threshold sent to /spoter_segmented
+    public static final float RAISE_ANGLE = 140f;
+    private static final float LOWER_ANGLE = 150f;
+    private static final float MIN_VISIBILITY = 0.6f;
+    private static final int DEBOUNCE_FRAMES = 2;
+    // Arm states change slowly, a handful of poses per second is enough
+    static final float TARGET_FPS = 10f;
+    // Without poses for this long, clips are uploaded as if spotting were off
+    private static final long MAX_POSE_GAP_MS = 1500;
+
+    private final PoseLandmarkerHelper helper;
+    private final boolean isFrontCamera;
+    private final SignSpotter<Clip> spotter;
+    // Result thread only
+    private final ArmStateTracker arms = newArmStateTracker();
+
+    private volatile boolean closed = false;
+
+    public SignSpottingSession(Context context, boolean isFrontCamera, long preRollMs, long postRollMs,
+                               SignSpotter.Listener<Clip> listener) {
+        this.isFrontCamera = isFrontCamera;
+        this.spotter = new SignSpotter<>(preRollMs, postRollMs, MAX_POSE_GAP_MS, listener);
+        this.helper = new PoseLandmarkerHelper(
+                PoseLandmarkerHelper.DEFAULT_POSE_DETECTION_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_TRACKING_CONFIDENCE,
+                PoseLandmarkerHelper.DEFAULT_POSE_PRESENCE_CONFIDENCE,
+                PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_LITE,
+                PoseLandmarkerHelper.DELEGATE_CPU,
+                RunningMode.LIVE_STREAM,
+                context,
+                this);
+        helper.setLiveScheduling(PoseLandmarkerHelper.DEFAULT_MAX_IN_FLIGHT, TARGET_FPS);
+        helper.setKeyframePolicy(KeyframeSettings.selected(context));
+    }
+
+    /**
+     * Arm state thresholds used for spotting, shared with the offline replay of recorded sessions.
+     */
+    static ArmStateTracker newArmStateTracker() {
+        return new ArmStateTracker(RAISE_ANGLE, LOWER_ANGLE, MIN_VISIBILITY, DEBOUNCE_FRAMES);
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        if (closed) {
+            image.close();
+            return;
+        }
+        helper.detectLiveStream(image, isFrontCamera);
+    }
+
+    @Override
+    public void onResults(PoseLandmarkerHelper.ResultBundle resultBundle) {
+        if (closed) {
+            return;
+        }
+        // Already mirrored for the front camera; null when nobody was detected
+        PoseFrame pose = resultBundle.pose;
+        long timestampMs = pose != null ? pose.timestampMs : resultBundle.results.get(0).timestampMs();
+        spotter.onArmState(timestampMs, pose != null ? arms.update(pose) : arms.updateMissing());
+    }
+
+    @Override
+    public void onError(String error, int errorCode) {
+        // Clips keep flowing: once poses stop, the spotter uploads them unfiltered
+        Log.e(TAG, "Pose detection failed (" + errorCode + "): " + error);
+    }
+
+    /**
+     * A recorded clip with the uptime it started at, so an upload can still say when it was captured.
+     */
+    public static final class Clip {
+        public final File file;
+        public final long startMs;
+
+        Clip(File file, long startMs) {
+            this.file = file;
+            this.startMs = startMs;
+        }
+    }
+
+    /**
+     * Hand over a recorded clip covering [startMs, endMs); the listener decides its fate now or later.
+     */
+    public void offerClip(File clip, long startMs, long endMs) {
+        spotter.offerClip(new Clip(clip, startMs), startMs, endMs, clip.length());
+    }
+
+    public SignSpotter<Clip> getSpotter() {
+        return spotter;
+    }
+
+    /**
+     * Stop detecting and settle the clips still waiting for a decision.
+     */
+    public void close() {
+        closed = true;
+        helper.clearPoseLandmarker();
+        spotter.flush();
+        Log.i(TAG, "Sign spotting: " + spotter + ", pose " + helper.getLiveScheduler());
+    }
+}
@@ -0,0 +1,52 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Whether realtime recording uploads only clips around detected signing, and how much context
+ * around each signing span is kept, stored in AppPrefs.
+ */
+public final class SignSpottingSettings {
+    private static final String PREFS_NAME = "AppPrefs";
+    private static final String KEY_ENABLED = "sign_spotting";
+    private static final String KEY_PRE_ROLL_MS = "sign_spotting_pre_roll_ms";
+    private static final String KEY_POST_ROLL_MS = "sign_spotting_post_roll_ms";
+    // The arm is usually already moving a little before the elbow angle crosses the threshold
+    public static final long DEFAULT_PRE_ROLL_MS = 500;
+    // Short holds and the drop of the hands still belong to the sign
+    public static final long DEFAULT_POST_ROLL_MS = 1000;
+
+    private SignSpottingSettings() {
+    }
+
+    public static boolean isEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_ENABLED, true);
+    }
+
+    public static void setEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_ENABLED, enabled).apply();
+    }
+
+    public static long getPreRollMs(Context context) {
+        return prefs(context).getLong(KEY_PRE_ROLL_MS, DEFAULT_PRE_ROLL_MS);
+    }
+
+    public static long getPostRollMs(Context context) {
+        return prefs(context).getLong(KEY_POST_ROLL_MS, DEFAULT_POST_ROLL_MS);
+    }
+
+    public static void setRolls(Context context, long preRollMs, long postRollMs) {
+        if (preRollMs < 0 || postRollMs < 0) {
+            throw new IllegalArgumentException("Rolls must not be negative: " + preRollMs + ", " + postRollMs);
+        }
+        prefs(context).edit()
+                .putLong(KEY_PRE_ROLL_MS, preRollMs)
+                .putLong(KEY_POST_ROLL_MS, postRollMs)
+                .apply();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,81 @@
+package com.translator.vsl.handler;
+
+/**
+ * Fixed-length, overlapping windows over a video, each sampled at a fixed frame rate.
+ * Windows are computed on demand, so a long video costs nothing until a window is translated.
+ * A video shorter than one window gets a single window spread evenly over it.
+ */
+public final class SlidingWindows {
+    private final long durationUs;
+    private final int windowFrames;
+    private final long frameIntervalUs;
+    private final long hopUs;
+    private final long spanUs;
+    private final int count;
+
+    /**
+     * @param windowFrames    frames per window
+     * @param frameIntervalUs time between sampled frames inside a window
+     * @param hopFrames       window start spacing in frames, below windowFrames for overlapping windows
+     */
+    public SlidingWindows(long durationUs, int windowFrames, long frameIntervalUs, int hopFrames) {
+        if (windowFrames <= 0 || frameIntervalUs <= 0 || hopFrames <= 0) {
+            throw new IllegalArgumentException("Window frames, frame interval and hop must be positive");
+        }
+        this.durationUs = Math.max(durationUs, 0);
+        this.windowFrames = windowFrames;
+        this.frameIntervalUs = frameIntervalUs;
+        this.hopUs = hopFrames * frameIntervalUs;
+        this.spanUs = windowFrames * frameIntervalUs;
+        this.count = this.durationUs <= spanUs ? 1 : (int) ((this.durationUs - spanUs + hopUs - 1) / hopUs) + 1;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long durationUs() {
+        return durationUs;
+    }
+
+    /**
+     * Start of a window; the last one is pulled back to end with the video.
+     */
+    public long startUs(int window) {
+        checkIndex(window);
+        if (durationUs <= spanUs) {
+            return 0;
+        }
+        return Math.min(window * hopUs, durationUs - spanUs);
+    }
+
+    public long endUs(int window) {
+        return Math.min(startUs(window) + spanUs, durationUs);
+    }
+
+    /**
+     * Middle of a window, where its prediction is most representative.
+     */
+    public long centerUs(int window) {
+        return (startUs(window) + endUs(window)) / 2;
+    }
+
+    /**
+     * Ascending frame timestamps of a window.
+     */
+    public long[] timestamps(int window) {
+        long start = startUs(window);
+        long interval = durationUs <= spanUs ? durationUs / windowFrames : frameIntervalUs;
+        long[] timestamps = new long[windowFrames];
+        for (int i = 0; i < windowFrames; i++) {
+            timestamps[i] = start + i * interval;
+        }
+        return timestamps;
+    }
+
+    private void checkIndex(int window) {
+        if (window < 0 || window >= count) {
+            throw new IndexOutOfBoundsException("Window " + window + " of " + count);
+        }
+    }
+}
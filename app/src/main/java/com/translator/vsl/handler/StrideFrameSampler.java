@@ -0,0 +1,45 @@
+package com.translator.vsl.handler;
+
+/**
+ * Every frameStep-th source frame at the clip's own frame rate, so the temporal spacing the model
+ * sees does not depend on clip length. Long clips widen the stride to stay within maxFrames;
+ * clips too short for minFrames fall back to even spacing.
+ */
+public class StrideFrameSampler implements FrameSampler {
+    private final int frameStep;
+    private final int minFrames;
+    private final int maxFrames;
+
+    public StrideFrameSampler(int frameStep, int minFrames, int maxFrames) {
+        if (frameStep <= 0 || minFrames <= 0 || maxFrames < minFrames) {
+            throw new IllegalArgumentException("Invalid stride " + frameStep + " or frame range " + minFrames + ".." + maxFrames);
+        }
+        this.frameStep = frameStep;
+        this.minFrames = minFrames;
+        this.maxFrames = maxFrames;
+    }
+
+    @Override
+    public long[] sample(long durationUs, float frameRate, ActivityProfile activity, int framesPerInput) {
+        long strideUs = (long) (frameStep * 1e6 / Math.max(frameRate, 1f));
+        int count = (int) (durationUs / Math.max(strideUs, 1));
+        if (count < minFrames) {
+            return FrameSampler.evenlySpaced(0, durationUs,
+                    FrameSampler.roundToMultiple(minFrames, maxFrames, framesPerInput));
+        }
+        if (count > maxFrames) {
+            return FrameSampler.evenlySpaced(0, durationUs,
+                    FrameSampler.roundToMultiple(maxFrames, maxFrames, framesPerInput));
+        }
+        count = FrameSampler.roundToMultiple(count, maxFrames, framesPerInput);
+        if ((long) count * strideUs > durationUs) {
+            // Rounded up past the clip end, tighten the stride to fit
+            strideUs = durationUs / count;
+        }
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = i * strideUs;
+        }
+        return timestamps;
+    }
+}
@@ -0,0 +1,125 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Element type and quantization parameters of a model tensor.
+ * Quantized values map to real values as real = scale * (raw - zeroPoint).
+ * Float16 models converted with post-training float16 quantization keep float32 inputs
+ * and outputs, so they use {@link #FLOAT32} here.
+ */
+public final class TensorFormat {
+    public enum Type {
+        FLOAT32(4, 0, 0),
+        UINT8(1, 0, 255),
+        INT8(1, -128, 127);
+
+        final int bytes;
+        final int min;
+        final int max;
+
+        Type(int bytes, int min, int max) {
+            this.bytes = bytes;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    public static final TensorFormat FLOAT32 = new TensorFormat(Type.FLOAT32, 0f, 0);
+
+    public final Type type;
+    public final float scale;
+    public final int zeroPoint;
+
+    public TensorFormat(Type type, float scale, int zeroPoint) {
+        if (type != Type.FLOAT32 && !(scale > 0f)) {
+            throw new IllegalArgumentException("Quantized tensor needs a positive scale: " + scale);
+        }
+        this.type = type;
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+    }
+
+    public boolean isQuantized() {
+        return type != Type.FLOAT32;
+    }
+
+    public int bytesPerElement() {
+        return type.bytes;
+    }
+
+    /**
+     * Raw quantized value nearest to a real value, clamped to the type's range.
+     */
+    public int quantize(float value) {
+        int raw = Math.round(value / scale) + zeroPoint;
+        return Math.max(type.min, Math.min(type.max, raw));
+    }
+
+    public float dequantize(int raw) {
+        return scale * (raw - zeroPoint);
+    }
+
+    /**
+     * Real value of the element at an index, absolute, in the buffer's byte order.
+     */
+    public float get(ByteBuffer buffer, int index) {
+        switch (type) {
+            case UINT8:
+                return dequantize(buffer.get(index) & 0xff);
+            case INT8:
+                return dequantize(buffer.get(index));
+            default:
+                return buffer.getFloat(index * 4);
+        }
+    }
+
+    /**
+     * Store a real value at an index, absolute, quantizing if needed.
+     */
+    public void put(ByteBuffer buffer, int index, float value) {
+        if (isQuantized()) {
+            buffer.put(index, (byte) quantize(value));
+        } else {
+            buffer.putFloat(index * 4, value);
+        }
+    }
+
+    /**
+     * Byte every element of a zeroed tensor holds, the zero point for quantized types.
+     */
+    public byte zeroByte() {
+        return isQuantized() ? (byte) zeroPoint : 0;
+    }
+
+    /**
+     * Dequantize the first count elements into dst.
+     */
+    public void dequantize(ByteBuffer buffer, float[] dst, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[i] = get(buffer, i);
+        }
+    }
+
+    /**
+     * Convert count elements in place from one quantized format to another of the same width,
+     * used when a state output and its matching input are quantized differently.
+     */
+    public static void requantize(ByteBuffer buffer, int count, TensorFormat from, TensorFormat to) {
+        if (from.bytesPerElement() != to.bytesPerElement()) {
+            throw new IllegalArgumentException("Cannot requantize " + from + " to " + to + " in place");
+        }
+        for (int i = 0; i < count; i++) {
+            to.put(buffer, i, from.get(buffer, i));
+        }
+    }
+
+    public boolean sameAs(TensorFormat other) {
+        return type == other.type && (!isQuantized() || (scale == other.scale && zeroPoint == other.zeroPoint));
+    }
+
+    @Override
+    public String toString() {
+        return isQuantized() ? type + "(scale " + scale + ", zero point " + zeroPoint + ")" : type.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.translator.vsl.handler;
+
+import java.util.Locale;
+
+/**
+ * One gloss of a long video's timeline, merged from the consecutive windows that agreed on it.
+ */
+public final class TimelineSegment {
+    public final String label;
+    public final long startUs;
+    public final long endUs;
+    /** Best window score for the gloss. */
+    public final float score;
+    public final int windows;
+
+    public TimelineSegment(String label, long startUs, long endUs, float score, int windows) {
+        this.label = label;
+        this.startUs = startUs;
+        this.endUs = endUs;
+        this.score = score;
+        this.windows = windows;
+    }
+
+    TimelineSegment extend(long newEndUs, float windowScore) {
+        return new TimelineSegment(label, startUs, newEndUs, Math.max(score, windowScore), windows + 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s [%.1f-%.1f s] (%.2f)", label, startUs / 1e6, endUs / 1e6, score);
+    }
+}
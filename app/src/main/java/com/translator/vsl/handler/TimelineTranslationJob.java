@@ -0,0 +1,152 @@
+package com.translator.vsl.handler;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-device counterpart of the server's merged results for long videos: slides fixed windows over
+ * the video, translates them in parallel on an {@link InterpreterPool} and merges them into a
+ * {@link GlossTimeline}. Each window decodes only its own frames, so memory is bounded by the pool
+ * size, not the video length. Listener callbacks arrive on worker threads.
+ */
+public class TimelineTranslationJob {
+    private static final String TAG = "TimelineTranslationJob";
+    // 20 frames at 10 fps: two-second windows, each overlapping the next by half
+    static final int WINDOW_FRAMES = VideoTranslationHandler.NUM_SAMPLED_FRAMES;
+    static final long FRAME_INTERVAL_US = 100_000;
+    static final int HOP_FRAMES = WINDOW_FRAMES / 2;
+    private static final float MIN_SCORE = 0.35f;
+    // Shorter videos hold one sign, the whole-clip translation handles them
+    private static final long MIN_TIMELINE_DURATION_US = 3 * WINDOW_FRAMES * FRAME_INTERVAL_US;
+
+    public interface Listener {
+        /**
+         * A window finished and the timeline so far advanced.
+         */
+        void onPartialTimeline(List<TimelineSegment> segments, int mergedWindows, int totalWindows);
+
+        void onFinished(List<TimelineSegment> segments, boolean cancelled, long elapsedMs);
+    }
+
+    private final Context context;
+    private final InterpreterPool pool;
+    private final Uri videoUri;
+    private final SlidingWindows windows;
+    private final GlossTimeline timeline;
+    private final AtomicInteger nextWindow = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private volatile boolean cancelled;
+    private long startTime;
+
+    public TimelineTranslationJob(Context context, InterpreterPool pool, Uri videoUri, long durationUs) {
+        this.context = context.getApplicationContext();
+        this.pool = pool;
+        this.videoUri = videoUri;
+        this.windows = new SlidingWindows(durationUs, WINDOW_FRAMES, FRAME_INTERVAL_US, HOP_FRAMES);
+        this.timeline = new GlossTimeline(windows, MIN_SCORE);
+    }
+
+    /**
+     * Duration of the video track, or -1 if it cannot be read.
+     */
+    public static long probeDurationUs(Context context, Uri videoUri) {
+        try (FrameDecoder decoder = new FrameDecoder(context, videoUri)) {
+            return decoder.getDurationUs();
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Cannot read video duration: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Whether a video is long enough to hold several signs and needs a timeline.
+     */
+    public static boolean isLongVideo(long durationUs) {
+        return durationUs >= MIN_TIMELINE_DURATION_US;
+    }
+
+    public int windowCount() {
+        return windows.count();
+    }
+
+    public synchronized void start(Listener listener) {
+        if (startTime != 0) {
+            throw new IllegalStateException("Timeline already started");
+        }
+        int workerCount = Math.min(pool.size(), windows.count());
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        startTime = SystemClock.elapsedRealtime();
+        runningWorkers.set(workerCount);
+        Log.i(TAG, "Translating " + windows.count() + " windows of " + windows.durationUs() / 1000
+                + " ms with " + workerCount + " interpreters");
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(() -> runWorker(listener));
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Stop taking new windows and abort the ones in progress at their next frame.
+     */
+    public void cancel() {
+        cancelled = true;
+        pool.cancelAll();
+    }
+
+    private void runWorker(Listener listener) {
+        VideoTranslationHandler handler = null;
+        try {
+            handler = pool.borrow();
+            int window;
+            // Windows are taken in time order so the merged prefix keeps up with the workers
+            while (!cancelled && (window = nextWindow.getAndIncrement()) < windows.count()) {
+                ClipTranslation result;
+                try {
+                    result = handler.translateWindowAsync(context, videoUri, windows.timestamps(window)).get();
+                } catch (CancellationException e) {
+                    break;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof CancellationException || cancelled) {
+                        break;
+                    }
+                    // A window that cannot be decoded only leaves a gap in the timeline
+                    Log.w(TAG, "Window " + window + " failed: " + cause.getMessage());
+                    result = null;
+                }
+                // Held across the callback so partial timelines reach the listener in order
+                synchronized (timeline) {
+                    boolean advanced = result != null
+                            ? timeline.add(window, result.labels[0], result.scores[0])
+                            : timeline.add(window, null, 0f);
+                    if (advanced) {
+                        listener.onPartialTimeline(timeline.segments(), timeline.mergedWindows(), windows.count());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (handler != null) {
+                pool.giveBack(handler);
+            }
+            if (runningWorkers.decrementAndGet() == 0) {
+                long elapsed = SystemClock.elapsedRealtime() - startTime;
+                List<TimelineSegment> segments = timeline.segments();
+                Log.i(TAG, timeline.mergedWindows() + "/" + windows.count() + " windows, "
+                        + segments.size() + " glosses in " + elapsed + " ms" + (cancelled ? " (cancelled)" : ""));
+                listener.onFinished(segments, cancelled, elapsed);
+            }
+        }
+    }
+}
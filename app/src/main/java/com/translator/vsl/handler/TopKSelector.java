@@ -0,0 +1,119 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Top-K classes of a logits vector with their softmax probabilities, computed in one pass over
+ * the vocabulary into preallocated arrays.
+ * Softmax is monotonic, so the K largest logits are selected by insertion into a K-slot list and
+ * only their probabilities are computed. Ties keep the lower class index first, as the stable sort
+ * over Category objects did.
+ * Not thread-safe, each handler owns its selector.
+ */
+public class TopKSelector {
+    public static final int DEFAULT_K = 3;
+
+    private final int k;
+    private final int[] indices;
+    private final float[] logits;
+    private final float[] scores;
+    private int count = 0;
+
+    public TopKSelector() {
+        this(DEFAULT_K);
+    }
+
+    public TopKSelector(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.indices = new int[k];
+        this.logits = new float[k];
+        this.scores = new float[k];
+    }
+
+    /**
+     * Select from float32 logits starting at the buffer's position, in the buffer's byte order.
+     * The position is not changed.
+     */
+    public void select(ByteBuffer buffer, int length) {
+        int base = buffer.position();
+        float max = Float.NEGATIVE_INFINITY;
+        count = 0;
+        for (int i = 0; i < length; i++) {
+            float value = buffer.getFloat(base + i * 4);
+            max = Math.max(max, value);
+            offer(i, value);
+        }
+        double total = 0;
+        for (int i = 0; i < length; i++) {
+            total += Math.exp(buffer.getFloat(base + i * 4) - max);
+        }
+        finish(max, total);
+    }
+
+    public void select(float[] values) {
+        float max = Float.NEGATIVE_INFINITY;
+        count = 0;
+        for (int i = 0; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+            offer(i, values[i]);
+        }
+        double total = 0;
+        for (float value : values) {
+            total += Math.exp(value - max);
+        }
+        finish(max, total);
+    }
+
+    private void offer(int index, float value) {
+        if (count == k && !(value > logits[k - 1])) {
+            return;
+        }
+        int slot = count < k ? count++ : k - 1;
+        // Strictly greater moves up, so an equal logit stays behind the earlier index
+        while (slot > 0 && value > logits[slot - 1]) {
+            logits[slot] = logits[slot - 1];
+            indices[slot] = indices[slot - 1];
+            slot--;
+        }
+        logits[slot] = value;
+        indices[slot] = index;
+    }
+
+    private void finish(float max, double total) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = (float) (Math.exp(logits[i] - max) / total);
+        }
+    }
+
+    /**
+     * Number of selected classes, min(k, vocabulary size).
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Class index at the given rank, 0 being the most likely.
+     */
+    public int index(int rank) {
+        checkRank(rank);
+        return indices[rank];
+    }
+
+    /**
+     * Softmax probability at the given rank.
+     */
+    public float score(int rank) {
+        checkRank(rank);
+        return scores[rank];
+    }
+
+    private void checkRank(int rank) {
+        if (rank < 0 || rank >= count) {
+            throw new IndexOutOfBoundsException("Rank " + rank + ", selected " + count);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.translator.vsl.handler;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide cache of {@link VideoTranslationHandler} instances and of the {@link InterpreterPool}
+ * long videos run on. Each model/label pair is loaded once and kept warm across clips and activities.
+ * Handlers and pools are released on an explicit unload or when the system reports memory pressure.
+ * Closing waits for a running translation, so it happens on a background thread.
+ */
+public final class TranslationHandlerRegistry implements ComponentCallbacks2 {
+    private static final String TAG = "HandlerRegistry";
+
+    private static volatile TranslationHandlerRegistry instance;
+
+    private final Context appContext;
+    private final Map<String, VideoTranslationHandler> handlers = new HashMap<>();
+    private final Map<String, InterpreterPool> pools = new HashMap<>();
+    // Memory callbacks arrive on the main thread, which must not block on a running translation
+    private final ExecutorService releaser = Executors.newSingleThreadExecutor();
+
+    private TranslationHandlerRegistry(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static TranslationHandlerRegistry getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TranslationHandlerRegistry.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    TranslationHandlerRegistry registry = new TranslationHandlerRegistry(appContext);
+                    appContext.registerComponentCallbacks(registry);
+                    instance = registry;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Return the cached handler for the model/label pair, loading it on first use.
+     */
+    public VideoTranslationHandler acquire(String modelPath, String labelPath) throws IOException {
+        String key = key(modelPath, labelPath);
+        synchronized (handlers) {
+            VideoTranslationHandler handler = handlers.get(key);
+            if (handler != null) {
+                Log.d(TAG, "Warm handler for " + key + ", last run " + handler.getLastRunTimeMs() + " ms");
+                return handler;
+            }
+
+            long startTime = SystemClock.elapsedRealtime();
+            handler = new VideoTranslationHandler(appContext, modelPath, labelPath);
+            Log.i(TAG, "Cold load of " + key + " took " + (SystemClock.elapsedRealtime() - startTime) + " ms");
+            handlers.put(key, handler);
+            return handler;
+        }
+    }
+
+    /**
+     * Return the cached interpreter pool for the model/label pair, loading it on first use.
+     * Jobs sharing the pool wait for each other's interpreters.
+     */
+    public InterpreterPool acquirePool(String modelPath, String labelPath) throws IOException {
+        String key = key(modelPath, labelPath);
+        synchronized (pools) {
+            InterpreterPool pool = pools.get(key);
+            if (pool != null) {
+                return pool;
+            }
+
+            long startTime = SystemClock.elapsedRealtime();
+            pool = new InterpreterPool(appContext, modelPath, labelPath,
+                    InterpreterPool.recommendedSize(appContext, modelPath));
+            Log.i(TAG, "Cold load of pool " + key + " took " + (SystemClock.elapsedRealtime() - startTime) + " ms");
+            pools.put(key, pool);
+            return pool;
+        }
+    }
+
+    public boolean isLoaded(String modelPath, String labelPath) {
+        synchronized (handlers) {
+            return handlers.containsKey(key(modelPath, labelPath));
+        }
+    }
+
+    /**
+     * Forget the handler and pool for the model/label pair and close them in the background.
+     */
+    public void unload(String modelPath, String labelPath) {
+        String key = key(modelPath, labelPath);
+        VideoTranslationHandler handler;
+        synchronized (handlers) {
+            handler = handlers.remove(key);
+        }
+        if (handler != null) {
+            releaser.execute(handler::close);
+        }
+        InterpreterPool pool;
+        synchronized (pools) {
+            pool = pools.remove(key);
+        }
+        if (pool != null) {
+            releaser.execute(pool::close);
+        }
+    }
+
+    /**
+     * Forget every cached handler and pool and close them in the background.
+     */
+    public void unloadAll() {
+        List<VideoTranslationHandler> released;
+        synchronized (handlers) {
+            released = new ArrayList<>(handlers.values());
+            handlers.clear();
+        }
+        for (VideoTranslationHandler handler : released) {
+            releaser.execute(handler::close);
+        }
+        List<InterpreterPool> releasedPools;
+        synchronized (pools) {
+            releasedPools = new ArrayList<>(pools.values());
+            pools.clear();
+        }
+        for (InterpreterPool pool : releasedPools) {
+            releaser.execute(pool::close);
+        }
+        if (!released.isEmpty() || !releasedPools.isEmpty()) {
+            Log.i(TAG, "Released " + released.size() + " translation handler(s) and "
+                    + releasedPools.size() + " pool(s)");
+        }
+    }
+
+    private static String key(String modelPath, String labelPath) {
+        return modelPath + "|" + labelPath;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // UI_HIDDEN only means the app went to background, keep the models warm for the next clip
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            Log.w(TAG, "Memory pressure (level " + level + "), unloading models");
+            unloadAll();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        unloadAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
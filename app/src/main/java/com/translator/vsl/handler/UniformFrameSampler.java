@@ -0,0 +1,31 @@
+package com.translator.vsl.handler;
+
+/**
+ * Evenly spaced frames over the whole clip, framesPerSecond of them per second of video
+ * within [minFrames, maxFrames]. With minFrames == maxFrames this is the fixed-count sampling
+ * the model was trained with.
+ */
+public class UniformFrameSampler implements FrameSampler {
+    private final int minFrames;
+    private final int maxFrames;
+    private final float framesPerSecond;
+
+    public UniformFrameSampler(int minFrames, int maxFrames, float framesPerSecond) {
+        if (minFrames <= 0 || maxFrames < minFrames) {
+            throw new IllegalArgumentException("Invalid frame range " + minFrames + ".." + maxFrames);
+        }
+        this.minFrames = minFrames;
+        this.maxFrames = maxFrames;
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    public static UniformFrameSampler fixed(int frames) {
+        return new UniformFrameSampler(frames, frames, 0f);
+    }
+
+    @Override
+    public long[] sample(long durationUs, float frameRate, ActivityProfile activity, int framesPerInput) {
+        int count = FrameSampler.countFor(durationUs, framesPerSecond, minFrames, maxFrames, framesPerInput);
+        return FrameSampler.evenlySpaced(0, durationUs, count);
+    }
+}
@@ -3,21 +3,17 @@ package com.translator.vsl.handler;
 import static java.lang.Math.min;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
+import android.os.SystemClock;
 import android.util.Log;
 
-import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.Interpreter;
-import org.tensorflow.lite.support.common.ops.NormalizeOp;
-import org.tensorflow.lite.support.image.ImageProcessor;
-import org.tensorflow.lite.support.image.TensorImage;
-import org.tensorflow.lite.support.image.ops.ResizeOp;
-import org.tensorflow.lite.support.image.ops.ResizeWithCropOrPadOp;
-import org.tensorflow.lite.support.label.Category;
+import org.tensorflow.lite.Tensor;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
@@ -31,50 +27,90 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class VideoTranslationHandler {
     private static final String TAG = "VideoTranslationHandler";
+    public static final String DEFAULT_MODEL_PATH = "model-final-new.tflite";
+    public static final String DEFAULT_LABEL_PATH = "label400.txt";
     private final Interpreter tflite;
-    private static int[] INPUT_SHAPE = null;
-    private static int INPUT_WIDTH = 224;  // Width of input frame
-    private static int INPUT_HEIGHT = 224; // Height of input frame
-    private static int INPUT_CHANNELS = 3; // RGB
-    private static int INPUT_NUM_FRAMES = 5;    // Number of frames per video
-    private static int FRAME_STEP = 5;    // Step between frames
+    // Read from each model, handlers for different models can be loaded side by side
+    private final int[] inputShape;
+    private final int inputWidth;  // Width of input frame
+    private final int inputHeight; // Height of input frame
+    private final int inputChannels; // RGB
+    private final int inputNumFrames;    // Frames per interpreter call
+    static final int FRAME_STEP = 5;    // Step between source frames for the stride sampler
     private static final String IMAGE_INPUT_NAME = "image";
     private static final String SIGNATURE_KEY = "serving_default";
     private final int outputCategoryCount;
     private static final String LOGITS_OUTPUT_NAME = "logits";
-    private HashMap<String, Object> inputState;
+    private final RecurrentStateBuffers stateBuffers;
     private final Object lock = new Object();
     private final Map<Integer, String> labelMap;
     private static final float INPUT_MEAN = 0f;
     private static final float INPUT_STD = 255f;
+    private final long loadTimeMs;
+    private volatile long lastRunTimeMs = -1;
+    private volatile boolean closed = false;
+    static final int NUM_SAMPLED_FRAMES = 20;
+    private volatile FrameSampler frameSampler = UniformFrameSampler.fixed(NUM_SAMPLED_FRAMES);
+    private volatile EarlyExitPolicy earlyExitPolicy = EarlyExitPolicy.NEVER;
+    private static final int DEFAULT_PIPELINE_DEPTH = 2;
+    private volatile int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+    private volatile String lastPipelineStats = "";
+    // Bumped by every new clip and by cancel(), a running clip stops once it no longer matches
+    private final AtomicInteger runGeneration = new AtomicInteger();
+    private final ExecutorService inferenceExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private final FrameTensorWriter tensorWriter;
+    private ByteBuffer[] inputBuffers = new ByteBuffer[0];
+    private final TopKSelector topK = new TopKSelector();
+    private final TensorFormat imageFormat;
+    private final TensorFormat logitsFormat;
+    // Logits of a quantized model, dequantized before top-K; null for float32 logits
+    private final float[] dequantizedLogits;
+    private TensorFormat[] stateInputFormats;
+    private TensorFormat[] stateOutputFormats;
+    private int[] stateElements;
+    // States whose output is quantized differently from the input it feeds
+    private int[] requantizedStates;
 
 
 
     public VideoTranslationHandler(Context context, String modelPath,String labelPath) throws IOException {
-        // Load TFLite model
-        tflite = new Interpreter(loadModelFile(context, modelPath));
+        long startTime = SystemClock.elapsedRealtime();
+        // Load TFLite model with the runtime settings tuned for this device
+        tflite = new Interpreter(loadModelFile(context, modelPath), InterpreterTuning.options(context, modelPath));
         this.outputCategoryCount = tflite.getOutputTensorFromSignature(LOGITS_OUTPUT_NAME, SIGNATURE_KEY).shape()[1];
-        this.inputState = initializeInput();
+        this.imageFormat = formatOf(tflite.getInputTensorFromSignature(IMAGE_INPUT_NAME, SIGNATURE_KEY));
+        this.logitsFormat = formatOf(tflite.getOutputTensorFromSignature(LOGITS_OUTPUT_NAME, SIGNATURE_KEY));
+        this.dequantizedLogits = logitsFormat.isQuantized() ? new float[outputCategoryCount] : null;
+        this.stateBuffers = initializeStateBuffers();
         this.labelMap = loadLabelMapping(context, labelPath);
-        INPUT_SHAPE = tflite.getInputTensorFromSignature(IMAGE_INPUT_NAME, SIGNATURE_KEY).shape();
+        inputShape = tflite.getInputTensorFromSignature(IMAGE_INPUT_NAME, SIGNATURE_KEY).shape();
 //             Shape: [  1   1 224 224   3]
-        INPUT_NUM_FRAMES = INPUT_SHAPE[1];
-        INPUT_WIDTH = INPUT_SHAPE[2];
-        INPUT_HEIGHT = INPUT_SHAPE[3];
-        INPUT_CHANNELS = INPUT_SHAPE[4];
-
+        inputNumFrames = inputShape[1];
+        inputWidth = inputShape[2];
+        inputHeight = inputShape[3];
+        inputChannels = inputShape[4];
+        this.tensorWriter = createTensorWriter();
+        Log.i(TAG, modelPath + ": image " + imageFormat + ", logits " + logitsFormat);
+
+        this.loadTimeMs = SystemClock.elapsedRealtime() - startTime;
     }
 
-    private MappedByteBuffer loadModelFile(Context context, String modelPath) throws IOException {
-        try (FileInputStream inputStream = new FileInputStream(context.getAssets().openFd(modelPath).getFileDescriptor());
+    static MappedByteBuffer loadModelFile(Context context, String modelPath) throws IOException {
+        try (AssetFileDescriptor fileDescriptor = context.getAssets().openFd(modelPath);
+             FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
              FileChannel fileChannel = inputStream.getChannel()) {
-            long startOffset = context.getAssets().openFd(modelPath).getStartOffset();
-            long declaredLength = context.getAssets().openFd(modelPath).getDeclaredLength();
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                    fileDescriptor.getStartOffset(), fileDescriptor.getDeclaredLength());
         }
     }
 
@@ -96,189 +132,421 @@ public class VideoTranslationHandler {
 
 
     /**
-     * Initialize the input objects and fill them with zeros.
+     * Allocate the double-buffered recurrent state once for this interpreter.
      Input :
      Name: serving_default_image:0
      Shape: [  1   1 224 224   3]
      Data Type: <class 'numpy.float32'>
      Quantization: (0.0, 0)
+     Every other signature input is a state tensor, returned under the same name as an output.
      */
-    private HashMap<String, Object> initializeInput() {
-        HashMap<String, Object> inputs = new HashMap<>();
+    private RecurrentStateBuffers initializeStateBuffers() {
+        List<String> stateNames = new ArrayList<>();
         for (String inputName : tflite.getSignatureInputs(SIGNATURE_KEY)) {
-            if (inputName.equals(IMAGE_INPUT_NAME)) {
-                continue;
+            if (!inputName.equals(IMAGE_INPUT_NAME)) {
+                stateNames.add(inputName);
+            }
+        }
+        for (String outputName : tflite.getSignatureOutputs(SIGNATURE_KEY)) {
+            if (!outputName.equals(LOGITS_OUTPUT_NAME) && !stateNames.contains(outputName)) {
+                throw new IllegalStateException("Output " + outputName + " has no matching state input");
             }
-
-            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(tflite.getInputTensorFromSignature(inputName, SIGNATURE_KEY).numBytes());
-            byteBuffer.order(ByteOrder.nativeOrder());
-            inputs.put(inputName, byteBuffer);
         }
 
-        return inputs;
+        String[] names = stateNames.toArray(new String[0]);
+        int[] bytes = new int[names.length];
+        byte[] zeroBytes = new byte[names.length];
+        stateInputFormats = new TensorFormat[names.length];
+        stateOutputFormats = new TensorFormat[names.length];
+        stateElements = new int[names.length];
+        List<Integer> requantized = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            Tensor input = tflite.getInputTensorFromSignature(names[i], SIGNATURE_KEY);
+            Tensor output = tflite.getOutputTensorFromSignature(names[i], SIGNATURE_KEY);
+            if (input.numBytes() != output.numBytes()) {
+                throw new IllegalStateException("State " + names[i] + " changes size between input and output");
+            }
+            bytes[i] = input.numBytes();
+            stateInputFormats[i] = formatOf(input);
+            stateOutputFormats[i] = formatOf(output);
+            stateElements[i] = input.numElements();
+            zeroBytes[i] = stateInputFormats[i].zeroByte();
+            if (!stateOutputFormats[i].sameAs(stateInputFormats[i])) {
+                requantized.add(i);
+            }
+        }
+        requantizedStates = new int[requantized.size()];
+        for (int i = 0; i < requantizedStates.length; i++) {
+            requantizedStates[i] = requantized.get(i);
+        }
+        int logitsBytes = tflite.getOutputTensorFromSignature(LOGITS_OUTPUT_NAME, SIGNATURE_KEY).numBytes();
+        return new RecurrentStateBuffers(names, bytes, zeroBytes, IMAGE_INPUT_NAME, LOGITS_OUTPUT_NAME, logitsBytes);
     }
 
     /**
-     * Initialize the output objects to store the TFLite model outputs.
-     Output :
-     Name: StatefulPartitionedCall:10
-     Shape: [1]
-     Data Type: <class 'numpy.int32'>
-     Quantization: (0.0, 0)
+     * Element type and quantization of a signature tensor.
      */
-    private HashMap<String, Object> initializeOutput() {
-        HashMap<String, Object> outputs = new HashMap<>();
-        for (String outputName : tflite.getSignatureOutputs(SIGNATURE_KEY)) {
-            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(tflite.getOutputTensorFromSignature(outputName, SIGNATURE_KEY).numBytes());
-            byteBuffer.order(ByteOrder.nativeOrder());
-            outputs.put(outputName, byteBuffer);
+    private static TensorFormat formatOf(Tensor tensor) {
+        Tensor.QuantizationParams params = tensor.quantizationParams();
+        switch (tensor.dataType()) {
+            case FLOAT32:
+                return TensorFormat.FLOAT32;
+            case UINT8:
+                return new TensorFormat(TensorFormat.Type.UINT8, params.getScale(), params.getZeroPoint());
+            case INT8:
+                return new TensorFormat(TensorFormat.Type.INT8, params.getScale(), params.getZeroPoint());
+            default:
+                throw new IllegalStateException("Unsupported type " + tensor.dataType() + " for tensor " + tensor.name());
         }
-
-        return outputs;
     }
 
     /**
-     * Convert output logits of the model to a list of Category objects.
+     * Top-K of the logits written by the last run, then hand its state to the next run.
      */
-    private List<Category> postprocessOutputLogits(ByteBuffer logitsByteBuffer) {
-        float[] logits = new float[outputCategoryCount];
-        logitsByteBuffer.rewind();
-        logitsByteBuffer.asFloatBuffer().get(logits);
-
-        float[] probabilities = CalculateUtils.softmax(logits);
-        List<Category> categories = new ArrayList<>();
-        for (int index = 0; index < probabilities.length; index++) {
-            categories.add(new Category(String.valueOf(index), probabilities[index]));}
-        return categories;
+    private void finishFrame(TopKSelector result) {
+        ByteBuffer logits = stateBuffers.logits();
+        if (dequantizedLogits == null) {
+            result.select(logits, outputCategoryCount);
+        } else {
+            logitsFormat.dequantize(logits, dequantizedLogits, outputCategoryCount);
+            result.select(dequantizedLogits);
+        }
+        for (int i : requantizedStates) {
+            TensorFormat.requantize(stateBuffers.writtenState(i), stateElements[i],
+                    stateOutputFormats[i], stateInputFormats[i]);
+        }
+        // The state written by this frame feeds the next one
+        stateBuffers.flip();
     }
 
-    private TensorImage preprocessInputImage(Bitmap bitmap, int inputWidth, int inputHeight) {
-        ImageProcessor imageProcessor = new ImageProcessor.Builder()
-                .add(new ResizeOp(inputHeight, inputWidth, ResizeOp.ResizeMethod.NEAREST_NEIGHBOR))
-                .add(new ResizeWithCropOrPadOp(inputHeight, inputWidth))
-                .add(new NormalizeOp(INPUT_MEAN, INPUT_STD))
-                .build();
-        TensorImage tensorImage = new TensorImage(DataType.FLOAT32);
-        tensorImage.load(bitmap);
-
-        return imageProcessor.process(tensorImage);
+    /**
+     * Translate a clip, overlapping frame decoding with inference.
+     * Starting a new clip cancels the one in progress; its future completes with a CancellationException.
+     */
+    public CompletableFuture<String> translateVideoAsync(Context context, Uri videoUri) {
+        return translateClipAsync(context, videoUri).handle((clip, ex) -> {
+            if (ex == null) {
+                // Map the index with the highest score to its textual description
+                return clip.labels[0];
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof CancellationException) {
+                throw (CancellationException) cause;
+            }
+            return "Lỗi khi dịch: " + cause.getMessage();
+        });
     }
 
+    /**
+     * Translate a clip and keep its top-K classes, scores and timings.
+     * Fails with the decoding or inference error instead of an error label.
+     */
+    public CompletableFuture<ClipTranslation> translateClipAsync(Context context, Uri videoUri) {
+        return translateAsync(context, videoUri, null);
+    }
 
+    /**
+     * Translate the frames at the given ascending timestamps from a clean state, one window of a long video.
+     * Only the window's frames are decoded, so memory does not grow with the video.
+     */
+    public CompletableFuture<ClipTranslation> translateWindowAsync(Context context, Uri videoUri, long[] timestampsUs) {
+        return translateAsync(context, videoUri, timestampsUs);
+    }
 
-
-    public CompletableFuture<String> translateVideoAsync(Context context, Uri videoUri) {
+    /**
+     * @param timestampsUs frames to sample, or null to let the frame sampler choose
+     */
+    private CompletableFuture<ClipTranslation> translateAsync(Context context, Uri videoUri, long[] timestampsUs) {
+        int generation = runGeneration.incrementAndGet();
         return CompletableFuture.supplyAsync(() -> {
             synchronized (lock) {
+                if (closed) {
+                    throw new IllegalStateException("VideoTranslationHandler is closed");
+                }
+                long startTime = SystemClock.elapsedRealtime();
+                int depth = pipelineDepth;
+                FramePipeline pipeline = new FramePipeline(depth, inputBuffers(depth + 2), tensorWriter,
+                        inputNumFrames, decodeExecutor, () -> runGeneration.get() != generation);
                 try {
-                    List<Bitmap> videoFrames = extractFramesFromVideoAsync(context, videoUri, 20).join(); // Wait for frames
-                    List<Category> categories = new ArrayList<>();
+                    // Each clip starts from a clean recurrent state, the handler is shared between clips
+                    stateBuffers.reset();
 
-                    for (Bitmap frame : videoFrames) {
-                        HashMap<String, Object> outputs = initializeOutput();
+                    if (timestampsUs != null) {
+                        pipeline.start(context, videoUri, timestampsUs);
+                    } else {
+                        pipeline.start(context, videoUri, frameSampler);
+                    }
+                    int frames = 0;
+                    // Windows of a long video always run in full, their overlap assumes whole-window evidence
+                    EarlyExitPolicy.Tracker earlyExit = (timestampsUs == null ? earlyExitPolicy : EarlyExitPolicy.NEVER).start();
 
-                        // Extract and preprocess video frames
-                        TensorImage tensorImage = preprocessInputImage(frame,INPUT_WIDTH,INPUT_HEIGHT);
-                        inputState.put(IMAGE_INPUT_NAME, tensorImage.getBuffer());
+                    ByteBuffer input;
+                    while ((input = pipeline.next()) != null) {
+                        long inferStart = SystemClock.elapsedRealtimeNanos();
+                        stateBuffers.setImage(input);
 
-                        tflite.runSignature(inputState, outputs);
+                        tflite.runSignature(stateBuffers.inputs(), stateBuffers.outputs());
 
-                        categories = postprocessOutputLogits((ByteBuffer) outputs.get(LOGITS_OUTPUT_NAME));
+                        finishFrame(topK);
+                        frames++;
 
-                        outputs.remove(LOGITS_OUTPUT_NAME);
-                        inputState = outputs;
+                        pipeline.release(input);
+                        pipeline.recordInference(SystemClock.elapsedRealtimeNanos() - inferStart);
+                        if (earlyExit.update(topK)) {
+                            break;
+                        }
                     }
+                    int plannedFrames = Math.max(pipeline.plannedInputs(), frames);
+                    if (frames < plannedFrames) {
+                        Log.i(TAG, "Early exit after " + frames + " of " + plannedFrames + " frames");
+                    }
+                    // Stop the producer first, an early exit leaves it running and its timings unset
+                    pipeline.finish();
+                    lastPipelineStats = pipeline.stats();
+                    Log.i(TAG, "Pipeline: " + lastPipelineStats);
 
-                    // Compare the categories sorted by score and log the one with the highest score
-                    categories.sort((c1, c2) -> Float.compare(c2.getScore(), c1.getScore()));
-
-                    // the label with the top 3 highest scores mapped to a string by use labelMap.getOrDefault, the delimeter is increased from 1 to 3
-                    // Ex:  1. Abc \n  2. Def \n  3. Ghi
-//                    String result = new String();
-//
-//                    for (int i = 0; i < 5; i++) {
-//                        Category category = categories.get(i);
-//                        result += (i+1) + ". " + labelMap.getOrDefault(Integer.parseInt(category.getLabel()), "Unknown") + "\n";
-//                    }
-//
-//                    return result;
-
-                    // Get the label index with the highest score
-                    int highestLabelIndex = Integer.parseInt(categories.get(0).getLabel());
-
-                    // Map the index to its textual description
-                    return labelMap.getOrDefault(highestLabelIndex, "Unknown word");
+                    if (frames == 0) {
+                        throw new IllegalStateException("No frames decoded");
+                    }
 
+                    lastRunTimeMs = SystemClock.elapsedRealtime() - startTime;
+                    Log.i(TAG, "Translation took " + lastRunTimeMs + " ms (model load " + loadTimeMs + " ms)");
 
+                    String[] labels = new String[topK.count()];
+                    float[] scores = new float[topK.count()];
+                    for (int rank = 0; rank < labels.length; rank++) {
+                        labels[rank] = getLabel(topK.index(rank));
+                        scores[rank] = topK.score(rank);
+                    }
+                    return new ClipTranslation(labels, scores, frames, plannedFrames, lastRunTimeMs, lastPipelineStats);
+                } catch (CancellationException e) {
+                    Log.d(TAG, "Translation cancelled");
+                    throw e;
                 } catch (Exception e) {
                     Log.e(TAG, "Error translating video: " + e.getMessage());
-                    return "Lỗi khi dịch: " + e.getMessage();
+                    throw new CompletionException(e);
+                } finally {
+                    pipeline.finish();
                 }
             }
-        });
+        }, inferenceExecutor);
+    }
+
+    /**
+     * Reusable image input buffers, reallocated only when the pipeline depth grows.
+     */
+    private ByteBuffer[] inputBuffers(int count) {
+        if (inputBuffers.length < count) {
+            int numBytes = tflite.getInputTensorFromSignature(IMAGE_INPUT_NAME, SIGNATURE_KEY).numBytes();
+            ByteBuffer[] buffers = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(numBytes);
+                buffers[i].order(ByteOrder.nativeOrder());
+            }
+            inputBuffers = buffers;
+        }
+        return inputBuffers;
+    }
+
+    /**
+     * Stop the clip in progress, if any, at the next frame boundary.
+     */
+    public void cancel() {
+        runGeneration.incrementAndGet();
+    }
+
+    /**
+     * Strategy choosing the frames of a whole clip; windows of a long video bring their own timestamps.
+     */
+    public void setFrameSampler(FrameSampler sampler) {
+        frameSampler = sampler;
+    }
+
+    /**
+     * When a whole clip may stop before its last sampled frame; {@link EarlyExitPolicy#NEVER} runs them all.
+     */
+    public void setEarlyExitPolicy(EarlyExitPolicy policy) {
+        earlyExitPolicy = policy;
+    }
+
+    /**
+     * Number of preprocessed frames the decoder may run ahead of inference.
+     */
+    public void setPipelineDepth(int depth) {
+        pipelineDepth = Math.max(depth, 1);
+    }
+
+    /**
+     * Per-stage timings of the last completed clip.
+     */
+    public String getLastPipelineStats() {
+        return lastPipelineStats;
     }
 
     public CompletableFuture<List<Bitmap>> extractFramesFromVideoAsync(Context context, Uri videoUri, int numFrames) {
         return CompletableFuture.supplyAsync(() -> {
+            List<Bitmap> frames;
             try {
-                List<Bitmap> frames;
-                try (MediaMetadataRetriever retriever = new MediaMetadataRetriever()) {
-                    retriever.setDataSource(context, videoUri);
-
-                    frames = new ArrayList<>();
-                    String durationStr = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
-                    long duration = Long.parseLong(durationStr) * 1000L; // Convert duration to microseconds
-
-                    // Calculate interval between frames
-                    long interval = duration / numFrames;
-
-                    for (int i = 0; i < numFrames; i++) {
-                        long timestamp = i * interval;
-                        Bitmap frame = retriever.getFrameAtTime(timestamp, MediaMetadataRetriever.OPTION_CLOSEST);
-                        if (frame != null) {
-                            frames.add(frame.copy(Bitmap.Config.ARGB_8888, true));
-                        } else {
-                            Log.w("Frame_TAG", "Frame at timestamp " + timestamp + " is null");
-                        }
-                    }
+                frames = extractFramesWithDecoder(context, videoUri, numFrames, inputWidth, inputHeight);
+            } catch (Exception e) {
+                Log.w(TAG, "Decoder failed, falling back to MediaMetadataRetriever: " + e.getMessage());
+                frames = null;
+            }
+            if (frames == null || frames.isEmpty()) {
+                frames = extractFramesWithRetriever(context, videoUri, numFrames);
+            }
+            if (!frames.isEmpty()) {
+                padWithBlankFrames(frames, numFrames);
+            }
+            return frames;
+        });
+    }
 
-                    if (frames.size() < numFrames) {
-                        int missingFrames = numFrames - frames.size();
-                        Bitmap blankFrame = Bitmap.createBitmap(224, 224, Bitmap.Config.ARGB_8888);
-                        Canvas canvas = new Canvas(blankFrame);
-                        canvas.drawColor(Color.BLACK); // Fill with black
-                        for (int i = 0; i < missingFrames; i++) {
-                            frames.add(blankFrame);
-                        }
-                    }
+    /**
+     * Decode the clip once with MediaCodec, keeping only the sampled frames at model input size.
+     */
+    static List<Bitmap> extractFramesWithDecoder(Context context, Uri videoUri, int numFrames,
+                                                 int width, int height) throws IOException {
+        try (FrameDecoder decoder = new FrameDecoder(context, videoUri)) {
+            long[] timestamps = FrameDecoder.uniformTimestamps(decoder.getDurationUs(), numFrames);
+            return decoder.decodeToBitmaps(timestamps, width, height);
+        }
+    }
 
+    /**
+     * Seek to every sampled frame with MediaMetadataRetriever. Slower, kept as a fallback.
+     */
+    static List<Bitmap> extractFramesWithRetriever(Context context, Uri videoUri, int numFrames) {
+        return extractFramesWithRetriever(context, videoUri, numFrames, null);
+    }
+
+    static List<Bitmap> extractFramesWithRetriever(Context context, Uri videoUri, long[] timestampsUs) {
+        return extractFramesWithRetriever(context, videoUri, timestampsUs.length, timestampsUs);
+    }
+
+    private static List<Bitmap> extractFramesWithRetriever(Context context, Uri videoUri, int numFrames, long[] timestampsUs) {
+        List<Bitmap> frames = new ArrayList<>();
+        try (MediaMetadataRetriever retriever = new MediaMetadataRetriever()) {
+            retriever.setDataSource(context, videoUri);
+
+            long[] timestamps = timestampsUs;
+            if (timestamps == null) {
+                String durationStr = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+                long duration = Long.parseLong(durationStr) * 1000L; // Convert duration to microseconds
+                timestamps = FrameDecoder.uniformTimestamps(duration, numFrames);
+            }
 
-                    retriever.release();
+            for (long timestamp : timestamps) {
+                Bitmap frame = retriever.getFrameAtTime(timestamp, MediaMetadataRetriever.OPTION_CLOSEST);
+                if (frame != null) {
+                    frames.add(frame.copy(Bitmap.Config.ARGB_8888, true));
+                } else {
+                    Log.w("Frame_TAG", "Frame at timestamp " + timestamp + " is null");
                 }
-                return frames;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error extracting frames: " + e.getMessage());
+        }
+        return frames;
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error extracting frames: " + e.getMessage());
-                return new ArrayList<>();
+    private static void padWithBlankFrames(List<Bitmap> frames, int numFrames) {
+        if (frames.size() < numFrames) {
+            int missingFrames = numFrames - frames.size();
+            Bitmap blankFrame = Bitmap.createBitmap(224, 224, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(blankFrame);
+            canvas.drawColor(Color.BLACK); // Fill with black
+            for (int i = 0; i < missingFrames; i++) {
+                frames.add(blankFrame);
             }
-        });
+        }
+    }
+
+
+    /**
+     * Preprocessor for this model's input size and normalization, for callers that feed frames themselves.
+     */
+    public FrameTensorWriter createTensorWriter() {
+        return new FrameTensorWriter(inputWidth, inputHeight, INPUT_MEAN, INPUT_STD, imageFormat);
+    }
+
+    /**
+     * Input buffer sized for one frame written by {@link #createTensorWriter()}.
+     */
+    public ByteBuffer createInputBuffer() {
+        int numBytes = tflite.getInputTensorFromSignature(IMAGE_INPUT_NAME, SIGNATURE_KEY).numBytes();
+        return ByteBuffer.allocateDirect(numBytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Run one streamed frame on the current recurrent state and select its top-K classes.
+     * The state carries over to the next call until {@link #reset()}.
+     * Streaming cancels a clip translation in progress, the two share the recurrent state.
+     */
+    public void pushFrame(ByteBuffer input, TopKSelector result) {
+        cancel();
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("VideoTranslationHandler is closed");
+            }
+            input.rewind();
+            stateBuffers.setImage(input);
+            tflite.runSignature(stateBuffers.inputs(), stateBuffers.outputs());
+            finishFrame(result);
+        }
     }
 
+    /**
+     * Text of a class index, or "Unknown word".
+     */
+    public String getLabel(int index) {
+        return labelMap.getOrDefault(index, "Unknown word");
+    }
 
     /**
      * Reset the interpreter to the initial state.
      */
     public void reset() {
         synchronized (lock) {
-            inputState = initializeInput();
+            stateBuffers.reset();
         }
     }
 
+    /**
+     * Time spent mapping the model, building the interpreter and parsing the labels.
+     */
+    public long getLoadTimeMs() {
+        return loadTimeMs;
+    }
+
+    /**
+     * Duration of the last completed translation, or -1 if none has run yet.
+     */
+    public long getLastRunTimeMs() {
+        return lastRunTimeMs;
+    }
+
     /**
      * Close the interpreter when it's no longer needed.
+     * Waits for a running translation to finish first.
+     */
+    /**
+     * Whether {@link #close()} ran, e.g. because the registry unloaded the handler.
      */
+    public boolean isClosed() {
+        return closed;
+    }
+
     public void close() {
-        tflite.close();
+        cancel();
+        synchronized (lock) {
+            if (!closed) {
+                closed = true;
+                tflite.close();
+                inferenceExecutor.shutdown();
+                decodeExecutor.shutdown();
+            }
+        }
     }
 }
 
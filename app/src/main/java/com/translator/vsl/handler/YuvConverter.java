@@ -0,0 +1,146 @@
+package com.translator.vsl.handler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stride-correct YUV 4:2:0 to RGB conversion into caller-supplied buffers.
+ * Works for any plane layout YUV_420_888 allows (I420, NV12, NV21, padded rows):
+ * every sample is addressed through its plane's row and pixel stride.
+ * An integer step downsamples during conversion by taking every step-th pixel.
+ */
+public final class YuvConverter {
+
+    private YuvConverter() {
+    }
+
+    /**
+     * Output width for a source width and downsampling step.
+     */
+    public static int outputSize(int size, int step) {
+        return (size + step - 1) / step;
+    }
+
+    /**
+     * Convert into packed ARGB pixels, as used by Bitmap.setPixels.
+     * out must hold outputSize(width, step) * outputSize(height, step) pixels.
+     */
+    public static void toArgb(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height, int step, int[] out) {
+        int outWidth = outputSize(width, step);
+        int outHeight = outputSize(height, step);
+        checkCapacity(out.length, outWidth * outHeight);
+        int index = 0;
+        for (int oy = 0; oy < outHeight; oy++) {
+            int sy = oy * step;
+            int yRow = sy * yRowStride;
+            int uvRow = (sy >> 1) * uvRowStride;
+            for (int ox = 0; ox < outWidth; ox++) {
+                int sx = ox * step;
+                int uvIndex = uvRow + (sx >> 1) * uvPixelStride;
+                out[index++] = yuvToArgb(yPlane.get(yRow + sx * yPixelStride) & 0xff,
+                        uPlane.get(uvIndex) & 0xff, vPlane.get(uvIndex) & 0xff);
+            }
+        }
+    }
+
+    /**
+     * Convert into RGBA_8888 bytes at the buffer's position, the layout Bitmap.copyPixelsFromBuffer expects.
+     * The position is advanced past the written pixels.
+     */
+    public static void toRgba(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height, int step, ByteBuffer out) {
+        int outWidth = outputSize(width, step);
+        int outHeight = outputSize(height, step);
+        checkCapacity(out.remaining(), outWidth * outHeight * 4);
+        int offset = out.position();
+        for (int oy = 0; oy < outHeight; oy++) {
+            int sy = oy * step;
+            int yRow = sy * yRowStride;
+            int uvRow = (sy >> 1) * uvRowStride;
+            for (int ox = 0; ox < outWidth; ox++) {
+                int sx = ox * step;
+                int uvIndex = uvRow + (sx >> 1) * uvPixelStride;
+                int argb = yuvToArgb(yPlane.get(yRow + sx * yPixelStride) & 0xff,
+                        uPlane.get(uvIndex) & 0xff, vPlane.get(uvIndex) & 0xff);
+                out.put(offset, (byte) (argb >> 16));
+                out.put(offset + 1, (byte) (argb >> 8));
+                out.put(offset + 2, (byte) argb);
+                out.put(offset + 3, (byte) 0xff);
+                offset += 4;
+            }
+        }
+        out.position(offset);
+    }
+
+    /**
+     * Copy one plane between two YUV_420_888 layouts, e.g. a camera frame into an encoder's input
+     * image. width and height are the plane's own size in samples. Rows are bulk-copied when both
+     * sides are packed; interleaved chroma is copied sample by sample so the other chroma plane's
+     * bytes sharing the buffer are never touched. Buffer positions are left unchanged.
+     */
+    public static void copyPlane(ByteBuffer src, int srcRowStride, int srcPixelStride,
+                                 ByteBuffer dst, int dstRowStride, int dstPixelStride, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        checkCapacity(src.limit(), (height - 1) * srcRowStride + (width - 1) * srcPixelStride + 1);
+        checkCapacity(dst.limit(), (height - 1) * dstRowStride + (width - 1) * dstPixelStride + 1);
+        if (srcPixelStride == 1 && dstPixelStride == 1) {
+            ByteBuffer from = src.duplicate();
+            ByteBuffer to = dst.duplicate();
+            for (int row = 0; row < height; row++) {
+                int start = row * srcRowStride;
+                from.limit(start + width).position(start);
+                to.position(row * dstRowStride);
+                to.put(from);
+            }
+            return;
+        }
+        for (int row = 0; row < height; row++) {
+            int from = row * srcRowStride;
+            int to = row * dstRowStride;
+            for (int col = 0; col < width; col++) {
+                dst.put(to + col * dstPixelStride, src.get(from + col * srcPixelStride));
+            }
+        }
+    }
+
+    private static void checkCapacity(int available, int required) {
+        if (available < required) {
+            throw new IllegalArgumentException("Output holds " + available + ", needs " + required);
+        }
+    }
+
+    /**
+     * BT.601 full-range (JFIF) YUV to opaque ARGB, in 10-bit fixed point. CameraX analysis frames
+     * use this range: Y spans 0-255 unscaled.
+     */
+    public static int yuvToArgb(int y, int u, int v) {
+        int c = (y << 10) + 512;
+        int d = u - 128;
+        int e = v - 128;
+        int r = clamp((c + 1436 * e) >> 10);
+        int g = clamp((c - 731 * e - 352 * d) >> 10);
+        int b = clamp((c + 1815 * d) >> 10);
+        return 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * BT.601 limited-range YUV (Y 16-235) to opaque ARGB, the usual range of decoded video.
+     */
+    public static int yuvToArgbLimited(int y, int u, int v) {
+        int c = Math.max(y - 16, 0) * 1192;
+        int d = u - 128;
+        int e = v - 128;
+        int r = clamp((c + 1634 * e) >> 10);
+        int g = clamp((c - 833 * e - 400 * d) >> 10);
+        int b = clamp((c + 2066 * d) >> 10);
+        return 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+}
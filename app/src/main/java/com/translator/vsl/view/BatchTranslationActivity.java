@@ -0,0 +1,87 @@
+package com.translator.vsl.view;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.translator.vsl.R;
+import com.translator.vsl.viewmodel.BatchTranslationViewModel;
+
+import java.util.ArrayList;
+
+public class BatchTranslationActivity extends AppCompatActivity {
+
+    public static final String EXTRA_VIDEO_URIS = "video_uris";
+
+    private BatchTranslationViewModel viewModel;
+    private ProgressBar batchProgress;
+    private TextView txtBatchStatus, txtBatchLog;
+    private Button btnCancelBatch, btnExportCsv, btnExportJson;
+
+    private final ActivityResultLauncher<String> exportCsvLauncher =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), uri -> {
+                if (uri != null) viewModel.export(uri, false);
+            });
+
+    private final ActivityResultLauncher<String> exportJsonLauncher =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument("application/json"), uri -> {
+                if (uri != null) viewModel.export(uri, true);
+            });
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_batch_translation);
+
+        batchProgress = findViewById(R.id.batchProgress);
+        txtBatchStatus = findViewById(R.id.txtBatchStatus);
+        txtBatchLog = findViewById(R.id.txtBatchLog);
+        btnCancelBatch = findViewById(R.id.btnCancelBatch);
+        btnExportCsv = findViewById(R.id.btnExportCsv);
+        btnExportJson = findViewById(R.id.btnExportJson);
+
+        viewModel = new ViewModelProvider(this).get(BatchTranslationViewModel.class);
+
+        viewModel.getProgress().observe(this, completed -> batchProgress.setProgress(completed));
+        viewModel.getStatus().observe(this, txtBatchStatus::setText);
+        viewModel.getLog().observe(this, txtBatchLog::setText);
+        viewModel.getRunning().observe(this, isRunning -> {
+            btnCancelBatch.setEnabled(isRunning);
+            btnExportCsv.setEnabled(!isRunning && viewModel.hasResults());
+            btnExportJson.setEnabled(!isRunning && viewModel.hasResults());
+        });
+        viewModel.getToastMessage().observe(this, message -> {
+            if (message != null) Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+        });
+
+        btnCancelBatch.setOnClickListener(v -> viewModel.cancel());
+        btnExportCsv.setOnClickListener(v -> exportCsvLauncher.launch("ket-qua-dich.csv"));
+        btnExportJson.setOnClickListener(v -> exportJsonLauncher.launch("ket-qua-dich.json"));
+
+        // Chỉ bắt đầu ở lần tạo đầu tiên, xoay màn hình thì giữ job đang chạy trong ViewModel
+        if (savedInstanceState == null) {
+            ArrayList<Uri> uris = getIntent().getParcelableArrayListExtra(EXTRA_VIDEO_URIS);
+            if (uris == null || uris.isEmpty()) {
+                Toast.makeText(this, "Không có video nào được chọn", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            viewModel.start(uris);
+        }
+        batchProgress.setMax(viewModel.getTotal());
+    }
+
+    @Override
+    public void finish() {
+        super.finish();
+        overridePendingTransition(R.anim.slide_in_left, R.anim.slide_out_right);
+    }
+}
@@ -2,6 +2,7 @@ package com.translator.vsl.view;
 
 import android.Manifest;
 import android.annotation.SuppressLint;
+import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.net.Uri;
@@ -33,6 +34,8 @@ import com.translator.vsl.R;
 import com.translator.vsl.databinding.ActivityCameraBinding;
 import com.translator.vsl.viewmodel.CameraViewModel;
 
+import java.util.ArrayList;
+
 public class CameraActivity extends AppCompatActivity {
 
     private ActivityCameraBinding binding;
@@ -98,8 +101,12 @@ public class CameraActivity extends AppCompatActivity {
                 new ActivityResultContracts.StartActivityForResult(),
                 result -> {
                     if (result.getResultCode() == RESULT_OK && result.getData() != null) {
+                        ClipData clipData = result.getData().getClipData();
                         Uri selectedVideoUri = result.getData().getData();
-                        if (selectedVideoUri != null) {
+                        if (clipData != null && clipData.getItemCount() > 1) {
+                            showBatchTranslationScreen(clipData);
+                        } else if (selectedVideoUri != null || clipData != null) {
+                            if (selectedVideoUri == null) selectedVideoUri = clipData.getItemAt(0).getUri();
                             viewModel.translateNormalVideo(this, selectedVideoUri);
                         } else {
                             showToast("Không có video nào được chọn", false);
@@ -136,6 +143,10 @@ public class CameraActivity extends AppCompatActivity {
                 showToast(pair.first, pair.second);
             }
         });
+        viewModel.getLiveCaption().observe(this, caption -> {
+            binding.liveCaption.setText(caption);
+            binding.liveCaption.setVisibility(caption == null || caption.isEmpty() ? View.GONE : View.VISIBLE);
+        });
         viewModel.getFlashEnabledState().observe(this, isEnabled -> {
             toggleFlash.setImageResource(isEnabled ? R.drawable.baseline_flash_off_24 : R.drawable.baseline_flash_on_24);
         });
@@ -195,9 +206,25 @@ public class CameraActivity extends AppCompatActivity {
         Intent intent = new Intent();
         intent.setType("video/*");
         intent.setAction(Intent.ACTION_GET_CONTENT);
+        // Chọn nhiều video thì dịch hàng loạt offline
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         videoPickerLauncher.launch(Intent.createChooser(intent, "Select Video"));
     }
 
+    private void showBatchTranslationScreen(ClipData clipData) {
+        ArrayList<Uri> uris = new ArrayList<>();
+        for (int i = 0; i < clipData.getItemCount(); i++) {
+            uris.add(clipData.getItemAt(i).getUri());
+        }
+        Intent intent = new Intent(this, BatchTranslationActivity.class);
+        intent.putParcelableArrayListExtra(BatchTranslationActivity.EXTRA_VIDEO_URIS, uris);
+        // Chuyển quyền đọc các video đã chọn sang màn hình dịch hàng loạt
+        intent.setClipData(clipData);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(intent);
+        overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
+    }
+
     @Override
     public void finish() {
         super.finish();
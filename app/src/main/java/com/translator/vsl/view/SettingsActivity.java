@@ -5,6 +5,7 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.RadioGroup;
 import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -12,6 +13,15 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.translator.vsl.R;
+import com.translator.vsl.handler.EarlyExitSettings;
+import com.translator.vsl.handler.FrameSamplers;
+import com.translator.vsl.handler.InterpreterTuning;
+import com.translator.vsl.handler.KeyframeSettings;
+import com.translator.vsl.handler.NetworkClient;
+import com.translator.vsl.handler.RealtimeModes;
+import com.translator.vsl.handler.SignSpottingSettings;
+import com.translator.vsl.handler.TranslationHandlerRegistry;
+import com.translator.vsl.handler.ModelVariants;
 
 public class SettingsActivity extends AppCompatActivity {
 
@@ -19,8 +29,20 @@ public class SettingsActivity extends AppCompatActivity {
     private Button btnSaveIp, btnGoToUpload;
     private Switch switchQuality;
     private TextView txtQuality;
+    private Switch switchSaveVideo;
+    private TextView txtInterpreterConfig;
+    private Button btnTuneInterpreter;
+    private Switch switchModelVariant;
+    private RadioGroup groupFrameSampler;
+    private Switch switchEarlyExit;
+    private Switch switchSignSpotting;
+    private Switch switchLandmarkStream;
+    private Switch switchKeyframeTracking;
+    private Switch switchContinuousSegmenter;
+    private Switch switchHttp2;
     private SharedPreferences sharedPreferences;
     private static final String KEY_VIDEO_QUALITY = "video_quality"; // "SD" or "HD"
+    private static final String KEY_SAVE_VIDEO = "save_video";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,6 +82,97 @@ public class SettingsActivity extends AppCompatActivity {
             txtQuality.setText(isChecked ? "HD" : "SD");
         });
 
+        // Lưu video quay thường vào thư viện, tắt thì chỉ giữ tạm trong cache để dịch
+        switchSaveVideo = findViewById(R.id.switchSaveVideo);
+        switchSaveVideo.setChecked(sharedPreferences.getBoolean(KEY_SAVE_VIDEO, true));
+        switchSaveVideo.setOnCheckedChangeListener((buttonView, isChecked) ->
+                sharedPreferences.edit().putBoolean(KEY_SAVE_VIDEO, isChecked).apply());
+
+        // Chọn model offline: float hoặc bản lượng tử hoá int8 (nhỏ và nhanh hơn)
+        switchModelVariant = findViewById(R.id.switchModelVariant);
+        switchModelVariant.setEnabled(ModelVariants.isAvailable(this, ModelVariants.INT8));
+        switchModelVariant.setChecked(ModelVariants.INT8.equals(ModelVariants.getSelected(this)));
+        switchModelVariant.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            ModelVariants.setSelected(this, isChecked ? ModelVariants.INT8 : ModelVariants.FLOAT);
+            // Giải phóng model cũ, model mới được nạp ở lần dịch sau
+            TranslationHandlerRegistry.getInstance(this).unloadAll();
+            showInterpreterConfig();
+        });
+
+        // Cách chọn khung hình đưa vào model offline
+        groupFrameSampler = findViewById(R.id.groupFrameSampler);
+        String sampler = FrameSamplers.getSelected(this);
+        groupFrameSampler.check(FrameSamplers.MOTION.equals(sampler) ? R.id.radioSamplerMotion
+                : FrameSamplers.STRIDE.equals(sampler) ? R.id.radioSamplerStride : R.id.radioSamplerUniform);
+        groupFrameSampler.setOnCheckedChangeListener((group, checkedId) -> {
+            if (checkedId == R.id.radioSamplerMotion) {
+                FrameSamplers.setSelected(this, FrameSamplers.MOTION);
+            } else if (checkedId == R.id.radioSamplerStride) {
+                FrameSamplers.setSelected(this, FrameSamplers.STRIDE);
+            } else {
+                FrameSamplers.setSelected(this, FrameSamplers.UNIFORM);
+            }
+        });
+
+        // Dừng dịch offline khi dự đoán đã ổn định, bỏ qua các khung hình còn lại
+        switchEarlyExit = findViewById(R.id.switchEarlyExit);
+        switchEarlyExit.setChecked(EarlyExitSettings.isEnabled(this));
+        switchEarlyExit.setOnCheckedChangeListener((buttonView, isChecked) ->
+                EarlyExitSettings.setEnabled(this, isChecked));
+
+        // Quay trực tiếp: nhận diện tư thế trên máy, bỏ các clip không có ai ra ký hiệu
+        switchSignSpotting = findViewById(R.id.switchSignSpotting);
+        switchSignSpotting.setChecked(SignSpottingSettings.isEnabled(this));
+        switchSignSpotting.setOnCheckedChangeListener((buttonView, isChecked) ->
+                SignSpottingSettings.setEnabled(this, isChecked));
+
+        // Quay trực tiếp: tách keypoint trên máy và chỉ gửi keypoint thay cho video
+        switchLandmarkStream = findViewById(R.id.switchLandmarkStream);
+        switchLandmarkStream.setChecked(RealtimeModes.LANDMARKS.equals(RealtimeModes.getSelected(this)));
+        switchLandmarkStream.setOnCheckedChangeListener((buttonView, isChecked) ->
+                RealtimeModes.setSelected(this, isChecked ? RealtimeModes.LANDMARKS : RealtimeModes.VIDEO));
+
+        // Quay trực tiếp: chỉ nhận diện tư thế ở khung chính, các khung giữa bám theo điểm đã có
+        switchKeyframeTracking = findViewById(R.id.switchKeyframeTracking);
+        switchKeyframeTracking.setChecked(KeyframeSettings.isEnabled(this));
+        switchKeyframeTracking.setOnCheckedChangeListener((buttonView, isChecked) ->
+                KeyframeSettings.setEnabled(this, isChecked));
+
+        // Quay trực tiếp: mã hoá liên tục rồi cắt đoạn, không dừng/ghi lại mỗi giây
+        switchContinuousSegmenter = findViewById(R.id.switchContinuousSegmenter);
+        switchContinuousSegmenter.setChecked(RealtimeModes.isContinuousSegmenter(this));
+        switchContinuousSegmenter.setOnCheckedChangeListener((buttonView, isChecked) ->
+                RealtimeModes.setContinuousSegmenter(this, isChecked));
+
+        // Gửi bằng HTTP/2 không mã hoá (h2c), chỉ bật khi máy chủ hỗ trợ
+        switchHttp2 = findViewById(R.id.switchHttp2);
+        switchHttp2.setChecked(NetworkClient.isHttp2Enabled(this));
+        switchHttp2.setOnCheckedChangeListener((buttonView, isChecked) ->
+                NetworkClient.setHttp2Enabled(this, isChecked));
+
+        // Cấu hình interpreter đã đo cho model offline
+        txtInterpreterConfig = findViewById(R.id.txtInterpreterConfig);
+        btnTuneInterpreter = findViewById(R.id.btnTuneInterpreter);
+        showInterpreterConfig();
+
+        btnTuneInterpreter.setOnClickListener(v -> {
+            btnTuneInterpreter.setEnabled(false);
+            txtInterpreterConfig.setText("Đang đo...");
+            String modelPath = ModelVariants.selectedModelPath(this);
+            InterpreterTuning.tuneAsync(this, modelPath)
+                    .whenComplete((result, ex) -> runOnUiThread(() -> {
+                        if (isDestroyed()) return;
+                        btnTuneInterpreter.setEnabled(true);
+                        if (ex != null) {
+                            Toast.makeText(this, "Không đo được cấu hình!", Toast.LENGTH_SHORT).show();
+                        } else {
+                            // Model đang giữ trong bộ nhớ dùng cấu hình cũ, nạp lại ở lần dịch sau
+                            TranslationHandlerRegistry.getInstance(this).unload(modelPath, ModelVariants.labelPath());
+                        }
+                        showInterpreterConfig();
+                    }));
+        });
+
         // Nút chuyển sang UploadActivity
         btnGoToUpload.setOnClickListener(v -> {
             new androidx.appcompat.app.AlertDialog.Builder(SettingsActivity.this)
@@ -78,4 +191,9 @@ public class SettingsActivity extends AppCompatActivity {
                     .show();
         });
     }
+
+    private void showInterpreterConfig() {
+        String summary = InterpreterTuning.loadSummary(this, ModelVariants.selectedModelPath(this));
+        txtInterpreterConfig.setText(summary != null ? summary : "Chưa đo");
+    }
 }
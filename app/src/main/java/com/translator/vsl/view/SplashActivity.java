@@ -4,6 +4,7 @@ import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.util.Log;
 import android.widget.ImageView;
 
 import androidx.activity.EdgeToEdge;
@@ -12,6 +13,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.squareup.picasso.Picasso;
 import com.translator.vsl.R;
 import com.translator.vsl.databinding.ActivitySplashBinding;
+import com.translator.vsl.handler.InterpreterTuning;
+import com.translator.vsl.handler.ModelVariants;
 
 @SuppressLint("CustomSplashScreen")
 public class SplashActivity extends AppCompatActivity {
@@ -51,6 +54,16 @@ public class SplashActivity extends AppCompatActivity {
                 .error(R.drawable.so_khcn_lamdong_logo)        // Optional: image in case of error
                 .into(splashImage);
 
+        // Lần chạy đầu: đo cấu hình interpreter nhanh nhất cho máy này, chạy nền
+        String modelPath = ModelVariants.selectedModelPath(this);
+        if (!InterpreterTuning.isTuned(this, modelPath)) {
+            InterpreterTuning.tuneAsync(this, modelPath)
+                    .exceptionally(ex -> {
+                        Log.e("SplashActivity", "Interpreter tuning failed: " + ex.getMessage());
+                        return null;
+                    });
+        }
+
         new Handler().postDelayed(() -> {
                 // User is signed in, navigate to home screen
                 startActivity(new Intent(SplashActivity.this, HomeActivity.class));
@@ -41,6 +41,7 @@ import androidx.lifecycle.Observer;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.translator.vsl.R;
+import com.translator.vsl.handler.NetworkClient;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -325,7 +326,7 @@ public class UploadActivity extends AppCompatActivity {
         ExecutorService executor = Executors.newSingleThreadExecutor();
         executor.execute(() -> {
             try {
-                OkHttpClient client = new OkHttpClient();
+                OkHttpClient client = NetworkClient.getInstance(this).client(NetworkClient.Endpoint.UPLOAD);
                 File videoFile = getFileFromUri(Uri.parse(videoUri));
                 if (videoFile == null || !videoFile.exists()) {
                     runOnUiThread(() -> toastMessage.setValue(new Pair<>("Error getting video file", false)));
@@ -344,14 +345,16 @@ public class UploadActivity extends AppCompatActivity {
                         .post(formBody)
                         .build();
 
-                Response response = client.newCall(request).execute();
-                if (response.isSuccessful()) {
-                    String responseBody = response.body() != null ? response.body().string() : "";
-                    Log.d("UploadAPI", "Response received: " + responseBody);
-                    runOnUiThread(() -> toastMessage.setValue(new Pair<>("Video uploaded successfully", false)));
-                } else {
-                    Log.e("UploadAPI", "Upload failed: " + response.message());
-                    runOnUiThread(() -> toastMessage.setValue(new Pair<>("Upload failed: " + response.message(), false)));
+                // đóng response để trả kết nối về pool dùng chung
+                try (Response response = client.newCall(request).execute()) {
+                    if (response.isSuccessful()) {
+                        String responseBody = response.body() != null ? response.body().string() : "";
+                        Log.d("UploadAPI", "Response received: " + responseBody);
+                        runOnUiThread(() -> toastMessage.setValue(new Pair<>("Video uploaded successfully", false)));
+                    } else {
+                        Log.e("UploadAPI", "Upload failed: " + response.message());
+                        runOnUiThread(() -> toastMessage.setValue(new Pair<>("Upload failed: " + response.message(), false)));
+                    }
                 }
             } catch (Exception e) {
                 Log.e("UploadAPI", "Error uploading video: " + e.getMessage(), e);
@@ -0,0 +1,215 @@
+package com.translator.vsl.viewmodel;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.translator.vsl.handler.BatchItemResult;
+import com.translator.vsl.handler.BatchResultExporter;
+import com.translator.vsl.handler.BatchTranslationJob;
+import com.translator.vsl.handler.EarlyExitSettings;
+import com.translator.vsl.handler.FrameSamplers;
+import com.translator.vsl.handler.InterpreterPool;
+import com.translator.vsl.handler.ModelVariants;
+import com.translator.vsl.handler.TranslationHandlerRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchTranslationViewModel extends AndroidViewModel {
+    private static final String TAG = "BatchTranslationVM";
+
+    private final MutableLiveData<Integer> progress = new MutableLiveData<>(0);
+    private final MutableLiveData<String> status = new MutableLiveData<>("");
+    private final MutableLiveData<String> log = new MutableLiveData<>("");
+    private final MutableLiveData<Boolean> running = new MutableLiveData<>(false);
+    private final MutableLiveData<String> toastMessage = new MutableLiveData<>();
+
+    // Nạp model và ghi file không chạy trên main thread
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final StringBuilder logText = new StringBuilder();
+    private volatile List<BatchItemResult> results = Collections.emptyList();
+    private BatchTranslationJob job;
+    private boolean cancelRequested;
+    private int total;
+
+    public BatchTranslationViewModel(@NonNull Application application) {
+        super(application);
+    }
+
+    public LiveData<Integer> getProgress() {
+        return progress;
+    }
+
+    public LiveData<String> getStatus() {
+        return status;
+    }
+
+    public LiveData<String> getLog() {
+        return log;
+    }
+
+    public LiveData<Boolean> getRunning() {
+        return running;
+    }
+
+    public LiveData<String> getToastMessage() {
+        return toastMessage;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean hasResults() {
+        return !results.isEmpty();
+    }
+
+    /* ===============================================================
+                          CHẠY HÀNG ĐỢI
+       =============================================================== */
+    public void start(List<Uri> uris) {
+        if (Boolean.TRUE.equals(running.getValue()) || uris.isEmpty()) return;
+        total = uris.size();
+        synchronized (this) {
+            job = null;
+            cancelRequested = false;
+        }
+        synchronized (logText) {
+            logText.setLength(0);
+        }
+        results = Collections.emptyList();
+        log.setValue("");
+        running.setValue(true);
+        progress.setValue(0);
+        status.setValue("Đang nạp model...");
+
+        Context ctx = getApplication();
+        ioExecutor.execute(() -> {
+            List<String> names = new ArrayList<>();
+            for (Uri uri : uris) {
+                names.add(displayName(ctx, uri));
+            }
+            String modelPath = ModelVariants.selectedModelPath(ctx);
+            InterpreterPool pool;
+            try {
+                // Dùng chung pool của registry, không nạp thêm một bộ interpreter riêng
+                pool = TranslationHandlerRegistry.getInstance(ctx).acquirePool(modelPath, ModelVariants.labelPath());
+            } catch (IOException e) {
+                Log.e(TAG, "Không nạp được model: " + e.getMessage());
+                status.postValue("Không nạp được model offline.");
+                running.postValue(false);
+                return;
+            }
+            pool.setFrameSampler(FrameSamplers.selected(ctx));
+            pool.setEarlyExitPolicy(EarlyExitSettings.selected(ctx));
+            BatchTranslationJob batch = new BatchTranslationJob(ctx, pool, uris, names);
+            synchronized (this) {
+                job = batch;
+                // Huỷ trong lúc đang nạp model
+                if (cancelRequested) batch.cancel();
+            }
+            status.postValue("Đang dịch " + total + " video với " + pool.size() + " luồng...");
+            batch.start(new BatchTranslationJob.Listener() {
+                @Override
+                public void onItemStarted(int index) {
+                }
+
+                @Override
+                public void onItemFinished(BatchItemResult result, int completed, int count) {
+                    progress.postValue(completed);
+                    status.postValue(String.format(Locale.US, "%d/%d video, %.1f video/phút",
+                            completed, count, batch.clipsPerMinute()));
+                    appendLog(result.isSuccess()
+                            ? String.format(Locale.US, "%s: %s (%.0f%%, %d ms)",
+                                    result.name, result.labels[0], result.scores[0] * 100, result.durationMs)
+                            : result.name + ": lỗi - " + result.error);
+                }
+
+                @Override
+                public void onFinished(List<BatchItemResult> finished, boolean cancelled, long elapsedMs) {
+                    results = finished;
+                    status.postValue(String.format(Locale.US, "%s %d/%d video trong %.1f giây.",
+                            cancelled ? "Đã huỷ sau" : "Xong", finished.size(), total, elapsedMs / 1000f));
+                    running.postValue(false);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        if (!Boolean.TRUE.equals(running.getValue())) return;
+        synchronized (this) {
+            cancelRequested = true;
+            if (job != null) job.cancel();
+        }
+        status.setValue("Đang huỷ...");
+    }
+
+    private void appendLog(String line) {
+        synchronized (logText) {
+            logText.append(line).append('\n');
+            log.postValue(logText.toString());
+        }
+    }
+
+    /* ===============================================================
+                           XUẤT KẾT QUẢ
+       =============================================================== */
+    public void export(Uri target, boolean json) {
+        List<BatchItemResult> snapshot = results;
+        Context ctx = getApplication();
+        ioExecutor.execute(() -> {
+            try (OutputStream os = ctx.getContentResolver().openOutputStream(target)) {
+                if (os == null) throw new IOException("Không mở được file " + target);
+                Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+                if (json) {
+                    BatchResultExporter.writeJson(snapshot, writer);
+                } else {
+                    BatchResultExporter.writeCsv(snapshot, writer);
+                }
+                toastMessage.postValue("Đã xuất " + snapshot.size() + " kết quả.");
+            } catch (IOException e) {
+                Log.e(TAG, "Xuất kết quả lỗi: " + e.getMessage());
+                toastMessage.postValue("Không xuất được kết quả!");
+            }
+        });
+    }
+
+    private static String displayName(Context ctx, Uri uri) {
+        try (Cursor cursor = ctx.getContentResolver().query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getString(0);
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Không đọc được tên video: " + e.getMessage());
+        }
+        String segment = uri.getLastPathSegment();
+        return segment != null ? segment : uri.toString();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // Pool được đóng trong onFinished khi các luồng dừng hẳn
+        cancel();
+        ioExecutor.shutdown();
+    }
+}
@@ -15,6 +15,7 @@ import android.net.NetworkCapabilities;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.speech.tts.TextToSpeech;
 import android.util.Log;
@@ -26,7 +27,9 @@ import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
 import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.video.FileOutputOptions;
 import androidx.camera.video.MediaStoreOutputOptions;
+import androidx.camera.video.PendingRecording;
 import androidx.camera.video.Quality;
 import androidx.camera.video.QualitySelector;
 import androidx.camera.video.Recorder;
@@ -42,6 +45,24 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.translator.vsl.handler.ContinuousSegmenter;
+import com.translator.vsl.handler.EarlyExitSettings;
+import com.translator.vsl.handler.FrameSamplers;
+import com.translator.vsl.handler.InterpreterPool;
+import com.translator.vsl.handler.LandmarkCodec;
+import com.translator.vsl.handler.LandmarkStreamClient;
+import com.translator.vsl.handler.LandmarkStreamSession;
+import com.translator.vsl.handler.LiveTranslationSession;
+import com.translator.vsl.handler.ModelVariants;
+import com.translator.vsl.handler.NetworkClient;
+import com.translator.vsl.handler.RealtimeModes;
+import com.translator.vsl.handler.SegmentUploader;
+import com.translator.vsl.handler.SignSpotter;
+import com.translator.vsl.handler.SignSpottingSession;
+import com.translator.vsl.handler.SignSpottingSettings;
+import com.translator.vsl.handler.TimelineSegment;
+import com.translator.vsl.handler.TimelineTranslationJob;
+import com.translator.vsl.handler.TranslationHandlerRegistry;
 import com.translator.vsl.handler.VideoTranslationHandler;
 import com.translator.vsl.view.CameraActivity;
 
@@ -60,11 +81,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -91,6 +113,7 @@ public class CameraViewModel extends AndroidViewModel {
     private final MutableLiveData<Pair<String, Boolean>>   toastMessage      = new MutableLiveData<>();
     private final MutableLiveData<Boolean>                 flashEnabled      = new MutableLiveData<>(false);
     private final MutableLiveData<Boolean>                 isRecording       = new MutableLiveData<>(false);
+    private final MutableLiveData<String>                  liveCaption       = new MutableLiveData<>("");
 
     private Camera                         camera;
     private VideoCapture<Recorder>         videoCapture;
@@ -110,15 +133,16 @@ public class CameraViewModel extends AndroidViewModel {
     private TextToSpeech                   tts;
     private Context                        context;
 
-    /* ---------- realtime queue ---------- */
-    private final BlockingQueue<File>      videoQueue          = new LinkedBlockingQueue<>();
-    private final ExecutorService          videoSenderExecutor = Executors.newSingleThreadExecutor();
+    /* ---------- realtime queue (gửi song song, trả kết quả theo thứ tự quay) ---------- */
+    // sống cùng ViewModel: clip đến sau khi dừng (đoạn cuối của segmenter, clip 1 s cuối) vẫn được gửi
+    private SegmentUploader                videoSender;
     private volatile boolean               isRealtimeActive    = false;
+    // giao clip cho uploader và theo dõi cache trên một luồng riêng, không chạy dưới khoá của SignSpotter
+    private final ExecutorService          clipExecutor        = Executors.newSingleThreadExecutor();
 
     private final SharedPreferences        sharedPreferences;
 
     /* ---------- monitoring fields ---------- */
-    private int                            cacheSize           = 0;
     private final int                      CACHE_THRESHOLD     = 30;
     private int                            slowResponseCount   = 0;
     private final int                      SLOW_RESPONSE_LIMIT = 4;
@@ -131,11 +155,38 @@ public class CameraViewModel extends AndroidViewModel {
     private long                           lastSlowResponseWarningTime = 0;
     private long                           lastLowScoreWarningTime = 0;
     private final long                     WARNING_INTERVAL = 7000; // 10 seconds
+    // thư mục con trong cacheDir cho video quay tạm
+    private static final String            REALTIME_DIR        = "realtime";
+    private static final String            SEGMENT_DIR         = "segments";
+    private static final String            RECORDING_DIR       = "recordings";
 
     private boolean                        isCacheOverloaded = false;
     private boolean                        isNetworkSlow = false;
     private boolean                        isLowScore = false;
 
+    /* ---------- offline model ---------- */
+    private volatile VideoTranslationHandler offlineHandler;
+    private volatile TimelineTranslationJob  timelineJob;
+    private volatile AtomicBoolean timelineCancelled;
+    // nạp model, đọc video dài ngoài main thread
+    private final ExecutorService          offlineExecutor     = Executors.newSingleThreadExecutor();
+
+    /* ---------- offline realtime (dịch trực tiếp từ ImageAnalysis) ---------- */
+    private final ExecutorService          analysisExecutor    = Executors.newSingleThreadExecutor();
+    private LiveTranslationSession         liveSession;
+    // tăng mỗi lần bắt đầu/dừng, bỏ phiên nạp xong sau khi người dùng đã dừng (chỉ dùng trên main thread)
+    private int                            liveCaptioningRun;
+
+    /* ---------- sign spotting (chỉ gửi các clip có người đang ra ký hiệu) ---------- */
+    private SignSpottingSession            spottingSession;
+    private boolean                        isFrontCamera;
+
+    /* ---------- realtime ghi liên tục (một encoder, cắt đoạn theo keyframe) ---------- */
+    private ContinuousSegmenter            segmenter;
+
+    /* ---------- realtime bằng keypoint (chỉ gửi landmark thay cho video) ---------- */
+    private LandmarkStreamSession          landmarkSession;
+
     /* ===============================================================
                                CONSTRUCTOR
        =============================================================== */
@@ -144,7 +195,12 @@ public class CameraViewModel extends AndroidViewModel {
         clientId          = UUID.randomUUID().toString();
         sharedPreferences = app.getSharedPreferences("AppPrefs", Context.MODE_PRIVATE);
         initializeTextToSpeech(app);
-        startVideoSender();
+        // mở sẵn kết nối tới máy chủ để request đầu tiên khỏi chờ bắt tay TCP
+        String ip = sharedPreferences.getString("api_ip", "14.224.194.242");
+        NetworkClient.getInstance(app).preconnect("http://" + ip + ":7000/");
+        // clip realtime còn sót từ lần trước; dọn một lần vì bộ gửi sống cùng ViewModel,
+        // chạy nền để khỏi chặn luồng UI
+        clipExecutor.execute(() -> clearedCacheDir(app, REALTIME_DIR));
     }
 
     /* ===============================================================
@@ -155,6 +211,7 @@ public class CameraViewModel extends AndroidViewModel {
     public LiveData<Pair<String, Boolean>> getToastMessage()  { return toastMessage; }
     public LiveData<Boolean> getFlashEnabledState()           { return flashEnabled; }
     public LiveData<Boolean> getIsRecording()                 { return isRecording; }
+    public LiveData<String> getLiveCaption()                  { return liveCaption; }
 
     /* ===============================================================
                                CAMERA INIT
@@ -180,6 +237,7 @@ public class CameraViewModel extends AndroidViewModel {
                 }
 
                 context = pv.getContext();
+                isFrontCamera = cameraFacing == CameraSelector.LENS_FACING_FRONT;
                 CameraSelector selector = new CameraSelector.Builder()
                         .requireLensFacing(cameraFacing)
                         .build();
@@ -200,13 +258,27 @@ public class CameraViewModel extends AndroidViewModel {
                       CAPTURE BUTTON (Normal / Realtime)
        =============================================================== */
     public void captureVideoWithOptions(PreviewView pv, boolean realtime) {
+        cancelOfflineTranslation();
         if (recording != null || Boolean.TRUE.equals(isRecording.getValue())) {
             stopRecording();
         } else if (realtime) {
             isRealtimeActive = true;
             toastMessage.postValue(new Pair<>("Bắt đầu quay trực tiếp", false));
             tts.speak("Bắt đầu quay trực tiếp", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-            startRecordingRealTime(pv);
+            if (isInternetAvailable(pv.getContext())) {
+                if (RealtimeModes.LANDMARKS.equals(RealtimeModes.getSelected(pv.getContext()))) {
+                    startLandmarkStreaming(pv);
+                } else {
+                    startSignSpotting(pv);
+                    if (RealtimeModes.isContinuousSegmenter(pv.getContext())) {
+                        startContinuousRecording(pv);
+                    } else {
+                        startRecordingRealTime(pv);
+                    }
+                }
+            } else {
+                startLiveCaptioning(pv);
+            }
         } else {
             isRealtimeActive = false;
             startRecordingNormal(pv);
@@ -234,17 +306,25 @@ public class CameraViewModel extends AndroidViewModel {
             return;
         }
 
-        MediaStoreOutputOptions opts = new MediaStoreOutputOptions.Builder(
-                pv.getContext().getContentResolver(),
-                MediaStore.Video.Media.EXTERNAL_CONTENT_URI)
-                .setContentValues(cv)
-                .build();
+        // chỉ ghi vào thư viện khi người dùng muốn giữ video, không thì ghi vào cache của app
+        PendingRecording pending;
+        if (shouldSaveVideo(pv.getContext())) {
+            MediaStoreOutputOptions opts = new MediaStoreOutputOptions.Builder(
+                    pv.getContext().getContentResolver(),
+                    MediaStore.Video.Media.EXTERNAL_CONTENT_URI)
+                    .setContentValues(cv)
+                    .build();
+            pending = videoCapture.getOutput().prepareRecording(pv.getContext(), opts);
+        } else {
+            File dir = clearedCacheDir(pv.getContext(), RECORDING_DIR);
+            FileOutputOptions opts = new FileOutputOptions.Builder(new File(dir, name + ".mp4")).build();
+            pending = videoCapture.getOutput().prepareRecording(pv.getContext(), opts);
+        }
 
         recordingStartTime = System.currentTimeMillis();
         timerHandler.post(timerRunnable);
 
-        recording = videoCapture.getOutput()
-                .prepareRecording(pv.getContext(), opts)
+        recording = pending
                 .withAudioEnabled()
                 .start(ContextCompat.getMainExecutor(pv.getContext()), ev -> {
                     if (ev instanceof VideoRecordEvent.Start) {
@@ -256,6 +336,11 @@ public class CameraViewModel extends AndroidViewModel {
                 });
     }
 
+    private boolean shouldSaveVideo(Context ctx) {
+        return ctx.getSharedPreferences("AppPrefs", Context.MODE_PRIVATE)
+                .getBoolean("save_video", true);
+    }
+
     private Quality getCurrentVideoQuality(Context ctx) {
         String q = ctx.getSharedPreferences("AppPrefs", Context.MODE_PRIVATE)
                 .getString("video_quality", "HD");
@@ -272,11 +357,6 @@ public class CameraViewModel extends AndroidViewModel {
         String name = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss-SSS", Locale.getDefault())
                 .format(System.currentTimeMillis());
 
-        ContentValues cv = new ContentValues();
-        cv.put(MediaStore.MediaColumns.DISPLAY_NAME, name);
-        cv.put(MediaStore.MediaColumns.MIME_TYPE, "video/mp4");
-        cv.put(MediaStore.Video.Media.RELATIVE_PATH, "Movies/CameraX-Video");
-
         if (ActivityCompat.checkSelfPermission(pv.getContext(), Manifest.permission.RECORD_AUDIO)
                 != PackageManager.PERMISSION_GRANTED) {
 
@@ -285,14 +365,14 @@ public class CameraViewModel extends AndroidViewModel {
             return;
         }
 
-        MediaStoreOutputOptions opts = new MediaStoreOutputOptions.Builder(
-                pv.getContext().getContentResolver(),
-                MediaStore.Video.Media.EXTERNAL_CONTENT_URI)
-                .setContentValues(cv)
-                .build();
+        // ghi thẳng vào cache của app, clip gửi đi theo đường dẫn, không copy qua MediaStore
+        File clip = new File(cacheDir(pv.getContext(), REALTIME_DIR), name + ".mp4");
+        FileOutputOptions opts = new FileOutputOptions.Builder(clip).build();
 
         recordingStartTime = System.currentTimeMillis();
         timerHandler.post(timerRunnable);
+        // clip sau có thể bắt đầu trước khi clip này finalize xong, nên giữ thời điểm bắt đầu riêng
+        long[] clipStartTime = {SystemClock.uptimeMillis()};
 
         try {
             recording = videoCapture.getOutput()
@@ -301,6 +381,7 @@ public class CameraViewModel extends AndroidViewModel {
                     .start(ContextCompat.getMainExecutor(pv.getContext()), ev -> {
 
                         if (ev instanceof VideoRecordEvent.Start) {
+                            clipStartTime[0] = SystemClock.uptimeMillis();
                             captureButtonState.postValue(true);
                             isRecording.postValue(true);
 
@@ -314,7 +395,7 @@ public class CameraViewModel extends AndroidViewModel {
                             }, 1000);
 
                         } else if (ev instanceof VideoRecordEvent.Finalize) {
-                            handleRecordingFinalizationRealtime((VideoRecordEvent.Finalize) ev, pv);
+                            handleRecordingFinalizationRealtime((VideoRecordEvent.Finalize) ev, pv, clip, clipStartTime[0]);
                         }
                     });
         } catch (Exception ex) {
@@ -324,6 +405,204 @@ public class CameraViewModel extends AndroidViewModel {
         }
     }
 
+    /* ===============================================================
+           REAL-TIME LIÊN TỤC (không dừng/ghi lại camera mỗi giây)
+       =============================================================== */
+    private void startContinuousRecording(PreviewView pv) {
+        Context ctx = pv.getContext();
+        File dir = clearedCacheDir(ctx, SEGMENT_DIR);
+
+        ContinuousSegmenter[] self = new ContinuousSegmenter[1];
+        self[0] = new ContinuousSegmenter(dir, RealtimeModes.getSegmentMs(ctx), new ContinuousSegmenter.Listener() {
+            @Override public void onSegment(File file, long startMs, long endMs) {
+                onRealtimeClip(file, startMs, endMs);
+            }
+
+            @Override public void onError(Exception error) {
+                // encoder hỏng thì quay lại cách ghi từng clip 1 s
+                new Handler(Looper.getMainLooper()).post(() -> {
+                    if (segmenter != self[0]) return;
+                    stopContinuousRecording();
+                    if (!isRealtimeActive) return;
+                    SignSpottingSession spotting = spottingSession;
+                    if (spotting != null) {
+                        imageAnalysis.setAnalyzer(analysisExecutor, spotting);
+                    } else {
+                        imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(ctx), ImageProxy::close);
+                    }
+                    startRecordingRealTime(pv);
+                });
+            }
+        });
+        segmenter = self[0];
+
+        // cùng một frame vừa đưa vào encoder vừa cho sign spotting
+        ContinuousSegmenter encoder = self[0];
+        SignSpottingSession spotting = spottingSession;
+        imageAnalysis.setAnalyzer(analysisExecutor, image -> {
+            encoder.encode(image);
+            if (spotting != null) {
+                spotting.analyze(image);
+            } else {
+                image.close();
+            }
+        });
+
+        timerText.postValue("00:00");
+        recordingStartTime = System.currentTimeMillis();
+        timerHandler.post(timerRunnable);
+        captureButtonState.postValue(true);
+        isRecording.postValue(true);
+    }
+
+    private void stopContinuousRecording() {
+        if (segmenter != null) {
+            segmenter.stop();
+            Log.i("RealTime", "Segmenter: " + segmenter);
+            segmenter = null;
+        }
+    }
+
+    /* ===============================================================
+               REAL-TIME LANDMARK (tách keypoint trên máy, gửi keypoint)
+       =============================================================== */
+    private void startLandmarkStreaming(PreviewView pv) {
+        String ip = sharedPreferences.getString("api_ip", "14.224.194.242");
+        String url = "http://" + ip + ":7000/landmark_stream";
+
+        OkHttpClient c = NetworkClient.getInstance(pv.getContext()).client(NetworkClient.Endpoint.LANDMARK_STREAM);
+
+        LandmarkStreamClient client = new LandmarkStreamClient(c, url, clientId,
+                LandmarkCodec.UPPER_BODY_LANDMARKS, RealtimeModes.LANDMARK_BATCH_MS,
+                new LandmarkStreamClient.Listener() {
+                    @Override public void onResponse(int sequence, String body) {
+                        parseRealtimeResponse(body);
+                    }
+
+                    @Override public void onError(int sequence, IOException error) {
+                        Log.e("LandmarkStream", "Gói " + sequence + ": " + error.getMessage());
+                    }
+                });
+        landmarkSession = new LandmarkStreamSession(pv.getContext(), isFrontCamera, client);
+        imageAnalysis.setAnalyzer(analysisExecutor, landmarkSession);
+
+        recordingStartTime = System.currentTimeMillis();
+        timerHandler.post(timerRunnable);
+        captureButtonState.postValue(true);
+        isRecording.postValue(true);
+    }
+
+    private void stopLandmarkStreaming() {
+        if (landmarkSession != null) {
+            landmarkSession.close();
+            landmarkSession = null;
+        }
+    }
+
+    /* ===============================================================
+                     REAL-TIME OFFLINE (không có mạng)
+       =============================================================== */
+    private void startLiveCaptioning(PreviewView pv) {
+        Context ctx = pv.getContext();
+        Executor main = ContextCompat.getMainExecutor(ctx);
+        int run = ++liveCaptioningRun;
+        recordingStartTime = System.currentTimeMillis();
+        timerHandler.post(timerRunnable);
+        captureButtonState.postValue(true);
+        isRecording.postValue(true);
+
+        // nạp model và reset trạng thái có thể mất vài giây, không làm trên main thread
+        offlineExecutor.execute(() -> {
+            LiveTranslationSession session;
+            try {
+                VideoTranslationHandler vh = TranslationHandlerRegistry.getInstance(ctx)
+                        .acquire(ModelVariants.selectedModelPath(ctx), ModelVariants.labelPath());
+                offlineHandler = vh;
+                // clip quay bằng camera trước không bị lật, giữ nguyên hướng cho giống dữ liệu của model
+                session = new LiveTranslationSession(vh, false, new LiveTranslationSession.Listener() {
+                    @Override public void onPartialResult(String[] labels, float[] scores) {
+                        StringBuilder sb = new StringBuilder();
+                        for (int i = 0; i < labels.length; i++) {
+                            if (i > 0) sb.append('\n');
+                            sb.append(i + 1).append(". ").append(labels[i])
+                              .append(String.format(Locale.getDefault(), " (%.1f%%)", scores[i] * 100));
+                        }
+                        liveCaption.postValue(sb.toString());
+                    }
+
+                    @Override public void onSign(String label, float score) {
+                        toastMessage.postValue(new Pair<>(label + String.format(Locale.getDefault(), " (%.1f%%)", score * 100), true));
+                        tts.speak(label, TextToSpeech.QUEUE_ADD, null, UUID.randomUUID().toString());
+                    }
+
+                    @Override public void onHandlerClosed() {
+                        // model bị giải phóng khi máy thiếu bộ nhớ
+                        main.execute(() -> stopLiveCaptioningWithError(run, "Đã dừng dịch trực tiếp do thiếu bộ nhớ."));
+                    }
+                });
+            } catch (IOException e) {
+                main.execute(() -> stopLiveCaptioningWithError(run, "Lỗi tải model."));
+                return;
+            }
+            main.execute(() -> {
+                if (run != liveCaptioningRun) {
+                    // người dùng đã dừng trong lúc nạp model
+                    session.close();
+                    return;
+                }
+                liveSession = session;
+                imageAnalysis.setAnalyzer(analysisExecutor, session);
+            });
+        });
+    }
+
+    private void stopLiveCaptioningWithError(int run, String message) {
+        if (run != liveCaptioningRun) return;
+        isRealtimeActive = false;
+        stopRecording();
+        toastMessage.postValue(new Pair<>(message, true));
+        tts.speak(message, TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
+    }
+
+    /* ===============================================================
+                 SIGN SPOTTING (lọc clip trước khi gửi)
+       =============================================================== */
+    private void startSignSpotting(PreviewView pv) {
+        Context ctx = pv.getContext();
+        if (!SignSpottingSettings.isEnabled(ctx)) return;
+        spottingSession = new SignSpottingSession(ctx, isFrontCamera,
+                SignSpottingSettings.getPreRollMs(ctx), SignSpottingSettings.getPostRollMs(ctx),
+                new SignSpotter.Listener<SignSpottingSession.Clip>() {
+                    @Override public void onUpload(SignSpottingSession.Clip clip) {
+                        enqueueRealtimeClip(clip.file, wallClockMs(clip.startMs));
+                    }
+
+                    @Override public void onSkip(SignSpottingSession.Clip clip) {
+                        // không có ký hiệu trong clip, khỏi tốn một request
+                        clipExecutor.execute(() -> {
+                            if (clip.file.exists()) clip.file.delete();
+                        });
+                    }
+                });
+        imageAnalysis.setAnalyzer(analysisExecutor, spottingSession);
+    }
+
+    private void stopSignSpotting() {
+        if (spottingSession != null) {
+            spottingSession.close();
+            spottingSession = null;
+        }
+    }
+
+    private void stopLiveCaptioning() {
+        liveCaptioningRun++;
+        if (liveSession != null) {
+            liveSession.close();
+            liveSession = null;
+        }
+        liveCaption.postValue("");
+    }
+
     /* ===============================================================
                               STOP / RESET
        =============================================================== */
@@ -332,6 +611,10 @@ public class CameraViewModel extends AndroidViewModel {
             recording.stop();
             recording = null;
         }
+        stopLiveCaptioning();
+        stopContinuousRecording();
+        stopSignSpotting();
+        stopLandmarkStreaming();
         isRecording.postValue(false);
         captureButtonState.postValue(false);
         timerHandler.removeCallbacks(timerRunnable);
@@ -342,10 +625,12 @@ public class CameraViewModel extends AndroidViewModel {
             toastMessage.postValue(new Pair<>("Đã dừng quay trực tiếp", false));
             tts.speak("Đã dừng quay trực tiếp!", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
             isRealtimeActive = false;
+            Log.i("VideoSender", "Mạng: " + NetworkClient.getInstance(getApplication()).getTimings());
 
-            for (File f : videoQueue) if (f.exists()) f.delete();
-            videoQueue.clear();
-            clearCameraXVideos();
+            // uploader không đóng ở đây: các clip flush của sign spotting và clip đến muộn vẫn được gửi
+            clipExecutor.execute(() -> {
+                if (videoSender != null) Log.i("VideoSender", videoSender.toString());
+            });
         }
     }
 
@@ -354,7 +639,10 @@ public class CameraViewModel extends AndroidViewModel {
         isRecording.postValue(false);
         timerHandler.removeCallbacks(timerRunnable);
         timerText.postValue("00:00");
-        imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(pv.getContext()), ImageProxy::close);
+        // realtime cắt clip mỗi giây, analyzer của sign spotting phải chạy liên tục
+        if (spottingSession == null) {
+            imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(pv.getContext()), ImageProxy::close);
+        }
     }
 
     /* ===============================================================
@@ -366,24 +654,51 @@ public class CameraViewModel extends AndroidViewModel {
         translateNormalVideo(pv.getContext(), uri);
     }
 
-    private void handleRecordingFinalizationRealtime(VideoRecordEvent.Finalize ev, PreviewView pv) {
+    private void handleRecordingFinalizationRealtime(VideoRecordEvent.Finalize ev, PreviewView pv, File f, long clipStartTime) {
         resetRecordingUI(pv);
-        Uri uri = ev.getOutputResults().getOutputUri();
-        File f = getFileFromUri(pv.getContext(), uri, true);   // xoá gốc ngay
-        if (f.exists()) {
-            videoQueue.offer(f);
-            cacheSize++;
-            if (cacheSize > CACHE_THRESHOLD) {
-                isCacheOverloaded = true;
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastCacheWarningTime > WARNING_INTERVAL) {
-                    toastMessage.postValue(new Pair<>("Cache quá tải! Vui lòng kiểm tra kết nối.", false));
-                    tts.speak("Cache quá tải! Vui lòng kiểm tra kết nối.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-                    lastCacheWarningTime = currentTime;
-                }
-            } else {
-                isCacheOverloaded = false;
+        if (!f.exists()) return;
+        long durationMs = ev.getRecordingStats().getRecordedDurationNanos() / 1_000_000;
+        onRealtimeClip(f, clipStartTime, clipStartTime + durationMs);
+    }
+
+    // thời điểm tính theo SystemClock.uptimeMillis(), cùng đồng hồ với sign spotting
+    private void onRealtimeClip(File f, long startMs, long endMs) {
+        SignSpottingSession spotting = spottingSession;
+        if (spotting != null) {
+            spotting.offerClip(f, startMs, endMs);
+        } else {
+            enqueueRealtimeClip(f, wallClockMs(startMs));
+        }
+    }
+
+    // đổi mốc uptime của clip sang giờ hệ thống, cùng đồng hồ với capture_ms của clip không có mốc quay
+    private static long wallClockMs(long uptimeMs) {
+        return System.currentTimeMillis() - SystemClock.uptimeMillis() + uptimeMs;
+    }
+
+    // gọi từ luồng nào cũng được, clip được gửi theo thứ tự gọi trên clipExecutor
+    private void enqueueRealtimeClip(File f, long captureMs) {
+        try {
+            clipExecutor.execute(() -> submitRealtimeClip(f, captureMs));
+        } catch (RejectedExecutionException e) {
+            // ViewModel đã huỷ
+            f.delete();
+        }
+    }
+
+    private void submitRealtimeClip(File f, long captureMs) {
+        SegmentUploader sender = videoSender();
+        sender.submit(f, captureMs);
+        if (sender.backlog() > CACHE_THRESHOLD) {
+            isCacheOverloaded = true;
+            long currentTime = System.currentTimeMillis();
+            if (currentTime - lastCacheWarningTime > WARNING_INTERVAL) {
+                toastMessage.postValue(new Pair<>("Cache quá tải! Vui lòng kiểm tra kết nối.", false));
+                tts.speak("Cache quá tải! Vui lòng kiểm tra kết nối.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
+                lastCacheWarningTime = currentTime;
             }
+        } else {
+            isCacheOverloaded = false;
         }
     }
 
@@ -413,22 +728,38 @@ public class CameraViewModel extends AndroidViewModel {
     }
 
     /* ===============================================================
-                     OFFLINE TRANSLATION (unchanged)
+                     OFFLINE TRANSLATION
        =============================================================== */
     private void callTranslationModel(Context ctx, Uri uri) {
+        offlineExecutor.execute(() -> {
+            // video dài nhiều cử chỉ: dịch theo cửa sổ trượt, ra dòng thời gian
+            long durationUs = TimelineTranslationJob.probeDurationUs(ctx, uri);
+            if (TimelineTranslationJob.isLongVideo(durationUs)) {
+                callTimelineTranslation(ctx, uri, durationUs);
+            } else {
+                callClipTranslation(ctx, uri);
+            }
+        });
+    }
+
+    private void callClipTranslation(Context ctx, Uri uri) {
         try {
-            VideoTranslationHandler vh = new VideoTranslationHandler(ctx,
-                    "model-final-new.tflite", "label400.txt");
+            // handler dùng chung, giữ model trong bộ nhớ giữa các clip
+            VideoTranslationHandler vh = TranslationHandlerRegistry.getInstance(ctx)
+                    .acquire(ModelVariants.selectedModelPath(ctx), ModelVariants.labelPath());
+            offlineHandler = vh;
+            vh.setFrameSampler(FrameSamplers.selected(ctx));
+            vh.setEarlyExitPolicy(EarlyExitSettings.selected(ctx));
             vh.translateVideoAsync(ctx, uri)
                     .thenAccept(res -> {
                         toastMessage.postValue(new Pair<>("Kết quả: " + res, true));
                         tts.speak(res, TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-                        vh.close();
                     })
                     .exceptionally(ex -> {
+                        // clip bị huỷ do người dùng quay clip mới, không báo lỗi
+                        if (ex instanceof CancellationException || ex.getCause() instanceof CancellationException) return null;
                         toastMessage.postValue(new Pair<>("Lỗi dịch offline.", true));
                         tts.speak("Lỗi dịch offline.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-                        vh.close();
                         return null;
                     });
         } catch (IOException e) {
@@ -437,6 +768,66 @@ public class CameraViewModel extends AndroidViewModel {
         }
     }
 
+    private void callTimelineTranslation(Context ctx, Uri uri, long durationUs) {
+        // công bố cờ huỷ trước khi nạp pool, lệnh huỷ trong lúc nạp không bị mất
+        AtomicBoolean cancelRequested = new AtomicBoolean();
+        timelineCancelled = cancelRequested;
+        InterpreterPool pool;
+        try {
+            // pool dùng chung qua registry, không nạp lại model cho mỗi video dài
+            pool = TranslationHandlerRegistry.getInstance(ctx)
+                    .acquirePool(ModelVariants.selectedModelPath(ctx), ModelVariants.labelPath());
+        } catch (IOException e) {
+            toastMessage.postValue(new Pair<>("Lỗi tải model.", true));
+            tts.speak("Lỗi tải model.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
+            return;
+        }
+        if (cancelRequested.get()) return;
+        TimelineTranslationJob job = new TimelineTranslationJob(ctx, pool, uri, durationUs);
+        timelineJob = job;
+        // huỷ có thể đến giữa lần kiểm tra trên và lúc gán job
+        if (cancelRequested.get()) job.cancel();
+        job.start(new TimelineTranslationJob.Listener() {
+            @Override
+            public void onPartialTimeline(List<TimelineSegment> segments, int mergedWindows, int totalWindows) {
+                // hiện dần các cử chỉ khi từng cửa sổ dịch xong
+                StringBuilder sb = new StringBuilder();
+                for (TimelineSegment s : segments) {
+                    if (sb.length() > 0) sb.append(" · ");
+                    sb.append(s.label);
+                }
+                sb.append(String.format(Locale.getDefault(), " (%d/%d)", mergedWindows, totalWindows));
+                liveCaption.postValue(sb.toString());
+            }
+
+            @Override
+            public void onFinished(List<TimelineSegment> segments, boolean cancelled, long elapsedMs) {
+                if (timelineJob == job) timelineJob = null;
+                liveCaption.postValue("");
+                // clip bị huỷ do người dùng quay clip mới, không báo lỗi
+                if (cancelled) return;
+                List<String> glosses = new ArrayList<>();
+                for (TimelineSegment s : segments) {
+                    glosses.add(String.format(Locale.getDefault(), "%s (%.1fs)", s.label, s.startUs / 1e6));
+                }
+                if (glosses.isEmpty()) {
+                    toastMessage.postValue(new Pair<>("Không phát hiện cử chỉ!", true));
+                    tts.speak("Không phát hiện cử chỉ!", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
+                } else {
+                    glossHandler.post(() -> showGlossesOneByOne(glosses, 0));
+                }
+            }
+        });
+    }
+
+    private void cancelOfflineTranslation() {
+        if (offlineHandler != null) offlineHandler.cancel();
+        AtomicBoolean cancelRequested = timelineCancelled;
+        if (cancelRequested != null) cancelRequested.set(true);
+        TimelineTranslationJob job = timelineJob;
+        if (job != null) job.cancel();
+    }
+
     /* ===============================================================
                           NORMAL API
        =============================================================== */
@@ -456,11 +847,7 @@ public class CameraViewModel extends AndroidViewModel {
                 .addFormDataPart("angle_threshold", "140")
                 .addFormDataPart("top_k", "3");
 
-        OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(100, TimeUnit.SECONDS)
-                .readTimeout(100, TimeUnit.SECONDS)
-                .writeTimeout(100, TimeUnit.SECONDS)
-                .build();
+        OkHttpClient client = NetworkClient.getInstance(ctx).client(NetworkClient.Endpoint.FULL_VIDEO);
 
         Request req = new Request.Builder().url(url).post(mb.build()).build();
 
@@ -474,6 +861,7 @@ public class CameraViewModel extends AndroidViewModel {
                     parseFullVideoApiResult(r.body().string());
                 } else {
                     Log.e("NormalAPI", "Server error " + r.code());
+                    r.close();
                     toastMessage.postValue(new Pair<>("Lỗi máy chủ!", true));
                     tts.speak("Lỗi máy chủ!", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
                 }
@@ -486,21 +874,8 @@ public class CameraViewModel extends AndroidViewModel {
        =============================================================== */
     private void callRealtimeTranslationApi(Context ctx, Uri uri) {
         File f = getFileFromUri(ctx, uri, true);  // xoá gốc
-        if (f.exists()) {
-            videoQueue.offer(f);
-            cacheSize++;
-            if (cacheSize > CACHE_THRESHOLD) {
-                isCacheOverloaded = true;
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastCacheWarningTime > WARNING_INTERVAL) {
-                    toastMessage.postValue(new Pair<>("Cache quá tải! Vui lòng kiểm tra kết nối.", false));
-                    tts.speak("Cache quá tải! Vui lòng kiểm tra kết nối.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-                    lastCacheWarningTime = currentTime;
-                }
-            } else {
-                isCacheOverloaded = false;
-            }
-        }
+        // video có sẵn không có mốc quay, lấy thời điểm ghi file
+        if (f.exists()) enqueueRealtimeClip(f, f.lastModified());
     }
 
     /* ===============================================================
@@ -590,6 +965,8 @@ public class CameraViewModel extends AndroidViewModel {
                          FILE COPY + DELETE ORIGINAL
        =============================================================== */
     private File getFileFromUri(Context ctx, Uri uri, boolean deleteOriginal) {
+        // file đã nằm trong cache của app thì dùng luôn, khỏi copy
+        if ("file".equals(uri.getScheme()) && uri.getPath() != null) return new File(uri.getPath());
         File tmp = new File(ctx.getCacheDir(), "temp_" + System.currentTimeMillis() + ".mp4");
         try (InputStream in = ctx.getContentResolver().openInputStream(uri);
              OutputStream out = new FileOutputStream(tmp)) {
@@ -616,6 +993,19 @@ public class CameraViewModel extends AndroidViewModel {
         return getFileFromUri(ctx, uri, false);
     }
 
+    private static File cacheDir(Context ctx, String name) {
+        File dir = new File(ctx.getCacheDir(), name);
+        if (!dir.isDirectory() && !dir.mkdirs()) Log.e("CacheDir", "Không tạo được " + dir);
+        return dir;
+    }
+
+    private static File clearedCacheDir(Context ctx, String name) {
+        File dir = cacheDir(ctx, name);
+        File[] old = dir.listFiles();
+        if (old != null) for (File f : old) f.delete();
+        return dir;
+    }
+
     /* ===============================================================
                                FLASH
        =============================================================== */
@@ -671,75 +1061,62 @@ public class CameraViewModel extends AndroidViewModel {
     }
 
     /* ===============================================================
-                     BACKGROUND SENDER THREAD
+                BACKGROUND SENDER (gửi song song nhiều đoạn)
        =============================================================== */
-    private void startVideoSender() {
-        videoSenderExecutor.submit(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    File vid = videoQueue.take();
-                    long startTime = System.currentTimeMillis();
-                    boolean ok = sendVideoToApi(vid);
-                    long responseTime = System.currentTimeMillis() - startTime;
-                    if (responseTime > 1500) {
-                        slowResponseCount++;
-                        if (slowResponseCount >= SLOW_RESPONSE_LIMIT) {
-                            isNetworkSlow = true;
-                            long currentTime = System.currentTimeMillis();
-                            if (currentTime - lastSlowResponseWarningTime > WARNING_INTERVAL) {
-                                toastMessage.postValue(new Pair<>("Mạng không đủ để sử dụng realtime. Vui lòng kiểm tra lại.", false));
-                                tts.speak("Mạng không đủ để sử dụng realtime. Vui lòng kiểm tra lại.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
-                                lastSlowResponseWarningTime = currentTime;
-                            }
+    private synchronized SegmentUploader videoSender() {
+        if (videoSender == null) {
+            Context ctx = getApplication();
+            String ip = sharedPreferences.getString("api_ip", "14.224.194.242");
+            String url = "http://" + ip + ":7000/spoter_segmented";
+            videoSender = new SegmentUploader(
+                    NetworkClient.getInstance(ctx).client(NetworkClient.Endpoint.REALTIME_SEGMENT),
+                    url, clientId, RealtimeModes.getUploadConcurrency(ctx), 3, 1000,
+                    new SegmentUploader.Listener() {
+                        @Override public void onResult(int sequence, long captureMs, String body) {
+                            parseRealtimeResponse(body);
                         }
-                    } else {
-                        slowResponseCount = 0;
-                        isNetworkSlow = false;
-                    }
-                    if (!ok) {
-                        Thread.sleep(1000);
-                        videoQueue.offer(vid);
-                    } else if (vid.exists()) {
-                        vid.delete();
-                        cacheSize--;
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (Exception ex) {
-                    Log.e("VideoSender", ex.getMessage());
-                }
-            }
-        });
-    }
 
-    private boolean sendVideoToApi(File vid) {
-        String ip = sharedPreferences.getString("api_ip", "14.224.194.242");
-        String url = "http://" + ip + ":7000/spoter_segmented";
+                        @Override public void onDropped(int sequence, long captureMs, IOException error) {
+                            Log.e("VideoSender", "Bỏ đoạn " + sequence + ": " + error.getMessage());
+                        }
 
-        MultipartBody.Builder mb = new MultipartBody.Builder().setType(MultipartBody.FORM)
-                .addFormDataPart("video_file", vid.getName(), RequestBody.create(MediaType.parse("video/mp4"), vid))
-                .addFormDataPart("clientId", clientId)
-                .addFormDataPart("angle_threshold", "140")
-                .addFormDataPart("top_k", "3");
+                        @Override public void onRoundTrip(int sequence, long elapsedMs, boolean ok) {
+                            // nhiều luồng gửi cùng lúc, trạng thái mạng chỉ cập nhật trên clipExecutor
+                            try {
+                                clipExecutor.execute(() -> onUploadRoundTrip(elapsedMs));
+                            } catch (RejectedExecutionException e) {
+                                // ViewModel đã huỷ, không cần cảnh báo nữa
+                            }
+                        }
+                    });
+        }
+        return videoSender;
+    }
 
-        OkHttpClient c = new OkHttpClient.Builder()
-                .connectTimeout(100, TimeUnit.SECONDS)
-                .readTimeout(100, TimeUnit.SECONDS)
-                .writeTimeout(100, TimeUnit.SECONDS)
-                .build();
+    private synchronized void stopVideoSender() {
+        if (videoSender != null) {
+            // các đoạn đã xếp hàng vẫn gửi nốt, uploader tự xoá file khi xong
+            videoSender.close();
+            Log.i("VideoSender", videoSender.toString());
+            videoSender = null;
+        }
+    }
 
-        Request req = new Request.Builder().url(url).post(mb.build()).build();
-        try (Response res = c.newCall(req).execute()) {
-            if (res.isSuccessful()) {
-                parseRealtimeResponse(res.body().string());
-                return true;
-            } else {
-                Log.e("VideoSender", "Server " + res.code());
-                return false;
+    private void onUploadRoundTrip(long responseTime) {
+        if (responseTime > 1500) {
+            slowResponseCount++;
+            if (slowResponseCount >= SLOW_RESPONSE_LIMIT) {
+                isNetworkSlow = true;
+                long currentTime = System.currentTimeMillis();
+                if (currentTime - lastSlowResponseWarningTime > WARNING_INTERVAL) {
+                    toastMessage.postValue(new Pair<>("Mạng không đủ để sử dụng realtime. Vui lòng kiểm tra lại.", false));
+                    tts.speak("Mạng không đủ để sử dụng realtime. Vui lòng kiểm tra lại.", TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
+                    lastSlowResponseWarningTime = currentTime;
+                }
             }
-        } catch (IOException ex) {
-            Log.e("VideoSender", ex.getMessage());
-            return false;
+        } else {
+            slowResponseCount = 0;
+            isNetworkSlow = false;
         }
     }
 
@@ -776,6 +1153,15 @@ public class CameraViewModel extends AndroidViewModel {
         super.onCleared();
         timerHandler.removeCallbacks(timerRunnable);
         if (tts != null) { tts.stop(); tts.shutdown(); }
-        videoSenderExecutor.shutdownNow();
+        stopLiveCaptioning();
+        stopContinuousRecording();
+        stopSignSpotting();
+        stopLandmarkStreaming();
+        clipExecutor.execute(this::stopVideoSender);
+        clipExecutor.shutdown();
+        if (imageAnalysis != null) imageAnalysis.clearAnalyzer();
+        analysisExecutor.shutdownNow();
+        cancelOfflineTranslation();
+        offlineExecutor.shutdown();
     }
 }
\ No newline at end of file
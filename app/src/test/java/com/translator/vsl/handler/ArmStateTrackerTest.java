@@ -0,0 +1,151 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link ArmStateTracker} on synthetic landmark sequences.
+ */
+public class ArmStateTrackerTest {
+    private static final int N = PoseFrame.NUM_LANDMARKS;
+
+    /**
+     * Pose with the left elbow bent to leftAngle and the right to rightAngle degrees.
+     */
+    private static PoseFrame pose(float leftAngle, float rightAngle, float wristVisibility) {
+        PoseFrame frame = new PoseFrame();
+        placeArm(frame, 11, 13, 15, 0.4f, leftAngle, wristVisibility);
+        placeArm(frame, 12, 14, 16, 0.6f, rightAngle, wristVisibility);
+        return frame;
+    }
+
+    private static void placeArm(PoseFrame frame, int shoulder, int elbow, int wrist, float x, float angle, float visibility) {
+        // Upper arm hangs straight down from the shoulder, the forearm turns by 180 - angle
+        frame.set(shoulder, x, 0.3f, 1f);
+        frame.set(elbow, x, 0.5f, 1f);
+        double radians = Math.toRadians(angle);
+        frame.set(wrist, x + 0.2f * (float) Math.sin(radians), 0.5f - 0.2f * (float) Math.cos(radians), visibility);
+    }
+
+    @Test
+    public void angleMatchesConstruction() {
+        PoseFrame frame = pose(45f, 150f, 1f);
+
+        assertEquals(45f, ArmStateTracker.angle(frame.x[11], frame.y[11], frame.x[13], frame.y[13], frame.x[15], frame.y[15]), 0.01f);
+        assertEquals(150f, ArmStateTracker.angle(frame.x[12], frame.y[12], frame.x[14], frame.y[14], frame.x[16], frame.y[16]), 0.01f);
+        assertEquals(CalculateUtils.calculateAngle(new float[]{0f, 1f}, new float[]{0f, 0f}, new float[]{1f, 0f}),
+                90f, 0.01f);
+    }
+
+    @Test
+    public void debounceDelaysRaise() {
+        ArmStateTracker tracker = new ArmStateTracker(90f, 110f, 0.6f, 3);
+        PoseFrame up = pose(45f, 170f, 1f);
+
+        assertEquals(0, tracker.update(up));
+        assertEquals(0, tracker.update(up));
+        assertEquals(ArmStateTracker.LEFT_UP, tracker.update(up));
+        assertTrue(tracker.isLeftUp());
+        assertFalse(tracker.isRightUp());
+    }
+
+    @Test
+    public void singleFrameGlitchIsIgnored() {
+        ArmStateTracker tracker = new ArmStateTracker(90f, 110f, 0.6f, 3);
+        PoseFrame up = pose(45f, 45f, 1f);
+        PoseFrame down = pose(170f, 170f, 1f);
+        for (int i = 0; i < 3; i++) {
+            tracker.update(up);
+        }
+
+        tracker.update(down);
+        tracker.update(down);
+        tracker.update(up);
+
+        assertEquals(ArmStateTracker.LEFT_UP | ArmStateTracker.RIGHT_UP, tracker.state());
+    }
+
+    @Test
+    public void hysteresisHoldsBetweenThresholds() {
+        ArmStateTracker tracker = new ArmStateTracker(90f, 110f, 0.6f, 1);
+
+        // 100 degrees is neither raised enough to go up nor open enough to go down
+        assertEquals(0, tracker.update(pose(100f, 100f, 1f)));
+        assertEquals(ArmStateTracker.LEFT_UP, tracker.update(pose(80f, 100f, 1f)));
+        assertEquals(ArmStateTracker.LEFT_UP, tracker.update(pose(100f, 100f, 1f)));
+        assertEquals(0, tracker.update(pose(120f, 100f, 1f)));
+    }
+
+    @Test
+    public void hiddenWristCountsAsDown() {
+        ArmStateTracker tracker = new ArmStateTracker(90f, 110f, 0.6f, 1);
+        tracker.update(pose(45f, 45f, 1f));
+
+        assertEquals(0, tracker.update(pose(45f, 45f, 0.3f)));
+        tracker.update(pose(45f, 45f, 1f));
+        assertEquals(0, tracker.updateMissing());
+    }
+
+    @Test
+    public void batchMatchesFrameByFrame() {
+        int frames = 200;
+        float[] x = new float[frames * N];
+        float[] y = new float[frames * N];
+        float[] visibility = new float[frames * N];
+        ArmStateTracker single = new ArmStateTracker();
+        int[] expected = new int[frames];
+        for (int f = 0; f < frames; f++) {
+            // Left arm sweeps slowly with noise, right arm alternates every few frames
+            float left = 100f + 60f * (float) Math.sin(f / 15.0) + ((f * 37) % 11 - 5);
+            float right = (f / 4) % 2 == 0 ? 40f : 160f;
+            PoseFrame frame = pose(left, right, f % 50 == 49 ? 0f : 1f);
+            System.arraycopy(frame.x, 0, x, f * N, N);
+            System.arraycopy(frame.y, 0, y, f * N, N);
+            System.arraycopy(frame.visibility, 0, visibility, f * N, N);
+            expected[f] = single.update(frame);
+        }
+
+        ArmStateTracker batch = new ArmStateTracker();
+        int[] states = new int[frames];
+        int changes = batch.process(x, y, visibility, N, frames, states);
+
+        assertArrayEquals(expected, states);
+        int counted = 0;
+        for (int f = 1; f < frames; f++) {
+            counted += Integer.bitCount(states[f] ^ states[f - 1]);
+        }
+        assertEquals(counted + Integer.bitCount(states[0]), changes);
+    }
+
+    @Test
+    public void hysteresisReducesFlicker() {
+        // Elbow angle jittering around 90 degrees
+        ArmStateTracker plain = new ArmStateTracker(90f, 90f, 0.6f, 1);
+        ArmStateTracker stable = new ArmStateTracker();
+        int plainChanges = 0;
+        int stableChanges = 0;
+        int plainState = 0;
+        int stableState = 0;
+        for (int f = 0; f < 100; f++) {
+            PoseFrame frame = pose(f % 2 == 0 ? 85f : 95f, 170f, 1f);
+            int p = plain.update(frame);
+            int s = stable.update(frame);
+            plainChanges += p != plainState ? 1 : 0;
+            stableChanges += s != stableState ? 1 : 0;
+            plainState = p;
+            stableState = s;
+        }
+
+        assertEquals(99, plainChanges, 1);
+        assertEquals(0, stableChanges);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvertedThresholds() {
+        new ArmStateTracker(120f, 100f, 0.6f, 1);
+    }
+}
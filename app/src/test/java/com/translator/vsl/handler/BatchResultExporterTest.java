@@ -0,0 +1,59 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Local unit tests for {@link BatchResultExporter}.
+ */
+public class BatchResultExporterTest {
+
+    private static List<BatchItemResult> results() {
+        ClipTranslation clip = new ClipTranslation(new String[]{"xin chào", "cảm ơn"}, new float[]{0.75f, 0.125f}, 60, 900, "");
+        return Arrays.asList(
+                BatchItemResult.success(0, "a.mp4", "content://media/1", clip, 1000),
+                BatchItemResult.failure(1, "b, \"c\".mp4", "content://media/2", "No frames decoded", 20));
+    }
+
+    @Test
+    public void csvHasOneRowPerGlossAndOneForAFailure() throws IOException {
+        StringWriter out = new StringWriter();
+        BatchResultExporter.writeCsv(results(), out);
+
+        assertEquals("file,uri,rank,gloss,score,frames,duration_ms,error\n"
+                + "a.mp4,content://media/1,1,xin chào,0.750000,60,1000,\n"
+                + "a.mp4,content://media/1,2,cảm ơn,0.125000,60,1000,\n"
+                + "\"b, \"\"c\"\".mp4\",content://media/2,,,,0,20,No frames decoded\n", out.toString());
+    }
+
+    @Test
+    public void jsonListsGlossesAndErrors() throws IOException {
+        StringWriter out = new StringWriter();
+        BatchResultExporter.writeJson(results(), out);
+
+        assertEquals("[\n"
+                + "  {\"file\": \"a.mp4\", \"uri\": \"content://media/1\", \"glosses\": ["
+                + "{\"gloss\": \"xin chào\", \"score\": 0.750000}, {\"gloss\": \"cảm ơn\", \"score\": 0.125000}]"
+                + ", \"frames\": 60, \"duration_ms\": 1000, \"error\": null},\n"
+                + "  {\"file\": \"b, \\\"c\\\".mp4\", \"uri\": \"content://media/2\", \"glosses\": []"
+                + ", \"frames\": 0, \"duration_ms\": 20, \"error\": \"No frames decoded\"}\n"
+                + "]\n", out.toString());
+    }
+
+    @Test
+    public void jsonEscapesControlCharacters() {
+        assertEquals("\"a\\\\b\\n\\u0001\"", BatchResultExporter.jsonString("a\\b\n\u0001"));
+    }
+
+    @Test
+    public void csvQuotesLineBreaks() {
+        assertEquals("\"a\nb\"", BatchResultExporter.csvField("a\nb"));
+        assertEquals("plain", BatchResultExporter.csvField("plain"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CallTimingsTest {
+    private static final long MS = 1_000_000;
+
+    private static CallTimings.Timing call(boolean connect, boolean failed) {
+        CallTimings.Timing t = new CallTimings.Timing();
+        long now = 1000 * MS;
+        t.callStart(now);
+        if (connect) {
+            t.connectStart(now + 2 * MS);
+            t.connectEnd(now + 42 * MS);
+            now += 42 * MS;
+        }
+        t.requestStart(now + 1 * MS);
+        t.requestStart(now + 5 * MS);
+        t.requestEnd(now + 21 * MS);
+        t.responseStart(now + 121 * MS);
+        t.responseEnd(now + 124 * MS);
+        t.callEnd(now + 125 * MS, failed);
+        return t;
+    }
+
+    @Test
+    public void phasesOfNewConnection() {
+        CallTimings.Timing t = call(true, false);
+        assertFalse(t.reusedConnection());
+        assertEquals(40, t.connectMs());
+        assertEquals(100, t.ttfbMs());
+        // 20 ms sending from the first request event, 3 ms reading
+        assertEquals(23, t.transferMs());
+        assertEquals(167, t.totalMs());
+    }
+
+    @Test
+    public void pooledConnectionHasNoConnectPhase() {
+        CallTimings.Timing t = call(false, false);
+        assertTrue(t.reusedConnection());
+        assertEquals(0, t.connectMs());
+        assertEquals(125, t.totalMs());
+    }
+
+    @Test
+    public void unreachedPhasesCountAsZero() {
+        CallTimings.Timing t = new CallTimings.Timing();
+        t.callStart(0);
+        t.connectStart(MS);
+        t.callEnd(30 * MS, true);
+        assertEquals(0, t.connectMs());
+        assertEquals(0, t.ttfbMs());
+        assertEquals(0, t.transferMs());
+        assertEquals(30, t.totalMs());
+        assertTrue(t.failed());
+    }
+
+    @Test
+    public void aggregatesPerEndpoint() {
+        CallTimings timings = new CallTimings();
+        timings.record("realtime", call(true, false));
+        timings.record("realtime", call(false, false));
+        timings.record("realtime", call(false, true));
+        timings.record("upload", call(true, false));
+
+        assertEquals(3, timings.calls("realtime"));
+        assertEquals(2, timings.reusedCalls("realtime"));
+        assertEquals(1, timings.failedCalls("realtime"));
+        assertEquals(13, timings.meanConnectMs("realtime"));
+        assertEquals(100, timings.meanTtfbMs("realtime"));
+        assertEquals(139, timings.meanTotalMs("realtime"));
+        assertEquals(1, timings.calls("upload"));
+        assertEquals(0, timings.calls("landmarks"));
+        assertEquals(0, timings.meanTotalMs("landmarks"));
+        assertTrue(timings.toString(), timings.toString().startsWith("realtime: 3 calls (2 reused, 1 failed)"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link EarlyExitPolicy}.
+ */
+public class EarlyExitPolicyTest {
+    private final EarlyExitPolicy policy = new EarlyExitPolicy(4, 0.3f, 3);
+
+    @Test
+    public void exitsOnceStableAndConfident() {
+        EarlyExitPolicy.Tracker tracker = policy.start();
+
+        assertFalse(tracker.update(7, 0.8f, 0.1f));
+        assertFalse(tracker.update(7, 0.8f, 0.1f));
+        // Stable for 3 frames but below minFrames
+        assertFalse(tracker.update(7, 0.8f, 0.1f));
+        assertTrue(tracker.update(7, 0.8f, 0.1f));
+        assertEquals(4, tracker.frames());
+    }
+
+    @Test
+    public void changeOfTop1RestartsStability() {
+        EarlyExitPolicy.Tracker tracker = policy.start();
+        tracker.update(7, 0.8f, 0.1f);
+        tracker.update(7, 0.8f, 0.1f);
+        tracker.update(7, 0.8f, 0.1f);
+
+        assertFalse(tracker.update(2, 0.8f, 0.1f));
+        assertFalse(tracker.update(2, 0.8f, 0.1f));
+        assertTrue(tracker.update(2, 0.8f, 0.1f));
+    }
+
+    @Test
+    public void smallMarginKeepsGoing() {
+        EarlyExitPolicy.Tracker tracker = policy.start();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(tracker.update(7, 0.45f, 0.25f));
+        }
+        assertTrue(tracker.update(7, 0.6f, 0.25f));
+    }
+
+    @Test
+    public void usesTheRunningTopK() {
+        TopKSelector topK = new TopKSelector();
+        topK.select(new float[]{0f, 5f, 1f});
+        EarlyExitPolicy.Tracker tracker = new EarlyExitPolicy(1, 0.5f, 1).start();
+
+        assertTrue(tracker.update(topK));
+    }
+
+    @Test
+    public void neverExits() {
+        EarlyExitPolicy.Tracker tracker = EarlyExitPolicy.NEVER.start();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(tracker.update(1, 1f, 0f));
+        }
+    }
+
+    @Test
+    public void trackersAreIndependent() {
+        EarlyExitPolicy.Tracker first = policy.start();
+        for (int i = 0; i < 3; i++) {
+            first.update(7, 0.8f, 0.1f);
+        }
+        EarlyExitPolicy.Tracker second = policy.start();
+
+        assertFalse(second.update(7, 0.8f, 0.1f));
+        assertTrue(first.update(7, 0.8f, 0.1f));
+    }
+}
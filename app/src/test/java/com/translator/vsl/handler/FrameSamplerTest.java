@@ -0,0 +1,112 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for the {@link FrameSampler} strategies.
+ */
+public class FrameSamplerTest {
+
+    @Test
+    public void fixedUniformMatchesTheOriginalSampling() {
+        long[] timestamps = UniformFrameSampler.fixed(4).sample(2_000_000, 30f, null, 1);
+
+        assertArrayEquals(new long[]{0, 500_000, 1_000_000, 1_500_000}, timestamps);
+    }
+
+    @Test
+    public void uniformCountFollowsClipLength() {
+        UniformFrameSampler sampler = new UniformFrameSampler(8, 32, 8f);
+
+        assertEquals(8, sampler.sample(500_000, 30f, null, 1).length);
+        assertEquals(24, sampler.sample(3_000_000, 30f, null, 1).length);
+        assertEquals(32, sampler.sample(60_000_000, 30f, null, 1).length);
+    }
+
+    @Test
+    public void countIsAMultipleOfFramesPerInput() {
+        UniformFrameSampler sampler = new UniformFrameSampler(8, 32, 8f);
+
+        assertEquals(25, sampler.sample(2_800_000, 30f, null, 5).length);
+        // 32 rounds up past the maximum, so down instead
+        assertEquals(30, sampler.sample(60_000_000, 30f, null, 5).length);
+    }
+
+    @Test
+    public void strideTakesEveryStepthFrame() {
+        long[] timestamps = new StrideFrameSampler(5, 4, 32).sample(1_000_000, 25f, null, 1);
+
+        assertEquals(5, timestamps.length);
+        assertEquals(200_000, timestamps[1]);
+        assertEquals(800_000, timestamps[4]);
+    }
+
+    @Test
+    public void strideWidensForLongClips() {
+        long[] timestamps = new StrideFrameSampler(5, 4, 10).sample(10_000_000, 30f, null, 1);
+
+        assertEquals(10, timestamps.length);
+        assertEquals(1_000_000, timestamps[1]);
+    }
+
+    @Test
+    public void strideFallsBackToEvenSpacingForShortClips() {
+        long[] timestamps = new StrideFrameSampler(5, 4, 32).sample(400_000, 30f, null, 1);
+
+        assertArrayEquals(new long[]{0, 100_000, 200_000, 300_000}, timestamps);
+    }
+
+    @Test
+    public void motionSamplerSkipsIdleLeadInAndTail() {
+        // 10 probes 100 ms apart, the signer moves between 400 and 700 ms
+        ActivityProfile activity = profile(0, 0, 0, 0, 0, 10, 10, 10, 0, 0);
+        long[] timestamps = new MotionWeightedFrameSampler(4, 32, 10f, 2f).sample(1_000_000, 30f, activity, 1);
+
+        assertEquals(4, timestamps.length);
+        for (long t : timestamps) {
+            assertTrue("Frame at " + t + " outside the movement", t >= 400_000 && t < 700_000);
+        }
+        assertAscending(timestamps);
+    }
+
+    @Test
+    public void motionSamplerIsDenserWhereArmsMoveFaster() {
+        ActivityProfile activity = profile(0, 40, 40, 4, 4, 4, 4, 4, 4, 4);
+        long[] timestamps = new MotionWeightedFrameSampler(8, 8, 10f, 2f).sample(1_000_000, 30f, activity, 1);
+
+        int inFastPart = 0;
+        for (long t : timestamps) {
+            if (t < 200_000) {
+                inFastPart++;
+            }
+        }
+        // The fast part is 2/9 of the active span but carries most of the motion
+        assertTrue("Only " + inFastPart + " frames in the fast part", inFastPart >= 5);
+        assertAscending(timestamps);
+    }
+
+    @Test
+    public void motionSamplerWithoutMotionIsUniform() {
+        long[] timestamps = new MotionWeightedFrameSampler(4, 4, 10f, 2f).sample(2_000_000, 30f, profile(0, 0, 0), 1);
+
+        assertArrayEquals(new long[]{0, 500_000, 1_000_000, 1_500_000}, timestamps);
+    }
+
+    private static ActivityProfile profile(float... motion) {
+        long[] timestamps = new long[motion.length];
+        for (int i = 0; i < motion.length; i++) {
+            timestamps[i] = i * 100_000L;
+        }
+        return new ActivityProfile(timestamps, motion, motion.length);
+    }
+
+    private static void assertAscending(long[] timestamps) {
+        for (int i = 1; i < timestamps.length; i++) {
+            assertTrue(timestamps[i] >= timestamps[i - 1]);
+        }
+    }
+}
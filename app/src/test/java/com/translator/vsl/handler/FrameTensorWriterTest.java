@@ -0,0 +1,212 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Local unit tests for {@link FrameTensorWriter}.
+ * The comparison against the TFLite ImageProcessor chain runs as an instrumented test,
+ * it needs android.graphics.Bitmap.
+ */
+public class FrameTensorWriterTest {
+    private static final float TOLERANCE = 1e-6f;
+
+    private static ByteBuffer newBuffer(FrameTensorWriter writer) {
+        return ByteBuffer.allocateDirect(writer.frameBytes()).order(ByteOrder.nativeOrder());
+    }
+
+    private static int argb(int r, int g, int b) {
+        return 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * 4x2 source where every pixel has a distinct red value: red = 10 * (y * 4 + x).
+     */
+    private static int[] indexedSource() {
+        int[] pixels = new int[8];
+        for (int i = 0; i < 8; i++) {
+            pixels[i] = argb(10 * i, 7, 200);
+        }
+        return pixels;
+    }
+
+    private static float red(ByteBuffer tensor, int width, int x, int y) {
+        return tensor.getFloat(((y * width) + x) * 12);
+    }
+
+    @Test
+    public void writeArgb_normalizesChannels() {
+        FrameTensorWriter writer = new FrameTensorWriter(1, 1, 0f, 255f);
+        ByteBuffer tensor = newBuffer(writer);
+
+        writer.writeArgb(new int[]{argb(255, 51, 0)}, 1, 1, 1, tensor);
+
+        assertEquals(12, tensor.position());
+        assertEquals(1f, tensor.getFloat(0), TOLERANCE);
+        assertEquals(0.2f, tensor.getFloat(4), TOLERANCE);
+        assertEquals(0f, tensor.getFloat(8), TOLERANCE);
+    }
+
+    @Test
+    public void writeArgb_nearestNeighbourSamplesCellCentres() {
+        // 8x4 source downscaled by 2 picks pixel (2x + 1, 2y + 1)
+        int[] pixels = new int[32];
+        for (int i = 0; i < 32; i++) {
+            pixels[i] = argb(i, 0, 0);
+        }
+        FrameTensorWriter writer = new FrameTensorWriter(4, 2, 0f, 1f);
+        ByteBuffer tensor = newBuffer(writer);
+
+        writer.writeArgb(pixels, 8, 4, 8, tensor);
+
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals((2 * y + 1) * 8 + 2 * x + 1, red(tensor, 4, x, y), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void writeArgb_rotatesClockwise() {
+        FrameTensorWriter writer = new FrameTensorWriter(2, 4, 0f, 1f);
+        writer.setTransform(90, false);
+        ByteBuffer tensor = newBuffer(writer);
+
+        writer.writeArgb(indexedSource(), 4, 2, 4, tensor);
+
+        // Rotating the 4x2 source clockwise puts its bottom-left pixel (index 4) at the top-left
+        int[][] expected = {{4, 0}, {5, 1}, {6, 2}, {7, 3}};
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 2; x++) {
+                assertEquals(10f * expected[y][x], red(tensor, 2, x, y), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void writeArgb_rotatesAndMirrors() {
+        FrameTensorWriter writer = new FrameTensorWriter(2, 4, 0f, 1f);
+        writer.setTransform(270, true);
+        ByteBuffer tensor = newBuffer(writer);
+
+        writer.writeArgb(indexedSource(), 4, 2, 4, tensor);
+
+        // 270 degrees puts index 3 at the top-left, mirroring swaps the two columns
+        int[][] expected = {{7, 3}, {6, 2}, {5, 1}, {4, 0}};
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 2; x++) {
+                assertEquals(10f * expected[y][x], red(tensor, 2, x, y), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void writeArgb_rotates180() {
+        FrameTensorWriter writer = new FrameTensorWriter(4, 2, 0f, 1f);
+        writer.setTransform(180, false);
+        ByteBuffer tensor = newBuffer(writer);
+
+        writer.writeArgb(indexedSource(), 4, 2, 4, tensor);
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(10f * (7 - i), red(tensor, 4, i % 4, i / 4), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void writeYuv_honoursStridesAndCrop() {
+        // 4x4 gray frame inside padded planes: Y row stride 8, interleaved UV with pixel stride 2
+        int yRowStride = 8;
+        ByteBuffer y = ByteBuffer.allocateDirect(yRowStride * 4);
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < yRowStride; col++) {
+                y.put(row * yRowStride + col, (byte) (col < 4 ? 16 + 12 * (row * 4 + col) : 0));
+            }
+        }
+        ByteBuffer u = ByteBuffer.allocateDirect(8 * 2);
+        ByteBuffer v = ByteBuffer.allocateDirect(8 * 2);
+        for (int i = 0; i < 16; i++) {
+            u.put(i, (byte) 128);
+            v.put(i, (byte) 128);
+        }
+
+        // Crop the bottom-right 2x2 block, as limited-range decoded video
+        FrameTensorWriter writer = new FrameTensorWriter(2, 2, 0f, 1f);
+        writer.setFullRange(false);
+        ByteBuffer tensor = newBuffer(writer);
+        writer.writeYuv(y, yRowStride, 1, u, v, 8, 2, 2, 2, 2, 2, tensor);
+
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 2; col++) {
+                int luma = 16 + 12 * ((row + 2) * 4 + col + 2);
+                float expected = Math.min(((luma - 16) * 1192) >> 10, 255);
+                int offset = (row * 2 + col) * 12;
+                assertEquals(expected, tensor.getFloat(offset), TOLERANCE);
+                assertEquals(expected, tensor.getFloat(offset + 4), TOLERANCE);
+                assertEquals(expected, tensor.getFloat(offset + 8), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void writeYuv_defaultsToFullRangeCameraFrames() {
+        ByteBuffer y = ByteBuffer.allocateDirect(4);
+        for (int i = 0; i < 4; i++) {
+            y.put(i, (byte) (i * 85));
+        }
+        ByteBuffer chroma = ByteBuffer.allocateDirect(2);
+        chroma.put(0, (byte) 128);
+        chroma.put(1, (byte) 128);
+
+        FrameTensorWriter writer = new FrameTensorWriter(4, 1, 0f, 1f);
+        ByteBuffer tensor = newBuffer(writer);
+        writer.writeYuv(y, 4, 1, chroma, chroma, 2, 1, 0, 0, 4, 1, tensor);
+
+        // Luma passes through unscaled, so 0 stays black and 255 white
+        for (int x = 0; x < 4; x++) {
+            assertEquals(x * 85f, tensor.getFloat(x * 12), TOLERANCE);
+            assertEquals(x * 85f, tensor.getFloat(x * 12 + 8), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void write_appendsAtBufferPosition() {
+        FrameTensorWriter writer = new FrameTensorWriter(1, 1, 0f, 255f);
+        ByteBuffer tensor = ByteBuffer.allocateDirect(2 * writer.frameBytes()).order(ByteOrder.nativeOrder());
+
+        writer.writeArgb(new int[]{argb(0, 0, 0)}, 1, 1, 1, tensor);
+        writer.writeArgb(new int[]{argb(255, 255, 255)}, 1, 1, 1, tensor);
+
+        assertEquals(0f, tensor.getFloat(0), TOLERANCE);
+        assertEquals(1f, tensor.getFloat(12), TOLERANCE);
+    }
+
+    @Test
+    public void writeArgb_doesNotAllocateAfterWarmUp() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int[] frame = new int[640 * 480];
+        FrameTensorWriter writer = new FrameTensorWriter(224, 224, 0f, 255f);
+        ByteBuffer tensor = newBuffer(writer);
+
+        for (int i = 0; i < 20; i++) {
+            tensor.clear();
+            writer.writeArgb(frame, 640, 480, 640, tensor);
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 20; i++) {
+            tensor.clear();
+            writer.writeArgb(frame, 640, 480, 640, tensor);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("bytes allocated per frame", 0, allocated / 1024);
+    }
+}
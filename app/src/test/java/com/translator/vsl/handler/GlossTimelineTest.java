@@ -0,0 +1,79 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Local unit tests for {@link GlossTimeline}.
+ */
+public class GlossTimelineTest {
+    // 400 ms windows every 200 ms over 1.2 s: centers at 200, 400, ..., 1000 ms
+    private final SlidingWindows windows = new SlidingWindows(1_200_000, 4, 100_000, 2);
+
+    @Test
+    public void agreeingWindowsMergeIntoOneSegment() {
+        GlossTimeline timeline = new GlossTimeline(windows, 0.5f);
+        timeline.add(0, "xin chào", 0.6f);
+        timeline.add(1, "xin chào", 0.9f);
+        timeline.add(2, "cảm ơn", 0.8f);
+        timeline.add(3, "cảm ơn", 0.7f);
+        timeline.add(4, "cảm ơn", 0.7f);
+
+        List<TimelineSegment> segments = timeline.segments();
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(0), "xin chào", 0, 500_000, 0.9f, 2);
+        assertSegment(segments.get(1), "cảm ơn", 500_000, 1_200_000, 0.8f, 3);
+        assertTrue(timeline.isComplete());
+    }
+
+    @Test
+    public void lowScoreWindowSplitsRepeatedGloss() {
+        GlossTimeline timeline = new GlossTimeline(windows, 0.5f);
+        timeline.add(0, "có", 0.9f);
+        timeline.add(1, "có", 0.2f);
+        timeline.add(2, "có", 0.9f);
+        timeline.add(3, null, 0f);
+        timeline.add(4, "không", 0.6f);
+
+        List<TimelineSegment> segments = timeline.segments();
+        assertEquals(3, segments.size());
+        assertSegment(segments.get(0), "có", 0, 300_000, 0.9f, 1);
+        assertSegment(segments.get(1), "có", 500_000, 700_000, 0.9f, 1);
+        assertSegment(segments.get(2), "không", 900_000, 1_200_000, 0.6f, 1);
+    }
+
+    @Test
+    public void outOfOrderWindowsWaitForTheirPredecessors() {
+        GlossTimeline timeline = new GlossTimeline(windows, 0.5f);
+
+        assertFalse(timeline.add(2, "b", 0.9f));
+        assertFalse(timeline.add(1, "a", 0.9f));
+        assertEquals(0, timeline.segments().size());
+
+        assertTrue(timeline.add(0, "a", 0.9f));
+        assertEquals(3, timeline.mergedWindows());
+        assertEquals(2, timeline.segments().size());
+        assertFalse(timeline.isComplete());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsDuplicateWindow() {
+        GlossTimeline timeline = new GlossTimeline(windows, 0.5f);
+        timeline.add(0, "a", 0.9f);
+        timeline.add(0, "a", 0.9f);
+    }
+
+    private static void assertSegment(TimelineSegment segment, String label, long startUs, long endUs,
+                                      float score, int windowCount) {
+        assertEquals(label, segment.label);
+        assertEquals(startUs, segment.startUs);
+        assertEquals(endUs, segment.endUs);
+        assertEquals(score, segment.score, 0f);
+        assertEquals(windowCount, segment.windows);
+    }
+}
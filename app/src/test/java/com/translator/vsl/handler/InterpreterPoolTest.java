@@ -0,0 +1,33 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link InterpreterPool#poolSize}.
+ */
+public class InterpreterPoolTest {
+    private static final long MB = 1024L * 1024;
+
+    @Test
+    public void coresBoundThePool() {
+        assertEquals(2, InterpreterPool.poolSize(8, 4, 512 * MB, 60 * MB, 4));
+        assertEquals(4, InterpreterPool.poolSize(8, 2, 512 * MB, 60 * MB, 4));
+    }
+
+    @Test
+    public void untunedInterpreterCountsAsOneThread() {
+        assertEquals(3, InterpreterPool.poolSize(3, -1, 512 * MB, 60 * MB, 4));
+    }
+
+    @Test
+    public void memoryBoundsThePool() {
+        assertEquals(2, InterpreterPool.poolSize(8, 1, 128 * MB, 60 * MB, 4));
+    }
+
+    @Test
+    public void poolNeverDropsBelowOne() {
+        assertEquals(1, InterpreterPool.poolSize(2, 4, 16 * MB, 60 * MB, 4));
+    }
+}
@@ -0,0 +1,94 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local unit tests for {@link InterpreterTuner} and {@link InterpreterConfig}, timed by a fake benchmark.
+ */
+public class InterpreterTunerTest {
+
+    @Test
+    public void candidatesStopAtCoreCount() {
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(4, false);
+
+        assertEquals(Arrays.asList(
+                new InterpreterConfig(1, true, false), new InterpreterConfig(1, false, false),
+                new InterpreterConfig(2, true, false), new InterpreterConfig(2, false, false),
+                new InterpreterConfig(4, true, false), new InterpreterConfig(4, false, false)), candidates);
+    }
+
+    @Test
+    public void candidatesIncludeNnapiWhenPresent() {
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(1, true);
+
+        assertEquals(3, candidates.size());
+        assertTrue(candidates.get(2).useNnapi);
+    }
+
+    @Test
+    public void tunePicksFastest() {
+        Map<InterpreterConfig, Long> latency = new HashMap<>();
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(8, false);
+        for (InterpreterConfig config : candidates) {
+            latency.put(config, 100L - config.numThreads * 5L + (config.useXnnpack ? 0 : 30));
+        }
+
+        InterpreterTuner.Result result = new InterpreterTuner().tune(candidates, latency::get);
+
+        assertEquals(new InterpreterConfig(8, true, false), result.best);
+        assertEquals(60L, result.bestNs);
+        assertEquals(candidates.size(), result.timings.size());
+    }
+
+    @Test
+    public void tuneSkipsFailingCandidates() {
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(2, true);
+
+        InterpreterTuner.Result result = new InterpreterTuner().tune(candidates, config -> {
+            if (config.useNnapi) {
+                throw new IllegalArgumentException("NNAPI unsupported op");
+            }
+            return config.numThreads == 2 && !config.useXnnpack ? 10L : 50L;
+        });
+
+        assertEquals(new InterpreterConfig(2, false, false), result.best);
+        assertFalse(result.timings.containsKey(new InterpreterConfig(-1, false, true)));
+    }
+
+    @Test
+    public void tieKeepsEarlierCandidate() {
+        List<InterpreterConfig> candidates = InterpreterTuner.candidates(2, false);
+
+        InterpreterTuner.Result result = new InterpreterTuner().tune(candidates, config -> 42L);
+
+        assertEquals(candidates.get(0), result.best);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void tuneFailsWhenNothingRuns() {
+        new InterpreterTuner().tune(InterpreterTuner.candidates(1, false), config -> {
+            throw new RuntimeException("no");
+        });
+    }
+
+    @Test
+    public void configRoundTripsThroughPreferenceForm() {
+        for (InterpreterConfig config : InterpreterTuner.candidates(8, true)) {
+            assertEquals(config, InterpreterConfig.decode(config.encode()));
+        }
+        assertEquals(InterpreterConfig.DEFAULT, InterpreterConfig.decode(InterpreterConfig.DEFAULT.encode()));
+        assertNull(InterpreterConfig.decode(null));
+        assertNull(InterpreterConfig.decode("4,1"));
+        assertNull(InterpreterConfig.decode("x,1,0"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local unit tests for {@link KeyframeEvaluation} on synthetic landmark sequences.
+ */
+public class KeyframeEvaluationTest {
+    private static final long FRAME_MS = 33;
+
+    /**
+     * Wrists swinging sinusoidally with the given period, everything else still.
+     */
+    private static List<PoseFrame> swinging(int frames, long periodMs) {
+        List<PoseFrame> sequence = new ArrayList<>();
+        for (int f = 0; f < frames; f++) {
+            PoseFrame frame = new PoseFrame();
+            frame.timestampMs = f * FRAME_MS;
+            double phase = 2 * Math.PI * frame.timestampMs / periodMs;
+            for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+                boolean wrist = i == 15 || i == 16;
+                frame.set(i, 0.5f + (wrist ? 0.2f * (float) Math.sin(phase) : 0f), 0.5f, 0.9f);
+            }
+            sequence.add(frame);
+        }
+        return sequence;
+    }
+
+    @Test
+    public void everyFrameHasNoError() {
+        KeyframeEvaluation.Result result = KeyframeEvaluation.evaluate(swinging(90, 1500), null, KeyframePolicy.EVERY_FRAME, 0.5f);
+
+        assertEquals(90, result.detections);
+        assertEquals(0f, result.maxError, 0f);
+        assertEquals(1f, result.detectionRate(), 0f);
+    }
+
+    @Test
+    public void linearMotionIsExtrapolatedExactly() {
+        List<PoseFrame> sequence = new ArrayList<>();
+        for (int f = 0; f < 60; f++) {
+            PoseFrame frame = new PoseFrame();
+            frame.timestampMs = f * FRAME_MS;
+            for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+                frame.set(i, 0.1f + 0.01f * f, 0.5f, 0.9f);
+            }
+            sequence.add(frame);
+        }
+
+        KeyframeEvaluation.Result result = KeyframeEvaluation.evaluate(sequence, null, new KeyframePolicy(5, 0f), 0.5f);
+
+        assertEquals(12, result.detections);
+        // Only the gap before the second detection has no velocity yet: 0.01 + 0.02 + 0.03 + 0.04 over 60 frames
+        assertEquals(0.1f / 60, result.meanError, 1e-5f);
+        assertEquals(0.04f, result.maxError, 1e-5f);
+    }
+
+    @Test
+    public void errorGrowsWithInterval() {
+        List<PoseFrame> sequence = swinging(300, 1500);
+        float previous = 0f;
+        for (int interval : new int[]{1, 2, 4, 8}) {
+            KeyframeEvaluation.Result result = KeyframeEvaluation.evaluate(sequence, null, new KeyframePolicy(interval, 0f), 0.5f);
+            assertEquals((300 + interval - 1) / interval, result.detections);
+            assertTrue(result + " after " + previous, interval == 1 || result.meanError > previous);
+            previous = result.meanError;
+        }
+    }
+
+    @Test
+    public void invisibleLandmarksAreIgnored() {
+        List<PoseFrame> sequence = swinging(60, 1500);
+        for (PoseFrame frame : sequence) {
+            for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+                frame.visibility[i] = 0.1f;
+            }
+        }
+
+        KeyframeEvaluation.Result result = KeyframeEvaluation.evaluate(sequence, null, new KeyframePolicy(4, 0f), 0.5f);
+
+        assertEquals(0f, result.meanError, 0f);
+    }
+}
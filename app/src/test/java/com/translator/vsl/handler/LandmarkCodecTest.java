@@ -0,0 +1,241 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Local unit tests for {@link LandmarkCodec}: round trips within the quantization step,
+ * packet framing and rejection of damaged input.
+ */
+public class LandmarkCodecTest {
+    private static final float XY_TOLERANCE = 0.5f / LandmarkCodec.XY_SCALE + 1e-6f;
+    private static final float VISIBILITY_TOLERANCE = 0.5f / LandmarkCodec.VISIBILITY_SCALE + 1e-6f;
+    private static final int N = PoseFrame.NUM_LANDMARKS;
+
+    private final Random random = new Random(7);
+
+    /**
+     * A signer at 15 fps: landmarks drift a few pixels per frame around a fixed pose.
+     */
+    private PoseFrame[] signing(int frames) {
+        PoseFrame[] poses = new PoseFrame[frames];
+        PoseFrame base = new PoseFrame();
+        for (int i = 0; i < N; i++) {
+            base.set(i, 0.2f + 0.6f * random.nextFloat(), 0.1f + 0.8f * random.nextFloat(), random.nextFloat());
+        }
+        for (int f = 0; f < frames; f++) {
+            PoseFrame pose = new PoseFrame();
+            for (int i = 0; i < N; i++) {
+                float phase = f / 7f + i;
+                pose.set(i, base.x[i] + 0.02f * (float) Math.sin(phase), base.y[i] + 0.02f * (float) Math.cos(phase),
+                        Math.min(1f, base.visibility[i] + 0.01f * (f % 3)));
+            }
+            pose.timestampMs = 1_000_000L + f * 66L + (f % 2);
+            pose.keyframe = f % 3 == 0;
+            poses[f] = pose;
+        }
+        return poses;
+    }
+
+    private static void assertPoseEquals(PoseFrame expected, PoseFrame actual, int landmarks) {
+        assertEquals(expected.timestampMs, actual.timestampMs);
+        assertEquals(expected.keyframe, actual.keyframe);
+        for (int i = 0; i < landmarks; i++) {
+            assertEquals(expected.x[i], actual.x[i], XY_TOLERANCE);
+            assertEquals(expected.y[i], actual.y[i], XY_TOLERANCE);
+            assertEquals(expected.visibility[i], actual.visibility[i], VISIBILITY_TOLERANCE);
+        }
+    }
+
+    @Test
+    public void roundTripsWithinQuantizationStep() throws IOException {
+        PoseFrame[] poses = signing(30);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        for (PoseFrame pose : poses) {
+            encoder.add(pose);
+        }
+        LandmarkCodec.Packet packet = LandmarkCodec.decode(encoder.finish(42));
+
+        assertEquals(42, packet.sequence);
+        assertEquals(N, packet.landmarkCount);
+        assertEquals(poses.length, packet.poses.length);
+        for (int f = 0; f < poses.length; f++) {
+            assertEquals(poses[f].timestampMs, packet.timestampsMs[f]);
+            assertPoseEquals(poses[f], packet.poses[f], N);
+        }
+    }
+
+    @Test
+    public void keepsOnlyTheFirstLandmarks() throws IOException {
+        PoseFrame[] poses = signing(5);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(LandmarkCodec.UPPER_BODY_LANDMARKS);
+        for (PoseFrame pose : poses) {
+            encoder.add(pose);
+        }
+        LandmarkCodec.Packet packet = LandmarkCodec.decode(encoder.finish(0));
+
+        assertEquals(LandmarkCodec.UPPER_BODY_LANDMARKS, packet.landmarkCount);
+        assertPoseEquals(poses[4], packet.poses[4], LandmarkCodec.UPPER_BODY_LANDMARKS);
+        assertEquals(0f, packet.poses[4].x[LandmarkCodec.UPPER_BODY_LANDMARKS], 0f);
+    }
+
+    @Test
+    public void missingPoseRestartsDeltaChain() throws IOException {
+        PoseFrame[] poses = signing(4);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        encoder.add(poses[0]);
+        encoder.addMissing(poses[1].timestampMs);
+        encoder.add(poses[2]);
+        encoder.add(poses[3]);
+        LandmarkCodec.Packet packet = LandmarkCodec.decode(encoder.finish(1));
+
+        assertEquals(poses[1].timestampMs, packet.timestampsMs[1]);
+        assertNull(packet.poses[1]);
+        assertPoseEquals(poses[2], packet.poses[2], N);
+        assertPoseEquals(poses[3], packet.poses[3], N);
+    }
+
+    @Test
+    public void coordinatesOutsideTheImageSurvive() throws IOException {
+        PoseFrame pose = new PoseFrame();
+        pose.set(0, -0.3f, 1.4f, 1.2f);
+        pose.set(1, 2.5f, -1.5f, -0.1f);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(2);
+        encoder.add(pose);
+        PoseFrame decoded = LandmarkCodec.decode(encoder.finish(0)).poses[0];
+
+        assertEquals(-0.3f, decoded.x[0], XY_TOLERANCE);
+        assertEquals(1.4f, decoded.y[0], XY_TOLERANCE);
+        assertEquals(2.5f, decoded.x[1], XY_TOLERANCE);
+        assertEquals(-1.5f, decoded.y[1], XY_TOLERANCE);
+        // Visibility is clamped to [0, 1]
+        assertEquals(1f, decoded.visibility[0], 0f);
+        assertEquals(0f, decoded.visibility[1], 0f);
+    }
+
+    @Test
+    public void streamsAtAFewKilobytesPerSecond() {
+        // 10 s at 15 fps in half-second packets, upper body only
+        PoseFrame[] poses = signing(150);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(LandmarkCodec.UPPER_BODY_LANDMARKS);
+        long bytes = 0;
+        for (int f = 0; f < poses.length; f++) {
+            encoder.add(poses[f]);
+            if (f % 8 == 7) {
+                bytes += encoder.finish(f / 8).length;
+            }
+        }
+        bytes += encoder.finish(99).length;
+        float bytesPerSecond = bytes / 10f;
+        // Raw floats would be 15 * 25 * 3 * 4 = 4500 bytes per second
+        assertTrue("bytes per second " + bytesPerSecond, bytesPerSecond < 2500);
+    }
+
+    @Test
+    public void encoderStartsOverAfterFinish() throws IOException {
+        PoseFrame[] poses = signing(3);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        encoder.add(poses[0]);
+        encoder.add(poses[1]);
+        encoder.finish(0);
+        encoder.add(poses[2]);
+        assertEquals(1, encoder.frameCount());
+
+        LandmarkCodec.Packet packet = LandmarkCodec.decode(encoder.finish(1));
+        assertEquals(1, packet.poses.length);
+        assertPoseEquals(poses[2], packet.poses[0], N);
+    }
+
+    @Test
+    public void framedStreamCarriesSeveralPackets() throws IOException {
+        PoseFrame[] poses = signing(6);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int p = 0; p < 3; p++) {
+            encoder.add(poses[2 * p]);
+            encoder.add(poses[2 * p + 1]);
+            LandmarkCodec.writeFramed(out, encoder.finish(p));
+        }
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (int p = 0; p < 3; p++) {
+            LandmarkCodec.Packet packet = LandmarkCodec.readFramed(in);
+            assertEquals(p, packet.sequence);
+            assertPoseEquals(poses[2 * p + 1], packet.poses[1], N);
+        }
+        assertNull(LandmarkCodec.readFramed(in));
+    }
+
+    @Test
+    public void rejectsDamagedPackets() {
+        PoseFrame[] poses = signing(3);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        for (PoseFrame pose : poses) {
+            encoder.add(pose);
+        }
+        byte[] packet = encoder.finish(0);
+
+        byte[] badMagic = packet.clone();
+        badMagic[0] = 'X';
+        assertRejected(badMagic);
+        byte[] badVersion = packet.clone();
+        badVersion[2] = 9;
+        assertRejected(badVersion);
+        assertRejected(Arrays.copyOf(packet, packet.length - 1));
+        assertRejected(Arrays.copyOf(packet, packet.length + 1));
+    }
+
+    @Test
+    public void rejectsTruncatedStream() throws IOException {
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        encoder.add(signing(1)[0]);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LandmarkCodec.writeFramed(out, encoder.finish(0));
+        byte[] stream = out.toByteArray();
+
+        try {
+            LandmarkCodec.readFramed(new ByteArrayInputStream(stream, 0, stream.length - 3));
+            fail("Truncated stream accepted");
+        } catch (IOException expected) {
+            assertFalse(expected.getMessage().isEmpty());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTimestampsGoingBackwards() {
+        PoseFrame[] poses = signing(2);
+        LandmarkCodec.Encoder encoder = new LandmarkCodec.Encoder(N);
+        encoder.add(poses[1]);
+        encoder.add(poses[0]);
+    }
+
+    @Test
+    public void quantizesToTheDocumentedSteps() {
+        assertEquals(2048, LandmarkCodec.quantizeXy(0.5f));
+        assertEquals(-410, LandmarkCodec.quantizeXy(-0.1f));
+        assertArrayEquals(new int[]{0, 128, 255},
+                new int[]{LandmarkCodec.quantizeVisibility(-1f), LandmarkCodec.quantizeVisibility(0.5f),
+                        LandmarkCodec.quantizeVisibility(3f)});
+    }
+
+    private static void assertRejected(byte[] packet) {
+        try {
+            LandmarkCodec.decode(packet);
+            fail("Damaged packet accepted");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.translator.vsl.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Local stand-in for the landmark endpoint: decodes each posted packet, keeps it, and answers
+ * like /spoter_segmented. Sequences listed in failSequences get a 500 instead.
+ */
+class LandmarkStandInServer implements AutoCloseable {
+    static final String PATH = "/landmark_stream";
+    static final String REPLY = "{\"predictions\":[{\"gloss\":\"xin chào\",\"score\":0.995}]}";
+
+    private final HttpServer server;
+    final List<LandmarkCodec.Packet> packets = Collections.synchronizedList(new ArrayList<>());
+    final List<String> clientIds = Collections.synchronizedList(new ArrayList<>());
+    final Set<Integer> failSequences = Collections.synchronizedSet(new HashSet<>());
+
+    LandmarkStandInServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            int sequence = Integer.parseInt(exchange.getRequestHeaders().getFirst(LandmarkStreamClient.HEADER_SEQUENCE));
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !LandmarkCodec.CONTENT_TYPE.equals(exchange.getRequestHeaders().getFirst("Content-Type"))
+                    || failSequences.contains(sequence)) {
+                reply(exchange, 500, "{}");
+                return;
+            }
+            LandmarkCodec.Packet packet = LandmarkCodec.decode(readAll(exchange.getRequestBody()));
+            if (packet.sequence != sequence) {
+                reply(exchange, 400, "{}");
+                return;
+            }
+            packets.add(packet);
+            clientIds.add(exchange.getRequestHeaders().getFirst(LandmarkStreamClient.HEADER_CLIENT_ID));
+            reply(exchange, 200, REPLY);
+        } catch (IOException | RuntimeException e) {
+            reply(exchange, 400, "{}");
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void reply(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
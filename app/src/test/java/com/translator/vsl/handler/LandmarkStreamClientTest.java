@@ -0,0 +1,128 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * End-to-end tests of {@link LandmarkStreamClient} against {@link LandmarkStandInServer}.
+ */
+public class LandmarkStreamClientTest {
+    private static final long FRAME_INTERVAL_MS = 66;
+
+    private LandmarkStandInServer server;
+    private final OkHttpClient http = new OkHttpClient.Builder()
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(5, TimeUnit.SECONDS)
+            .build();
+    private final List<Integer> answered = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> replies = Collections.synchronizedList(new ArrayList<>());
+
+    private final LandmarkStreamClient.Listener listener = new LandmarkStreamClient.Listener() {
+        @Override
+        public void onResponse(int sequence, String body) {
+            answered.add(sequence);
+            replies.add(body);
+        }
+
+        @Override
+        public void onError(int sequence, IOException error) {
+            failed.add(sequence);
+        }
+    };
+
+    @Before
+    public void startServer() throws IOException {
+        server = new LandmarkStandInServer();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    private static PoseFrame pose(int f) {
+        PoseFrame pose = new PoseFrame();
+        for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+            pose.set(i, 0.3f + 0.01f * i + 0.002f * f, 0.2f + 0.015f * i - 0.001f * f, 0.9f);
+        }
+        pose.timestampMs = 5000 + f * FRAME_INTERVAL_MS;
+        pose.keyframe = true;
+        return pose;
+    }
+
+    @Test
+    public void streamsBatchesInOrder() throws Exception {
+        LandmarkStreamClient client = new LandmarkStreamClient(http, server.url(), "client-1",
+                LandmarkCodec.UPPER_BODY_LANDMARKS, 500, listener);
+        // 3 s at 15 fps with the signer out of frame for a moment
+        int frames = 45;
+        for (int f = 0; f < frames; f++) {
+            if (f >= 20 && f < 23) {
+                client.onMissingPose(5000 + f * FRAME_INTERVAL_MS);
+            } else {
+                client.onPose(pose(f));
+            }
+        }
+        client.close();
+        assertTrue(client.awaitClosed(5000));
+
+        int received = 0;
+        for (int p = 0; p < server.packets.size(); p++) {
+            LandmarkCodec.Packet packet = server.packets.get(p);
+            assertEquals(p, packet.sequence);
+            assertEquals(LandmarkCodec.UPPER_BODY_LANDMARKS, packet.landmarkCount);
+            for (int i = 0; i < packet.poses.length; i++) {
+                int f = received + i;
+                assertEquals(5000 + f * FRAME_INTERVAL_MS, packet.timestampsMs[i]);
+                if (f >= 20 && f < 23) {
+                    assertNull(packet.poses[i]);
+                } else {
+                    assertEquals(pose(f).x[16], packet.poses[i].x[16], 1f / LandmarkCodec.XY_SCALE);
+                }
+            }
+            received += packet.poses.length;
+        }
+        assertEquals(frames, received);
+        assertEquals(server.packets.size(), client.packetsSent());
+        assertEquals(frames, client.framesSent());
+        assertTrue("packets " + server.packets.size(), server.packets.size() >= 5 && server.packets.size() <= 7);
+        assertEquals(server.packets.size(), answered.size());
+        assertEquals(LandmarkStandInServer.REPLY, replies.get(0));
+        assertEquals("client-1", server.clientIds.get(0));
+        assertTrue(failed.isEmpty());
+        // Kilobytes per second where the video path sends megabytes
+        assertTrue("bytes per second " + client.bytesPerSecond(), client.bytesPerSecond() < 3000);
+    }
+
+    @Test
+    public void failedPacketIsDroppedAndStreamGoesOn() throws Exception {
+        server.failSequences.add(1);
+        LandmarkStreamClient client = new LandmarkStreamClient(http, server.url(), "client-2",
+                LandmarkCodec.UPPER_BODY_LANDMARKS, 500, listener);
+        for (int f = 0; f < 24; f++) {
+            client.onPose(pose(f));
+        }
+        client.close();
+        assertTrue(client.awaitClosed(5000));
+
+        assertEquals(Collections.singletonList(1), failed);
+        assertEquals(1, client.packetsDropped());
+        assertEquals(0, server.packets.get(0).sequence);
+        assertEquals(2, server.packets.get(1).sequence);
+        assertEquals(client.packetsSent(), server.packets.size());
+    }
+}
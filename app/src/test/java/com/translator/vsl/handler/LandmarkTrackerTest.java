@@ -0,0 +1,157 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Local unit tests for {@link LandmarkTracker}, {@link LucasKanade} and {@link LumaImage}
+ * on synthetic textured frames.
+ */
+public class LandmarkTrackerTest {
+    private static final int SIZE = 96;
+
+    /**
+     * Smooth texture shifted by (shiftX, shiftY) pixels.
+     */
+    private static LumaImage texture(float shiftX, float shiftY) {
+        LumaImage image = new LumaImage();
+        image.prepare(SIZE, SIZE, 1, 0);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                double u = x - shiftX;
+                double v = y - shiftY;
+                double value = 128 + 50 * Math.sin(u / 5.0) * Math.cos(v / 7.0) + 40 * Math.sin((u + v) / 11.0);
+                image.set(x, y, (int) Math.round(value));
+            }
+        }
+        return image;
+    }
+
+    private static PoseFrame pose(long timestampMs, float x, float y) {
+        PoseFrame frame = new PoseFrame();
+        frame.timestampMs = timestampMs;
+        for (int i = 0; i < PoseFrame.NUM_LANDMARKS; i++) {
+            frame.set(i, x, y, 1f);
+        }
+        return frame;
+    }
+
+    @Test
+    public void lucasKanadeRecoversSubPixelShift() {
+        LumaImage prev = texture(0f, 0f);
+        LumaImage next = texture(1.5f, -2.25f);
+        float[] point = {48f, 48f};
+
+        assertTrue(new LucasKanade(4, 10).track(prev, next, 48f, 48f, point));
+        assertEquals(49.5f, point[0], 0.1f);
+        assertEquals(45.75f, point[1], 0.1f);
+    }
+
+    @Test
+    public void lucasKanadeRejectsFlatPatch() {
+        LumaImage flat = new LumaImage();
+        flat.prepare(SIZE, SIZE, 1, 0);
+        float[] point = {48f, 48f};
+
+        assertFalse(new LucasKanade(4, 10).track(flat, flat, 48f, 48f, point));
+        assertEquals(48f, point[0], 0f);
+    }
+
+    @Test
+    public void extrapolatesAtConstantVelocity() {
+        LandmarkTracker tracker = new LandmarkTracker(1f);
+        PoseFrame out = new PoseFrame();
+        assertFalse(tracker.track(0, null, out));
+
+        tracker.onDetected(pose(0, 0.2f, 0.5f), null);
+        tracker.onDetected(pose(100, 0.3f, 0.4f), null);
+        assertTrue(tracker.track(150, null, out));
+
+        assertEquals(0.35f, out.x[15], 1e-5f);
+        assertEquals(0.35f, out.y[15], 1e-5f);
+        assertFalse(out.keyframe);
+        assertEquals(150, out.timestampMs);
+    }
+
+    @Test
+    public void opticalFlowCorrectsWrongVelocity() {
+        LandmarkTracker tracker = new LandmarkTracker();
+        // Detections say the pose is still, the image moves 2 px right per frame
+        tracker.onDetected(pose(0, 0.5f, 0.5f), texture(0f, 0f));
+        PoseFrame out = new PoseFrame();
+        for (int f = 1; f <= 5; f++) {
+            tracker.track(f * 33L, texture(2f * f, 0f), out);
+        }
+
+        assertEquals(0.5f + 10f / SIZE, out.x[15], 0.3f / SIZE);
+        assertEquals(0.5f, out.y[15], 0.3f / SIZE);
+        assertEquals(1f, tracker.refinedRate(), 0f);
+        assertTrue(tracker.confidence() > 0.8f);
+    }
+
+    @Test
+    public void lostPointsLowerConfidence() {
+        LandmarkTracker tracker = new LandmarkTracker();
+        tracker.onDetected(pose(0, 0.5f, 0.5f), texture(0f, 0f));
+        LumaImage flat = new LumaImage();
+        flat.prepare(SIZE, SIZE, 1, 0);
+
+        tracker.track(33, flat, new PoseFrame());
+
+        assertEquals(0.5f * 0.97f, tracker.confidence(), 1e-4f);
+        assertTrue(new KeyframePolicy(8, 0.6f).isKeyframe(1, tracker.confidence()));
+    }
+
+    @Test
+    public void keyframePolicyUsesIntervalAndConfidence() {
+        KeyframePolicy policy = new KeyframePolicy(3, 0.5f);
+
+        assertFalse(policy.isKeyframe(1, 0.9f));
+        assertFalse(policy.isKeyframe(2, 0.9f));
+        assertTrue(policy.isKeyframe(3, 0.9f));
+        assertTrue(policy.isKeyframe(1, 0.4f));
+        assertTrue(KeyframePolicy.EVERY_FRAME.isKeyframe(1, 1f));
+    }
+
+    @Test
+    public void lumaImageRotatesClockwise() {
+        // 3x2 RGBA frame of grey levels 0..5 in row-major order
+        ByteBuffer plane = ByteBuffer.allocate(3 * 2 * 4);
+        for (int i = 0; i < 6; i++) {
+            plane.put(i * 4, (byte) (i * 10)).put(i * 4 + 1, (byte) (i * 10)).put(i * 4 + 2, (byte) (i * 10));
+        }
+        LumaImage image = new LumaImage();
+
+        image.fromRgba(plane, 12, 4, 3, 2, 1, 90);
+
+        assertEquals(2, image.width());
+        assertEquals(3, image.height());
+        // Bottom-left of the sensor frame ends up top-left
+        assertEquals(30, image.get(0, 0), 1);
+        assertEquals(0, image.get(1, 0), 1);
+        assertEquals(50, image.get(0, 2), 1);
+        assertEquals(20, image.get(1, 2), 1);
+    }
+
+    @Test
+    public void lumaImageDownscalesYPlane() {
+        ByteBuffer plane = ByteBuffer.allocate(4 * 4);
+        for (int i = 0; i < 16; i++) {
+            plane.put(i, (byte) i);
+        }
+        LumaImage image = new LumaImage();
+
+        image.fromY(plane, 4, 1, 4, 4, 2, 0);
+
+        assertEquals(2, image.width());
+        assertEquals(0, image.get(0, 0));
+        assertEquals(2, image.get(1, 0));
+        assertEquals(8, image.get(0, 1));
+        assertEquals(10, image.get(1, 1));
+    }
+}
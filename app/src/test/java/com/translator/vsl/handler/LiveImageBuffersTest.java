@@ -0,0 +1,132 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Local unit tests for {@link LiveImageBuffers} on synthetic RGBA and YUV planes.
+ */
+public class LiveImageBuffersTest {
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 3;
+
+    private static ByteBuffer rgbaPlane(int rowStride, int pixelStride) {
+        ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                for (int c = 0; c < 4; c++) {
+                    plane.put(y * rowStride + x * pixelStride + c, (byte) pixel(x, y, c));
+                }
+            }
+        }
+        return plane;
+    }
+
+    private static int pixel(int x, int y, int c) {
+        return (y * WIDTH + x) * 4 + c;
+    }
+
+    private static void assertPacked(ByteBuffer out) {
+        assertEquals(0, out.position());
+        assertEquals(WIDTH * HEIGHT * 4, out.remaining());
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                for (int c = 0; c < 4; c++) {
+                    assertEquals(pixel(x, y, c), out.get() & 0xff);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packedRgbaPlaneIsPassedThrough() {
+        LiveImageBuffers buffers = new LiveImageBuffers(2);
+        ByteBuffer plane = rgbaPlane(WIDTH * 4, 4);
+        plane.position(5);
+
+        ByteBuffer out = buffers.fromRgba(plane, WIDTH * 4, 4, WIDTH, HEIGHT);
+
+        assertSame(plane, out);
+        assertPacked(out);
+        assertEquals(1, buffers.zeroCopyFrames());
+        assertEquals(0, buffers.allocations());
+    }
+
+    @Test
+    public void paddedRowsArePackedIntoPooledBuffer() {
+        LiveImageBuffers buffers = new LiveImageBuffers(2);
+        ByteBuffer plane = rgbaPlane(WIDTH * 4 + 8, 4);
+
+        ByteBuffer out = buffers.fromRgba(plane, WIDTH * 4 + 8, 4, WIDTH, HEIGHT);
+
+        assertNotSame(plane, out);
+        assertPacked(out);
+        assertEquals(0, plane.position());
+        assertEquals(1, buffers.copiedFrames());
+    }
+
+    @Test
+    public void widePixelStrideIsPacked() {
+        LiveImageBuffers buffers = new LiveImageBuffers(1);
+        ByteBuffer plane = rgbaPlane(WIDTH * 8, 8);
+
+        assertPacked(buffers.fromRgba(plane, WIDTH * 8, 8, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void slotsAreReusedRoundRobin() {
+        LiveImageBuffers buffers = new LiveImageBuffers(2);
+        ByteBuffer plane = rgbaPlane(WIDTH * 4 + 4, 4);
+
+        ByteBuffer first = buffers.fromRgba(plane, WIDTH * 4 + 4, 4, WIDTH, HEIGHT);
+        ByteBuffer second = buffers.fromRgba(plane, WIDTH * 4 + 4, 4, WIDTH, HEIGHT);
+        ByteBuffer third = buffers.fromRgba(plane, WIDTH * 4 + 4, 4, WIDTH, HEIGHT);
+
+        assertNotSame(first, second);
+        assertSame(first, third);
+        assertEquals(2, buffers.allocations());
+        assertPacked(third);
+    }
+
+    @Test
+    public void sizeChangeReallocatesSlot() {
+        LiveImageBuffers buffers = new LiveImageBuffers(1);
+        ByteBuffer small = buffers.fromYuv(ByteBuffer.allocate(4), 2, 1, ByteBuffer.allocate(1), ByteBuffer.allocate(1),
+                1, 1, 2, 2);
+        ByteBuffer large = buffers.fromRgba(rgbaPlane(WIDTH * 4 + 4, 4), WIDTH * 4 + 4, 4, WIDTH, HEIGHT);
+
+        assertEquals(2 * 2 * 4, small.capacity());
+        assertNotSame(small, large);
+        assertEquals(2, buffers.allocations());
+    }
+
+    @Test
+    public void yuvIsConvertedToRgba() {
+        LiveImageBuffers buffers = new LiveImageBuffers(1);
+        ByteBuffer y = ByteBuffer.allocate(4);
+        for (int i = 0; i < 4; i++) {
+            y.put(i, (byte) 128);
+        }
+        ByteBuffer u = ByteBuffer.allocate(1).put(0, (byte) 128);
+        ByteBuffer v = ByteBuffer.allocate(1).put(0, (byte) 128);
+
+        ByteBuffer out = buffers.fromYuv(y, 2, 1, u, v, 1, 1, 2, 2);
+
+        ByteBuffer expected = ByteBuffer.allocate(16);
+        YuvConverter.toRgba(y, 2, 1, u, v, 1, 1, 2, 2, 1, expected);
+        assertEquals(0, out.position());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(expected.get(i), out.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyRing() {
+        new LiveImageBuffers(0);
+    }
+}
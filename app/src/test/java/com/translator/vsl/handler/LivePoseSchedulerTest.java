@@ -0,0 +1,131 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link LivePoseScheduler} with a simulated camera and detector.
+ */
+public class LivePoseSchedulerTest {
+    private static final long CAMERA_INTERVAL_MS = 33;
+
+    @Test
+    public void capsFramesInFlight() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(2, 0f, 1000);
+
+        assertTrue(scheduler.tryAdmit(0));
+        assertTrue(scheduler.tryAdmit(33));
+        assertFalse(scheduler.tryAdmit(66));
+        assertEquals(2, scheduler.inFlight());
+
+        scheduler.onResult(0, 80);
+        assertTrue(scheduler.tryAdmit(100));
+        assertEquals(1, scheduler.dropped());
+        assertEquals(80, scheduler.lastLatencyMs());
+    }
+
+    @Test
+    public void pacesToTargetFpsDespiteJitter() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(4, 15f, 1000);
+        int admitted = 0;
+        for (int i = 0; i < 300; i++) {
+            long frameTime = i * CAMERA_INTERVAL_MS + (i % 3 == 0 ? 4 : -3);
+            if (scheduler.tryAdmit(frameTime)) {
+                admitted++;
+                scheduler.onResult(frameTime, frameTime + 10);
+            }
+        }
+        // 300 frames at 30 fps is 10 s, about 150 at 15 fps
+        assertTrue("admitted " + admitted, admitted >= 140 && admitted <= 155);
+        assertEquals(0.5f, scheduler.dropRate(), 0.05f);
+    }
+
+    @Test
+    public void latencyStaysBoundedWithSlowDetector() {
+        long inferenceMs = 400;
+        LivePoseScheduler scheduler = new LivePoseScheduler(2, 0f, 5000);
+        long detectorFreeAt = 0;
+        long[] pending = new long[2];
+        int pendingCount = 0;
+        for (int i = 0; i < 600; i++) {
+            long now = i * CAMERA_INTERVAL_MS;
+            // Deliver every result that has finished by now, one detection at a time
+            while (pendingCount > 0 && detectorFreeAt <= now) {
+                scheduler.onResult(pending[0], detectorFreeAt);
+                pending[0] = pending[1];
+                pendingCount--;
+                if (pendingCount > 0) {
+                    detectorFreeAt += inferenceMs;
+                }
+            }
+            if (scheduler.tryAdmit(now)) {
+                if (pendingCount == 0) {
+                    detectorFreeAt = now + inferenceMs;
+                }
+                pending[pendingCount++] = now;
+            }
+        }
+        assertTrue("max latency " + scheduler.maxLatencyMs(), scheduler.maxLatencyMs() <= 2 * inferenceMs + CAMERA_INTERVAL_MS);
+        assertTrue(scheduler.achievedFps() > 2f && scheduler.achievedFps() < 3f);
+        assertEquals(0, scheduler.lost());
+    }
+
+    @Test
+    public void staleDetectionFreesItsSlot() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(1, 0f, 500);
+
+        assertTrue(scheduler.tryAdmit(0));
+        assertFalse(scheduler.tryAdmit(400));
+        assertTrue(scheduler.tryAdmit(600));
+        assertEquals(1, scheduler.lost());
+    }
+
+    @Test
+    public void errorReleasesOldestFrame() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(2, 0f, 1000);
+        scheduler.tryAdmit(10);
+        scheduler.tryAdmit(20);
+
+        scheduler.onError();
+        scheduler.onResult(20, 50);
+
+        assertEquals(0, scheduler.inFlight());
+        assertEquals(1, scheduler.lost());
+        assertEquals(1, scheduler.completed());
+    }
+
+    @Test
+    public void cancelledFrameCountsAsDropped() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(1, 0f, 1000);
+        assertTrue(scheduler.tryAdmit(10));
+
+        scheduler.cancel(10);
+
+        assertEquals(0, scheduler.inFlight());
+        assertEquals(0, scheduler.admitted());
+        assertEquals(1f, scheduler.dropRate(), 0f);
+        assertTrue(scheduler.tryAdmit(20));
+    }
+
+    @Test
+    public void restartsPacingAfterStall() {
+        LivePoseScheduler scheduler = new LivePoseScheduler(1, 10f, 5000);
+        assertTrue(scheduler.tryAdmit(0));
+        assertFalse(scheduler.tryAdmit(100));
+        scheduler.onResult(0, 1000);
+
+        assertTrue(scheduler.tryAdmit(1000));
+        // No catch-up burst: the next frame is due a full interval later
+        assertFalse(scheduler.tryAdmit(1033));
+        scheduler.onResult(1000, 1050);
+        assertTrue(scheduler.tryAdmit(1100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroInFlight() {
+        new LivePoseScheduler(0, 15f, 1000);
+    }
+}
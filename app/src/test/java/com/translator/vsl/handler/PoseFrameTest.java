@@ -0,0 +1,74 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link PoseFrame}.
+ */
+public class PoseFrameTest {
+    private static final int N = PoseFrame.NUM_LANDMARKS;
+
+    private static PoseFrame indexed() {
+        PoseFrame frame = new PoseFrame();
+        for (int i = 0; i < N; i++) {
+            frame.set(i, 0.01f * i, 0.5f + 0.01f * i, 0.02f * i);
+            frame.z[i] = -0.03f * i;
+        }
+        return frame;
+    }
+
+    @Test
+    public void mirrorMatchesDetectionOnFlippedFrame() {
+        // Unflipped front camera: the person's right hand is on the image's left
+        PoseFrame frame = new PoseFrame();
+        frame.set(15, 0.7f, 0.4f, 0.9f);   // left wrist
+        frame.set(16, 0.2f, 0.6f, 0.8f);   // right wrist
+        frame.set(0, 0.45f, 0.1f, 1f);     // nose
+
+        frame.mirror();
+
+        // On the flipped frame that hand sits at 0.8 and the model calls it the left wrist
+        assertEquals(0.8f, frame.x[15], 1e-6f);
+        assertEquals(0.6f, frame.y[15], 1e-6f);
+        assertEquals(0.8f, frame.visibility[15], 1e-6f);
+        assertEquals(0.3f, frame.x[16], 1e-6f);
+        assertEquals(0.4f, frame.y[16], 1e-6f);
+        assertEquals(0.9f, frame.visibility[16], 1e-6f);
+        assertEquals(0.55f, frame.x[0], 1e-6f);
+        assertEquals(0.1f, frame.y[0], 1e-6f);
+    }
+
+    @Test
+    public void mirrorSwapsEveryPairOnce() {
+        PoseFrame frame = indexed();
+        frame.mirror();
+
+        // Eyes, ears and mouth corners, then shoulders through feet
+        int[][] pairs = {{1, 4}, {2, 5}, {3, 6}, {7, 8}, {9, 10}};
+        for (int[] pair : pairs) {
+            assertEquals(1f - 0.01f * pair[1], frame.x[pair[0]], 1e-6f);
+            assertEquals(1f - 0.01f * pair[0], frame.x[pair[1]], 1e-6f);
+        }
+        for (int left = 11; left < N; left += 2) {
+            assertEquals(1f - 0.01f * (left + 1), frame.x[left], 1e-6f);
+            assertEquals(-0.03f * (left + 1), frame.z[left], 1e-6f);
+            assertEquals(0.02f * left, frame.visibility[left + 1], 1e-6f);
+        }
+    }
+
+    @Test
+    public void mirrorTwiceRestoresFrame() {
+        PoseFrame frame = indexed();
+        frame.mirror();
+        frame.mirror();
+
+        PoseFrame original = indexed();
+        assertArrayEquals(original.x, frame.x, 1e-6f);
+        assertArrayEquals(original.y, frame.y, 1e-6f);
+        assertArrayEquals(original.z, frame.z, 1e-6f);
+        assertArrayEquals(original.visibility, frame.visibility, 1e-6f);
+    }
+}
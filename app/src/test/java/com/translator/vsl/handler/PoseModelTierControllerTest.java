@@ -0,0 +1,107 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link PoseModelTierController} with simulated inference times.
+ */
+public class PoseModelTierControllerTest {
+    private static final int LITE = PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_LITE;
+    private static final int FULL = PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_FULL;
+    private static final int HEAVY = PoseLandmarkerHelper.MODEL_POSE_LANDMARKER_HEAVY;
+    private static final long BUDGET_MS = 66;
+    private static final int WINDOW = 5;
+
+    /**
+     * Feed a whole window of one time, returning the last decision.
+     */
+    private static int window(PoseModelTierController controller, long inferenceMs) {
+        int decision = -1;
+        for (int i = 0; i < WINDOW; i++) {
+            decision = controller.onInferenceTime(inferenceMs);
+        }
+        return decision;
+    }
+
+    /**
+     * Run on a device where each model takes a fixed time until the tier settles.
+     */
+    private static int settle(PoseModelTierController controller, long liteMs, long fullMs, long heavyMs) {
+        for (int w = 0; w < 50; w++) {
+            int model = controller.currentModel();
+            window(controller, model == LITE ? liteMs : model == FULL ? fullMs : heavyMs);
+        }
+        return controller.currentModel();
+    }
+
+    @Test
+    public void decidesOnlyOnceWindowIsFull() {
+        PoseModelTierController controller = new PoseModelTierController(HEAVY, BUDGET_MS, WINDOW);
+        for (int i = 0; i < WINDOW - 1; i++) {
+            assertEquals(-1, controller.onInferenceTime(200));
+        }
+        assertEquals(FULL, controller.onInferenceTime(200));
+    }
+
+    @Test
+    public void slowDeviceDegradesToLite() {
+        PoseModelTierController controller = new PoseModelTierController(HEAVY, BUDGET_MS, WINDOW);
+
+        assertEquals(LITE, settle(controller, 40, 90, 250));
+    }
+
+    @Test
+    public void fastDeviceGetsHeavy() {
+        PoseModelTierController controller = new PoseModelTierController(LITE, BUDGET_MS, WINDOW);
+
+        assertEquals(HEAVY, settle(controller, 8, 12, 30));
+        assertEquals(2, controller.switches());
+    }
+
+    @Test
+    public void middleDeviceSettlesOnFullWithoutFlapping() {
+        // Full fits, heavy does not, but full looks fast enough to try heavy
+        PoseModelTierController controller = new PoseModelTierController(FULL, BUDGET_MS, WINDOW);
+
+        assertEquals(FULL, settle(controller, 10, 17, 80));
+        // Heavy is retried with doubling back-off instead of every other window
+        assertEquals(true, controller.switches() <= 10);
+    }
+
+    @Test
+    public void staysWithinHeadroom() {
+        PoseModelTierController controller = new PoseModelTierController(FULL, BUDGET_MS, WINDOW);
+
+        // 40 ms * 3 would blow the budget, so heavy is never tried
+        assertEquals(-1, window(controller, 40));
+        assertEquals(FULL, controller.currentModel());
+    }
+
+    @Test
+    public void budgetChangeTriggersDowngrade() {
+        PoseModelTierController controller = new PoseModelTierController(FULL, BUDGET_MS, WINDOW);
+        assertEquals(-1, window(controller, 40));
+
+        controller.setFrameBudgetMs(33);
+
+        assertEquals(LITE, window(controller, 40));
+    }
+
+    @Test
+    public void resetWindowDropsPartialSamples() {
+        PoseModelTierController controller = new PoseModelTierController(FULL, BUDGET_MS, WINDOW);
+        for (int i = 0; i < WINDOW - 1; i++) {
+            controller.onInferenceTime(500);
+        }
+        controller.resetWindow();
+
+        assertEquals(-1, window(controller, 40));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownModel() {
+        new PoseModelTierController(7, BUDGET_MS, WINDOW);
+    }
+}
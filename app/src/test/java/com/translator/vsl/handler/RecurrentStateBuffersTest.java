@@ -0,0 +1,135 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+/**
+ * Local unit tests for {@link RecurrentStateBuffers}, running a fake interpreter on the host JVM.
+ */
+public class RecurrentStateBuffersTest {
+    private static final String IMAGE = "image";
+    private static final String LOGITS = "logits";
+    private static final String[] STATE_NAMES = {"state_a", "state_b", "state_c"};
+    private static final int[] STATE_BYTES = {16, 64, 256};
+    private static final int LOGITS_BYTES = 400 * 4;
+
+    private static RecurrentStateBuffers newBuffers() {
+        return new RecurrentStateBuffers(STATE_NAMES, STATE_BYTES, IMAGE, LOGITS, LOGITS_BYTES);
+    }
+
+    /**
+     * Stand-in for Interpreter.runSignature: every state output is its input plus the first image byte,
+     * the logits are filled with the first state value.
+     */
+    private static void fakeRun(Map<String, Object> inputs, Map<String, Object> outputs) {
+        byte pixel = ((ByteBuffer) inputs.get(IMAGE)).get(0);
+        for (String name : STATE_NAMES) {
+            ByteBuffer in = (ByteBuffer) inputs.get(name);
+            ByteBuffer out = (ByteBuffer) outputs.get(name);
+            for (int i = 0; i < in.capacity(); i++) {
+                out.put((byte) (in.get(i) + pixel));
+            }
+        }
+        ByteBuffer logits = (ByteBuffer) outputs.get(LOGITS);
+        float value = ((ByteBuffer) inputs.get(STATE_NAMES[0])).get(0);
+        while (logits.remaining() >= 4) {
+            logits.putFloat(value);
+        }
+    }
+
+    private static ByteBuffer image(byte value) {
+        ByteBuffer image = ByteBuffer.allocateDirect(8).order(ByteOrder.nativeOrder());
+        image.put(0, value);
+        return image;
+    }
+
+    @Test
+    public void state_isCarriedToNextFrame() {
+        RecurrentStateBuffers buffers = newBuffers();
+        ByteBuffer image = image((byte) 1);
+
+        for (int frame = 0; frame < 5; frame++) {
+            buffers.setImage(image);
+            fakeRun(buffers.inputs(), buffers.outputs());
+            buffers.flip();
+        }
+
+        for (String name : STATE_NAMES) {
+            assertEquals(5, ((ByteBuffer) buffers.inputs().get(name)).get(0));
+        }
+        // Logits of the last frame were computed from the state after four frames
+        assertEquals(4f, buffers.logits().getFloat(), 0f);
+    }
+
+    @Test
+    public void flip_swapsStateSets() {
+        RecurrentStateBuffers buffers = newBuffers();
+        Object firstInput = buffers.inputs().get(STATE_NAMES[0]);
+        Object firstOutput = buffers.outputs().get(STATE_NAMES[0]);
+        assertNotSame(firstInput, firstOutput);
+
+        buffers.flip();
+
+        assertSame(firstOutput, buffers.inputs().get(STATE_NAMES[0]));
+        assertSame(firstInput, buffers.outputs().get(STATE_NAMES[0]));
+        assertSame(buffers.outputs().get(LOGITS), buffers.logits());
+    }
+
+    @Test
+    public void reset_zeroesState() {
+        RecurrentStateBuffers buffers = newBuffers();
+        ByteBuffer image = image((byte) 3);
+        for (int frame = 0; frame < 3; frame++) {
+            buffers.setImage(image);
+            fakeRun(buffers.inputs(), buffers.outputs());
+            buffers.flip();
+        }
+
+        buffers.reset();
+
+        for (String name : STATE_NAMES) {
+            ByteBuffer state = (ByteBuffer) buffers.inputs().get(name);
+            for (int i = 0; i < state.capacity(); i++) {
+                assertEquals(0, state.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void frameLoop_doesNotAllocateAfterWarmUp() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        RecurrentStateBuffers buffers = newBuffers();
+        ByteBuffer image = image((byte) 1);
+
+        for (int frame = 0; frame < 10_000; frame++) {
+            buffers.setImage(image);
+            buffers.inputs();
+            buffers.outputs();
+            buffers.logits();
+            buffers.flip();
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int frame = 0; frame < 1_000; frame++) {
+            buffers.setImage(image);
+            buffers.inputs();
+            buffers.outputs();
+            buffers.logits();
+            buffers.flip();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Reading the counter itself may allocate a few bytes, 1000 frames of real churn would be megabytes
+        assertEquals("bytes allocated in the frame loop", 0, allocated / 1024);
+    }
+}
@@ -0,0 +1,91 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SegmentCutterTest {
+    private static final long FRAME_US = 33_333;
+
+    @Test
+    public void firstKeyframeStartsFirstSegment() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        assertFalse(cutter.onSample(0, false));
+        assertFalse(cutter.hasSegment());
+        assertTrue(cutter.onSample(FRAME_US, true));
+        assertTrue(cutter.hasSegment());
+        assertEquals(FRAME_US, cutter.segmentStartUs());
+        assertEquals(1, cutter.segments());
+    }
+
+    @Test
+    public void keyframeIsRequestedOnceWhenSegmentIsDue() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        assertFalse(cutter.shouldRequestKeyframe(0));
+        cutter.onSample(0, true);
+        assertFalse(cutter.shouldRequestKeyframe(999_000));
+        assertTrue(cutter.shouldRequestKeyframe(1_000_000));
+        assertFalse(cutter.shouldRequestKeyframe(1_033_000));
+
+        // The encoder honours it a frame late, the next segment is due a second after that
+        assertFalse(cutter.onSample(1_000_000, false));
+        assertTrue(cutter.onSample(1_033_000, true));
+        assertFalse(cutter.shouldRequestKeyframe(2_000_000));
+        assertTrue(cutter.shouldRequestKeyframe(2_033_000));
+    }
+
+    @Test
+    public void keyframesWithinSegmentDoNotCut() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        cutter.onSample(0, true);
+        assertFalse(cutter.onSample(500_000, true));
+        assertEquals(0, cutter.segmentStartUs());
+        assertEquals(1, cutter.segments());
+    }
+
+    @Test
+    public void naturalKeyframeSlightlyEarlyStillCuts() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        cutter.onSample(0, true);
+        assertTrue(cutter.onSample(933_000, true));
+        assertEquals(933_000, cutter.segmentStartUs());
+        // The request for the new segment starts over
+        assertFalse(cutter.shouldRequestKeyframe(1_900_000));
+        assertTrue(cutter.shouldRequestKeyframe(1_933_000));
+    }
+
+    @Test
+    public void steadyStreamGivesOneSegmentPerSecond() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        boolean forceNext = false;
+        for (int f = 0; f < 300; f++) {
+            long pts = f * FRAME_US;
+            if (cutter.shouldRequestKeyframe(pts)) {
+                forceNext = true;
+            }
+            cutter.onSample(pts, f == 0 || forceNext);
+            forceNext = false;
+        }
+        assertEquals(10, cutter.segments());
+    }
+
+    @Test
+    public void latencyIsTracked() {
+        SegmentCutter cutter = new SegmentCutter(1000);
+        cutter.onSegmentReady(1_000_000, 1_040_000);
+        cutter.onSegmentReady(2_000_000, 2_080_000);
+        // Clock skew never shows as negative latency
+        cutter.onSegmentReady(3_000_000, 2_990_000);
+        assertEquals(3, cutter.readySegments());
+        assertEquals(0, cutter.lastLatencyMs());
+        assertEquals(40, cutter.meanLatencyMs());
+        assertEquals(80, cutter.maxLatencyMs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveLength() {
+        new SegmentCutter(0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.translator.vsl.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for /spoter_segmented: reads the multipart form, waits an injected latency per
+ * sequence, and answers with a prediction naming the sequence. Serves requests concurrently.
+ * Sequences in failSequences always get a 500, those in flakySequences only on their first try.
+ */
+class SegmentStandInServer implements AutoCloseable {
+    static final String PATH = "/spoter_segmented";
+    private static final Pattern PART = Pattern.compile("name=\"([^\"]+)\"(?:; filename=\"[^\"]*\")?\\r\\n(?:[^\\r\\n]+\\r\\n)*\\r\\n");
+
+    private final HttpServer server;
+    volatile IntToLongFunction latencyMs = sequence -> 0;
+    final Set<Integer> failSequences = Collections.synchronizedSet(new HashSet<>());
+    final Set<Integer> flakySequences = Collections.synchronizedSet(new HashSet<>());
+    final Map<Integer, Long> captureTimes = new ConcurrentHashMap<>();
+    final Map<Integer, Integer> attempts = new ConcurrentHashMap<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    SegmentStandInServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    static String reply(int sequence) {
+        return "{\"predictions\":[{\"gloss\":\"ký hiệu " + sequence + "\",\"score\":0.995}]}";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            Map<String, String> form = parseForm(readAll(exchange.getRequestBody()));
+            int sequence = Integer.parseInt(form.get(SegmentUploader.FIELD_SEQUENCE));
+            int attempt = attempts.merge(sequence, 1, Integer::sum);
+            Thread.sleep(latencyMs.applyAsLong(sequence));
+            if (!form.containsKey("video_file") || failSequences.contains(sequence)
+                    || (attempt == 1 && flakySequences.contains(sequence))) {
+                send(exchange, 500, "{}");
+                return;
+            }
+            captureTimes.put(sequence, Long.parseLong(form.get(SegmentUploader.FIELD_CAPTURE_MS)));
+            send(exchange, 200, reply(sequence));
+        } catch (InterruptedException | RuntimeException e) {
+            send(exchange, 400, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // Form fields by name; the video part only needs to be present
+    private static Map<String, String> parseForm(byte[] body) {
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        Map<String, String> form = new HashMap<>();
+        Matcher m = PART.matcher(text);
+        while (m.find()) {
+            int end = text.indexOf("\r\n--", m.end());
+            form.put(m.group(1), end < 0 ? "" : text.substring(m.end(), end));
+        }
+        return form;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,205 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * End-to-end tests of {@link SegmentUploader} against {@link SegmentStandInServer}.
+ */
+public class SegmentUploaderTest {
+    private SegmentStandInServer server;
+    private File dir;
+    private final OkHttpClient http = new OkHttpClient.Builder()
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(5, TimeUnit.SECONDS)
+            .build();
+    // "r<sequence>" for results and "d<sequence>" for dropped segments, in delivery order
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+
+    private final SegmentUploader.Listener listener = new SegmentUploader.Listener() {
+        @Override
+        public void onResult(int sequence, long captureMs, String body) {
+            delivered.add("r" + sequence);
+            bodies.add(body);
+        }
+
+        @Override
+        public void onDropped(int sequence, long captureMs, IOException error) {
+            delivered.add("d" + sequence);
+        }
+
+        @Override
+        public void onRoundTrip(int sequence, long elapsedMs, boolean ok) {
+        }
+    };
+
+    @Before
+    public void startServer() throws IOException {
+        server = new SegmentStandInServer();
+        dir = Files.createTempDirectory("segments").toFile();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+        File[] left = dir.listFiles();
+        if (left != null) {
+            for (File f : left) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private File segment(int i) throws IOException {
+        File f = new File(dir, "segment_" + i + ".mp4");
+        try (FileOutputStream out = new FileOutputStream(f)) {
+            out.write(new byte[2048 + i]);
+        }
+        return f;
+    }
+
+    private SegmentUploader uploader(int concurrency) {
+        return new SegmentUploader(http, server.url(), "client-1", concurrency, 3, 50, listener);
+    }
+
+    @Test
+    public void resultsComeInCaptureOrderWhenRepliesDoNot() throws Exception {
+        // Earlier segments are answered last
+        server.latencyMs = sequence -> 400 - sequence * 40L;
+        SegmentUploader uploader = uploader(4);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            File f = segment(i);
+            files.add(f);
+            assertEquals(i, uploader.submit(f, 10_000 + i * 1000L));
+        }
+        uploader.close();
+        assertTrue(uploader.awaitClosed(10_000));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add("r" + i);
+            assertEquals(SegmentStandInServer.reply(i), bodies.get(i));
+            assertEquals(Long.valueOf(10_000 + i * 1000L), server.captureTimes.get(i));
+            assertFalse(files.get(i).exists());
+        }
+        assertEquals(expected, delivered);
+        assertTrue("reorder depth " + uploader.maxReorderDepth(), uploader.maxReorderDepth() > 0);
+        assertEquals(4, server.maxInFlight.get());
+        assertEquals(0, uploader.backlog());
+    }
+
+    @Test
+    public void sustainsMoreThanOneSegmentPerRoundTrip() throws Exception {
+        // 1 s segments over a 1.2 s round trip: a single sender falls behind for good
+        long rttMs = 1200;
+        server.latencyMs = sequence -> rttMs;
+        SegmentUploader uploader = uploader(3);
+        int segments = 12;
+        long start = System.nanoTime();
+        for (int i = 0; i < segments; i++) {
+            uploader.submit(segment(i), i * 250L);
+            Thread.sleep(250);   // four times the realtime rate keeps the test short
+        }
+        uploader.close();
+        assertTrue(uploader.awaitClosed(20_000));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(segments, uploader.uploaded());
+        float oneAtATime = 1000f / rttMs;
+        assertTrue("throughput " + uploader.segmentsPerSecond(), uploader.segmentsPerSecond() > 2 * oneAtATime);
+        // Sequential sending would need segments * rtt
+        assertTrue("elapsed " + elapsedMs, elapsedMs < segments * rttMs / 2);
+        assertEquals(segments, delivered.size());
+    }
+
+    @Test
+    public void failedSegmentIsDroppedInOrderWithoutStallingLaterOnes() throws Exception {
+        server.failSequences.add(2);
+        server.flakySequences.add(4);
+        SegmentUploader uploader = uploader(3);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            File f = segment(i);
+            files.add(f);
+            uploader.submit(f, i * 1000L);
+        }
+        uploader.close();
+        assertTrue(uploader.awaitClosed(10_000));
+
+        assertEquals(List.of("r0", "r1", "d2", "r3", "r4", "r5"), delivered);
+        assertEquals(1, uploader.dropped());
+        assertEquals(5, uploader.uploaded());
+        // Two retries for the failing segment, one for the flaky one
+        assertEquals(3, uploader.retries());
+        assertEquals(Integer.valueOf(3), server.attempts.get(2));
+        assertFalse(files.get(2).exists());
+    }
+
+    @Test
+    public void rejectedRequestIsDroppedWithoutStallingTheBacklog() throws Exception {
+        // OkHttp throws IllegalArgumentException for a malformed server address
+        SegmentUploader uploader = new SegmentUploader(http, "not a url", "client-1", 2, 3, 50, listener);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File f = segment(i);
+            files.add(f);
+            uploader.submit(f, i * 1000L);
+        }
+        uploader.close();
+        assertTrue(uploader.awaitClosed(10_000));
+
+        assertEquals(List.of("d0", "d1", "d2"), delivered);
+        assertEquals(3, uploader.dropped());
+        // Not worth retrying
+        assertEquals(0, uploader.retries());
+        assertEquals(0, uploader.backlog());
+        for (File f : files) {
+            assertFalse(f.exists());
+        }
+    }
+
+    @Test
+    public void cancelPendingDropsQueuedSegmentsOnly() throws Exception {
+        server.latencyMs = sequence -> 300;
+        SegmentUploader uploader = uploader(1);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            File f = segment(i);
+            files.add(f);
+            uploader.submit(f, i * 1000L);
+        }
+        Thread.sleep(100);
+        assertEquals(3, uploader.cancelPending());
+        uploader.close();
+        assertTrue(uploader.awaitClosed(5000));
+
+        assertEquals(List.of("r0"), delivered);
+        assertEquals(3, uploader.cancelled());
+        for (File f : files) {
+            assertFalse(f.exists());
+        }
+        // Closed: new segments are deleted, not sent
+        File late = segment(9);
+        assertEquals(-1, uploader.submit(late, 9000));
+        assertFalse(late.exists());
+    }
+}
@@ -0,0 +1,92 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Local unit tests for {@link SignBoundaryDetector} and {@link MotionEstimator}.
+ */
+public class SignBoundaryDetectorTest {
+
+    private static SignBoundaryDetector newDetector() {
+        return new SignBoundaryDetector(6f, 3f, 3, 10);
+    }
+
+    @Test
+    public void stillStreamNeverStartsASign() {
+        SignBoundaryDetector detector = newDetector();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(SignBoundaryDetector.Event.NONE, detector.update(4f));
+        }
+        assertFalse(detector.isInSign());
+    }
+
+    @Test
+    public void signEndsAfterStillFrames() {
+        SignBoundaryDetector detector = newDetector();
+
+        assertEquals(SignBoundaryDetector.Event.SIGN_START, detector.update(10f));
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(8f));
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(1f));
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(1f));
+        assertTrue(detector.isInSign());
+        assertEquals(SignBoundaryDetector.Event.SIGN_END, detector.update(1f));
+        assertFalse(detector.isInSign());
+    }
+
+    @Test
+    public void motionBetweenThresholdsKeepsTheSignGoing() {
+        SignBoundaryDetector detector = newDetector();
+        detector.update(10f);
+        detector.update(1f);
+        detector.update(1f);
+        // Not still enough to count, restarts the still run
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(4f));
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(1f));
+        assertEquals(SignBoundaryDetector.Event.NONE, detector.update(1f));
+        assertEquals(SignBoundaryDetector.Event.SIGN_END, detector.update(1f));
+    }
+
+    @Test
+    public void longSignIsCut() {
+        SignBoundaryDetector detector = newDetector();
+        assertEquals(SignBoundaryDetector.Event.SIGN_START, detector.update(10f));
+        for (int i = 2; i < 10; i++) {
+            assertEquals(SignBoundaryDetector.Event.NONE, detector.update(10f));
+        }
+        assertEquals(SignBoundaryDetector.Event.SIGN_END, detector.update(10f));
+        assertEquals(SignBoundaryDetector.Event.SIGN_START, detector.update(10f));
+    }
+
+    @Test
+    public void motionEstimatorMeasuresLumaChange() {
+        // 8x8 frame with padded rows
+        int rowStride = 12;
+        ByteBuffer frame = ByteBuffer.allocateDirect(rowStride * 8);
+        MotionEstimator estimator = new MotionEstimator(4);
+
+        assertEquals(0f, estimator.update(frame, rowStride, 1, 8, 8), 0f);
+        assertEquals(0f, estimator.update(frame, rowStride, 1, 8, 8), 0f);
+
+        for (int i = 0; i < frame.capacity(); i++) {
+            frame.put(i, (byte) 200);
+        }
+        assertEquals(200f, estimator.update(frame, rowStride, 1, 8, 8), 0f);
+
+        // Only the left half changes back
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 4; x++) {
+                frame.put(y * rowStride + x, (byte) 0);
+            }
+        }
+        assertEquals(100f, estimator.update(frame, rowStride, 1, 8, 8), 0f);
+
+        estimator.reset();
+        assertEquals(0f, estimator.update(frame, rowStride, 1, 8, 8), 0f);
+    }
+}
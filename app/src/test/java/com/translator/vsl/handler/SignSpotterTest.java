@@ -0,0 +1,155 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Local unit tests for {@link SignSpotter} on a simulated session of 1 s clips and 10 fps poses.
+ */
+public class SignSpotterTest {
+    private static final long CLIP_MS = 1000;
+    private static final long POSE_INTERVAL_MS = 100;
+    private static final int BOTH_UP = ArmStateTracker.LEFT_UP | ArmStateTracker.RIGHT_UP;
+
+    private final List<Integer> uploaded = new ArrayList<>();
+    private final List<Integer> skipped = new ArrayList<>();
+    private final SignSpotter.Listener<Integer> listener = new SignSpotter.Listener<Integer>() {
+        @Override
+        public void onUpload(Integer clip) {
+            uploaded.add(clip);
+        }
+
+        @Override
+        public void onSkip(Integer clip) {
+            skipped.add(clip);
+        }
+    };
+
+    /**
+     * Poses every 100 ms with states from the given spans of {start, end, state}, each clip offered
+     * as soon as the poses up to its end were seen.
+     */
+    private void runSession(SignSpotter<Integer> spotter, int clips, long[]... spans) {
+        long poseMs = 0;
+        for (int clip = 0; clip < clips; clip++) {
+            long endMs = (clip + 1) * CLIP_MS;
+            for (; poseMs < endMs; poseMs += POSE_INTERVAL_MS) {
+                spotter.onArmState(poseMs, stateAt(poseMs, spans));
+            }
+            spotter.offerClip(clip, clip * CLIP_MS, endMs, 100);
+        }
+        spotter.flush();
+    }
+
+    private static int stateAt(long timeMs, long[][] spans) {
+        for (long[] span : spans) {
+            if (timeMs >= span[0] && timeMs < span[1]) {
+                return (int) span[2];
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void idleSessionUploadsNothing() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 1000, 1500, listener);
+        runSession(spotter, 10);
+
+        assertTrue(uploaded.isEmpty());
+        assertEquals(10, skipped.size());
+        assertEquals(0, spotter.spanCount());
+        assertEquals(1000, spotter.bytesSkipped());
+        assertEquals(1f, spotter.bytesSavedRatio(), 1e-6f);
+    }
+
+    @Test
+    public void uploadsClipsCoveredBySpanAndRolls() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 1000, 1500, listener);
+        // Signing from 3.2 s to 4.6 s, widened to 2.7 s .. 5.6 s
+        runSession(spotter, 10, new long[]{3200, 4600, ArmStateTracker.LEFT_UP});
+
+        assertEquals(Arrays.asList(2, 3, 4, 5), uploaded);
+        assertEquals(Arrays.asList(0, 1, 6, 7, 8, 9), skipped);
+        assertEquals(1, spotter.spanCount());
+        assertEquals(6, spotter.clipsSkipped());
+        assertEquals(0, spotter.clipsUnspotted());
+    }
+
+    @Test
+    public void spanStaysOpenWhileEitherArmIsUp() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(0, 0, 1500, listener);
+        runSession(spotter, 6,
+                new long[]{1200, 2000, ArmStateTracker.LEFT_UP},
+                new long[]{2000, 2500, BOTH_UP},
+                new long[]{2500, 3400, ArmStateTracker.RIGHT_UP});
+
+        assertEquals(1, spotter.spanCount());
+        assertEquals(Arrays.asList(1, 2, 3), uploaded);
+    }
+
+    @Test
+    public void holdsClipUntilPreRollIsDecided() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 0, 1500, listener);
+        for (long t = 0; t < CLIP_MS; t += POSE_INTERVAL_MS) {
+            spotter.onArmState(t, 0);
+        }
+        spotter.offerClip(0, 0, CLIP_MS, 100);
+        assertTrue(uploaded.isEmpty() && skipped.isEmpty());
+
+        // The arm goes up within the pre-roll of the waiting clip
+        spotter.onArmState(1300, ArmStateTracker.RIGHT_UP);
+        assertEquals(Arrays.asList(0), uploaded);
+        assertTrue(spotter.isSpanOpen());
+    }
+
+    @Test
+    public void keepsClipOrderWhenLaterClipIsDecidedFirst() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 0, 5000, listener);
+        spotter.onArmState(100, 0);
+        spotter.offerClip(0, 0, 1000, 100);
+        spotter.offerClip(1, 1000, 2000, 100);
+        spotter.onArmState(1800, ArmStateTracker.LEFT_UP);
+
+        // Clip 0 is ruled out by the same pose that opens the span over clip 1
+        assertEquals(Arrays.asList(0), skipped);
+        assertEquals(Arrays.asList(1), uploaded);
+    }
+
+    @Test
+    public void uploadsEverythingWhenPosesStop() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 1000, 1500, listener);
+        for (int clip = 0; clip < 4; clip++) {
+            spotter.offerClip(clip, clip * CLIP_MS, (clip + 1) * CLIP_MS, 100);
+        }
+
+        // Blind from 0 s: clip 0 waits through the first 1.5 s, then clips flow unfiltered
+        assertEquals(Arrays.asList(0, 1, 2, 3), uploaded);
+        assertEquals(4, spotter.clipsUnspotted());
+        assertTrue(skipped.isEmpty());
+    }
+
+    @Test
+    public void flushSettlesWaitingClips() {
+        SignSpotter<Integer> spotter = new SignSpotter<>(500, 1000, 1500, listener);
+        spotter.onArmState(0, 0);
+        spotter.onArmState(900, 0);
+        spotter.offerClip(0, 0, CLIP_MS, 100);
+        assertFalse(spotter.isSpanOpen());
+        assertTrue(skipped.isEmpty());
+
+        spotter.flush();
+        assertEquals(Arrays.asList(0), skipped);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeRoll() {
+        new SignSpotter<>(-1, 0, 1000, listener);
+    }
+}
@@ -0,0 +1,47 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Local unit tests for {@link SlidingWindows}.
+ */
+public class SlidingWindowsTest {
+
+    @Test
+    public void shortVideoIsOneEvenlySpreadWindow() {
+        SlidingWindows windows = new SlidingWindows(300_000, 4, 100_000, 2);
+
+        assertEquals(1, windows.count());
+        assertArrayEquals(new long[]{0, 75_000, 150_000, 225_000}, windows.timestamps(0));
+        assertEquals(300_000, windows.endUs(0));
+    }
+
+    @Test
+    public void windowsOverlapByTheHop() {
+        // 4 frames at 100 ms: 400 ms windows every 200 ms
+        SlidingWindows windows = new SlidingWindows(800_000, 4, 100_000, 2);
+
+        assertEquals(3, windows.count());
+        assertArrayEquals(new long[]{200_000, 300_000, 400_000, 500_000}, windows.timestamps(1));
+        assertEquals(400_000, windows.startUs(2));
+        assertEquals(800_000, windows.endUs(2));
+    }
+
+    @Test
+    public void lastWindowIsPulledBackToTheEnd() {
+        SlidingWindows windows = new SlidingWindows(900_000, 4, 100_000, 2);
+
+        assertEquals(4, windows.count());
+        assertEquals(500_000, windows.startUs(3));
+        assertEquals(900_000, windows.endUs(3));
+        assertEquals(700_000, windows.centerUs(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsWindowPastTheEnd() {
+        new SlidingWindows(800_000, 4, 100_000, 2).timestamps(3);
+    }
+}
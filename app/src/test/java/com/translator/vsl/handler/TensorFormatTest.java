@@ -0,0 +1,95 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Local unit tests for {@link TensorFormat} and quantized output of {@link FrameTensorWriter}.
+ */
+public class TensorFormatTest {
+    private static final TensorFormat UINT8 = new TensorFormat(TensorFormat.Type.UINT8, 1f / 255f, 0);
+    private static final TensorFormat INT8 = new TensorFormat(TensorFormat.Type.INT8, 0.05f, -3);
+
+    @Test
+    public void quantizeRoundsAndClamps() {
+        assertEquals(0, UINT8.quantize(-1f));
+        assertEquals(128, UINT8.quantize(128f / 255f));
+        assertEquals(255, UINT8.quantize(2f));
+        assertEquals(-3, INT8.quantize(0f));
+        assertEquals(17, INT8.quantize(1f));
+        assertEquals(-128, INT8.quantize(-100f));
+        assertEquals(127, INT8.quantize(100f));
+    }
+
+    @Test
+    public void dequantizeReadsSignedAndUnsignedBytes() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2);
+        buffer.put(0, (byte) 200);
+        buffer.put(1, (byte) -13);
+
+        assertEquals(200f / 255f, UINT8.get(buffer, 0), 1e-6f);
+        assertEquals(0.05f * (-13 + 3), INT8.get(buffer, 1), 1e-6f);
+
+        float[] values = new float[2];
+        INT8.dequantize(buffer, values, 2);
+        assertEquals(0.05f * (-56 + 3), values[0], 1e-6f);
+    }
+
+    @Test
+    public void floatFormatUsesFourBytesPerElement() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8).order(ByteOrder.nativeOrder());
+
+        TensorFormat.FLOAT32.put(buffer, 1, 2.5f);
+
+        assertEquals(2.5f, buffer.getFloat(4), 0f);
+        assertEquals(2.5f, TensorFormat.FLOAT32.get(buffer, 1), 0f);
+        assertEquals(0, TensorFormat.FLOAT32.zeroByte());
+    }
+
+    @Test
+    public void requantizeKeepsRealValues() {
+        TensorFormat other = new TensorFormat(TensorFormat.Type.INT8, 0.1f, 5);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+        float[] real = {0f, 1f, -2f};
+        for (int i = 0; i < real.length; i++) {
+            INT8.put(buffer, i, real[i]);
+        }
+
+        TensorFormat.requantize(buffer, 3, INT8, other);
+
+        for (int i = 0; i < real.length; i++) {
+            assertEquals(real[i], other.get(buffer, i), 0.1f / 2);
+        }
+    }
+
+    @Test
+    public void writerStoresQuantizedChannels() {
+        FrameTensorWriter writer = new FrameTensorWriter(1, 1, 0f, 255f, UINT8);
+        ByteBuffer tensor = ByteBuffer.allocateDirect(writer.frameBytes());
+
+        writer.writeArgb(new int[]{0xff00807f}, 1, 1, 1, tensor);
+
+        assertEquals(3, writer.frameBytes());
+        assertEquals(3, tensor.position());
+        assertEquals(0, tensor.get(0) & 0xff);
+        assertEquals(128, tensor.get(1) & 0xff);
+        assertEquals(127, tensor.get(2) & 0xff);
+    }
+
+    @Test
+    public void zeroedQuantizedStateHoldsZeroPoint() {
+        RecurrentStateBuffers buffers = new RecurrentStateBuffers(new String[]{"state"}, new int[]{11},
+                new byte[]{INT8.zeroByte()}, "image", "logits", 4);
+
+        buffers.reset();
+
+        ByteBuffer state = (ByteBuffer) buffers.inputs().get("state");
+        for (int i = 0; i < 11; i++) {
+            assertEquals(0f, INT8.get(state, i), 0f);
+        }
+    }
+}
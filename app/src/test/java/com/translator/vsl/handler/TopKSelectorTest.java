@@ -0,0 +1,149 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Local unit tests for {@link TopKSelector}.
+ */
+public class TopKSelectorTest {
+    private static final int VOCABULARY = 400;
+
+    /**
+     * The previous postprocessing: plain softmax over the whole vocabulary, then a stable sort.
+     */
+    private static List<float[]> referenceRanking(float[] logits) {
+        float total = 0f;
+        float[] probabilities = new float[logits.length];
+        for (int i = 0; i < logits.length; i++) {
+            probabilities[i] = (float) Math.exp(logits[i]);
+            total += probabilities[i];
+        }
+        List<float[]> ranking = new ArrayList<>();
+        for (int i = 0; i < logits.length; i++) {
+            ranking.add(new float[]{i, probabilities[i] / total});
+        }
+        ranking.sort((a, b) -> Float.compare(b[1], a[1]));
+        return ranking;
+    }
+
+    private static float[] randomLogits(Random random) {
+        float[] logits = new float[VOCABULARY];
+        for (int i = 0; i < logits.length; i++) {
+            logits[i] = (float) random.nextGaussian() * 4f;
+        }
+        return logits;
+    }
+
+    @Test
+    public void matchesFullSoftmaxAndSort() {
+        Random random = new Random(42);
+        TopKSelector selector = new TopKSelector(5);
+        for (int run = 0; run < 200; run++) {
+            float[] logits = randomLogits(random);
+            List<float[]> expected = referenceRanking(logits);
+
+            selector.select(logits);
+
+            assertEquals(5, selector.count());
+            for (int rank = 0; rank < 5; rank++) {
+                assertEquals((int) expected.get(rank)[0], selector.index(rank));
+                // The reference accumulates in float, allow for its rounding
+                assertEquals(expected.get(rank)[1], selector.score(rank), 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    public void largeLogitsStayFinite() {
+        float[] logits = new float[VOCABULARY];
+        logits[7] = 1000f;
+        logits[3] = 999f;
+        logits[250] = 998f;
+        TopKSelector selector = new TopKSelector();
+
+        selector.select(logits);
+
+        assertEquals(7, selector.index(0));
+        assertEquals(3, selector.index(1));
+        assertEquals(250, selector.index(2));
+        for (int rank = 0; rank < 3; rank++) {
+            assertFalse(Float.isNaN(selector.score(rank)));
+        }
+        // The other 397 classes contribute e^-1000 each, nothing
+        double total = 1 + Math.exp(-1) + Math.exp(-2);
+        assertEquals(1 / total, selector.score(0), 1e-6);
+        assertEquals(Math.exp(-2) / total, selector.score(2), 1e-6);
+    }
+
+    @Test
+    public void tiesKeepLowerIndexFirst() {
+        TopKSelector selector = new TopKSelector(3);
+
+        selector.select(new float[]{1f, 5f, 5f, 0f, 5f});
+
+        assertEquals(1, selector.index(0));
+        assertEquals(2, selector.index(1));
+        assertEquals(4, selector.index(2));
+    }
+
+    @Test
+    public void vocabularySmallerThanK() {
+        TopKSelector selector = new TopKSelector(3);
+
+        selector.select(new float[]{0f, 2f});
+
+        assertEquals(2, selector.count());
+        assertEquals(1, selector.index(0));
+        assertEquals(0, selector.index(1));
+    }
+
+    @Test
+    public void byteBufferMatchesArray() {
+        float[] logits = randomLogits(new Random(7));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(logits.length * 4).order(ByteOrder.nativeOrder());
+        buffer.asFloatBuffer().put(logits);
+        TopKSelector fromArray = new TopKSelector();
+        TopKSelector fromBuffer = new TopKSelector();
+
+        fromArray.select(logits);
+        fromBuffer.select(buffer, logits.length);
+
+        assertEquals(0, buffer.position());
+        for (int rank = 0; rank < 3; rank++) {
+            assertEquals(fromArray.index(rank), fromBuffer.index(rank));
+            assertEquals(fromArray.score(rank), fromBuffer.score(rank), 0f);
+        }
+    }
+
+    @Test
+    public void selectDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        float[] logits = randomLogits(new Random(1));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(logits.length * 4).order(ByteOrder.nativeOrder());
+        buffer.asFloatBuffer().put(logits);
+        TopKSelector selector = new TopKSelector();
+
+        for (int i = 0; i < 1000; i++) {
+            selector.select(buffer, VOCABULARY);
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            selector.select(buffer, VOCABULARY);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("bytes allocated", 0, allocated / 1024);
+    }
+}
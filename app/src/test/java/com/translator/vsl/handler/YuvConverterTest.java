@@ -0,0 +1,227 @@
+package com.translator.vsl.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Local unit tests for {@link YuvConverter} on synthetic planes.
+ */
+public class YuvConverterTest {
+    private static final int WIDTH = 6;
+    private static final int HEIGHT = 4;
+
+    private static int luma(int x, int y) {
+        return 16 + 9 * (y * WIDTH + x);
+    }
+
+    private static int chromaU(int cx, int cy) {
+        return 100 + 10 * cx + cy;
+    }
+
+    private static int chromaV(int cx, int cy) {
+        return 150 - 10 * cx - cy;
+    }
+
+    /**
+     * Reference conversion straight from the sample functions, no plane layout involved.
+     */
+    private static int[] expected(int step) {
+        int outWidth = YuvConverter.outputSize(WIDTH, step);
+        int outHeight = YuvConverter.outputSize(HEIGHT, step);
+        int[] out = new int[outWidth * outHeight];
+        for (int y = 0; y < outHeight; y++) {
+            for (int x = 0; x < outWidth; x++) {
+                int sx = x * step;
+                int sy = y * step;
+                out[y * outWidth + x] = YuvConverter.yuvToArgb(luma(sx, sy),
+                        chromaU(sx / 2, sy / 2), chromaV(sx / 2, sy / 2));
+            }
+        }
+        return out;
+    }
+
+    private static ByteBuffer lumaPlane(int rowStride) {
+        ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < rowStride; x++) {
+                // Padding bytes hold garbage that must never be read
+                plane.put(y * rowStride + x, (byte) (x < WIDTH ? luma(x, y) : 0xEE));
+            }
+        }
+        return plane;
+    }
+
+    @Test
+    public void yuvToArgb_matchesFullRangeJfif() {
+        // Camera frames: Y is not scaled, so 0 and 255 are black and white
+        assertEquals(0xff000000, YuvConverter.yuvToArgb(0, 128, 128));
+        assertEquals(0xffffffff, YuvConverter.yuvToArgb(255, 128, 128));
+        assertEquals(0xff808080, YuvConverter.yuvToArgb(128, 128, 128));
+        // Pure red in JFIF: Y = 0.299 * 255, U = 128 - 0.1687 * 255, V = 128 + 0.5 * 255
+        int red = YuvConverter.yuvToArgb(76, 85, 255);
+        assertEquals(255, (red >> 16) & 0xff, 1);
+        assertEquals(0, (red >> 8) & 0xff, 1);
+        assertEquals(0, red & 0xff, 1);
+        // Pure blue: Y = 0.114 * 255, U = 128 + 0.5 * 255, V = 128 - 0.0813 * 255
+        int blue = YuvConverter.yuvToArgb(29, 255, 107);
+        assertEquals(0, (blue >> 16) & 0xff, 1);
+        assertEquals(0, (blue >> 8) & 0xff, 1);
+        assertEquals(255, blue & 0xff, 1);
+    }
+
+    @Test
+    public void yuvToArgbLimited_matchesBt601() {
+        assertEquals(0xff000000, YuvConverter.yuvToArgbLimited(16, 128, 128));
+        int white = YuvConverter.yuvToArgbLimited(235, 128, 128);
+        assertEquals(255, (white >> 16) & 0xff, 1);
+        assertEquals(255, (white >> 8) & 0xff, 1);
+        assertEquals(255, white & 0xff, 1);
+        // Pure red in BT.601 limited range
+        int red = YuvConverter.yuvToArgbLimited(81, 90, 240);
+        assertEquals(255, (red >> 16) & 0xff, 1);
+        assertEquals(0, (red >> 8) & 0xff, 1);
+        assertEquals(0, red & 0xff, 1);
+    }
+
+    @Test
+    public void toArgb_planarWithPaddedRows() {
+        // I420: separate U and V planes, pixel stride 1, rows padded to 8 and 4 bytes
+        int uvRowStride = 4;
+        ByteBuffer u = ByteBuffer.allocateDirect(uvRowStride * HEIGHT / 2);
+        ByteBuffer v = ByteBuffer.allocateDirect(uvRowStride * HEIGHT / 2);
+        for (int cy = 0; cy < HEIGHT / 2; cy++) {
+            for (int cx = 0; cx < WIDTH / 2; cx++) {
+                u.put(cy * uvRowStride + cx, (byte) chromaU(cx, cy));
+                v.put(cy * uvRowStride + cx, (byte) chromaV(cx, cy));
+            }
+        }
+        int[] out = new int[WIDTH * HEIGHT];
+
+        YuvConverter.toArgb(lumaPlane(8), 8, 1, u, v, uvRowStride, 1, WIDTH, HEIGHT, 1, out);
+
+        assertArrayEquals(expected(1), out);
+    }
+
+    @Test
+    public void toArgb_semiPlanarNv21() {
+        // NV21: one interleaved VU plane, U and V are views one byte apart with pixel stride 2
+        int uvRowStride = 8;
+        ByteBuffer vu = ByteBuffer.allocateDirect(uvRowStride * HEIGHT / 2 + 1);
+        for (int cy = 0; cy < HEIGHT / 2; cy++) {
+            for (int cx = 0; cx < WIDTH / 2; cx++) {
+                vu.put(cy * uvRowStride + 2 * cx, (byte) chromaV(cx, cy));
+                vu.put(cy * uvRowStride + 2 * cx + 1, (byte) chromaU(cx, cy));
+            }
+        }
+        ByteBuffer v = vu.duplicate();
+        vu.position(1);
+        ByteBuffer u = vu.slice();
+        int[] out = new int[WIDTH * HEIGHT];
+
+        YuvConverter.toArgb(lumaPlane(WIDTH), WIDTH, 1, u, v, uvRowStride, 2, WIDTH, HEIGHT, 1, out);
+
+        assertArrayEquals(expected(1), out);
+    }
+
+    @Test
+    public void toArgb_semiPlanarNv12Downsampled() {
+        int uvRowStride = 8;
+        ByteBuffer uv = ByteBuffer.allocateDirect(uvRowStride * HEIGHT / 2 + 1);
+        for (int cy = 0; cy < HEIGHT / 2; cy++) {
+            for (int cx = 0; cx < WIDTH / 2; cx++) {
+                uv.put(cy * uvRowStride + 2 * cx, (byte) chromaU(cx, cy));
+                uv.put(cy * uvRowStride + 2 * cx + 1, (byte) chromaV(cx, cy));
+            }
+        }
+        ByteBuffer u = uv.duplicate();
+        uv.position(1);
+        ByteBuffer v = uv.slice();
+        int[] out = new int[3 * 2];
+
+        YuvConverter.toArgb(lumaPlane(8), 8, 1, u, v, uvRowStride, 2, WIDTH, HEIGHT, 2, out);
+
+        assertArrayEquals(expected(2), out);
+    }
+
+    @Test
+    public void toRgba_writesAtPosition() {
+        ByteBuffer y = ByteBuffer.allocateDirect(1);
+        y.put(0, (byte) 255);
+        ByteBuffer chroma = ByteBuffer.allocateDirect(1);
+        chroma.put(0, (byte) 128);
+        ByteBuffer out = ByteBuffer.allocateDirect(8);
+        out.position(4);
+
+        YuvConverter.toRgba(y, 1, 1, chroma, chroma, 1, 1, 1, 1, 1, out);
+
+        assertEquals(8, out.position());
+        assertEquals(0, out.get(0));
+        for (int i = 4; i < 8; i++) {
+            assertEquals((byte) 0xff, out.get(i));
+        }
+    }
+
+    @Test
+    public void copyPlane_packedRowsDropPadding() {
+        // Source rows padded to 8 bytes, destination packed
+        ByteBuffer src = ByteBuffer.allocateDirect(8 * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                src.put(y * 8 + x, (byte) luma(x, y));
+            }
+        }
+        ByteBuffer dst = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        YuvConverter.copyPlane(src, 8, 1, dst, WIDTH, 1, WIDTH, HEIGHT);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(luma(x, y), dst.get(y * WIDTH + x) & 0xff);
+            }
+        }
+        assertEquals(0, src.position());
+        assertEquals(0, dst.position());
+    }
+
+    @Test
+    public void copyPlane_semiPlanarIntoSemiPlanarKeepsOtherChroma() {
+        int chromaWidth = WIDTH / 2;
+        int chromaHeight = HEIGHT / 2;
+        // NV21 source: V first, U one byte later
+        ByteBuffer srcVu = ByteBuffer.allocateDirect(WIDTH * chromaHeight);
+        for (int cy = 0; cy < chromaHeight; cy++) {
+            for (int cx = 0; cx < chromaWidth; cx++) {
+                srcVu.put(cy * WIDTH + cx * 2, (byte) chromaV(cx, cy));
+                srcVu.put(cy * WIDTH + cx * 2 + 1, (byte) chromaU(cx, cy));
+            }
+        }
+        // NV12 destination: U first, V one byte later
+        ByteBuffer dstUv = ByteBuffer.allocateDirect(WIDTH * chromaHeight);
+        ByteBuffer srcU = view(srcVu, 1);
+        ByteBuffer dstV = view(dstUv, 1);
+        YuvConverter.copyPlane(srcU, WIDTH, 2, dstUv, WIDTH, 2, chromaWidth, chromaHeight);
+        YuvConverter.copyPlane(srcVu, WIDTH, 2, dstV, WIDTH, 2, chromaWidth, chromaHeight);
+
+        for (int cy = 0; cy < chromaHeight; cy++) {
+            for (int cx = 0; cx < chromaWidth; cx++) {
+                assertEquals(chromaU(cx, cy), dstUv.get(cy * WIDTH + cx * 2) & 0xff);
+                assertEquals(chromaV(cx, cy), dstUv.get(cy * WIDTH + cx * 2 + 1) & 0xff);
+            }
+        }
+    }
+
+    private static ByteBuffer view(ByteBuffer buffer, int offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        return view.slice();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toArgb_rejectsSmallOutput() {
+        ByteBuffer plane = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        YuvConverter.toArgb(plane, WIDTH, 1, plane, plane, WIDTH, 1, WIDTH, HEIGHT, 1, new int[WIDTH]);
+    }
+}